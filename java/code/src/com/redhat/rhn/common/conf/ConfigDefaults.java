@@ -62,6 +62,26 @@ public class ConfigDefaults {
     public static final String ERRATA_CACHE_COMPUTE_THRESHOLD
     = "errata_cache_compute_threshold";
 
+    /**
+     * Number of errata cache tasks processed concurrently
+     */
+    public static final String ERRATA_CACHE_WORKERS = "taskomatic.errata_cache_workers";
+    public static final int DEFAULT_ERRATA_CACHE_WORKERS = 2;
+
+    /**
+     * Number of threads updating the errata cache of the servers of a single task,
+     * each with its own database session
+     */
+    public static final String ERRATA_CACHE_SERVER_THREADS = "taskomatic.errata_cache_server_threads";
+    public static final int DEFAULT_ERRATA_CACHE_SERVER_THREADS = 2;
+
+    /**
+     * Number of threads executing minion actions scheduled to run immediately, outside
+     * of Quartz
+     */
+    public static final String MINION_ACTION_DISPATCH_THREADS = "taskomatic.minion_action_dispatch_threads";
+    public static final int DEFAULT_MINION_ACTION_DISPATCH_THREADS = 10;
+
     public static final String DOWNLOAD_URL_LIFETIME = "java.download_url_lifetime";
 
     public static final String NON_EXPIRABLE_PACKAGE_URLS =
@@ -158,6 +178,7 @@ public class ConfigDefaults {
     public static final String DB_HOST = "db_host";
     public static final String DB_PORT = "db_port";
     private static final String DB_SSL_ENABLED = "db_ssl_enabled";
+    public static final String DB_ARRAY_IN_CLAUSE = "java.db_array_in_clause";
     private static final String DB_PROTO = "hibernate.connection.driver_proto";
     public static final String DB_CLASS = "hibernate.connection.driver_class";
 
@@ -190,6 +211,12 @@ public class ConfigDefaults {
      * Taskomatic defaults
      */
     private static final String TASKOMATIC_CHANNEL_REPODATA_WORKERS = "java.taskomatic_channel_repodata_workers";
+    public static final String TASKOMATIC_CHANNEL_REPODATA_INCREMENTAL =
+            "java.taskomatic_channel_repodata_incremental";
+    private static final String TASKOMATIC_CHANNEL_REPODATA_COMPRESSION_LEVEL =
+            "java.taskomatic_channel_repodata_compression_level";
+    private static final String TASKOMATIC_CHANNEL_REPODATA_BUFFER_SIZE =
+            "java.taskomatic_channel_repodata_buffer_size";
 
     /**
      * HTTP proxy defaults
@@ -205,6 +232,7 @@ public class ConfigDefaults {
     public static final String SCC_URL = "server.susemanager.scc_url";
 
     public static final String MESSAGE_QUEUE_THREAD_POOL_SIZE = "java.message_queue_thread_pool_size";
+    public static final String MESSAGE_QUEUE_CAPACITY = "java.message_queue_capacity";
 
     public static final String VIRTPOLLER_CACHE_EXPIRATION = "server.susemanager.virtpoller.expire_time";
     public static final String VIRTPOLLER_CACHE_FILE = "server.susemanager.virtpoller.cache_file";
@@ -224,6 +252,16 @@ public class ConfigDefaults {
 
     public static final String SALT_SSH_CONNECT_TIMEOUT = "java.salt_ssh_connect_timeout";
 
+    /**
+     * Maximum number of salt-ssh calls running at the same time
+     */
+    public static final String SALT_SSH_CONCURRENT_CALLS = "java.salt_ssh_concurrent_calls";
+
+    /**
+     * Maximum number of ssh-push minions targeted by one salt-ssh call executing an action
+     */
+    public static final String SALT_SSH_BATCH_SIZE = "java.salt_ssh_batch_size";
+
     /**
      * Duration in hours of the time window for Salt minions to stage
      * packages in advance of scheduled installations or upgrades
@@ -242,6 +280,29 @@ public class ConfigDefaults {
      */
     public static final String SALT_CHECK_DOWNLOAD_TOKENS = "java.salt_check_download_tokens";
 
+    /**
+     * Number of seconds a download token validated once is trusted without checking
+     * it again, 0 disables the cache.
+     */
+    public static final String SALT_DOWNLOAD_TOKEN_CACHE_TTL = "java.salt_download_token_cache_ttl";
+
+    /**
+     * Maximum number of validated download tokens kept in memory.
+     */
+    public static final String SALT_DOWNLOAD_TOKEN_CACHE_SIZE = "java.salt_download_token_cache_size";
+
+    /**
+     * Number of seconds between two checks for changes of a channel whose package paths
+     * are indexed in memory for downloads, 0 disables the index.
+     */
+    public static final String SALT_DOWNLOAD_PATH_INDEX_CHECK_INTERVAL =
+            "java.salt_download_path_index_check_interval";
+
+    /**
+     * Maximum number of package paths indexed in memory per channel for downloads.
+     */
+    public static final String SALT_DOWNLOAD_PATH_INDEX_SIZE = "java.salt_download_path_index_size";
+
     /**
      * If true, Kiwi OS Image building feature preview will be enabled
      */
@@ -273,7 +334,7 @@ public class ConfigDefaults {
     public static final String SIGN_METADATA = "sign_metadata";
 
     /**
-     * Number of threads dedicated to processing Salt events.
+     * Number of threads dedicated to processing Salt events, each one owning a partition of the minions.
      */
     public static final String SALT_EVENT_THREAD_POOL_SIZE = "java.salt_event_thread_pool_size";
 
@@ -675,6 +736,15 @@ public class ConfigDefaults {
         return DB_BACKEND_POSTGRESQL.equals(Config.get().getString(DB_BACKEND));
     }
 
+    /**
+     * Returns true if the "IN (%s)" lists of datasource queries are bound as
+     * a single array parameter instead of being expanded in the query text
+     * @return true if so
+     */
+    public boolean isArrayInClause() {
+        return isPostgresql() && Config.get().getBoolean(DB_ARRAY_IN_CLAUSE);
+    }
+
     private void setSslTrustStore() throws ConfigException {
         String trustStore = Config.get().getString(SSL_TRUSTSTORE);
         if (trustStore == null || !new File(trustStore).isFile()) {
@@ -751,6 +821,33 @@ public class ConfigDefaults {
         return Config.get().getInt(TASKOMATIC_CHANNEL_REPODATA_WORKERS, 1);
     }
 
+    /**
+     * Returns true if channel repodata should be regenerated incrementally from the
+     * per-channel manifest, when available
+     * @return true if incremental repodata generation is enabled
+     */
+    public boolean isTaskoChannelRepodataIncremental() {
+        return Config.get().getString(TASKOMATIC_CHANNEL_REPODATA_INCREMENTAL) == null ||
+                Config.get().getBoolean(TASKOMATIC_CHANNEL_REPODATA_INCREMENTAL);
+    }
+
+    /**
+     * Returns the gzip compression level of channel repodata files, 1 (fastest) to
+     * 9 (smallest) or -1 for the zlib default
+     * @return the compression level
+     */
+    public int getTaskoChannelRepodataCompressionLevel() {
+        return Config.get().getInt(TASKOMATIC_CHANNEL_REPODATA_COMPRESSION_LEVEL, -1);
+    }
+
+    /**
+     * Returns the size in bytes of the buffers used to write channel repodata files
+     * @return the buffer size
+     */
+    public int getTaskoChannelRepodataBufferSize() {
+        return Config.get().getInt(TASKOMATIC_CHANNEL_REPODATA_BUFFER_SIZE, 65536);
+    }
+
     /**
      * Gets the proxy host.
      * @return the proxy host
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.db;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A list bound as a single PostgreSQL array parameter in place of a literal
+ * "IN (%s)" list.
+ *
+ * The array is sent as an untyped array literal, so PostgreSQL infers its element
+ * type from the compared expression the same way it does for literal lists, and
+ * the statement text, and hence its plan, does not depend on the list length.
+ */
+public class InClauseArray {
+
+    private static final Pattern IN_CLAUSE =
+            Pattern.compile("(?i)\\b(NOT\\s+)?IN\\s*\\(\\s*%s\\s*\\)");
+
+    private final List<?> values;
+
+    /**
+     * Constructor
+     * @param valuesIn the values of the list
+     */
+    public InClauseArray(List<?> valuesIn) {
+        values = valuesIn;
+    }
+
+    /**
+     * Rewrites the "IN (%s)" and "NOT IN (%s)" lists of a statement as comparisons
+     * with an array bind parameter.
+     * @param sql the statement, with its named bind parameters
+     * @param paramName the name of the array bind parameter
+     * @return the rewritten statement, or null if it contains a %s placeholder
+     * which is not a whole IN list
+     */
+    public static String rewrite(String sql, String paramName) {
+        Matcher matcher = IN_CLAUSE.matcher(sql);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String replacement = (matcher.group(1) == null ? "= ANY(:" : "<> ALL(:") +
+                    paramName + ")";
+            matcher.appendReplacement(result, replacement);
+        }
+        matcher.appendTail(result);
+        String rewritten = result.toString();
+        return rewritten.contains("%s") ? null : rewritten;
+    }
+
+    /**
+     * @return the values of the list
+     */
+    public List<?> getValues() {
+        return values;
+    }
+
+    /**
+     * Returns the array literal, every element being quoted like literal strings
+     * are in a literal list.
+     * @return the literal
+     */
+    public String toLiteral() {
+        StringBuilder sb = new StringBuilder("{");
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            if (value == null) {
+                sb.append("NULL");
+                continue;
+            }
+            sb.append('"');
+            String str = String.valueOf(value);
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return toLiteral();
+    }
+}
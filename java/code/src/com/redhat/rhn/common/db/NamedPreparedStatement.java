@@ -19,6 +19,7 @@ import com.redhat.rhn.common.translation.SqlExceptionTranslator;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -187,7 +188,14 @@ public final class NamedPreparedStatement {
                 Integer pos = positions.next();
                 try {
                     Object value = map.get(name);
-                    ps.setObject(pos.intValue(), value);
+                    if (value instanceof InClauseArray) {
+                        // untyped, for the server to infer the array type
+                        ps.setObject(pos.intValue(),
+                                ((InClauseArray) value).toLiteral(), Types.OTHER);
+                    }
+                    else {
+                        ps.setObject(pos.intValue(), value);
+                    }
                 }
                 catch (SQLException e) {
                     throw SqlExceptionTranslator.sqlException(e);
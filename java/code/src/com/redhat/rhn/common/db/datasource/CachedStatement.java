@@ -16,12 +16,13 @@ package com.redhat.rhn.common.db.datasource;
 
 import com.redhat.rhn.common.ObjectCreateWrapperException;
 import com.redhat.rhn.common.RhnRuntimeException;
+import com.redhat.rhn.common.conf.ConfigDefaults;
+import com.redhat.rhn.common.db.InClauseArray;
 import com.redhat.rhn.common.db.NamedPreparedStatement;
 import com.redhat.rhn.common.hibernate.HibernateFactory;
 import com.redhat.rhn.common.hibernate.HibernateHelper;
 import com.redhat.rhn.common.hibernate.HibernateRuntimeException;
 import com.redhat.rhn.common.translation.SqlExceptionTranslator;
-import com.redhat.rhn.common.util.MethodUtil;
 import com.redhat.rhn.common.util.StringUtil;
 
 import org.apache.log4j.Logger;
@@ -68,6 +69,12 @@ public class CachedStatement implements Serializable {
      */
     public static final int BATCH_SIZE = 500;
 
+    /*
+     * Name of the bind parameter replacing the "IN (%s)" lists when they are
+     * bound as arrays.
+     */
+    private static final String IN_CLAUSE_PARAM = "in_clause_values";
+
     /*
      * This is the original config for this query as specified in the mode query
      * xml file. It is intended to be immutable.
@@ -94,6 +101,9 @@ public class CachedStatement implements Serializable {
     private CachedStatement parentStatement;
     private RestartData restartData = null;
 
+    // true if the "IN (%s)" lists are bound as a single array parameter
+    private boolean arrayInClause;
+
     // We could (and probably should) cache the ResultSet metadata here as
     // well. There is no reason that the first call to each statement
     // couldn't do the work to determine what is returned.
@@ -108,6 +118,15 @@ public class CachedStatement implements Serializable {
         this.qMap = new HashMap<String, List<Integer>>();
         this.params = new ArrayList<String>(parsedQuery.getParameterList());
         this.sqlStatement = parsedQuery.getSqlStatement();
+
+        if (ConfigDefaults.get().isArrayInClause()) {
+            String rewritten = InClauseArray.rewrite(sqlStatement, IN_CLAUSE_PARAM);
+            if (rewritten != null && !rewritten.equals(sqlStatement)) {
+                sqlStatement = rewritten;
+                params.add(IN_CLAUSE_PARAM);
+                arrayInClause = true;
+            }
+        }
     }
 
     /**
@@ -123,6 +142,9 @@ public class CachedStatement implements Serializable {
         parentStatement = orig;
         this.name = newName;
         this.params = paramsIn;
+        // copies are only made to expand lists in the query text
+        this.sqlStatement = parsedQuery.getSqlStatement();
+        this.arrayInClause = false;
     }
 
     /**
@@ -218,6 +240,23 @@ public class CachedStatement implements Serializable {
         sqlStatement = sqlStatement.replace(replaceToken, replacementString);
     }
 
+    /**
+     * Creates a statement embedding the original query of this one, for example to
+     * sort, filter or page its results in the database.
+     * @param before the text before the query
+     * @param after the text after the query
+     * @param extraParams the named parameters of the added text
+     * @return the new statement
+     */
+    CachedStatement wrap(String before, String after, List<String> extraParams) {
+        if (protoQuery.getSqlStatement().contains("%s")) {
+            throw new IllegalArgumentException("Query " + getName() +
+                    " has an IN list and cannot be wrapped");
+        }
+        return new CachedStatement(new WrappedQuery(protoQuery, before, after,
+                extraParams));
+    }
+
     int executeUpdate(Map<String, ?> parameters) {
         return executeUpdate(parameters, null);
     }
@@ -285,7 +324,16 @@ public class CachedStatement implements Serializable {
         storeForRestart(parameters, inClause, mode);
         this.sqlStatement = NamedPreparedStatement.replaceBindParams(sqlStatement, qMap);
 
-        if (sqlStatement.indexOf("%s") > 0) {
+        if (arrayInClause) {
+            if (inClause == null || inClause.isEmpty()) {
+                return new DataResult<Object>(mode);
+            }
+            Map<String, Object> arrayParameters =
+                    parameters != null ? new HashMap<>(parameters) : new HashMap<>();
+            arrayParameters.put(IN_CLAUSE_PARAM, new InClauseArray(inClause));
+            return executeChecking(sqlStatement, qMap, arrayParameters, mode, null);
+        }
+        else if (sqlStatement.indexOf("%s") > 0) {
             if (inClause == null || inClause.isEmpty()) {
                 return new DataResult<Object>(mode);
             }
@@ -355,6 +403,10 @@ public class CachedStatement implements Serializable {
 
     Collection<Object> executeElaborator(List<Object> resultList, Mode mode,
             Map<String, ?> parametersIn) {
+        if (arrayInClause) {
+            // a single statement serves any number of rows
+            return executeElaboratorBatch(resultList, mode, parametersIn);
+        }
         List<Object> elaborated = new LinkedList<Object>();
         for (int batch = 0; batch < resultList.size(); batch = batch + BATCH_SIZE) {
             int toIndex = batch + BATCH_SIZE;
@@ -384,7 +436,7 @@ public class CachedStatement implements Serializable {
         }
 
         // If we aren't actually operating on a list, just elaborate.
-        if (sqlStatement.indexOf("%s") == -1) {
+        if (!arrayInClause && sqlStatement.indexOf("%s") == -1) {
             return (DataResult<Object>) executeChecking(sqlStatement, qMap, parameters,
                     mode, resultList);
         }
@@ -393,6 +445,15 @@ public class CachedStatement implements Serializable {
             throw new MapColumnNotFoundException(
                     "Column, " + getColumn() + ", not found in driving query results");
         }
+        if (arrayInClause) {
+            List<Object> keys = new ArrayList<Object>(len);
+            for (Object row : resultList) {
+                keys.add(getKey(row, getColumn()));
+            }
+            parameters.put(IN_CLAUSE_PARAM, new InClauseArray(keys));
+            return (DataResult<Object>) executeChecking(sqlStatement, qMap, parameters,
+                    mode, resultList);
+        }
         StringBuilder bindParams = new StringBuilder();
         List<String> newParams = new ArrayList<String>(params);
         for (int i = 0; i < len; i++) {
@@ -594,6 +655,9 @@ public class CachedStatement implements Serializable {
         try {
             // Get the column names from the result set.
             List<String> columns = getColumnNames(rs.getMetaData());
+            boolean isMap = className == null || className.equals("java.util.Map");
+            Class<?> clazz = isMap ? null : Class.forName(className);
+            RowMapper mapper = isMap ? null : RowMapper.get(clazz, columns);
             if (currentResults != null && !columns.contains(getColumn().toLowerCase())) {
                 // This is ugly, but we check driving query results someplace
                 // else, so this is only executed if we are elaborating.
@@ -606,7 +670,7 @@ public class CachedStatement implements Serializable {
                 /*
                  * If no className was specified *or* if the caller wants a Map
                  */
-                if (className == null || className.equals("java.util.Map")) {
+                if (isMap) {
                     Map<String, Object> resultMap;
                     if (pointers == null) {
                         resultMap = new HashMap<String, Object>();
@@ -637,7 +701,6 @@ public class CachedStatement implements Serializable {
                  * Otherwise, try to set the results to the class given.
                  */
                 else {
-                    Class<?> clazz = Class.forName(className);
                     Object obj;
                     if (pointers == null) {
                         obj = clazz.newInstance();
@@ -652,7 +715,7 @@ public class CachedStatement implements Serializable {
                         obj = currentResults.get(pos.intValue());
                     }
                     // if pointers are null, we are doing an elaborator.
-                    addToObject(columns, rs, obj, (pointers != null));
+                    mapper.map(rs, obj, (pointers != null));
                     // bug 141664: Don't add to the DataResult if we are
                     // elaborating the data.
                     if (pointers == null) {
@@ -736,73 +799,6 @@ public class CachedStatement implements Serializable {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private void addToObject(List<String> columns, ResultSet rs, Object obj,
-            boolean elaborator)
-        throws SQLException {
-
-        List<String> columnSkip;
-        if (elaborator && obj instanceof RowCallback) {
-            RowCallback cb = (RowCallback) obj;
-            cb.callback(rs);
-            columnSkip = cb.getCallBackColumns();
-        }
-        else {
-            columnSkip = new ArrayList<String>();
-        }
-
-        Iterator<String> i = columns.iterator();
-        while (i.hasNext()) {
-            String columnName = i.next();
-            if (columnSkip.contains(columnName.toLowerCase())) {
-                continue;
-            }
-
-            String setName = StringUtil.beanify("set " + columnName.toLowerCase());
-            String getName = StringUtil.beanify("get " + columnName.toLowerCase());
-
-            boolean isList = false;
-            Method[] methods = obj.getClass().getMethods();
-            /*
-             * Now loop through the methods and find the set method for this
-             * column then decide if it takes a collection Note: This action
-             * might not complete correctly if there are two set methods with
-             * the same name
-             */
-            for (int j = 0; j < methods.length; j++) {
-                // getName() gets the name of the set method
-                // setName is the name of the set method
-                if (methods[j].getName().equals(setName)) {
-                    Class<?> paramType = methods[j].getParameterTypes()[0];
-                    if (Collection.class.isAssignableFrom(paramType)) {
-                        isList = true;
-                    }
-                    break;
-                }
-            }
-
-            if (isList) { // requires matching get method returning the same
-                          // list
-                Collection<Object> c = (Collection<Object>) MethodUtil.callMethod(obj,
-                        getName, new Object[0]);
-                if (c == null) {
-                    c = new ArrayList<Object>();
-                }
-                c.add(getObject(rs, columnName));
-                MethodUtil.callMethod(obj, setName, c);
-                continue;
-            }
-            /*
-             * Just call the set method. This will call the same set method
-             * multiple times. If the result set should be a list, but has a
-             * non-Collection set method, the attribute corresponding to this
-             * column will ultimately contain the last item found for this
-             * column.
-             */
-            MethodUtil.callMethod(obj, setName, getObject(rs, columnName));
-        } // while
-    }
-
     /**
      * Basically a wrapper to rs.getObject, except that it returns a timestamp
      * if the column returned is a date, a Long if the column returned is a
@@ -815,7 +811,7 @@ public class CachedStatement implements Serializable {
      * is a BigDecimal, or just rs.getObject otherwise.
      * @throws SQLException if rs.getObject/rs.getTimestamp raise an exception.
      */
-    private Object getObject(ResultSet rs, String columnName) throws SQLException {
+    static Object getObject(ResultSet rs, String columnName) throws SQLException {
         Object columnValue = rs.getObject(columnName);
         if (columnValue == null) {
             return null;
@@ -876,7 +872,7 @@ public class CachedStatement implements Serializable {
         if (obj instanceof Map) {
             return ((Map<String, Object>) obj).get(key);
         }
-        return MethodUtil.callMethod(obj, StringUtil.beanify("get " + key), new Object[0]);
+        return RowMapper.getProperty(obj, key);
     }
 
     @SuppressWarnings("unchecked")
@@ -893,9 +889,7 @@ public class CachedStatement implements Serializable {
                 pointers.put(((Map<String, Object>) row).get(key), new Integer(pos));
             }
             else {
-                Object keyData = MethodUtil.callMethod(row,
-                        StringUtil.beanify("get " + key), new Object[0]);
-                pointers.put(keyData, new Integer(pos));
+                pointers.put(RowMapper.getProperty(row, key), new Integer(pos));
             }
             pos++;
         }
@@ -913,6 +907,56 @@ public class CachedStatement implements Serializable {
         return session.doReturningWork(work);
     }
 
+    /**
+     * A query embedded in a larger statement.
+     */
+    private static class WrappedQuery implements ParsedQuery, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ParsedQuery query;
+        private final String sqlStatement;
+        private final List<String> parameterList;
+
+        WrappedQuery(ParsedQuery queryIn, String before, String after,
+                List<String> extraParams) {
+            query = queryIn;
+            sqlStatement = before + queryIn.getSqlStatement() + after;
+            parameterList = new ArrayList<String>(queryIn.getParameterList());
+            parameterList.addAll(extraParams);
+        }
+
+        @Override
+        public String getName() {
+            return query.getName();
+        }
+
+        @Override
+        public String getAlias() {
+            return query.getAlias();
+        }
+
+        @Override
+        public String getSqlStatement() {
+            return sqlStatement;
+        }
+
+        @Override
+        public String getElaboratorJoinColumn() {
+            return query.getElaboratorJoinColumn();
+        }
+
+        @Override
+        public List<String> getParameterList() {
+            return parameterList;
+        }
+
+        @Override
+        public boolean isMultiple() {
+            return query.isMultiple();
+        }
+    }
+
     private void storeForRestart(Map<String, ?> parameters, List<?> inClause, Mode mode) {
         restartData = new RestartData(parameters, inClause, mode);
     }
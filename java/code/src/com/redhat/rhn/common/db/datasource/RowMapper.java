@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.db.datasource;
+
+import com.redhat.rhn.common.MethodInvocationException;
+import com.redhat.rhn.common.util.MethodUtil;
+import com.redhat.rhn.common.util.StringUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets the columns of result set rows on objects of a result class.
+ *
+ * The setters and getters of each column are looked up once per result class and
+ * column layout and invoked through method handles, instead of being searched by
+ * reflection for every column of every row. Values a setter does not accept as is
+ * go through {@link MethodUtil#callMethod(Object, String, Object...)}, so type
+ * conversions behave exactly as before.
+ */
+public class RowMapper {
+
+    private static final MethodType SETTER_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GETTER_TYPE =
+            MethodType.methodType(Object.class, Object.class);
+
+    private static final Map<Key, RowMapper> MAPPERS = new ConcurrentHashMap<>();
+    private static final Map<Key, Optional<MethodHandle>> GETTERS =
+            new ConcurrentHashMap<>();
+
+    private final List<ColumnBinding> bindings;
+
+    private RowMapper(Class<?> clazz, List<String> columns) {
+        bindings = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            bindings.add(new ColumnBinding(clazz, column));
+        }
+    }
+
+    /**
+     * Returns the mapper of a result class and column layout, building it on first
+     * use.
+     * @param clazz the result class
+     * @param columns the lower case column names, in result set order
+     * @return the mapper
+     */
+    public static RowMapper get(Class<?> clazz, List<String> columns) {
+        return MAPPERS.computeIfAbsent(new Key(clazz, new ArrayList<>(columns)),
+                key -> new RowMapper(clazz, columns));
+    }
+
+    /**
+     * Sets the columns of the current row on an object. On elaborator rows, objects
+     * implementing {@link RowCallback} get the row first and the columns they handle
+     * are skipped.
+     * @param rs the result set, positioned on the row
+     * @param obj the object to fill
+     * @param elaborator true if the row comes from an elaborator query
+     * @throws SQLException if reading the row fails
+     */
+    public void map(ResultSet rs, Object obj, boolean elaborator) throws SQLException {
+        List<String> columnSkip = Collections.emptyList();
+        if (elaborator && obj instanceof RowCallback) {
+            RowCallback cb = (RowCallback) obj;
+            cb.callback(rs);
+            columnSkip = cb.getCallBackColumns();
+        }
+        for (ColumnBinding binding : bindings) {
+            if (!columnSkip.contains(binding.column)) {
+                binding.apply(rs, obj);
+            }
+        }
+    }
+
+    /**
+     * Calls the getter of a property, looking it up once per class.
+     * @param obj the object
+     * @param property the property name
+     * @return the property value
+     */
+    public static Object getProperty(Object obj, String property) {
+        String getName = StringUtil.beanify("get " + property);
+        MethodHandle getter = findGetter(obj.getClass(), getName);
+        if (getter == null) {
+            return MethodUtil.callMethod(obj, getName, new Object[0]);
+        }
+        try {
+            return getter.invokeExact(obj);
+        }
+        catch (Throwable t) {
+            throw wrap(getName, t);
+        }
+    }
+
+    private static MethodHandle findGetter(Class<?> clazz, String getName) {
+        return GETTERS.computeIfAbsent(new Key(clazz, getName), key -> {
+            // same pick as MethodUtil.callMethod: the first public method without
+            // parameters
+            for (Method method : clazz.getMethods()) {
+                if (method.getName().equals(getName) && method.getParameterCount() == 0) {
+                    return Optional.ofNullable(unreflect(method, GETTER_TYPE));
+                }
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType type) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(type);
+        }
+        catch (IllegalAccessException e) {
+            // not reachable through a public class, leave it to reflection
+            return null;
+        }
+    }
+
+    private static RuntimeException wrap(String methodName, Throwable t) {
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new MethodInvocationException("Something bad happened when " +
+                "calling " + methodName, t);
+    }
+
+    /**
+     * The setter, and for collection properties the getter, of one column.
+     */
+    private static class ColumnBinding {
+
+        private final String column;
+        private final String setName;
+        private final String getName;
+        private final boolean isList;
+        private final Class<?> paramType;
+        private final MethodHandle setter;
+        private final MethodHandle getter;
+
+        ColumnBinding(Class<?> clazz, String columnIn) {
+            column = columnIn;
+            setName = StringUtil.beanify("set " + column);
+            getName = StringUtil.beanify("get " + column);
+
+            boolean list = false;
+            boolean first = true;
+            Method setMethod = null;
+            for (Method method : clazz.getMethods()) {
+                if (!method.getName().equals(setName)) {
+                    continue;
+                }
+                // the first setter found decides if the column is collection valued
+                if (first && method.getParameterCount() > 0) {
+                    list = Collection.class.isAssignableFrom(method.getParameterTypes()[0]);
+                }
+                first = false;
+                if (method.getParameterCount() == 1) {
+                    setMethod = method;
+                    break;
+                }
+            }
+            isList = list;
+            paramType = setMethod == null ? null : setMethod.getParameterTypes()[0];
+            setter = setMethod == null ? null : unreflect(setMethod, SETTER_TYPE);
+            getter = isList ? findGetter(clazz, getName) : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void apply(ResultSet rs, Object obj) throws SQLException {
+            Object value = CachedStatement.getObject(rs, column);
+            if (isList) {
+                // requires matching get method returning the same list
+                Collection<Object> c;
+                if (getter == null) {
+                    c = (Collection<Object>) MethodUtil.callMethod(obj, getName,
+                            new Object[0]);
+                }
+                else {
+                    Object current;
+                    try {
+                        current = getter.invokeExact(obj);
+                    }
+                    catch (Throwable t) {
+                        throw wrap(getName, t);
+                    }
+                    c = (Collection<Object>) current;
+                }
+                if (c == null) {
+                    c = new ArrayList<Object>();
+                }
+                c.add(value);
+                value = c;
+            }
+            set(obj, value);
+        }
+
+        private void set(Object obj, Object value) {
+            if (setter == null || (value == null ? paramType.isPrimitive() :
+                    !paramType.isInstance(value))) {
+                // missing setter or conversion needed
+                MethodUtil.callMethod(obj, setName, value);
+                return;
+            }
+            try {
+                setter.invokeExact(obj, value);
+            }
+            catch (Throwable t) {
+                throw wrap(setName, t);
+            }
+        }
+    }
+
+    /**
+     * Cache key: a class and a column layout or method name.
+     */
+    private static class Key {
+
+        private final Class<?> clazz;
+        private final Object detail;
+
+        Key(Class<?> clazzIn, Object detailIn) {
+            clazz = clazzIn;
+            detail = detailIn;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return clazz == key.clazz && detail.equals(key.detail);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(clazz, detail);
+        }
+    }
+}
@@ -17,8 +17,12 @@ package com.redhat.rhn.common.db.datasource;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 /**
  * A cached set of query/elaborator strings and the parameterMap hash maps.
@@ -31,6 +35,8 @@ public class SelectMode extends BaseMode implements Serializable {
     private List<CachedStatement> elaborators = new ArrayList<CachedStatement>();
     private int maxRows;
 
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
     // increase this number on any data change
     private static final long serialVersionUID = 1L;
 
@@ -133,6 +139,146 @@ public class SelectMode extends BaseMode implements Serializable {
         }
     }
 
+    /**
+     * Executes one page of the query, sorted and filtered in the database. The
+     * rows of the page are not elaborated.
+     *
+     * Rows are ordered by the sort column, ignoring case if it holds text, then by
+     * the key column of the query (the column its elaborators join on) so that pages
+     * are stable: the query must therefore return the key column.
+     *
+     * @param parameters named parameters of the query
+     * @param sortColumn column to sort by, or null to sort by the key column only
+     * @param ascending true to sort in ascending order, null values first
+     * @param filterColumn column to filter on, or null not to filter
+     * @param filterValue text the filter column has to contain, ignoring case
+     * @param offset number of rows to skip
+     * @param limit maximum number of rows to return
+     * @return the page
+     */
+    public DataResult executePage(Map<String, ?> parameters, String sortColumn,
+            boolean ascending, String filterColumn, String filterValue, int offset,
+            int limit) {
+        List<String> extraParams = new ArrayList<String>();
+        StringBuilder after = new StringBuilder("\n) page_q");
+        appendFilter(after, extraParams, filterValue == null ? null : filterColumn);
+        after.append(" ORDER BY ");
+        if (sortColumn != null) {
+            String column = "page_q." + checkColumn(sortColumn);
+            String direction = ascending ? " ASC NULLS FIRST, " : " DESC NULLS LAST, ";
+            // text ignoring case first, like the collator sorting the lists in memory
+            after.append("CASE WHEN pg_typeof(").append(column)
+                .append(") IN ('text'::regtype, 'character varying'::regtype,")
+                .append(" 'character'::regtype) THEN LOWER(").append(column)
+                .append("::text) END").append(direction);
+            after.append(column).append(direction);
+        }
+        after.append("page_q.").append(checkColumn(getKeyColumn()));
+        after.append(" LIMIT :page_limit OFFSET :page_offset");
+        extraParams.add("page_limit");
+        extraParams.add("page_offset");
+
+        SelectMode page = new SelectMode();
+        page.setName(getName());
+        page.setClassString(clazz);
+        page.elaborators.addAll(elaborators);
+        page.setQuery(getQuery().wrap("SELECT * FROM (\n", after.toString(),
+                extraParams));
+
+        Map<String, Object> pageParameters = pageParameters(parameters, filterValue);
+        pageParameters.put("page_limit", limit);
+        pageParameters.put("page_offset", offset);
+        return page.execute(pageParameters);
+    }
+
+    /**
+     * Counts the rows of the query in the database.
+     * @param parameters named parameters of the query
+     * @param filterColumn column to filter on, or null not to filter
+     * @param filterValue text the filter column has to contain, ignoring case
+     * @return the number of rows
+     */
+    public int executeCount(Map<String, ?> parameters, String filterColumn,
+            String filterValue) {
+        List<String> extraParams = new ArrayList<String>();
+        StringBuilder after = new StringBuilder("\n) page_q");
+        appendFilter(after, extraParams, filterValue == null ? null : filterColumn);
+
+        SelectMode count = new SelectMode();
+        count.setName(getName());
+        count.setQuery(getQuery().wrap("SELECT COUNT(*) AS total FROM (\n",
+                after.toString(), extraParams));
+        DataResult<Map<String, Object>> dr =
+                count.execute(pageParameters(parameters, filterValue));
+        return ((Number) dr.get(0).get("total")).intValue();
+    }
+
+    /**
+     * Finds the distinct upper case initials of a column in the database, as shown
+     * by the alpha bar of a list.
+     * @param parameters named parameters of the query
+     * @param column column to get the initials of
+     * @param filterColumn column to filter on, or null not to filter
+     * @param filterValue text the filter column has to contain, ignoring case
+     * @return the initials
+     */
+    public Set<Character> executeInitials(Map<String, ?> parameters, String column,
+            String filterColumn, String filterValue) {
+        List<String> extraParams = new ArrayList<String>();
+        StringBuilder after = new StringBuilder("\n) page_q");
+        appendFilter(after, extraParams, filterValue == null ? null : filterColumn);
+        after.append(extraParams.isEmpty() ? " WHERE " : " AND ")
+            .append("TRIM(CAST(page_q.").append(checkColumn(column))
+            .append(" AS VARCHAR)) <> ''");
+
+        SelectMode initials = new SelectMode();
+        initials.setName(getName());
+        initials.setQuery(getQuery().wrap("SELECT DISTINCT UPPER(SUBSTR(CAST(page_q." +
+                column + " AS VARCHAR), 1, 1)) AS initial FROM (\n", after.toString(),
+                extraParams));
+        DataResult<Map<String, Object>> dr =
+                initials.execute(pageParameters(parameters, filterValue));
+        Set<Character> result = new HashSet<Character>();
+        for (Map<String, Object> row : dr) {
+            result.add(((String) row.get("initial")).charAt(0));
+        }
+        return result;
+    }
+
+    private String getKeyColumn() {
+        if (elaborators.isEmpty()) {
+            return getQuery().getColumn();
+        }
+        return elaborators.get(0).getColumn();
+    }
+
+    private static void appendFilter(StringBuilder after, List<String> extraParams,
+            String filterColumn) {
+        if (filterColumn != null) {
+            after.append(" WHERE STRPOS(LOWER(CAST(page_q.")
+                .append(checkColumn(filterColumn))
+                .append(" AS VARCHAR)), LOWER(:page_filter)) > 0");
+            extraParams.add("page_filter");
+        }
+    }
+
+    private static Map<String, Object> pageParameters(Map<String, ?> parameters,
+            String filterValue) {
+        Map<String, Object> result = parameters == null ? new HashMap<String, Object>() :
+            new HashMap<String, Object>(parameters);
+        if (filterValue != null) {
+            result.put("page_filter", filterValue);
+        }
+        return result;
+    }
+
+    private static String checkColumn(String column) {
+        if (!COLUMN_NAME.matcher(column).matches()) {
+            throw new IllegalArgumentException("Invalid column name: " + column);
+        }
+        return column;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
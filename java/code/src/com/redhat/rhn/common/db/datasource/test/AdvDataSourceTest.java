@@ -20,6 +20,7 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -34,6 +35,7 @@ import org.hibernate.Session;
 import com.redhat.rhn.common.ObjectCreateWrapperException;
 import com.redhat.rhn.common.conf.Config;
 import com.redhat.rhn.common.conf.ConfigDefaults;
+import com.redhat.rhn.common.db.datasource.CachedStatement;
 import com.redhat.rhn.common.db.datasource.CallableMode;
 import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.db.datasource.ModeFactory;
@@ -280,6 +282,44 @@ public class AdvDataSourceTest extends RhnBaseTestCase {
         assertNotEmpty(result);
     }
 
+    public void testInClauseLiteralList() {
+        boolean arrays = Config.get().getBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE);
+        Config.get().setBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE, "false");
+        try {
+            SelectMode m = ModeFactory.getMode("test_queries", "select_in");
+            assertTrue(m.getQuery().getQuery().contains("%s"));
+            DataResult result = m.execute(Arrays.asList(1, 2, 3));
+            assertNotEmpty(result);
+        }
+        finally {
+            Config.get().setBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE,
+                    Boolean.toString(arrays));
+        }
+    }
+
+    public void testInClauseArray() {
+        if (ConfigDefaults.get().isOracle()) {
+            return;
+        }
+        boolean arrays = Config.get().getBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE);
+        Config.get().setBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE, "true");
+        try {
+            SelectMode m = ModeFactory.getMode("test_queries", "select_in");
+            assertTrue(m.getQuery().getQuery().contains("= ANY("));
+            // larger than a literal list batch
+            List<Long> ids = new ArrayList<Long>();
+            for (long i = 0; i < CachedStatement.BATCH_SIZE * 3; i++) {
+                ids.add(i);
+            }
+            DataResult all = m.execute(ids);
+            assertNotEmpty(all);
+        }
+        finally {
+            Config.get().setBoolean(ConfigDefaults.DB_ARRAY_IN_CLAUSE,
+                    Boolean.toString(arrays));
+        }
+    }
+
     public void testStressedElaboration() throws Exception {
         int startId = 1000;
         int endId = startId + 1500;
@@ -317,6 +357,73 @@ public class AdvDataSourceTest extends RhnBaseTestCase {
         }
     }
 
+    public void testExecutePage() throws Exception {
+        for (int i = 2000; i < 2025; i++) {
+            insert((i % 2 == 0 ? "even" : "odd") + i, i);
+        }
+        SelectMode m = ModeFactory.getMode("test_queries", "find_all_in_table");
+
+        DataResult<AdvDataSourceDto> dr = m.executePage(Collections.EMPTY_MAP,
+                "foobar", false, "foobar", "ODD", 5, 5);
+        assertEquals(5, dr.size());
+        assertEquals("odd2013", dr.get(0).getFoobar());
+        assertEquals("odd2005", dr.get(4).getFoobar());
+        // the page is not elaborated
+        assertNull(dr.get(0).getTestColumn());
+        dr.elaborate();
+        assertNotNull(dr.get(0).getTestColumn());
+
+        dr = m.executePage(Collections.EMPTY_MAP, null, true, null, null, 20, 10);
+        assertEquals(5, dr.size());
+        assertEquals(Long.valueOf(2020), dr.get(0).getId());
+    }
+
+    public void testExecutePageIgnoresCase() throws Exception {
+        insert("beta", 2100);
+        insert("Alpha", 2101);
+        insert("alpha2", 2102);
+        insert("Gamma", 2103);
+        SelectMode m = ModeFactory.getMode("test_queries", "find_all_in_table");
+
+        DataResult<AdvDataSourceDto> dr = m.executePage(Collections.EMPTY_MAP,
+                "foobar", true, null, null, 0, 10);
+        assertEquals(4, dr.size());
+        assertEquals("Alpha", dr.get(0).getFoobar());
+        assertEquals("alpha2", dr.get(1).getFoobar());
+        assertEquals("beta", dr.get(2).getFoobar());
+        assertEquals("Gamma", dr.get(3).getFoobar());
+
+        // non text columns keep their natural order
+        dr = m.executePage(Collections.EMPTY_MAP, "id", false, null, null, 0, 10);
+        assertEquals(Long.valueOf(2103), dr.get(0).getId());
+    }
+
+    public void testExecuteCount() throws Exception {
+        for (int i = 2000; i < 2025; i++) {
+            insert((i % 2 == 0 ? "even" : "odd") + i, i);
+        }
+        SelectMode m = ModeFactory.getMode("test_queries", "find_all_in_table");
+        assertEquals(25, m.executeCount(Collections.EMPTY_MAP, null, null));
+        assertEquals(12, m.executeCount(Collections.EMPTY_MAP, "foobar", "Odd"));
+        assertEquals(0, m.executeCount(Collections.EMPTY_MAP, "foobar", "none"));
+
+        Set<Character> initials = m.executeInitials(Collections.EMPTY_MAP, "foobar",
+                "foobar", "even");
+        assertEquals(Collections.singleton('E'), initials);
+    }
+
+    public void testExecutePageInvalidColumn() {
+        SelectMode m = ModeFactory.getMode("test_queries", "find_all_in_table");
+        try {
+            m.executePage(Collections.EMPTY_MAP, "foobar; drop table x", true, null,
+                    null, 0, 10);
+            fail("invalid column accepted");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
     public void testSelectInWithParams() throws Exception {
         SelectMode m = ModeFactory.getMode("test_queries", "select_in_withparams");
         List inclause = new ArrayList();
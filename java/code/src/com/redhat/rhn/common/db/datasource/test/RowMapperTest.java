@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.db.datasource.test;
+
+import com.redhat.rhn.common.db.datasource.RowCallback;
+import com.redhat.rhn.common.db.datasource.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for RowMapper
+ */
+public class RowMapperTest extends TestCase {
+
+    private static ResultSet row(Map<String, Object> values) {
+        return (ResultSet) Proxy.newProxyInstance(RowMapperTest.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getObject")) {
+                        return values.get(args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public void testMapsColumns() throws SQLException {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 42L);
+        values.put("package_name", "kernel");
+        values.put("count", 3L);
+        List<String> columns = Arrays.asList("id", "package_name", "count");
+
+        Row obj = new Row();
+        RowMapper.get(Row.class, columns).map(row(values), obj, false);
+
+        assertEquals(Long.valueOf(42L), obj.getId());
+        assertEquals("kernel", obj.getPackageName());
+        // Long to Integer goes through the translator
+        assertEquals(Integer.valueOf(3), obj.getCount());
+        assertEquals(Long.valueOf(42L), RowMapper.getProperty(obj, "id"));
+    }
+
+    public void testCollectionColumn() throws SQLException {
+        List<String> columns = Arrays.asList("id", "tag");
+        RowMapper mapper = RowMapper.get(Row.class, columns);
+        Row obj = new Row();
+        for (String tag : Arrays.asList("a", "b", "c")) {
+            Map<String, Object> values = new HashMap<>();
+            values.put("id", 1L);
+            values.put("tag", tag);
+            mapper.map(row(values), obj, true);
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), obj.getTag());
+    }
+
+    public void testRowCallback() throws SQLException {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 7L);
+        values.put("package_name", "vim");
+        CallbackRow obj = new CallbackRow();
+        RowMapper mapper = RowMapper.get(CallbackRow.class,
+                Arrays.asList("id", "package_name"));
+
+        mapper.map(row(values), obj, true);
+        assertEquals(1, obj.getCalls());
+        assertEquals(Long.valueOf(7L), obj.getId());
+        assertNull(obj.getPackageName());
+
+        // not an elaborator row: no callback, every column is set
+        mapper.map(row(values), obj, false);
+        assertEquals(1, obj.getCalls());
+        assertEquals("vim", obj.getPackageName());
+    }
+
+    public void testMapperIsShared() {
+        List<String> columns = Arrays.asList("id", "package_name");
+        assertSame(RowMapper.get(Row.class, columns),
+                RowMapper.get(Row.class, new ArrayList<>(columns)));
+        assertNotSame(RowMapper.get(Row.class, columns),
+                RowMapper.get(Row.class, Collections.singletonList("id")));
+    }
+
+    /**
+     * Result class of the tests
+     */
+    public static class Row {
+        private Long id;
+        private String packageName;
+        private Integer count;
+        private List<String> tag;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long idIn) {
+            id = idIn;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public void setPackageName(String packageNameIn) {
+            packageName = packageNameIn;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer countIn) {
+            count = countIn;
+        }
+
+        public List<String> getTag() {
+            return tag;
+        }
+
+        public void setTag(List<String> tagIn) {
+            tag = tagIn;
+        }
+    }
+
+    /**
+     * Result class handling the package name column itself
+     */
+    public static class CallbackRow extends Row implements RowCallback {
+        private int calls;
+
+        public int getCalls() {
+            return calls;
+        }
+
+        @Override
+        public void callback(ResultSet rs) {
+            calls++;
+        }
+
+        @Override
+        public List<String> getCallBackColumns() {
+            return Collections.singletonList("package_name");
+        }
+    }
+}
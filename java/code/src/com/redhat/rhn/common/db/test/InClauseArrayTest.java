@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.db.test;
+
+import com.redhat.rhn.common.db.InClauseArray;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for InClauseArray
+ */
+public class InClauseArrayTest extends TestCase {
+
+    public void testRewrite() {
+        assertEquals("SELECT id FROM t WHERE id = ANY(:ids) AND name = :name",
+                InClauseArray.rewrite(
+                        "SELECT id FROM t WHERE id IN (%s) AND name = :name", "ids"));
+        assertEquals("SELECT id FROM t WHERE id = ANY(:ids) OR x <> ALL(:ids)",
+                InClauseArray.rewrite(
+                        "SELECT id FROM t WHERE id in( %s ) OR x NOT  IN(%s)", "ids"));
+        assertEquals("SELECT 1", InClauseArray.rewrite("SELECT 1", "ids"));
+        // a placeholder which is not a whole list cannot be bound
+        assertNull(InClauseArray.rewrite("SELECT id FROM t WHERE id IN (1, %s)", "ids"));
+    }
+
+    public void testLiteral() {
+        assertEquals("{}", new InClauseArray(Arrays.asList()).toLiteral());
+        assertEquals("{\"1\",\"2\",NULL}",
+                new InClauseArray(Arrays.asList(1L, 2, null)).toLiteral());
+        assertEquals("{\"a,b\",\"say \\\"hi\\\"\",\"c:\\\\d\"}",
+                new InClauseArray(Arrays.asList("a,b", "say \"hi\"", "c:\\d")).toLiteral());
+    }
+}
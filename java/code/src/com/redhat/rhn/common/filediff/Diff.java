@@ -88,7 +88,7 @@ public class Diff {
      * @see Hunk
      */
     public List<Hunk> diffFiles() {
-        Differ differ = new Differ(firstfile.length, secondfile.length);
+        Differ differ = new Differ();
         return differ.diff(firstfile, secondfile);
     }
 
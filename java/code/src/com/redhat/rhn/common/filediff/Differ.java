@@ -14,33 +14,44 @@
  */
 package com.redhat.rhn.common.filediff;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Java file diff using Eugene W. Myers's algorithm as described in
- * "An O(ND) Difference Algorithm and Its Variations".
+ * "An O(ND) Difference Algorithm and Its Variations", in its linear space
+ * variation: the files are split recursively at the middle snake of their
+ * shortest edit script.
+ *
+ * Lines are interned to integers first, so that each line is hashed once and
+ * the search only compares integers.
+ *
+ * The search of a middle snake gives up after a number of edits growing with
+ * the square root of the file sizes, and splits at the furthest reaching path
+ * instead. This bounds the time spent on pathological inputs (large files with
+ * few common lines) at the price of a possibly not minimal, but always correct,
+ * result.
  * @version $Rev$
  */
 public class Differ {
-    private final Trace head;
-    private Trace beforeCurrent;
-    private int bestSoFar;
-    private static final int NUMBEROFTRACESTOKEEP = 1000;
-    private final List<Integer> matches = new ArrayList<Integer>();
 
-    /**
-     * @param oldLength The length of the old file
-     * @param newLength The length of the new file
-     */
-    public Differ(int oldLength, int newLength) {
-        //we need a head element in order to do deletions.
-        head = new Trace(0, 0); //the head of the linked list.
-        head.setNext(new Trace(oldLength, newLength));
-        beforeCurrent = head;
-        bestSoFar = 0;
-    }
+    /** Minimum number of edits to explore before giving up on a minimal split */
+    private static final int MIN_COST_LIMIT = 256;
+
+    private int[] oldIds;
+    private int[] newIds;
+    private boolean[] deleted;
+    private boolean[] inserted;
+
+    // furthest reaching x on each diagonal, forward and backward
+    private int[] forward;
+    private int[] backward;
+    private int offset;
+    private int costLimit;
 
     /**
      * @param oldFile The old(first, from) file
@@ -48,87 +59,257 @@ public class Differ {
      * @return A list of Hunks representing the differences.
      */
     public List<Hunk> diff(String[] oldFile, String[] newFile) {
-        List<Hunk> retval = null;
-        while (retval == null) {
-            retval = step(oldFile, newFile);
+        intern(oldFile, newFile);
+        deleted = new boolean[oldFile.length];
+        inserted = new boolean[newFile.length];
+
+        int diagonals = oldFile.length + newFile.length + 3;
+        forward = new int[diagonals];
+        backward = new int[diagonals];
+        offset = newFile.length + 1;
+        costLimit = 1;
+        for (int d = diagonals; d != 0; d >>= 2) {
+            costLimit <<= 1;
+        }
+        costLimit = Math.max(MIN_COST_LIMIT, costLimit);
+
+        compare(0, oldFile.length, 0, newFile.length);
+        return createHunks(oldFile, newFile);
+    }
+
+    private void intern(String[] oldFile, String[] newFile) {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        oldIds = new int[oldFile.length];
+        for (int i = 0; i < oldFile.length; i++) {
+            oldIds[i] = ids.computeIfAbsent(oldFile[i], line -> ids.size());
+        }
+        newIds = new int[newFile.length];
+        for (int i = 0; i < newFile.length; i++) {
+            newIds[i] = ids.computeIfAbsent(newFile[i], line -> ids.size());
         }
-        return retval;
     }
 
     /**
-     * The crux of the optimization for this algorithm lies in the fact that we
-     * will step through all of the traces in parallel rather than recursively.
-     * This allows us to delete traces that are unlikely be the most optimal.
-     *
-     * We only consider the best {@value #NUMBEROFTRACESTOKEEP} traces at any
-     * given time. This is to prevent the memory required from growing
-     * exponentially in large files. The resulting trace is always guaranteed to
-     * be *correct*, but maybe not *optimal*.
-     *
-     * This will call the step function on Trace for every current trace we
-     * have. It will delete traces that are unlikely to be optimal.
-     *
-     * @param oldFile
-     *            The old(first, from) file
-     * @param newFile
-     *            The new(second, to) file
-     * @return A list of Hunks representing the differences. null if we need to
-     *         step again
+     * Marks the deleted and inserted lines between the given bounds. Ranges are
+     * processed from a stack rather than recursively, so that the depth does not
+     * depend on the input.
      */
-    private List<Hunk> step(String[] oldFile, String[] newFile) {
-        beforeCurrent = head;
-        boolean forked;
-        int minimumMatchValue = 0;
-
-        // get a list of all match values for all traces
-        while (beforeCurrent.next() != null) {
-            beforeCurrent = beforeCurrent.next();
-            matches.add(beforeCurrent.getMatches());
-        }
+    private void compare(int oldStart, int oldEnd, int newStart, int newEnd) {
+        Deque<int[]> ranges = new ArrayDeque<int[]>();
+        ranges.push(new int[] {oldStart, oldEnd, newStart, newEnd});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int xoff = range[0];
+            int xlim = range[1];
+            int yoff = range[2];
+            int ylim = range[3];
 
-        // if we have too many traces find the match number you need to beat to
-        // remain valid
-        if (matches.size() > NUMBEROFTRACESTOKEEP) {
-            Collections.sort(matches); // sort ascending
-            minimumMatchValue = matches.get(matches.size() -
-                    NUMBEROFTRACESTOKEEP);
+            // skip the common prefix and suffix
+            while (xoff < xlim && yoff < ylim && oldIds[xoff] == newIds[yoff]) {
+                xoff++;
+                yoff++;
+            }
+            while (xoff < xlim && yoff < ylim && oldIds[xlim - 1] == newIds[ylim - 1]) {
+                xlim--;
+                ylim--;
+            }
+
+            if (xoff == xlim) {
+                for (int y = yoff; y < ylim; y++) {
+                    inserted[y] = true;
+                }
+            }
+            else if (yoff == ylim) {
+                for (int x = xoff; x < xlim; x++) {
+                    deleted[x] = true;
+                }
+            }
+            else {
+                int[] split = split(xoff, xlim, yoff, ylim);
+                ranges.push(new int[] {split[0], xlim, split[1], ylim});
+                ranges.push(new int[] {xoff, split[0], yoff, split[1]});
+            }
         }
+    }
+
+    /**
+     * Finds the middle snake of the shortest edit script between the given bounds,
+     * searching forward from the start and backward from the end at the same time.
+     * Diagonal d holds the points where x - y = d.
+     * @return the point {x, y} to split the ranges at
+     */
+    private int[] split(int xoff, int xlim, int yoff, int ylim) {
+        int dmin = xoff - ylim;
+        int dmax = xlim - yoff;
+        int fmid = xoff - yoff;
+        int bmid = xlim - ylim;
+        int fmin = fmid;
+        int fmax = fmid;
+        int bmin = bmid;
+        int bmax = bmid;
+        boolean odd = ((fmid - bmid) & 1) != 0;
 
-        // reset things before the "real" iteration
-        matches.clear();
-        beforeCurrent = head;
+        forward[offset + fmid] = xoff;
+        backward[offset + bmid] = xlim;
 
-        while (beforeCurrent.next() != null) {
-            // delete impossible and unlikely traces.
-            if (beforeCurrent.next().getMatches() < minimumMatchValue ||
-                    bestSoFar > beforeCurrent.next().bestPossible()) {
-                beforeCurrent.setNext(beforeCurrent.next().next());
+        for (int cost = 1;; cost++) {
+            // extend the forward paths by one edit
+            if (fmin > dmin) {
+                forward[offset + --fmin - 1] = -1;
             }
             else {
-                forked = beforeCurrent.next().step(oldFile, newFile);
-
-                //With the step algorithm, the first one to reach the end of
-                //both files is the winner!
-                if (beforeCurrent.next().isDone()) {
-                    return beforeCurrent.next().createHunks(oldFile, newFile);
+                fmin++;
+            }
+            if (fmax < dmax) {
+                forward[offset + ++fmax + 1] = -1;
+            }
+            else {
+                fmax--;
+            }
+            for (int d = fmax; d >= fmin; d -= 2) {
+                int tlo = forward[offset + d - 1];
+                int thi = forward[offset + d + 1];
+                int x = tlo >= thi ? tlo + 1 : thi;
+                int y = x - d;
+                while (x < xlim && y < ylim && oldIds[x] == newIds[y]) {
+                    x++;
+                    y++;
                 }
+                forward[offset + d] = x;
+                if (odd && bmin <= d && d <= bmax && backward[offset + d] <= x) {
+                    return new int[] {x, y};
+                }
+            }
 
-                //update bestSoFar
-                if (beforeCurrent.next().getMatches() > bestSoFar) {
-                    bestSoFar = beforeCurrent.next().getMatches();
+            // extend the backward paths by one edit
+            if (bmin > dmin) {
+                backward[offset + --bmin - 1] = Integer.MAX_VALUE;
+            }
+            else {
+                bmin++;
+            }
+            if (bmax < dmax) {
+                backward[offset + ++bmax + 1] = Integer.MAX_VALUE;
+            }
+            else {
+                bmax--;
+            }
+            for (int d = bmax; d >= bmin; d -= 2) {
+                int tlo = backward[offset + d - 1];
+                int thi = backward[offset + d + 1];
+                int x = tlo < thi ? tlo : thi - 1;
+                int y = x - d;
+                while (x > xoff && y > yoff && oldIds[x - 1] == newIds[y - 1]) {
+                    x--;
+                    y--;
+                }
+                backward[offset + d] = x;
+                if (!odd && fmin <= d && d <= fmax && x <= forward[offset + d]) {
+                    return new int[] {x, y};
                 }
+            }
+
+            if (cost >= costLimit) {
+                return furthestReaching(xoff, xlim, yoff, ylim, fmin, fmax, bmin, bmax);
+            }
+        }
+    }
+
+    /**
+     * Gives up on finding the middle snake and returns the end of the forward or
+     * backward path that got the furthest from its starting corner.
+     */
+    private int[] furthestReaching(int xoff, int xlim, int yoff, int ylim,
+            int fmin, int fmax, int bmin, int bmax) {
+        int fxybest = -1;
+        int fxbest = 0;
+        for (int d = fmax; d >= fmin; d -= 2) {
+            int x = Math.min(forward[offset + d], xlim);
+            int y = x - d;
+            if (ylim < y) {
+                x = ylim + d;
+                y = ylim;
+            }
+            if (fxybest < x + y) {
+                fxybest = x + y;
+                fxbest = x;
+            }
+        }
+
+        int bxybest = Integer.MAX_VALUE;
+        int bxbest = 0;
+        for (int d = bmax; d >= bmin; d -= 2) {
+            int x = Math.max(xoff, backward[offset + d]);
+            int y = x - d;
+            if (y < yoff) {
+                x = yoff + d;
+                y = yoff;
+            }
+            if (x + y < bxybest) {
+                bxybest = x + y;
+                bxbest = x;
+            }
+        }
+
+        if ((xlim + ylim) - bxybest < fxybest - (xoff + yoff)) {
+            return new int[] {fxbest, fxybest - fxbest};
+        }
+        return new int[] {bxbest, bxybest - bxbest};
+    }
 
-                //if it forked, there is a new element in the linked list
-                //that has already been dealt with, so skip it.
-                if (forked) {
-                    beforeCurrent = beforeCurrent.next().next();
+    /**
+     * Groups the unchanged lines into match hunks and the changed lines between
+     * them into delete, insert or change hunks.
+     */
+    private List<Hunk> createHunks(String[] oldFile, String[] newFile) {
+        List<Hunk> retval = new ArrayList<Hunk>();
+        int oldLine = 0;
+        int newLine = 0;
+        while (oldLine < oldFile.length || newLine < newFile.length) {
+            int oldStart = oldLine;
+            int newStart = newLine;
+            Hunk hunk;
+            if (oldLine < oldFile.length && newLine < newFile.length &&
+                    !deleted[oldLine] && !inserted[newLine]) {
+                while (oldLine < oldFile.length && newLine < newFile.length &&
+                        !deleted[oldLine] && !inserted[newLine]) {
+                    oldLine++;
+                    newLine++;
+                }
+                hunk = new MatchHunk();
+            }
+            else {
+                while (oldLine < oldFile.length && deleted[oldLine]) {
+                    oldLine++;
+                }
+                while (newLine < newFile.length && inserted[newLine]) {
+                    newLine++;
+                }
+                if (oldLine == oldStart) {
+                    hunk = new InsertHunk();
+                }
+                else if (newLine == newStart) {
+                    hunk = new DeleteHunk();
                 }
                 else {
-                    beforeCurrent = beforeCurrent.next();
+                    hunk = new ChangeHunk();
                 }
             }
+            hunk.setOldLines(createFileLines(oldFile, oldStart, oldLine - oldStart));
+            hunk.setNewLines(createFileLines(newFile, newStart, newLine - newStart));
+            retval.add(hunk);
         }
-        return null; //null means we need to step again.
+        return retval;
     }
 
+    private FileLines createFileLines(String[] file, int fromLine, int numLines) {
+        FileLines retval = new FileLines();
+        retval.setFromLine(fromLine + 1); //fromLine is an index, so it is one too small
+        retval.setToLine(fromLine + numLines + 1); //fromLine is still an index
+        for (int i = fromLine; i < fromLine + numLines; i++) {
+            retval.addLine(file[i]);
+        }
+
+        return retval;
+    }
 }
@@ -21,6 +21,8 @@ import com.redhat.rhn.common.filediff.InsertHunk;
 import com.redhat.rhn.common.filediff.MatchHunk;
 import com.redhat.rhn.testing.RhnBaseTestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -52,6 +54,62 @@ public class DiffTest extends RhnBaseTestCase {
         checkDiff(testOld, testNew, testType);
     }
 
+    public void testDiffLargeFile() {
+        String[] oldFile = new String[5000];
+        for (int i = 0; i < oldFile.length; i++) {
+            oldFile[i] = i % 10 == 0 ? "" : "option" + i + " = value" + i;
+        }
+        List<String> newFile = new ArrayList<String>(Arrays.asList(oldFile));
+        for (int i = 4950; i > 0; i -= 50) {
+            newFile.set(i + 1, "option" + (i + 1) + " = changed");
+            newFile.add(i + 5, "# added before option" + (i + 5));
+            newFile.remove(i + 3);
+        }
+
+        List<Hunk> hunks = checkReconstruct(oldFile, newFile.toArray(new String[0]));
+        int matched = 0;
+        for (Hunk hunk : hunks) {
+            if (hunk instanceof MatchHunk) {
+                matched += hunk.getOldLines().getLines().size();
+            }
+        }
+        // the shortest edit script keeps every untouched line
+        assertEquals(oldFile.length - 2 * 99, matched);
+    }
+
+    public void testDiffUnrelatedFiles() {
+        // the worst case for the search: large files with nearly no common lines
+        String[] oldFile = new String[20000];
+        String[] newFile = new String[20000];
+        for (int i = 0; i < oldFile.length; i++) {
+            oldFile[i] = "line" + i;
+            newFile[i] = i % 1000 == 0 ? "line" + (oldFile.length - i - 1) : "other" + i;
+        }
+        checkReconstruct(oldFile, newFile);
+    }
+
+    /**
+     * Checks that the hunks cover both files in order, and that match hunks
+     * only contain equal lines.
+     */
+    private List<Hunk> checkReconstruct(String[] oldFile, String[] newFile) {
+        List<Hunk> hunks = new Diff(oldFile, newFile).diffFiles();
+        List<String> oldLines = new ArrayList<String>();
+        List<String> newLines = new ArrayList<String>();
+        for (Hunk hunk : hunks) {
+            assertEquals(oldLines.size() + 1, hunk.getOldLines().getFromLine());
+            assertEquals(newLines.size() + 1, hunk.getNewLines().getFromLine());
+            if (hunk instanceof MatchHunk) {
+                assertEquals(hunk.getOldLines().getLines(), hunk.getNewLines().getLines());
+            }
+            oldLines.addAll(hunk.getOldLines().getLines());
+            newLines.addAll(hunk.getNewLines().getLines());
+        }
+        assertEquals(Arrays.asList(oldFile), oldLines);
+        assertEquals(Arrays.asList(newFile), newLines);
+        return hunks;
+    }
+
     private void checkDiff(String[] oldFile, String[] newFile, Class<?>[] types) {
         Diff diff = new Diff(oldFile, newFile);
         List<Hunk> hunks = diff.diffFiles();
@@ -31,6 +31,7 @@ class ActionExecutor implements Runnable {
 
     private EventMessage msg;
     private List<MessageAction> actionHandlers = new ArrayList<MessageAction>();
+    private boolean failed;
 
     /**
      * Constructor
@@ -64,13 +65,17 @@ class ActionExecutor implements Runnable {
                     LOG.debug("Transaction finished.  Executing");
                 }
                 if (action.needsTransactionHandling()) {
-                    TransactionHelper.handlingTransaction(() -> action.execute(msg), action.getExceptionHandler());
+                    TransactionHelper.handlingTransaction(() -> action.execute(msg), e -> {
+                        failed = true;
+                        action.getExceptionHandler().accept(e);
+                    });
                 }
                 else {
                     action.execute(msg);
                 }
             }
             catch (Throwable t) {
+                failed = true;
                 LOG.error(t);
                 t.printStackTrace();
             }
@@ -86,6 +91,35 @@ class ActionExecutor implements Runnable {
         return actionHandlers.stream().allMatch(MessageAction::canRunConcurrently);
     }
 
+    /**
+     * Return true if any of the actions failed during {@link #run()}.
+     *
+     * @return true if an action failed
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
+    /**
+     * Return the type of the message, as used in statistics.
+     *
+     * @return the message type
+     */
+    public String getMessageType() {
+        String name = msg.getClass().getSimpleName();
+        return name.isEmpty() ? msg.getClass().getName() : name;
+    }
+
+    /**
+     * Return the key of the message, messages with the same key are executed in
+     * publish order.
+     *
+     * @return the ordering key or null
+     */
+    public Object getOrderingKey() {
+        return msg.getOrderingKey();
+    }
+
     @Override
     public String toString() {
         return "ActionExecutor[message=" + msg.getClass().getSimpleName() + "]";
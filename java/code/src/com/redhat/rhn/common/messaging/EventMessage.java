@@ -34,6 +34,16 @@ public interface EventMessage {
      * @return the user that scheduled the Event
      */
     Long getUserId();
+
+    /**
+     * Get the key ordering this message among the ones whose actions can run
+     * concurrently: messages with the same key are executed in publish order,
+     * messages with different keys may be executed in parallel.
+     * @return the ordering key, e.g. a minion id, or null if ordering does not matter
+     */
+    default Object getOrderingKey() {
+        return null;
+    }
 }
 
 
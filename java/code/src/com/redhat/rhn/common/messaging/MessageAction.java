@@ -30,10 +30,11 @@ public interface MessageAction {
 
     /**
      * Return true in case this action can run concurrently with others. Depending on this
-     * flag the action will either be executed in the main message queue dispatcher thread
-     * and thus block other messages from being dispatched, or (in case of true) there will
-     * be a background thread executing this action while the main dispatcher thread can go
-     * on dispatching other messages.
+     * flag the action will either be executed in the serial lane of the message dispatcher,
+     * one at a time and in publish order with the other actions which cannot run
+     * concurrently, or (in case of true) in one of the concurrent lanes, see
+     * {@link EventMessage#getOrderingKey()}. The other lanes keep dispatching messages
+     * meanwhile in both cases.
      *
      * @return true if this action can run concurrently with others, else false
      */
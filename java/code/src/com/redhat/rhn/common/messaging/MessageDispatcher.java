@@ -21,100 +21,214 @@ import com.redhat.rhn.frontend.events.TraceBackEvent;
 import com.suse.manager.metrics.PrometheusExporter;
 import org.apache.log4j.Logger;
 
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Polls the EventQueue for events and executes them
+ * Dispatches the events published to the MessageQueue to single threaded lanes.
+ *
+ * Events whose actions cannot run concurrently all go, in publish order, to the
+ * serial lane. The other ones are sharded over a configurable number of
+ * concurrent lanes: events with the same {@link EventMessage#getOrderingKey()}
+ * always go to the same lane and are thus executed in publish order, events
+ * without a key go to the least loaded lane.
+ *
+ * Publishers never block: they may hold an open transaction that queued
+ * {@link EventDatabaseMessage}s wait for. A warning is logged instead when the
+ * number of events waiting or running exceeds the configured capacity.
  *
  * @version $Rev $
  */
-public class MessageDispatcher implements Runnable {
+public class MessageDispatcher {
 
     private static Logger log = Logger.getLogger(MessageDispatcher.class);
-    private boolean isStopped = false;
 
-    /* Thread pool for concurrent execution of message actions */
-    private ExecutorService threadPool = new MessageQueueThreadPool(
-            Config.get().getInt(ConfigDefaults.MESSAGE_QUEUE_THREAD_POOL_SIZE));
+    private static final int DEFAULT_LANES = 5;
+    private static final int DEFAULT_CAPACITY = 5000;
+    private static final long FULL_WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private final MessageQueueStats stats;
+    private final MessageQueueThreadPool serialLane;
+    private final MessageQueueThreadPool[] lanes;
+    private final int capacity;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final AtomicLong lastFullWarning = new AtomicLong(System.nanoTime() -
+            FULL_WARNING_INTERVAL);
+    private volatile boolean isStopped = false;
 
     /**
-     * Signals the dispatcher to stop
+     * Creates a dispatcher sized from the configuration.
+     * @param statsIn statistics to update
      */
-    public synchronized void stop() {
-        // Gracefully shut down the thread pool
-        threadPool.shutdown();
-        log.info("Awaiting termination of threads (for 1 minute)");
-        try {
-            final boolean done = threadPool.awaitTermination(1, TimeUnit.MINUTES);
-            log.info("Thread pool shut down: " + done);
-        }
-        catch (InterruptedException e) {
-            log.error("Interrupted while awaiting termination", e);
-        }
-
-        isStopped = true;
+    public MessageDispatcher(MessageQueueStats statsIn) {
+        this(Config.get().getInt(ConfigDefaults.MESSAGE_QUEUE_THREAD_POOL_SIZE, DEFAULT_LANES),
+                Config.get().getInt(ConfigDefaults.MESSAGE_QUEUE_CAPACITY, DEFAULT_CAPACITY),
+                statsIn);
     }
 
     /**
-     * Returns the current stop state
-     * @return true if stopped, else false
+     * Creates a dispatcher.
+     * @param laneCount number of lanes for actions which can run concurrently
+     * @param capacityIn number of events waiting or running above which a warning is logged
+     * @param statsIn statistics to update
      */
-    public synchronized boolean isStopped() {
-        return isStopped;
+    public MessageDispatcher(int laneCount, int capacityIn, MessageQueueStats statsIn) {
+        stats = statsIn;
+        capacity = Math.max(1, capacityIn);
+        serialLane = new MessageQueueThreadPool(1, "message-queue-serial-%d");
+        lanes = new MessageQueueThreadPool[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new MessageQueueThreadPool(1, "message-queue-thread-" + i + "-%d");
+        }
+
+        // register the executor services for exporting metrics, as one pool
+        List<ThreadPoolExecutor> pools = new ArrayList<>(Arrays.asList(lanes));
+        pools.add(serialLane);
+        PrometheusExporter.INSTANCE.registerThreadPools(pools, "message_queue");
+        log.info("Started message dispatcher (concurrent lanes: " + lanes.length +
+                ", capacity: " + capacityIn + ")");
     }
 
     /**
-     * Main run loop where events are popped off the queue
-     * and executed. Events are wrapped inside of a Runnable instance
+     * Queues an event for execution.
+     * @param executor the event and its actions
      */
-    public void run() {
-
-        // register the executor service for exporting metrics
-        PrometheusExporter.INSTANCE.registerThreadPool((ThreadPoolExecutor) this.threadPool, "message_queue");
-
-
-        while (!isStopped) {
-            try {
-                ActionExecutor actionHandler = MessageQueue.popEventMessage();
-                if (actionHandler == null) {
-                    continue;
-                }
-                else if (actionHandler.canRunConcurrently()) {
-                    log.info("Executing in thread pool: " + actionHandler);
-                    threadPool.execute(actionHandler);
-                }
-                else {
-                    actionHandler.run();
-                }
-            }
-            catch (InterruptedException e) {
-                log.error("Error occurred in the MessageQueue", e);
-                return;
+    void dispatch(ActionExecutor executor) {
+        int count = pending.incrementAndGet();
+        if (count > capacity) {
+            long now = System.nanoTime();
+            long last = lastFullWarning.get();
+            if (now - last >= FULL_WARNING_INTERVAL && lastFullWarning.compareAndSet(last, now)) {
+                log.warn("Message queue is over capacity: " + count + " events waiting or running");
             }
-            catch (Throwable t) {
-                // better log this puppy to let folks know we have a problem
-                // but keep the queue running.
-                log.error("Error occurred with an event in the MessageQueue", t);
-
-                try {
-                    // ok let's email the admins of what's going on.
-                    // WARNING! DO NOT PUBLISH THE EVENT TO THE QUEUE!
-                    TraceBackEvent evt = new TraceBackEvent();
-                    evt.setUser(null);
-                    evt.setRequest(null);
-                    evt.setException(t);
-
-                    TraceBackAction tba = new TraceBackAction();
-                    tba.execute(evt);
+        }
+
+        MessageQueueStats.EventStats eventStats = stats.get(executor.getMessageType());
+        eventStats.published();
+        long published = System.nanoTime();
+        ThreadPoolExecutor lane = selectLane(executor);
+        try {
+            lane.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long started = System.nanoTime();
+                    eventStats.started(started - published);
+                    boolean success = false;
+                    try {
+                        executor.run();
+                        success = !executor.hasFailed();
+                    }
+                    catch (Throwable t) {
+                        // keep the lane running, but let folks know we have a problem
+                        log.error("Error occurred with an event in the MessageQueue", t);
+                        sendTraceback(t);
+                    }
+                    finally {
+                        eventStats.finished(System.nanoTime() - started, success);
+                        pending.decrementAndGet();
+                    }
                 }
-                catch (Throwable t1) {
-                    log.error("Error sending traceback email, logging for posterity.", t1);
+
+                @Override
+                public String toString() {
+                    return executor.toString();
                 }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            eventStats.dropped();
+            pending.decrementAndGet();
+            log.error("Message dispatcher is stopped, dropping " + executor);
+        }
+    }
+
+    private void sendTraceback(Throwable t) {
+        try {
+            // ok let's email the admins of what's going on.
+            // WARNING! DO NOT PUBLISH THE EVENT TO THE QUEUE!
+            TraceBackEvent evt = new TraceBackEvent();
+            evt.setUser(null);
+            evt.setRequest(null);
+            evt.setException(t);
+
+            TraceBackAction tba = new TraceBackAction();
+            tba.execute(evt);
+        }
+        catch (Throwable t1) {
+            log.error("Error sending traceback email, logging for posterity.", t1);
+        }
+    }
+
+    private ThreadPoolExecutor selectLane(ActionExecutor executor) {
+        if (!executor.canRunConcurrently()) {
+            return serialLane;
+        }
+        Object key = executor.getOrderingKey();
+        if (key != null) {
+            return lanes[Math.floorMod(key.hashCode(), lanes.length)];
+        }
+        // start from a rotating lane so ties are spread evenly
+        int start = Math.floorMod(nextLane.getAndIncrement(), lanes.length);
+        MessageQueueThreadPool best = lanes[start];
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < lanes.length; i++) {
+            MessageQueueThreadPool lane = lanes[(start + i) % lanes.length];
+            int load = lane.getQueue().size() + lane.getActiveCount();
+            if (load < bestLoad) {
+                best = lane;
+                bestLoad = load;
             }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of events waiting or running
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
 
+    /**
+     * Signals the dispatcher to stop, letting queued events complete for up to a
+     * minute.
+     */
+    public synchronized void stop() {
+        isStopped = true;
+        // Gracefully shut down the lanes
+        serialLane.shutdown();
+        for (MessageQueueThreadPool lane : lanes) {
+            lane.shutdown();
+        }
+        log.info("Awaiting termination of threads (for 1 minute)");
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        try {
+            boolean done = serialLane.awaitTermination(
+                    deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            for (MessageQueueThreadPool lane : lanes) {
+                done &= lane.awaitTermination(deadline - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+            }
+            log.info("Thread pools shut down: " + done);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while awaiting termination", e);
         }
     }
 
+    /**
+     * Returns the current stop state
+     * @return true if stopped, else false
+     */
+    public boolean isStopped() {
+        return isStopped;
+    }
 }
@@ -52,20 +52,17 @@ import com.redhat.rhn.frontend.events.TraceBackEvent;
 import com.redhat.rhn.frontend.events.UpdateErrataCacheAction;
 import com.redhat.rhn.frontend.events.UpdateErrataCacheEvent;
 
+import com.suse.manager.metrics.PrometheusExporter;
 import com.suse.manager.reactor.messaging.ChannelsChangedEventMessage;
 import com.suse.manager.reactor.messaging.ChannelsChangedEventMessageAction;
 import org.apache.log4j.Logger;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
-import EDU.oswego.cs.dl.util.concurrent.Channel;
-import EDU.oswego.cs.dl.util.concurrent.LinkedQueue;
-
 /**
  * A class that passes messages from the sender to an action class
  */
@@ -76,12 +73,12 @@ public class MessageQueue {
      */
     private static Logger logger = Logger.getLogger(MessageQueue.class);
 
+    /* Handlers are looked up on every publish, so registration must not lock */
     private static final Map<Class, List<MessageAction>> ACTIONS =
-            new HashMap<Class, List<MessageAction>>();
-    private static Channel messages = new LinkedQueue();
-    private static Thread dispatcherThread = null;
-    private static MessageDispatcher dispatcher = null;
-    private static int messageCount;
+            new ConcurrentHashMap<Class, List<MessageAction>>();
+    private static volatile MessageDispatcher dispatcher = null;
+    private static final MessageQueueStats STATS = new MessageQueueStats();
+    private static boolean statsRegistered = false;
 
     /**
      * Util class so we don't have a usable constructor
@@ -102,22 +99,13 @@ public class MessageQueue {
             startMessaging();
         }
         if (msg != null) {
-            synchronized (ACTIONS) {
-                List<MessageAction> handlers = ACTIONS.get(msg.getClass());
-                if (handlers != null && handlers.size() > 0) {
-                    logger.debug("creating ActionExecutor");
-                    ActionExecutor executor = new ActionExecutor(handlers, msg);
-                    try {
-                        messages.put(executor);
-                        messageCount++;
-                    }
-                    catch (InterruptedException e) {
-                        logger.error(e.getMessage(), e);
-                    }
-                }
-                else {
-                    logger.debug("handlers is null, not processing!");
-                }
+            List<MessageAction> handlers = ACTIONS.get(msg.getClass());
+            if (handlers != null && handlers.size() > 0) {
+                logger.debug("creating ActionExecutor");
+                dispatcher.dispatch(new ActionExecutor(handlers, msg));
+            }
+            else {
+                logger.debug("handlers is null, not processing!");
             }
         }
 
@@ -132,17 +120,8 @@ public class MessageQueue {
      * @return actions
      */
     public static Stream<MessageAction> getActionsFor(EventMessage message) {
-        return ACTIONS.get(message.getClass()).stream();
-    }
-
-    static ActionExecutor popEventMessage() throws InterruptedException {
-        ActionExecutor retval = (ActionExecutor) messages.poll(500);
-        if (retval != null) {
-            synchronized (ACTIONS) {
-                messageCount--;
-            }
-        }
-        return retval;
+        List<MessageAction> handlers = ACTIONS.get(message.getClass());
+        return handlers == null ? Stream.empty() : handlers.stream();
     }
 
     /**
@@ -155,11 +134,11 @@ public class MessageQueue {
         if (isMessaging()) {
             return;
         }
-        dispatcher = new MessageDispatcher();
-        dispatcherThread = new Thread(dispatcher);
-        dispatcherThread.setName("RHN Message Dispatcher");
-        dispatcherThread.setDaemon(false);
-        dispatcherThread.start();
+        if (!statsRegistered) {
+            PrometheusExporter.INSTANCE.registerMessageQueue(STATS);
+            statsRegistered = true;
+        }
+        dispatcher = new MessageDispatcher(STATS);
         if (logger.isDebugEnabled()) {
             logger.debug("startMessaging() - end");
         }
@@ -179,11 +158,20 @@ public class MessageQueue {
     }
 
     /**
-     * Get the number of messages in the queue
+     * Get the number of messages in the queue, waiting or being executed
      * @return int number of messages in queue.
      */
     public static int getMessageCount() {
-        return messageCount;
+        MessageDispatcher current = dispatcher;
+        return current == null ? 0 : current.getPendingCount();
+    }
+
+    /**
+     * Get the per event type statistics of the queue
+     * @return the statistics
+     */
+    public static MessageQueueStats getStats() {
+        return STATS;
     }
 
     /**
@@ -196,14 +184,8 @@ public class MessageQueue {
             logger.debug("registerAction(MessageAction, Class) - : " + act +
                     " class: " + eventType.getName());
         }
-        synchronized (ACTIONS) {
-            List<MessageAction> handlers = ACTIONS.get(eventType);
-            if (handlers == null) {
-                handlers = new ArrayList<MessageAction>();
-                ACTIONS.put(eventType, handlers);
-            }
-            handlers.add(act);
-        }
+        ACTIONS.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<MessageAction>())
+                .add(act);
     }
 
     /**
@@ -215,8 +197,8 @@ public class MessageQueue {
         if (logger.isDebugEnabled()) {
             logger.debug("deRegisterAction(MessageAction, Class) - start");
         }
-        synchronized (ACTIONS) {
-            List<MessageAction> handlers = ACTIONS.get(eventType);
+        List<MessageAction> handlers = ACTIONS.get(eventType);
+        if (handlers != null) {
             handlers.remove(act);
         }
         if (logger.isDebugEnabled()) {
@@ -233,17 +215,11 @@ public class MessageQueue {
         if (logger.isDebugEnabled()) {
             logger.debug("getRegisteredEventNames() - start");
         }
-        String[] retval = null;
-        synchronized (ACTIONS) {
-            if (ACTIONS.keySet().size() > 0) {
-                retval = new String[ACTIONS.keySet().size()];
-                int index = 0;
-                for (Iterator<Class> iter = ACTIONS.keySet().iterator(); iter.hasNext();) {
-                    Class klazz = iter.next();
-                    retval[index] = klazz.getName();
-                    index++;
-                }
-            }
+        String[] retval = ACTIONS.keySet().stream()
+                .map(Class::getName)
+                .toArray(String[]::new);
+        if (retval.length == 0) {
+            retval = null;
         }
 
         if (logger.isDebugEnabled()) {
@@ -258,7 +234,8 @@ public class MessageQueue {
      * @return boolean true if MessageQueue is running.
      */
     public static boolean isMessaging() {
-        return (dispatcher != null && !dispatcher.isStopped());
+        MessageDispatcher current = dispatcher;
+        return (current != null && !current.isStopped());
     }
 
 
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.messaging;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per event type counters and latency histograms of the MessageQueue, labelled by
+ * event type.
+ */
+public class MessageQueueStats {
+
+    /** Upper bounds of the latency histogram buckets, in seconds */
+    public static final double[] BUCKETS = {0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30, 60, 300};
+
+    private static final String PREFIX = "message_queue_";
+    private static final String LABEL = "event";
+
+    private final Counter published = Counter.build()
+            .name(PREFIX + "events_published").help("Number of events ever published")
+            .labelNames(LABEL).create();
+    private final Counter completed = Counter.build()
+            .name(PREFIX + "events_completed").help("Number of events ever executed")
+            .labelNames(LABEL).create();
+    private final Counter failed = Counter.build()
+            .name(PREFIX + "events_failed").help("Number of executed events with a failing action")
+            .labelNames(LABEL).create();
+    private final Gauge queued = Gauge.build()
+            .name(PREFIX + "events_queued").help("Number of events waiting to be executed")
+            .labelNames(LABEL).create();
+    private final Gauge inFlight = Gauge.build()
+            .name(PREFIX + "events_in_flight").help("Number of events being executed")
+            .labelNames(LABEL).create();
+    private final Histogram waitTime = Histogram.build()
+            .name(PREFIX + "event_wait_seconds")
+            .help("Time between the publishing and the execution start of events")
+            .labelNames(LABEL).buckets(BUCKETS).create();
+    private final Histogram executionTime = Histogram.build()
+            .name(PREFIX + "event_execution_seconds").help("Execution time of events")
+            .labelNames(LABEL).buckets(BUCKETS).create();
+
+    private final Map<String, EventStats> events = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the statistics of an event type, creating them if needed.
+     * @param eventType the event type
+     * @return the statistics
+     */
+    public EventStats get(String eventType) {
+        return events.computeIfAbsent(eventType, EventStats::new);
+    }
+
+    /**
+     * @return the metrics of all event types, to be registered for monitoring
+     */
+    public List<Collector> getMetrics() {
+        return Arrays.asList(published, completed, failed, queued, inFlight, waitTime, executionTime);
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Metrics of an event type. Updates are lock free, reads are not atomic
+     * across the metrics.
+     */
+    public class EventStats {
+
+        private final String eventType;
+        private final Counter.Child publishedChild;
+        private final Counter.Child completedChild;
+        private final Counter.Child failedChild;
+        private final Gauge.Child queuedChild;
+        private final Gauge.Child inFlightChild;
+        private final Histogram.Child waitTimeChild;
+        private final Histogram.Child executionTimeChild;
+
+        private EventStats(String eventTypeIn) {
+            eventType = eventTypeIn;
+            publishedChild = published.labels(eventType);
+            completedChild = completed.labels(eventType);
+            failedChild = failed.labels(eventType);
+            queuedChild = queued.labels(eventType);
+            inFlightChild = inFlight.labels(eventType);
+            waitTimeChild = waitTime.labels(eventType);
+            executionTimeChild = executionTime.labels(eventType);
+        }
+
+        /**
+         * Records an event being queued.
+         */
+        public void published() {
+            publishedChild.inc();
+            queuedChild.inc();
+        }
+
+        /**
+         * Records an event leaving the queue without being executed.
+         */
+        public void dropped() {
+            queuedChild.dec();
+        }
+
+        /**
+         * Records the start of an event execution.
+         * @param waitNanos time spent in the queue
+         */
+        public void started(long waitNanos) {
+            queuedChild.dec();
+            inFlightChild.inc();
+            waitTimeChild.observe(toSeconds(waitNanos));
+        }
+
+        /**
+         * Records the end of an event execution.
+         * @param executionNanos time spent executing the actions
+         * @param success false if any of the actions failed
+         */
+        public void finished(long executionNanos, boolean success) {
+            inFlightChild.dec();
+            executionTimeChild.observe(toSeconds(executionNanos));
+            completedChild.inc();
+            if (!success) {
+                failedChild.inc();
+            }
+        }
+
+        /**
+         * @return the event type
+         */
+        public String getEventType() {
+            return eventType;
+        }
+
+        /**
+         * @return the number of events ever published
+         */
+        public long getPublished() {
+            return (long) publishedChild.get();
+        }
+
+        /**
+         * @return the number of events ever executed
+         */
+        public long getCompleted() {
+            return (long) completedChild.get();
+        }
+
+        /**
+         * @return the number of executed events with a failing action
+         */
+        public long getFailed() {
+            return (long) failedChild.get();
+        }
+
+        /**
+         * @return the number of events waiting to be executed
+         */
+        public int getQueued() {
+            return (int) queuedChild.get();
+        }
+
+        /**
+         * @return the number of events being executed
+         */
+        public int getInFlight() {
+            return (int) inFlightChild.get();
+        }
+
+        /**
+         * @return the histogram of the time between publishing and execution start
+         */
+        public Histogram.Child getWaitTime() {
+            return waitTimeChild;
+        }
+
+        /**
+         * @return the histogram of the execution time
+         */
+        public Histogram.Child getExecutionTime() {
+            return executionTimeChild;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.messaging.test;
+
+import com.redhat.rhn.common.messaging.MessageQueueStats;
+import com.redhat.rhn.common.messaging.MessageQueueStats.EventStats;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for MessageQueueStats
+ */
+public class MessageQueueStatsTest extends TestCase {
+
+    public void testEventLifecycle() {
+        MessageQueueStats stats = new MessageQueueStats();
+        EventStats event = stats.get("MinionStartEventMessage");
+        assertSame(event, stats.get("MinionStartEventMessage"));
+
+        event.published();
+        event.published();
+        event.published();
+        assertEquals(3, event.getQueued());
+
+        event.started(TimeUnit.MILLISECONDS.toNanos(2));
+        event.started(TimeUnit.SECONDS.toNanos(2));
+        event.dropped();
+        assertEquals(0, event.getQueued());
+        assertEquals(2, event.getInFlight());
+
+        event.finished(TimeUnit.MILLISECONDS.toNanos(20), true);
+        event.finished(TimeUnit.MILLISECONDS.toNanos(20), false);
+        assertEquals(0, event.getInFlight());
+        assertEquals(3, event.getPublished());
+        assertEquals(2, event.getCompleted());
+        assertEquals(1, event.getFailed());
+    }
+
+    public void testHistogram() {
+        EventStats event = new MessageQueueStats().get("test");
+        Histogram.Child histogram = event.getWaitTime();
+        // 2ms, 2s and 1h
+        event.started(TimeUnit.MILLISECONDS.toNanos(2));
+        event.started(TimeUnit.SECONDS.toNanos(2));
+        event.started(TimeUnit.HOURS.toNanos(1));
+
+        double[] counts = histogram.get().buckets;
+        assertEquals(MessageQueueStats.BUCKETS.length + 1, counts.length);
+        // 0.005s bucket
+        assertEquals(1.0, counts[0]);
+        // 5s bucket
+        assertEquals(2.0, counts[6]);
+        // +Inf bucket
+        assertEquals(3.0, counts[counts.length - 1]);
+        assertEquals(3602.002, histogram.get().sum, 0.0001);
+    }
+
+    public void testMetricsLabelledByEvent() {
+        MessageQueueStats stats = new MessageQueueStats();
+        stats.get("MinionStartEventMessage").published();
+        stats.get("ActionScheduledEventMessage").published();
+
+        MetricFamilySamples published = stats.getMetrics().get(0).collect().get(0);
+        assertEquals("message_queue_events_published", published.name);
+        assertEquals(2, published.samples.size());
+        for (MetricFamilySamples.Sample sample : published.samples) {
+            assertEquals("event", sample.labelNames.get(0));
+            assertEquals(1.0, sample.value);
+        }
+    }
+}
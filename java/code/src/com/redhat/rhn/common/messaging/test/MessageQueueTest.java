@@ -22,6 +22,8 @@ import com.redhat.rhn.common.messaging.MessageQueue;
 import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.testing.RhnBaseTestCase;
 
+import java.util.List;
+
 public class MessageQueueTest extends RhnBaseTestCase {
 
     private static Logger logger = Logger.getLogger(MessageQueueTest.class);
@@ -122,6 +124,34 @@ public class MessageQueueTest extends RhnBaseTestCase {
         logger.debug("testMultiThreadedPublishRegister - end");
     }
 
+    public void testOrderingPerKey() throws Exception {
+        TestKeyedAction action = TestKeyedAction.registerAction();
+        try {
+            int keys = 8;
+            int perKey = 50;
+            for (int i = 0; i < perKey; i++) {
+                for (int k = 0; k < keys; k++) {
+                    MessageQueue.publish(new TestKeyedEventMessage("minion" + k, i));
+                }
+            }
+            for (int tries = 0; MessageQueue.getMessageCount() > 0 && tries < 60; tries++) {
+                Thread.sleep(500);
+            }
+            assertEquals(0, MessageQueue.getMessageCount());
+
+            assertEquals(keys, action.getExecuted().size());
+            for (List<Integer> sequences : action.getExecuted().values()) {
+                assertEquals(perKey, sequences.size());
+                for (int i = 0; i < perKey; i++) {
+                    assertEquals(i, sequences.get(i).intValue());
+                }
+            }
+        }
+        finally {
+            TestKeyedAction.deRegisterAction();
+        }
+    }
+
     public void testStop() throws Exception {
         logger.debug("testStop - start");
         MessageQueue.stopMessaging();
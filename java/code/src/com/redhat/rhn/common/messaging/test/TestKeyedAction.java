@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.messaging.test;
+
+import com.redhat.rhn.common.messaging.EventMessage;
+import com.redhat.rhn.common.messaging.MessageAction;
+import com.redhat.rhn.common.messaging.MessageQueue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Concurrent action recording the order in which keyed messages are executed
+ */
+public class TestKeyedAction implements MessageAction {
+
+    private static final TestKeyedAction REGISTERED = new TestKeyedAction();
+
+    private final Map<Object, List<Integer>> executed = new ConcurrentHashMap<>();
+
+    public static TestKeyedAction registerAction() {
+        REGISTERED.executed.clear();
+        MessageQueue.registerAction(REGISTERED, TestKeyedEventMessage.class);
+        return REGISTERED;
+    }
+
+    public static void deRegisterAction() {
+        MessageQueue.deRegisterAction(REGISTERED, TestKeyedEventMessage.class);
+    }
+
+    /**
+     * @return the sequence numbers of the executed messages, by key
+     */
+    public Map<Object, List<Integer>> getExecuted() {
+        return executed;
+    }
+
+    @Override
+    public void execute(EventMessage msg) {
+        TestKeyedEventMessage keyed = (TestKeyedEventMessage) msg;
+        try {
+            // give messages of other keys the chance to overtake this one
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executed.computeIfAbsent(keyed.getOrderingKey(),
+                k -> Collections.synchronizedList(new ArrayList<>()))
+                .add(keyed.getSequence());
+    }
+
+    @Override
+    public boolean canRunConcurrently() {
+        return true;
+    }
+
+    @Override
+    public boolean needsTransactionHandling() {
+        return false;
+    }
+}
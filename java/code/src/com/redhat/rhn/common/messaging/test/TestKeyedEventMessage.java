@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.messaging.test;
+
+import com.redhat.rhn.common.messaging.EventMessage;
+
+/**
+ * Event message with an ordering key, recording its sequence number
+ */
+public class TestKeyedEventMessage implements EventMessage {
+
+    private final String key;
+    private final int sequence;
+
+    /**
+     * @param keyIn the ordering key
+     * @param sequenceIn the publish order among the messages with the same key
+     */
+    public TestKeyedEventMessage(String keyIn, int sequenceIn) {
+        key = keyIn;
+        sequence = sequenceIn;
+    }
+
+    /**
+     * @return the publish order among the messages with the same key
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public Object getOrderingKey() {
+        return key;
+    }
+
+    @Override
+    public String toText() {
+        return "TestKeyedEventMessage[" + key + ", " + sequence + "]";
+    }
+
+    @Override
+    public Long getUserId() {
+        return null;
+    }
+}
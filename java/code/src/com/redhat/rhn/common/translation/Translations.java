@@ -17,6 +17,12 @@ package com.redhat.rhn.common.translation;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * TranslationFactory, simple factory class that uses ManifestFactory to
@@ -27,6 +33,9 @@ import java.lang.reflect.Method;
 
 public class Translations {
 
+    // translator methods to try, by translations class, source class and target class
+    private static final Map<List<Class>, List<Method>> TRANSLATORS = new ConcurrentHashMap<>();
+
     protected Translations() {
     }
 
@@ -40,60 +49,71 @@ public class Translations {
             return have;
         }
 
-        Method[] methods = thisClass.getDeclaredMethods();
-
-        // tries to find an exact match
-        Object rc = findMatch(methods, have, want, false);
-
-        if (rc == null) {
-            // try to find the best match
-            rc = findMatch(methods, have, want, true);
+        List<Method> translators = TRANSLATORS.computeIfAbsent(
+                Arrays.asList(thisClass, have.getClass(), want),
+                k -> findTranslators(thisClass.getDeclaredMethods(), have.getClass(), want));
 
-            if (rc == null) {
-                throw new TranslationException("Could not find translator for " +
-                        have.getClass() + " to " + want);
+        // tries the exact match, then the best match
+        for (Method translator : translators) {
+            Object rc = invoke(translator, have, want);
+            if (rc != null) {
+                return rc;
             }
         }
+        throw new TranslationException("Could not find translator for " +
+                have.getClass() + " to " + want);
+    }
 
-        return rc;
+    private static List<Method> findTranslators(Method[] methods, Class have, Class want) {
+        List<Method> result = new ArrayList<>(2);
+        findMatch(methods, have, want, false).ifPresent(result::add);
+        // the best match may be the exact match again, no need to invoke it twice
+        findMatch(methods, have, want, true)
+                .filter(m -> !result.contains(m))
+                .ifPresent(result::add);
+        return result;
     }
 
-    private static Object findMatch(Method[] methods, Object have,
-                                    Class want, boolean bestMatch)
-            throws TranslationException {
+    private static Optional<Method> findMatch(Method[] methods, Class have,
+                                    Class want, boolean bestMatch) {
 
         for (int i = 0; i < methods.length; i++) {
             Class returnType = methods[i].getReturnType();
             Class[] params = methods[i].getParameterTypes();
 
             // All conversions have a single parameter, the object to transform
-            if (!bestMatch && have != null &&
-                (params.length != 1 || !params[0].equals(have.getClass()))) {
+            if (!bestMatch &&
+                (params.length != 1 || !params[0].equals(have))) {
                 continue;
             }
-            else if (bestMatch && have != null &&
-                    (params.length != 1 || !params[0].isAssignableFrom(have.getClass()))) {
+            else if (bestMatch &&
+                    (params.length != 1 || !params[0].isAssignableFrom(have))) {
                 continue;
             }
 
             if (returnType.equals(want)) {
-                Object[] objs = {have};
-                try {
-                    return methods[i].invoke(null, objs);
-                }
-                catch (IllegalAccessException e) {
-                    throw new TranslationException("Could not execute " +
-                                    "translator for " + have.getClass() +
-                                    " to " + want, e);
-                }
-                catch (InvocationTargetException e) {
-                    throw new TranslationException("Error when executing " +
-                                    "translator for " + have.getClass() +
-                                    " to " + want, e.getCause());
-                }
+                return Optional.of(methods[i]);
             }
         }
 
-        return null;
+        return Optional.empty();
+    }
+
+    private static Object invoke(Method translator, Object have, Class want)
+            throws TranslationException {
+        Object[] objs = {have};
+        try {
+            return translator.invoke(null, objs);
+        }
+        catch (IllegalAccessException e) {
+            throw new TranslationException("Could not execute " +
+                            "translator for " + have.getClass() +
+                            " to " + want, e);
+        }
+        catch (InvocationTargetException e) {
+            throw new TranslationException("Error when executing " +
+                            "translator for " + have.getClass() +
+                            " to " + want, e.getCause());
+        }
     }
 }
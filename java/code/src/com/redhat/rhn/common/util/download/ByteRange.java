@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.util.download;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A satisfiable byte range of a representation, as requested in an HTTP Range
+ * header (RFC 7233).
+ */
+public class ByteRange {
+
+    /** Maximum number of ranges served in one response, larger requests get it all */
+    public static final int MAX_RANGES = 64;
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    /**
+     * Constructor
+     * @param startIn first byte position
+     * @param endIn last byte position, inclusive
+     */
+    public ByteRange(long startIn, long endIn) {
+        if (startIn < 0 || endIn < startIn) {
+            throw new IllegalArgumentException("Invalid byte range " + startIn + "-" +
+                    endIn);
+        }
+        start = startIn;
+        end = endIn;
+    }
+
+    /**
+     * @return the first byte position
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the last byte position, inclusive
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the number of bytes in the range
+     */
+    public long getLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * Returns the value of the Content-Range header for this range.
+     * @param totalLength length of the whole representation
+     * @return the header value
+     */
+    public String toContentRange(long totalLength) {
+        return "bytes " + start + "-" + end + "/" + totalLength;
+    }
+
+    /**
+     * Parses a Range header value against a representation of the given length.
+     *
+     * Suffix ranges ("-500") and open ranges ("9500-") are supported, ranges
+     * exceeding the representation are clamped, unsatisfiable ones are dropped and
+     * overlapping or adjacent ones are coalesced.
+     *
+     * @param header the Range header value
+     * @param totalLength length of the representation
+     * @return the sorted satisfiable ranges, empty if none of the requested ranges is
+     * satisfiable, or null if the header is invalid or asks for too many ranges and
+     * must be ignored
+     */
+    public static List<ByteRange> parse(String header, long totalLength) {
+        if (header == null) {
+            return null;
+        }
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return null;
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+        int specs = 0;
+        for (String spec : value.substring(BYTES_UNIT.length()).split(",")) {
+            spec = spec.trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            if (++specs > MAX_RANGES) {
+                return null;
+            }
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long firstPos = parsePosition(first);
+            long lastPos = parsePosition(last);
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                if (lastPos < 0) {
+                    return null;
+                }
+                if (lastPos > 0 && totalLength > 0) {
+                    ranges.add(new ByteRange(Math.max(0, totalLength - lastPos),
+                            totalLength - 1));
+                }
+                continue;
+            }
+            if (firstPos < 0 || (!last.isEmpty() && (lastPos < 0 || lastPos < firstPos))) {
+                return null;
+            }
+            if (firstPos >= totalLength) {
+                continue;
+            }
+            long endPos = last.isEmpty() ? totalLength - 1 :
+                Math.min(lastPos, totalLength - 1);
+            ranges.add(new ByteRange(firstPos, endPos));
+        }
+        if (specs == 0) {
+            return null;
+        }
+        return coalesce(ranges);
+    }
+
+    private static long parsePosition(String value) {
+        if (value.isEmpty()) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        Collections.sort(ranges, Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> result = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (ByteRange next : ranges.subList(1, ranges.size())) {
+            if (next.getStart() <= current.getEnd() + 1) {
+                current = new ByteRange(current.getStart(),
+                        Math.max(current.getEnd(), next.getEnd()));
+            }
+            else {
+                result.add(current);
+                current = next;
+            }
+        }
+        result.add(current);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ByteRange)) {
+            return false;
+        }
+        ByteRange range = (ByteRange) other;
+        return start == range.start && end == range.end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.util.download;
+
+import org.apache.struts.actions.DownloadAction.StreamInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams one or more byte ranges of a file, as a single range or as a
+ * multipart/byteranges body, without ever holding the ranges in memory.
+ *
+ * The returned stream reads straight from a FileChannel into the caller's buffer
+ * and implements {@link InputStream#transferTo(OutputStream)} with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so memory use
+ * per request does not depend on the size of the ranges.
+ */
+public class FileRangeStreamInfo implements StreamInfo {
+
+    private static final String CRLF = "\r\n";
+
+    private final File file;
+    private final String contentType;
+    private final List<ByteRange> ranges;
+    private final String boundary;
+    private final List<Object> segments = new ArrayList<>();
+    private final long contentLength;
+
+    /**
+     * Constructor
+     * @param fileIn the file to serve
+     * @param contentTypeIn the content type of the file
+     * @param rangesIn the satisfiable ranges to serve, at least one
+     */
+    public FileRangeStreamInfo(File fileIn, String contentTypeIn, List<ByteRange> rangesIn) {
+        if (rangesIn.isEmpty()) {
+            throw new IllegalArgumentException("No range to serve");
+        }
+        file = fileIn;
+        contentType = contentTypeIn;
+        ranges = rangesIn;
+
+        long totalLength = file.length();
+        if (ranges.size() == 1) {
+            boundary = null;
+            segments.add(ranges.get(0));
+        }
+        else {
+            boundary = UUID.randomUUID().toString().replace("-", "");
+            for (int i = 0; i < ranges.size(); i++) {
+                ByteRange range = ranges.get(i);
+                segments.add(ascii((i == 0 ? "" : CRLF) + "--" + boundary + CRLF +
+                        "Content-Type: " + contentType + CRLF +
+                        "Content-Range: " + range.toContentRange(totalLength) + CRLF +
+                        CRLF));
+                segments.add(range);
+            }
+            segments.add(ascii(CRLF + "--" + boundary + "--" + CRLF));
+        }
+
+        long length = 0;
+        for (Object segment : segments) {
+            length += segment instanceof ByteRange ? ((ByteRange) segment).getLength() :
+                ((byte[]) segment).length;
+        }
+        contentLength = length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Computes a strong entity tag for a file from its size and modification time.
+     * @param fileIn the file
+     * @return the quoted entity tag
+     */
+    public static String getETag(File fileIn) {
+        return "\"" + Long.toHexString(fileIn.length()) + "-" +
+            Long.toHexString(fileIn.lastModified()) + "\"";
+    }
+
+    /**
+     * @return true if the body is a multipart/byteranges one
+     */
+    public boolean isMultipart() {
+        return boundary != null;
+    }
+
+    /**
+     * @return the ranges served
+     */
+    public List<ByteRange> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * @return the exact length of the body
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getContentType() {
+        if (isMultipart()) {
+            return "multipart/byteranges; boundary=" + boundary;
+        }
+        return contentType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return new RangeInputStream(FileChannel.open(file.toPath(),
+                StandardOpenOption.READ), segments);
+    }
+
+    /**
+     * Reads the segments of the body: part headers in memory and file ranges
+     * through the channel.
+     */
+    private static class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final List<Object> segments;
+        private int index;
+        // position in the current segment
+        private long offset;
+
+        RangeInputStream(FileChannel channelIn, List<Object> segmentsIn) {
+            channel = channelIn;
+            segments = segmentsIn;
+        }
+
+        private long remaining(Object segment) {
+            if (segment instanceof ByteRange) {
+                return ((ByteRange) segment).getLength() - offset;
+            }
+            return ((byte[]) segment).length - offset;
+        }
+
+        /**
+         * Moves to the first segment with data left.
+         * @return the segment, or null at the end of the body
+         */
+        private Object current() {
+            while (index < segments.size() && remaining(segments.get(index)) == 0) {
+                index++;
+                offset = 0;
+            }
+            return index < segments.size() ? segments.get(index) : null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            Object segment = current();
+            if (segment == null) {
+                return -1;
+            }
+            int count = (int) Math.min(len, remaining(segment));
+            if (segment instanceof ByteRange) {
+                count = channel.read(ByteBuffer.wrap(b, off, count),
+                        ((ByteRange) segment).getStart() + offset);
+                if (count < 0) {
+                    throw new IOException("File shrunk while serving a range");
+                }
+            }
+            else {
+                System.arraycopy(segment, (int) offset, b, off, count);
+            }
+            offset += count;
+            return count;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            WritableByteChannel target = Channels.newChannel(out);
+            long total = 0;
+            for (Object segment = current(); segment != null; segment = current()) {
+                long count = remaining(segment);
+                if (segment instanceof ByteRange) {
+                    long position = ((ByteRange) segment).getStart() + offset;
+                    long sent = channel.transferTo(position, count, target);
+                    if (sent <= 0 && position >= channel.size()) {
+                        throw new IOException("File shrunk while serving a range");
+                    }
+                    count = sent;
+                }
+                else {
+                    out.write((byte[]) segment, (int) offset, (int) count);
+                }
+                offset += count;
+                total += count;
+            }
+            return total;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.util.download.test;
+
+import com.redhat.rhn.common.util.download.ByteRange;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for ByteRange
+ */
+public class ByteRangeTest extends TestCase {
+
+    public void testSingleRanges() {
+        assertEquals(Arrays.asList(new ByteRange(440, 25183)),
+                ByteRange.parse("bytes=440-25183", 100000));
+        assertEquals(Arrays.asList(new ByteRange(9500, 9999)),
+                ByteRange.parse("bytes=9500-", 10000));
+        assertEquals(Arrays.asList(new ByteRange(9500, 9999)),
+                ByteRange.parse("bytes=-500", 10000));
+        // clamped to the file
+        assertEquals(Arrays.asList(new ByteRange(0, 99)),
+                ByteRange.parse("bytes=-500", 100));
+        assertEquals(Arrays.asList(new ByteRange(50, 99)),
+                ByteRange.parse("Bytes=50-5000", 100));
+    }
+
+    public void testMultipleRanges() {
+        assertEquals(Arrays.asList(new ByteRange(0, 99), new ByteRange(200, 299)),
+                ByteRange.parse("bytes=200-299, 0-99", 1000));
+        // overlapping and adjacent ranges are coalesced
+        assertEquals(Arrays.asList(new ByteRange(0, 999), new ByteRange(9500, 9999)),
+                ByteRange.parse("bytes=0-499,400-899,900-999,-500,9800-", 10000));
+    }
+
+    public void testUnsatisfiable() {
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=20000-", 10000));
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=-0", 10000));
+        assertEquals(Collections.emptyList(), ByteRange.parse("bytes=0-", 0));
+        assertEquals(Arrays.asList(new ByteRange(0, 9)),
+                ByteRange.parse("bytes=0-9,20000-", 10000));
+    }
+
+    public void testInvalid() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-1", 100));
+        assertNull(ByteRange.parse("bytes=", 100));
+        assertNull(ByteRange.parse("bytes=5-3", 100));
+        assertNull(ByteRange.parse("bytes=a-3", 100));
+        assertNull(ByteRange.parse("bytes=-", 100));
+        assertNull(ByteRange.parse("bytes=99999999999999999999-", 100));
+
+        StringBuilder tooMany = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRange.MAX_RANGES; i++) {
+            tooMany.append(",").append(i * 2).append("-").append(i * 2);
+        }
+        assertNull(ByteRange.parse(tooMany.toString(), 1000));
+    }
+
+    public void testContentRange() {
+        assertEquals("bytes 0-99/1000", new ByteRange(0, 99).toContentRange(1000));
+        assertEquals(100, new ByteRange(0, 99).getLength());
+    }
+}
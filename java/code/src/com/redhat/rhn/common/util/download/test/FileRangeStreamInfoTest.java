@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.common.util.download.test;
+
+import com.redhat.rhn.common.util.download.ByteRange;
+import com.redhat.rhn.common.util.download.FileRangeStreamInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for FileRangeStreamInfo
+ */
+public class FileRangeStreamInfoTest extends TestCase {
+
+    private File file;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("rangetest", ".bin");
+        Files.write(file.toPath(), "0123456789ABCDEFGHIJ".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        file.delete();
+        super.tearDown();
+    }
+
+    public void testSingleRange() throws Exception {
+        FileRangeStreamInfo info = new FileRangeStreamInfo(file, "application/octet-stream",
+                Arrays.asList(new ByteRange(5, 9)));
+        assertFalse(info.isMultipart());
+        assertEquals("application/octet-stream", info.getContentType());
+        assertEquals(5, info.getContentLength());
+        assertEquals("56789", transfer(info));
+        assertEquals("56789", read(info));
+    }
+
+    public void testMultipleRanges() throws Exception {
+        FileRangeStreamInfo info = new FileRangeStreamInfo(file, "application/octet-stream",
+                Arrays.asList(new ByteRange(2, 4), new ByteRange(10, 19)));
+        assertTrue(info.isMultipart());
+        String boundary = info.getContentType()
+                .substring("multipart/byteranges; boundary=".length());
+
+        String expected = "--" + boundary + "\r\n" +
+                "Content-Type: application/octet-stream\r\n" +
+                "Content-Range: bytes 2-4/20\r\n\r\n" +
+                "234\r\n" +
+                "--" + boundary + "\r\n" +
+                "Content-Type: application/octet-stream\r\n" +
+                "Content-Range: bytes 10-19/20\r\n\r\n" +
+                "ABCDEFGHIJ\r\n" +
+                "--" + boundary + "--\r\n";
+        assertEquals(expected.length(), info.getContentLength());
+        assertEquals(expected, transfer(info));
+        assertEquals(expected, read(info));
+    }
+
+    public void testETag() throws Exception {
+        String etag = FileRangeStreamInfo.getETag(file);
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, FileRangeStreamInfo.getETag(file));
+        file.setLastModified(file.lastModified() - 10000);
+        assertFalse(etag.equals(FileRangeStreamInfo.getETag(file)));
+    }
+
+    private String transfer(FileRangeStreamInfo info) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = info.getInputStream()) {
+            assertEquals(info.getContentLength(), in.transferTo(out));
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private String read(FileRangeStreamInfo info) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        try (InputStream in = info.getInputStream()) {
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                out.write(buffer, 0, n);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
@@ -71,9 +71,11 @@ import org.apache.log4j.Logger;
 import org.hibernate.HibernateException;
 import org.hibernate.Query;
 import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -83,6 +85,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toSet;
@@ -98,6 +101,8 @@ public class ActionFactory extends HibernateFactory {
     private static Logger log = Logger.getLogger(ActionFactory.class);
     private static Set actionArchTypes;
     private static final TaskomaticApi TASKOMATIC_API = new TaskomaticApi();
+    /* number of servers updated by a single statement */
+    private static final int IN_CLAUSE_BATCH_SIZE = 500;
 
     private ActionFactory() {
         super();
@@ -806,6 +811,74 @@ public class ActionFactory extends HibernateFactory {
         removeInvalidResults(action);
     }
 
+    /**
+     * Sets the status of the server actions of many servers at once, with one
+     * update statement per batch of servers. Pending changes are flushed first and
+     * the server actions already loaded in the session are refreshed afterwards.
+     * @param action the parent action of the server actions
+     * @param serverIds ids of the servers
+     * @param status the status to set
+     */
+    public static void updateServerActionsStatus(Action action, Collection<Long> serverIds,
+            ActionStatus status) {
+        updateServerActions(action, serverIds, ids -> HibernateFactory.getSession()
+                .getNamedQuery("ServerAction.updateStatus")
+                .setParameter("action", action)
+                .setParameter("status", status)
+                .setParameterList("serverIds", ids)
+                .executeUpdate());
+    }
+
+    /**
+     * Fails the server actions of many servers at once, with one update statement
+     * per batch of servers. Pending changes are flushed first and the server actions
+     * already loaded in the session are refreshed afterwards.
+     * @param action the parent action of the server actions
+     * @param serverIds ids of the servers
+     * @param resultMsg the result message to set
+     */
+    public static void failServerActions(Action action, Collection<Long> serverIds,
+            String resultMsg) {
+        Date now = new Date();
+        updateServerActions(action, serverIds, ids -> HibernateFactory.getSession()
+                .getNamedQuery("ServerAction.fail")
+                .setParameter("action", action)
+                .setParameter("failed", ActionFactory.STATUS_FAILED)
+                .setParameter("resultCode", -1L)
+                .setParameter("resultMsg", resultMsg)
+                .setParameter("completionTime", now)
+                .setParameterList("serverIds", ids)
+                .executeUpdate());
+    }
+
+    private static void updateServerActions(Action action, Collection<Long> serverIds,
+            Consumer<List<Long>> update) {
+        if (serverIds.isEmpty()) {
+            return;
+        }
+        Session session = HibernateFactory.getSession();
+        // bulk updates bypass the session: write its changes now, so that they are
+        // not flushed over the update later
+        session.flush();
+        List<Long> ids = new ArrayList<>(serverIds);
+        for (int i = 0; i < ids.size(); i += IN_CLAUSE_BATCH_SIZE) {
+            update.accept(ids.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, ids.size())));
+        }
+
+        // and reload the updated server actions the session already holds
+        Set<Long> updated = new HashSet<>(serverIds);
+        for (Object key : new ArrayList<Object>(session.getStatistics().getEntityKeys())) {
+            EntityKey entityKey = (EntityKey) key;
+            if (ServerAction.class.getName().equals(entityKey.getEntityName())) {
+                ServerAction id = (ServerAction) entityKey.getIdentifier();
+                if (updated.contains(id.getServerId()) &&
+                        action.getId().equals(id.getParentAction().getId())) {
+                    session.refresh(session.load(ServerAction.class, id));
+                }
+            }
+        }
+    }
+
     /**
      * Returns all pending actions that contain minions
      * @return list of pending minions that contain minions
@@ -57,6 +57,7 @@ import com.redhat.rhn.testing.RhnBaseTestCase;
 import com.redhat.rhn.testing.TestUtils;
 import com.redhat.rhn.testing.UserTestUtils;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 
@@ -329,6 +330,57 @@ public class ActionFactoryTest extends RhnBaseTestCase {
 
 
 
+    public void testUpdateServerActionsStatus() throws Exception {
+        User user1 = UserTestUtils.findNewUser("testUser",
+            "testOrg" + this.getClass().getSimpleName());
+        Action a1 = ActionFactoryTest.createAction(user1, ActionFactory.TYPE_REBOOT);
+        ServerAction sa = (ServerAction) a1.getServerActions().toArray()[0];
+
+        ActionFactory.updateServerActionsStatus(a1, Collections.singletonList(sa.getServerId()),
+                ActionFactory.STATUS_PICKED_UP);
+        sa = (ServerAction) ActionFactory.reload(sa);
+
+        assertEquals(ActionFactory.STATUS_PICKED_UP, sa.getStatus());
+    }
+
+    public void testUpdateServerActionsStatusRefreshesLoaded() throws Exception {
+        User user1 = UserTestUtils.findNewUser("testUser",
+            "testOrg" + this.getClass().getSimpleName());
+        Action a1 = ActionFactoryTest.createAction(user1, ActionFactory.TYPE_REBOOT);
+        ServerAction sa = (ServerAction) a1.getServerActions().toArray()[0];
+        // a change not flushed yet
+        sa.setRemainingTries(3L);
+
+        ActionFactory.updateServerActionsStatus(a1, Collections.singletonList(sa.getServerId()),
+                ActionFactory.STATUS_PICKED_UP);
+
+        // the loaded instance sees the update and keeps the earlier change
+        assertEquals(ActionFactory.STATUS_PICKED_UP, sa.getStatus());
+        assertEquals(Long.valueOf(3L), sa.getRemainingTries());
+
+        // and a later flush does not overwrite the update
+        sa.setResultMsg("picked up");
+        sa = (ServerAction) ActionFactory.reload(sa);
+        assertEquals(ActionFactory.STATUS_PICKED_UP, sa.getStatus());
+        assertEquals("picked up", sa.getResultMsg());
+    }
+
+    public void testFailServerActions() throws Exception {
+        User user1 = UserTestUtils.findNewUser("testUser",
+            "testOrg" + this.getClass().getSimpleName());
+        Action a1 = ActionFactoryTest.createAction(user1, ActionFactory.TYPE_REBOOT);
+        ServerAction sa = (ServerAction) a1.getServerActions().toArray()[0];
+
+        ActionFactory.failServerActions(a1, Collections.singletonList(sa.getServerId()),
+                "Failed to schedule action.");
+        sa = (ServerAction) ActionFactory.reload(sa);
+
+        assertEquals(ActionFactory.STATUS_FAILED, sa.getStatus());
+        assertEquals(Long.valueOf(-1L), sa.getResultCode());
+        assertEquals("Failed to schedule action.", sa.getResultMsg());
+        assertNotNull(sa.getCompletionTime());
+    }
+
     public void testCreateAction() throws Exception {
         Action a = createAction(UserTestUtils.createUser("testUser", UserTestUtils
                 .createOrg("testOrg" + this.getClass().getSimpleName())),
@@ -16,6 +16,7 @@ package com.redhat.rhn.domain.channel;
 
 import com.redhat.rhn.common.hibernate.HibernateFactory;
 import com.redhat.rhn.domain.server.MinionServer;
+import com.suse.manager.webui.utils.DownloadTokenCache;
 import com.suse.manager.webui.utils.TokenBuilder;
 import com.suse.utils.Opt;
 import org.apache.log4j.Logger;
@@ -29,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -84,11 +86,32 @@ public class AccessTokenFactory extends HibernateFactory {
     }
 
     /**
-     * Saves the AccessToken to the database.
+     * Queries the valid AccessTokens of many minions at once, together with their
+     * channels.
+     * @param minionIds ids of the minions
+     * @return map of minion id to the valid AccessTokens of the minion. Minions
+     * without any valid token are not in the map.
+     */
+    public static Map<Long, List<AccessToken>> listValidByMinionIds(
+            Collection<Long> minionIds) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("valid", true);
+        List<AccessToken> tokens = singleton.listObjectsByNamedQuery(
+                "AccessToken.listValidByMinionIds", params, minionIds, "ids");
+        return tokens.stream().distinct().collect(Collectors.groupingBy(
+                token -> token.getMinion().getId()));
+    }
+
+    /**
+     * Saves the AccessToken to the database. An invalid token is dropped from the
+     * cache of the download endpoint.
      * @param accessToken the AccessToken to save
      * @return the saved AccessToken
      */
     public static AccessToken save(AccessToken accessToken) {
+        if (!accessToken.getValid()) {
+            DownloadTokenCache.INSTANCE.invalidate(accessToken.getToken());
+        }
         singleton.saveObject(accessToken);
         return accessToken;
     }
@@ -225,6 +248,7 @@ public class AccessTokenFactory extends HibernateFactory {
      * @param token AccessToken to delete.
      */
     public static void delete(AccessToken token) {
+        DownloadTokenCache.INSTANCE.invalidate(token.getToken());
         HibernateFactory.getSession().delete(token);
     }
 
@@ -492,6 +492,19 @@ public class ChannelFactory extends HibernateFactory {
 
 
 
+    /**
+     * Returns the last modification time of a channel, which changes whenever its
+     * content changes.
+     * @param label Channel label sought.
+     * @return the last modification time, or null if there is no such channel
+     */
+    public static Date lookupLastModifiedByLabel(String label) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("label", label);
+        return (Date) singleton.lookupObjectByNamedQuery(
+                "Channel.findLastModifiedByLabel", params);
+    }
+
     /**
      * Returns true if the given channel is globally subscribable for the
      * given org.
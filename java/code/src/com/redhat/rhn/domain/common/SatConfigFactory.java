@@ -40,6 +40,7 @@ public class SatConfigFactory extends HibernateFactory {
     public static final String EXT_AUTH_DEFAULT_ORGID = "extauth_default_orgid";
     public static final String EXT_AUTH_USE_ORGUNIT = "extauth_use_orgunit";
     public static final String EXT_AUTH_KEEP_ROLES = "extauth_keep_temproles";
+    public static final String PRODUCT_TREE_STAMP = "product_tree_stamp";
 
     private SatConfigFactory() {
         super();
@@ -14,6 +14,7 @@
  */
 package com.redhat.rhn.domain.config;
 
+import com.redhat.rhn.common.db.datasource.CachedStatement;
 import com.redhat.rhn.common.db.datasource.CallableMode;
 import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.db.datasource.ModeFactory;
@@ -40,11 +41,15 @@ import javax.persistence.criteria.Root;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * ConfigurationFactory.  For use when dealing with ConfigChannel, ConfigChannelType,
@@ -449,6 +454,53 @@ public class ConfigurationFactory extends HibernateFactory {
         return (ConfigRevision)session.get(ConfigRevision.class, id);
     }
 
+    /**
+     * Finds ConfigRevisions from the database with the given ids, in batches.
+     * @param ids The identifiers of the ConfigRevisions
+     * @return The ConfigRevisions found, by id
+     */
+    public static Map<Long, ConfigRevision> lookupConfigRevisionsByIds(Collection<Long> ids) {
+        Map<Long, ConfigRevision> result = new HashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        List<ConfigRevision> revisions = HibernateFactory.getSession()
+                .byMultipleIds(ConfigRevision.class)
+                .withBatchSize(CachedStatement.BATCH_SIZE)
+                .multiLoad(new ArrayList<>(ids));
+        for (ConfigRevision revision : revisions) {
+            if (revision != null) {
+                result.put(revision.getId(), revision);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves, with a single query, the revisions of the config files deployed on the
+     * given systems that are compared by the automated config diff: for each file name
+     * the latest revision in the local override channel if any, otherwise the one in
+     * the highest ranked subscribed channel.
+     * @param serverIds ids of the systems
+     * @return the revision ids, by server id
+     */
+    public static Map<Long, SortedSet<Long>> listAutomatedConfigRevisionIds(List<Long> serverIds) {
+        Map<Long, SortedSet<Long>> result = new HashMap<>();
+        if (serverIds.isEmpty()) {
+            return result;
+        }
+        SelectMode m = ModeFactory.getMode("config_queries", "automated_config_revisions_for_systems");
+        DataResult<Map<String, Object>> rows = m.execute(new HashMap<String, Object>(), serverIds);
+        for (Map<String, Object> row : rows) {
+            Number revisionId = (Number) row.get("config_revision_id");
+            if (revisionId != null) {
+                Long serverId = ((Number) row.get("server_id")).longValue();
+                result.computeIfAbsent(serverId, k -> new TreeSet<>()).add(revisionId.longValue());
+            }
+        }
+        return result;
+    }
+
 
     /**
      * Finds a ConfigRevision for a given ConfigFile and given revision id
@@ -15,7 +15,11 @@
 package com.redhat.rhn.domain.config.test;
 
 import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.SortedSet;
 
 import org.hibernate.Session;
 
@@ -30,6 +34,8 @@ import com.redhat.rhn.domain.config.ConfigFileType;
 import com.redhat.rhn.domain.config.ConfigInfo;
 import com.redhat.rhn.domain.config.ConfigRevision;
 import com.redhat.rhn.domain.config.ConfigurationFactory;
+import com.redhat.rhn.domain.server.Server;
+import com.redhat.rhn.domain.server.ServerFactory;
 import com.redhat.rhn.testing.BaseTestCaseWithUser;
 import com.redhat.rhn.testing.ConfigTestUtils;
 import com.redhat.rhn.testing.TestUtils;
@@ -230,4 +236,31 @@ public class ConfigurationFactoryTest extends BaseTestCaseWithUser {
         assertEquals(user.getId(), cr2.getChangedById());
         assertEquals(user.getLogin(), cr2.getChangedBy().getLogin());
     }
+
+    public void testListAutomatedConfigRevisionIds() throws Exception {
+        ConfigChannel global = ConfigTestUtils.createConfigChannel(user.getOrg());
+        ConfigFile globalFile = ConfigTestUtils.createConfigFile(global);
+        ConfigRevision globalRevision = ConfigTestUtils.createConfigRevision(globalFile);
+        String path = globalFile.getConfigFileName().getPath();
+
+        Server plain = ConfigTestUtils.giveUserChanAccess(user, global);
+        Server overridden = ConfigTestUtils.giveUserChanAccess(user, global);
+        ConfigChannel local = ConfigTestUtils.createConfigChannel(user.getOrg(),
+                ConfigChannelType.local());
+        ConfigFile localFile = local.createConfigFile(ConfigFileState.normal(), path);
+        ConfigRevision localRevision = ConfigTestUtils.createConfigRevision(localFile);
+        overridden.setLocalOverride(local);
+        ServerFactory.save(overridden);
+        HibernateFactory.getSession().flush();
+
+        Map<Long, SortedSet<Long>> ids = ConfigurationFactory.listAutomatedConfigRevisionIds(
+                Arrays.asList(plain.getId(), overridden.getId()));
+        assertEquals(Collections.singleton(globalRevision.getId()), ids.get(plain.getId()));
+        assertEquals(Collections.singleton(localRevision.getId()), ids.get(overridden.getId()));
+
+        Map<Long, ConfigRevision> revisions = ConfigurationFactory.lookupConfigRevisionsByIds(
+                Arrays.asList(globalRevision.getId(), localRevision.getId()));
+        assertEquals(2, revisions.size());
+        assertEquals(localRevision, revisions.get(localRevision.getId()));
+    }
 }
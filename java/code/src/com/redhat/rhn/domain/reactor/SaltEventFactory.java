@@ -22,7 +22,6 @@ import com.redhat.rhn.common.hibernate.HibernateFactory;
 import org.apache.log4j.Logger;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.stream.Stream;
@@ -44,23 +43,23 @@ public class SaltEventFactory extends HibernateFactory {
     }
 
     /**
-     * Returns the approximate number of Salt events currently queued.
-     * @return the count
-     */
-    public static long countSaltEvents() {
-        return (Long) singleton.lookupObjectByNamedQuery("SaltEvent.countSaltEvents", Collections.EMPTY_MAP);
-    }
-
-    /**
-     * Returns Salt events, if any, up to limit.
+     * Returns Salt events of one partition, if any, up to limit. Events are
+     * partitioned by a hash of the minion id, so that all events of a minion are
+     * in the same partition, events without minion id being in partition 0.
      * @param limit the maximum count of events to return
+     * @param partition the partition, between 0 and partitions - 1
+     * @param partitions the number of partitions
      * @return events
      */
     @SuppressWarnings("unchecked")
-    public static Stream<SaltEvent> popSaltEvents(int limit) {
+    public static Stream<SaltEvent> popSaltEvents(int limit, int partition, int partitions) {
         List<Object[]> eventObjects = singleton.listObjectsByNamedQuery(
-                "SaltEvent.popSaltEvents",
-                new HashMap() { { put("limit", limit); } }
+                "SaltEvent.popSaltEventsInPartition",
+                new HashMap() { {
+                    put("limit", limit);
+                    put("partition", partition);
+                    put("partitions", partitions);
+                } }
         );
 
         return eventObjects.stream()
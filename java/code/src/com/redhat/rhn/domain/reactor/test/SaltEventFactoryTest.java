@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.domain.reactor.test;
+
+import static java.util.stream.Collectors.toList;
+
+import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.reactor.SaltEvent;
+import com.redhat.rhn.domain.reactor.SaltEventFactory;
+import com.redhat.rhn.testing.RhnBaseTestCase;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link SaltEventFactory}.
+ */
+public class SaltEventFactoryTest extends RhnBaseTestCase {
+
+    private static final int PARTITIONS = 3;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        HibernateFactory.getSession().createNativeQuery("DELETE FROM suseSaltEvent").executeUpdate();
+    }
+
+    private void insertEvent(String minionId) {
+        HibernateFactory.getSession()
+                .createNativeQuery("INSERT INTO suseSaltEvent (minion_id, data) VALUES (:minion, '{}')")
+                .setParameter("minion", minionId)
+                .executeUpdate();
+    }
+
+    public void testPopSaltEventsByPartition() {
+        for (int i = 0; i < 4; i++) {
+            for (int m = 0; m < 10; m++) {
+                insertEvent("minion" + m);
+            }
+            insertEvent(null);
+        }
+
+        Map<String, Integer> partitionOfMinion = new HashMap<>();
+        int total = 0;
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            List<SaltEvent> events = SaltEventFactory.popSaltEvents(100, partition, PARTITIONS)
+                    .collect(toList());
+            total += events.size();
+            for (SaltEvent event : events) {
+                String minion = event.getMinionId() == null ? "" : event.getMinionId();
+                Integer previous = partitionOfMinion.put(minion, partition);
+                assertTrue("events of " + minion + " found in two partitions",
+                        previous == null || previous == partition);
+            }
+            // nothing left in this partition
+            assertEquals(0, SaltEventFactory.popSaltEvents(100, partition, PARTITIONS).count());
+        }
+        assertEquals(44, total);
+        assertEquals(Integer.valueOf(0), partitionOfMinion.get(""));
+    }
+
+    public void testPopSaltEventsLimit() {
+        for (int i = 0; i < 5; i++) {
+            insertEvent("minion");
+        }
+        // all events of the minion are in the same partition
+        int partition = -1;
+        for (int p = 0; p < PARTITIONS && partition < 0; p++) {
+            long popped = SaltEventFactory.popSaltEvents(2, p, PARTITIONS).count();
+            if (popped > 0) {
+                assertEquals(2, popped);
+                partition = p;
+            }
+        }
+        assertTrue(partition >= 0);
+        assertEquals(2, SaltEventFactory.popSaltEvents(2, partition, PARTITIONS).count());
+        assertEquals(1, SaltEventFactory.popSaltEvents(2, partition, PARTITIONS).count());
+        assertEquals(0, SaltEventFactory.popSaltEvents(2, partition, PARTITIONS).count());
+    }
+}
@@ -19,11 +19,17 @@ import com.redhat.rhn.common.db.datasource.ModeFactory;
 import com.redhat.rhn.common.hibernate.HibernateFactory;
 
 import org.hibernate.Session;
+import org.hibernate.query.Query;
 
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * PackageEvrFactory
@@ -31,6 +37,11 @@ import java.util.Optional;
  */
 public class PackageEvrFactory {
 
+    private static final int MAX_CACHED_EVR_IDS = 200000;
+
+    // ids of the EVRs known to be committed, keyed by transient EVRs
+    private static final Map<PackageEvr, Long> PACKAGE_EVR_IDS = new ConcurrentHashMap<>();
+
     /**
      * Private Constructor
      */
@@ -87,6 +98,96 @@ public class PackageEvrFactory {
         return lookupPackageEvrById(id);
     }
 
+    /**
+     * Lookup the PackageEvr objects for a set of EVRs, INSERTing the missing ones
+     * with a few set based statements. Ids of existing EVRs are cached process wide,
+     * so that resolving EVRs seen before costs a single query.
+     * @param evrs transient EVRs, see {@link PackageEvr#PackageEvr(String, String, String)}
+     * @return the persistent PackageEvr objects keyed by the transient ones
+     */
+    public static Map<PackageEvr, PackageEvr> lookupOrCreatePackageEvrs(Collection<PackageEvr> evrs) {
+        Session session = HibernateFactory.getSession();
+        Map<PackageEvr, PackageEvr> result = new HashMap<>();
+        Map<Long, PackageEvr> cached = new HashMap<>();
+        List<PackageEvr> missing = new ArrayList<>();
+        for (PackageEvr evr : new HashSet<>(evrs)) {
+            Long id = PACKAGE_EVR_IDS.get(evr);
+            if (id != null) {
+                cached.put(id, evr);
+            }
+            else {
+                missing.add(evr);
+            }
+        }
+
+        if (!cached.isEmpty()) {
+            List<PackageEvr> loaded = session.byMultipleIds(PackageEvr.class)
+                    .withBatchSize(PackageFactory.BULK_SIZE)
+                    .multiLoad(new ArrayList<>(cached.keySet()));
+            for (PackageEvr evr : loaded) {
+                if (evr != null) {
+                    result.put(cached.remove(evr.getId()), evr);
+                }
+            }
+            // should a cached EVR have vanished, look it up again
+            for (PackageEvr evr : cached.values()) {
+                PACKAGE_EVR_IDS.remove(evr);
+                missing.add(evr);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            if (PACKAGE_EVR_IDS.size() > MAX_CACHED_EVR_IDS) {
+                PACKAGE_EVR_IDS.clear();
+            }
+            for (Map.Entry<PackageEvr, PackageEvr> entry : lookupPackageEvrs(missing).entrySet()) {
+                result.put(entry.getKey(), entry.getValue());
+                PACKAGE_EVR_IDS.put(entry.getKey(), entry.getValue().getId());
+            }
+            missing.removeAll(result.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            for (List<PackageEvr> block : PackageFactory.partition(missing)) {
+                bindEvrs(session.getNamedQuery("PackageEvr.createMissing"), block)
+                        .executeUpdate();
+            }
+            // not cached, as the new EVRs are only visible once committed
+            result.putAll(lookupPackageEvrs(missing));
+        }
+        return result;
+    }
+
+    private static Map<PackageEvr, PackageEvr> lookupPackageEvrs(List<PackageEvr> evrs) {
+        Map<PackageEvr, PackageEvr> result = new HashMap<>();
+        for (List<PackageEvr> block : PackageFactory.partition(evrs)) {
+            List<PackageEvr> found = bindEvrs(HibernateFactory.getSession()
+                    .getNamedQuery("PackageEvr.findByEvrs"), block).list();
+            for (PackageEvr evr : found) {
+                result.put(new PackageEvr(evr.getEpoch(), evr.getVersion(), evr.getRelease()), evr);
+            }
+        }
+        return result;
+    }
+
+    private static Query bindEvrs(Query query, List<PackageEvr> evrs) {
+        List<String> epochs = new ArrayList<>(evrs.size());
+        List<Boolean> noEpochs = new ArrayList<>(evrs.size());
+        List<String> versions = new ArrayList<>(evrs.size());
+        List<String> releases = new ArrayList<>(evrs.size());
+        for (PackageEvr evr : evrs) {
+            // nulls cannot be bound in parameter lists, empty epochs are kept as such
+            epochs.add(evr.getEpoch() == null ? "" : evr.getEpoch());
+            noEpochs.add(evr.getEpoch() == null);
+            versions.add(evr.getVersion());
+            releases.add(evr.getRelease());
+        }
+        return query.setParameterList("epochs", epochs)
+                .setParameterList("noepochs", noEpochs)
+                .setParameterList("versions", versions)
+                .setParameterList("releases", releases);
+    }
+
     /**
      * Lookup a PackageEvr by its id
      * @param id the id to search for
@@ -33,6 +33,8 @@ import org.apache.log4j.Logger;
 import org.hibernate.Session;
 
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,6 +42,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -57,6 +60,13 @@ public class PackageFactory extends HibernateFactory {
     public static final String ARCH_TYPE_RPM = "rpm";
     public static final String ARCH_TYPE_TAR = "tar";
 
+    // maximum number of elements per statement in bulk lookups
+    static final int BULK_SIZE = 1000;
+    private static final int MAX_CACHED_NAME_IDS = 200000;
+
+    // ids of the package names known to be committed, names are never deleted
+    private static final Map<String, Long> PACKAGE_NAME_IDS = new ConcurrentHashMap<>();
+
     private PackageFactory() {
         super();
     }
@@ -227,6 +237,92 @@ public class PackageFactory extends HibernateFactory {
         return (Long) result.get("nameId");
     }
 
+    /**
+     * Lookup the PackageName objects for a set of names, INSERTing the missing ones
+     * with a few set based statements. Ids of existing names are cached process wide,
+     * so that resolving names seen before costs a single query.
+     * @param names the package names
+     * @return the PackageName objects by name
+     */
+    public static Map<String, PackageName> lookupOrCreatePackageNames(Collection<String> names) {
+        Session session = HibernateFactory.getSession();
+        Map<String, PackageName> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        List<Long> cachedIds = new ArrayList<>();
+        for (String name : new HashSet<>(names)) {
+            Long id = PACKAGE_NAME_IDS.get(name);
+            if (id != null) {
+                cachedIds.add(id);
+            }
+            else {
+                missing.add(name);
+            }
+        }
+
+        if (!cachedIds.isEmpty()) {
+            for (PackageName pn : session.byMultipleIds(PackageName.class)
+                    .withBatchSize(BULK_SIZE).multiLoad(cachedIds)) {
+                if (pn != null) {
+                    result.put(pn.getName(), pn);
+                }
+            }
+            // should a cached name have vanished, look it up again
+            for (String name : names) {
+                if (!result.containsKey(name) && PACKAGE_NAME_IDS.remove(name) != null) {
+                    missing.add(name);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            if (PACKAGE_NAME_IDS.size() > MAX_CACHED_NAME_IDS) {
+                PACKAGE_NAME_IDS.clear();
+            }
+            for (PackageName pn : lookupPackageNames(missing)) {
+                result.put(pn.getName(), pn);
+                PACKAGE_NAME_IDS.put(pn.getName(), pn.getId());
+            }
+            missing.removeAll(result.keySet());
+        }
+
+        if (!missing.isEmpty()) {
+            for (List<String> block : partition(missing)) {
+                session.getNamedQuery("PackageName.createMissing")
+                        .setParameterList("names", block)
+                        .executeUpdate();
+            }
+            // not cached, as the new names are only visible once committed
+            for (PackageName pn : lookupPackageNames(missing)) {
+                result.put(pn.getName(), pn);
+            }
+        }
+        return result;
+    }
+
+    private static List<PackageName> lookupPackageNames(List<String> names) {
+        List<PackageName> result = new ArrayList<>(names.size());
+        for (List<String> block : partition(names)) {
+            result.addAll(HibernateFactory.getSession().getNamedQuery("PackageName.findByNames")
+                    .setParameterList("names", block)
+                    .list());
+        }
+        return result;
+    }
+
+    /**
+     * Splits a list in blocks small enough to be bound as statement parameters.
+     * @param list the list
+     * @param <T> the type of the elements
+     * @return the blocks, views of the list
+     */
+    static <T> List<List<T>> partition(List<T> list) {
+        List<List<T>> blocks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += BULK_SIZE) {
+            blocks.add(list.subList(i, Math.min(list.size(), i + BULK_SIZE)));
+        }
+        return blocks;
+    }
+
     /**
      * lookup a PackageName object based on it's id, returns null if it does
      * not exist
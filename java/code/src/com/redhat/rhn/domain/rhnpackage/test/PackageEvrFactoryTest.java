@@ -17,6 +17,10 @@ package com.redhat.rhn.domain.rhnpackage.test;
 import com.redhat.rhn.domain.rhnpackage.PackageEvr;
 import com.redhat.rhn.domain.rhnpackage.PackageEvrFactory;
 import com.redhat.rhn.testing.RhnBaseTestCase;
+import com.redhat.rhn.testing.TestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * PackageEvrTest
@@ -40,6 +44,46 @@ public class PackageEvrFactoryTest extends RhnBaseTestCase {
        assertEquals(evr.getEpoch(), evr2.getEpoch());
     }
 
+    public void testLookupOrCreatePackageEvrs() throws Exception {
+        String version = TestUtils.randomString();
+        PackageEvr existing = createTestPackageEvr("1", version, "1");
+        PackageEvr withEpoch = new PackageEvr("1", version, "1");
+        PackageEvr withoutEpoch = new PackageEvr(null, version, "1");
+        PackageEvr other = new PackageEvr(null, version, "2");
+
+        Map<PackageEvr, PackageEvr> evrs = PackageEvrFactory.lookupOrCreatePackageEvrs(
+                Arrays.asList(withEpoch, withoutEpoch, other, new PackageEvr(null, version, "2")));
+        assertEquals(3, evrs.size());
+        assertEquals(existing.getId(), evrs.get(withEpoch).getId());
+        assertNull(evrs.get(withoutEpoch).getEpoch());
+        assertFalse(existing.getId().equals(evrs.get(withoutEpoch).getId()));
+        assertEquals("2", evrs.get(other).getRelease());
+
+        // same results the second time, and the same as the single lookup
+        Map<PackageEvr, PackageEvr> again = PackageEvrFactory.lookupOrCreatePackageEvrs(
+                Arrays.asList(withEpoch, withoutEpoch, other));
+        assertEquals(evrs, again);
+        assertEquals(evrs.get(other).getId(),
+                PackageEvrFactory.lookupOrCreatePackageEvr(null, version, "2").getId());
+    }
+
+    public void testLookupOrCreatePackageEvrsEmptyEpoch() throws Exception {
+        String version = TestUtils.randomString();
+        PackageEvr emptyEpoch = new PackageEvr("", version, "1");
+        PackageEvr nullEpoch = new PackageEvr(null, version, "1");
+
+        // empty epochs are not turned into null ones, like with the single lookup
+        Map<PackageEvr, PackageEvr> evrs = PackageEvrFactory.lookupOrCreatePackageEvrs(
+                Arrays.asList(emptyEpoch, nullEpoch));
+        assertEquals(2, evrs.size());
+        assertEquals("", evrs.get(emptyEpoch).getEpoch());
+        assertNull(evrs.get(nullEpoch).getEpoch());
+        assertEquals(evrs.get(emptyEpoch).getId(),
+                PackageEvrFactory.lookupOrCreatePackageEvr("", version, "1").getId());
+        assertEquals(evrs.get(nullEpoch).getId(),
+                PackageEvrFactory.lookupOrCreatePackageEvr(null, version, "1").getId());
+    }
+
     /**
      * Test method to create a test PackageEvr
      * @param epoch the epoch
@@ -21,6 +21,7 @@ import com.redhat.rhn.domain.org.Org;
 import com.redhat.rhn.domain.rhnpackage.Package;
 import com.redhat.rhn.domain.rhnpackage.PackageCapability;
 import com.redhat.rhn.domain.rhnpackage.PackageFactory;
+import com.redhat.rhn.domain.rhnpackage.PackageName;
 import com.redhat.rhn.domain.rhnpackage.PackageProvides;
 import com.redhat.rhn.domain.rhnpackage.PackageSource;
 import com.redhat.rhn.domain.server.InstalledPackage;
@@ -36,7 +37,9 @@ import com.redhat.rhn.testing.TestUtils;
 import com.redhat.rhn.testing.UserTestUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -68,6 +71,21 @@ public class PackageFactoryTest extends BaseTestCaseWithUser {
         assertNotNull(PackageFactory.lookupPackageArchByLabel("i386"));
     }
 
+    public void testLookupOrCreatePackageNames() {
+        String existing = PackageFactory.lookupOrCreatePackageByName(TestUtils.randomString()).getName();
+        String created = TestUtils.randomString();
+
+        Map<String, PackageName> names = PackageFactory.lookupOrCreatePackageNames(
+                Arrays.asList(existing, created, created));
+        assertEquals(2, names.size());
+        assertEquals(PackageFactory.lookupPackageName(existing), names.get(existing));
+        assertEquals(created, names.get(created).getName());
+        assertNotNull(names.get(created).getId());
+
+        // cached names resolve to the same objects
+        assertEquals(names, PackageFactory.lookupOrCreatePackageNames(Arrays.asList(existing, created)));
+    }
+
     public void testLookupByNameAndServer() throws Exception {
         Server testServer = ServerFactoryTest.createTestServer(user, true);
 
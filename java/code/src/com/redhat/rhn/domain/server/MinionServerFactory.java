@@ -18,6 +18,7 @@ import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 
 import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.action.ActionStatus;
 import com.redhat.rhn.domain.action.server.ServerAction;
 import com.redhat.rhn.domain.user.User;
 
@@ -201,10 +202,31 @@ public class MinionServerFactory extends HibernateFactory {
      */
     @SuppressWarnings("unchecked")
     public static List<MinionSummary> findMinionSummaries(Long actionId) {
-        return ((List<Object[]>) HibernateFactory.getSession()
+        return toMinionSummaries(HibernateFactory.getSession()
                 .getNamedQuery("Action.findMinionSummaries")
                 .setParameter("id", actionId)
-                .getResultList()).stream()
+                .getResultList());
+    }
+
+    /**
+     * Retrieve a summary of the minions involved in one Action whose server action
+     * has the given status.
+     *
+     * @param actionId the Action id
+     * @param status the status of the server actions
+     * @return a list minion summaries of the minions involved in the given Action
+     */
+    @SuppressWarnings("unchecked")
+    public static List<MinionSummary> findMinionSummaries(Long actionId, ActionStatus status) {
+        return toMinionSummaries(HibernateFactory.getSession()
+                .getNamedQuery("Action.findMinionSummariesByStatus")
+                .setParameter("id", actionId)
+                .setParameter("status", status)
+                .getResultList());
+    }
+
+    private static List<MinionSummary> toMinionSummaries(List<Object[]> rows) {
+        return rows.stream()
                 .map(row -> new MinionSummary((Long)row[0], row[1].toString(), row[2].toString(), row[3].toString(),
                         Optional.ofNullable(row[4].toString())))
                 .collect(toList());
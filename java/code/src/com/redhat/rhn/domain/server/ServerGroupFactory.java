@@ -25,6 +25,7 @@ import org.apache.log4j.Logger;
 import org.hibernate.Session;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -268,6 +269,26 @@ public class ServerGroupFactory extends HibernateFactory {
                 "ServerGroup.lookupManagedGroupsByServer");
     }
 
+    /**
+     * Returns the server groups, managed and entitlement ones, of many servers at
+     * once.
+     * @param serverIds the ids of the servers to find the server groups of
+     * @return map of server id to the server groups of the server. Servers
+     * without any group are not in the map.
+     */
+    public static Map<Long, List<ServerGroup>> listGroupsByServerIds(
+            Collection<Long> serverIds) {
+        List<Object[]> rows = SINGLETON.listObjectsByNamedQuery(
+                "ServerGroup.lookupGroupsByServerIds", new HashMap<String, Object>(),
+                serverIds, "ids");
+        Map<Long, List<ServerGroup>> result = new HashMap<Long, List<ServerGroup>>();
+        for (Object[] row : rows) {
+            result.computeIfAbsent((Long) row[0], id -> new ArrayList<ServerGroup>())
+                .add((ServerGroup) row[1]);
+        }
+        return result;
+    }
+
     private static List listServerGroups(Server s, String queryName) {
         Map<String, Object> params = new HashMap<String, Object>();
         params.put("id", s.getId());
@@ -18,9 +18,10 @@ import com.redhat.rhn.common.conf.Config;
 import com.redhat.rhn.common.conf.ConfigDefaults;
 import com.redhat.rhn.common.security.PermissionException;
 import com.redhat.rhn.common.security.SessionSwap;
-import com.redhat.rhn.common.util.FileUtils;
 import com.redhat.rhn.common.util.MD5Sum;
 import com.redhat.rhn.common.util.download.ByteArrayStreamInfo;
+import com.redhat.rhn.common.util.download.ByteRange;
+import com.redhat.rhn.common.util.download.FileRangeStreamInfo;
 import com.redhat.rhn.domain.action.script.ScriptActionDetails;
 import com.redhat.rhn.domain.action.script.ScriptResult;
 import com.redhat.rhn.domain.action.script.ScriptRunAction;
@@ -60,7 +61,9 @@ import org.apache.struts.actions.DownloadAction;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.RandomAccessFile;
 import java.net.URL;
@@ -685,15 +688,7 @@ public class DownloadFile extends DownloadAction {
         }
         log.debug("returning getStreamForPath");
 
-        File actualFile = new File(diskPath);
-        Date mtime = new Date(actualFile.lastModified());
-        SimpleDateFormat formatter = new SimpleDateFormat(
-                "EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
-        formatter.setTimeZone(TimeZone.getTimeZone("GMT"));
-        setContentInfo(response, actualFile.length(), CONTENT_TYPE_OCTET_STREAM);
-        response.addHeader("last-modified", formatter.format(mtime));
-        log.debug("added last-modified and content-length values");
-        return getStreamForPath(diskPath, CONTENT_TYPE_OCTET_STREAM);
+        return serveWholeFile(response, new File(diskPath));
     }
 
     private void setContentInfo(HttpServletResponse responseIn, long lengthIn,
@@ -758,76 +753,95 @@ public class DownloadFile extends DownloadAction {
             HttpServletResponse response,
             String diskPath, String range) {
 
-        // bytes=440-25183
-        Pattern rangePattern = Pattern.compile("bytes=(\\d*)-(\\d*)");
-        Matcher rangeMatcher = rangePattern.matcher(range);
-
-        if (!rangeMatcher.matches()) {
-            // this will fail
-            rangeMatcher.group(1);
+        File actualFile = new File(diskPath);
+        long totalSize = actualFile.length();
+        if (!isIfRangeMatching(request, actualFile)) {
+            log.debug("If-Range does not match, serving the whole file");
+            return serveWholeFile(response, actualFile);
         }
 
-        long start, end;
-        if (StringUtils.isEmpty(rangeMatcher.group(1))) {
-            start = 0;
+        // bytes=440-25183, bytes=-500, bytes=0-99,200-299
+        List<ByteRange> ranges = ByteRange.parse(range, totalSize);
+        if (log.isDebugEnabled()) {
+            log.debug("manualServeByteRange ranges   : " + ranges);
+            log.debug("manualServeByteRange totalsize: " + totalSize);
         }
-        else {
-            start = Long.valueOf(rangeMatcher.group(1));
+        if (ranges == null) {
+            // invalid or abusive Range headers are ignored
+            return serveWholeFile(response, actualFile);
         }
-        File actualFile = new File(diskPath);
-        long totalSize = actualFile.length();
-        if (StringUtils.isEmpty(rangeMatcher.group(2))) {
-            end = totalSize;
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Range", "bytes */" + totalSize);
+            setContentInfo(response, 0, CONTENT_TYPE_TEXT_PLAIN);
+            return getStream(new byte[0], CONTENT_TYPE_TEXT_PLAIN);
         }
-        else {
-            end = Long.valueOf(rangeMatcher.group(2)).longValue();
+
+        FileRangeStreamInfo info = new FileRangeStreamInfo(actualFile,
+                CONTENT_TYPE_OCTET_STREAM, ranges);
+        setContentInfo(response, info.getContentLength(), info.getContentType());
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        addValidatorHeaders(response, actualFile);
+        if (!info.isMultipart()) {
+            response.setHeader("Content-Range", ranges.get(0).toContentRange(totalSize));
         }
         if (log.isDebugEnabled()) {
-            log.debug("manualServeByteRange Start    : " + start);
-            log.debug("manualServeByteRange End      : " + end);
+            log.debug("Added header Content-Length: " + info.getContentLength());
+            log.debug("Added header Content-Type: " + info.getContentType());
         }
-        long size = end - start + 1;
+        return info;
+    }
 
-        if (log.isDebugEnabled()) {
-            log.debug("manualServeByteRange totalsize: " + totalSize);
+    /**
+     * An If-Range header makes the Range conditional: the ranges are only served
+     * if the file is still the one the client holds the other parts of.
+     */
+    private boolean isIfRangeMatching(HttpServletRequest request, File file) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
         }
-
-        if (size <= 0) {
-            return getStreamForPath(diskPath, CONTENT_TYPE_OCTET_STREAM);
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // weak entity tags never match, as byte ranges need a strong comparison
+            return ifRange.equals(FileRangeStreamInfo.getETag(file));
         }
-        setContentInfo(response, size, CONTENT_TYPE_OCTET_STREAM);
-        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-        Date mtime = new Date(actualFile.lastModified());
+        try {
+            long date = request.getDateHeader("If-Range");
+            return date / 1000 == file.lastModified() / 1000;
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private StreamInfo serveWholeFile(HttpServletResponse response, File file) {
+        setContentInfo(response, file.length(), CONTENT_TYPE_OCTET_STREAM);
+        addValidatorHeaders(response, file);
+        log.debug("added last-modified, etag and content-length values");
+        return getStreamForPath(file.getPath(), CONTENT_TYPE_OCTET_STREAM);
+    }
+
+    private void addValidatorHeaders(HttpServletResponse response, File file) {
+        Date mtime = new Date(file.lastModified());
         // "EEE, dd MMM yyyy HH:mm:ss zzz";
         SimpleDateFormat formatter = new SimpleDateFormat(
                 "EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
         formatter.setTimeZone(TimeZone.getTimeZone("GMT"));
-        String fdate = formatter.format(mtime);
-        response.addHeader("last-modified", fdate);
-        response.addHeader("Content-Range", "bytes " + start + "-" + end +
-                "/" + totalSize);
-        response.addHeader("Accept-Ranges", "bytes");
-        if (log.isDebugEnabled()) {
-            log.debug("Added header last-modified: " + fdate);
-            log.debug("Added header Content-Length: " + String.valueOf(size));
-            log.debug("Added header Content-Range: " + "bytes " + start +
-                    "-" + end + "/" + totalSize);
-            log.debug("Added header Accept-Ranges: bytes");
-        }
-        // TODO: it's a bad idea to read file from filesystem into memory.
-        // We have to implement copying from InputStream to OutputStream by chunks in this
-        // class instead of using parent execute() (and copy()).
-        // New copy() method will take into account Content-Range header in response
-        // and copy only these bytes. Uncomment after fixing following line:
-        // return getStreamForPath(diskPath, CONTENT_TYPE_OCTET_STREAM);
-
-        // gotta make sure it is end + 1
-        byte[] chunk = FileUtils.readByteArrayFromFile(actualFile, start, end + 1);
-        if (log.isDebugEnabled()) {
-            log.debug("chunk size: " + chunk.length);
-            log.debug("read chunk into byte array.  returning ByteArrayStreamInfo");
-        }
-        return new ByteArrayStreamInfo(CONTENT_TYPE_OCTET_STREAM, chunk);
+        response.addHeader("last-modified", formatter.format(mtime));
+        response.setHeader("ETag", FileRangeStreamInfo.getETag(file));
+        response.setHeader("Accept-Ranges", "bytes");
+    }
+
+    /**
+     * Copies the stream with {@link InputStream#transferTo(OutputStream)}, so that
+     * byte ranges are sent straight from the file channel.
+     * {@inheritDoc}
+     */
+    @Override
+    public int copy(InputStream input, OutputStream output) throws IOException {
+        long count = input.transferTo(output);
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 
 }
@@ -69,6 +69,15 @@ public class KickstartIpRangeFilter extends BaseListFilter {
 
     }
 
+    /**
+     * The ranges are matched on their addresses, not on an attribute
+     * @return null
+     */
+    @Override
+    public String getFilterAttribute() {
+        return null;
+    }
+
     /**
      * Returns true if the search ip is within the min and max
      *  helper method used by filter and by other things
@@ -24,6 +24,7 @@ import com.redhat.rhn.frontend.struts.RhnHelper;
 import com.redhat.rhn.frontend.struts.RhnListAction;
 import com.redhat.rhn.frontend.struts.RhnListSetHelper;
 import com.redhat.rhn.frontend.taglibs.list.ListTagHelper;
+import com.redhat.rhn.frontend.taglibs.list.ModePageableList;
 import com.redhat.rhn.frontend.taglibs.list.TagHelper;
 import com.redhat.rhn.manager.rhnset.RhnSetDecl;
 
@@ -32,6 +33,7 @@ import org.apache.struts.action.ActionForward;
 import org.apache.struts.action.ActionMapping;
 
 import java.util.Iterator;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -52,9 +54,11 @@ public abstract class BaseSystemsAction extends RhnListAction {
         RequestContext requestContext = new RequestContext(request);
 
         User user = requestContext.getCurrentUser();
-        DataResult result = getDataResult(user, null, formIn);
+        ModePageableList<SystemOverview> pageable = getPageableList(user);
+        DataResult result = pageable == null ? getDataResult(user, null, formIn) : null;
+        List dataSet = pageable == null ? result : pageable;
 
-        if (result.isEmpty()) {
+        if (dataSet.isEmpty()) {
             request.setAttribute(SHOW_NO_SYSTEMS, Boolean.TRUE);
         }
 
@@ -63,21 +67,28 @@ public abstract class BaseSystemsAction extends RhnListAction {
 
         RhnListSetHelper helper = new RhnListSetHelper(request);
         if (ListTagHelper.getListAction("systemList", request) != null) {
-            helper.execute(set, "systemList", result);
+            helper.execute(set, "systemList", dataSet);
         }
 
         if (!set.isEmpty()) {
-            helper.syncSelections(set, result);
+            if (pageable == null) {
+                helper.syncSelections(set, result);
+            }
+            else {
+                // only the displayed rows are loaded
+                pageable.setOnLoad(rows -> helper.syncSelections(set, rows));
+            }
             ListTagHelper.setSelectedAmount("systemList", set.size(), request);
         }
 
 
         ListTagHelper.bindSetDeclTo("systemList", getSetDecl(), request);
 
-        request.setAttribute(RequestContext.PAGE_LIST, result);
+        request.setAttribute(RequestContext.PAGE_LIST, dataSet);
         request.setAttribute(ListTagHelper.PARENT_URL, request.getRequestURI());
 
-        TagHelper.bindElaboratorTo("systemList", result.getElaborator(), request);
+        TagHelper.bindElaboratorTo("systemList", pageable == null ?
+                result.getElaborator() : pageable.getElaborator(), request);
 
         return mapping.findForward(RhnHelper.DEFAULT_FORWARD);
     }
@@ -107,6 +118,16 @@ public abstract class BaseSystemsAction extends RhnListAction {
 
     }
 
+    /**
+     * Returns the systems as a list sorted, filtered and paged in the database,
+     * if the action supports it: only the displayed page is then loaded.
+     * @param user The user viewing the System List
+     * @return the pageable list, or null to use {@link #getDataResult}
+     */
+    protected ModePageableList<SystemOverview> getPageableList(User user) {
+        return null;
+    }
+
     protected abstract DataResult getDataResult(User user,
                                                 PageControl pc,
                                                 ActionForm formIn);
@@ -18,6 +18,7 @@ import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.frontend.dto.SystemOverview;
 import com.redhat.rhn.frontend.listview.PageControl;
+import com.redhat.rhn.frontend.taglibs.list.ModePageableList;
 import com.redhat.rhn.manager.system.SystemManager;
 
 import org.apache.struts.action.ActionForm;
@@ -28,6 +29,11 @@ import org.apache.struts.action.ActionForm;
  */
 public class SystemListSetupAction extends BaseSystemsAction {
 
+    @Override
+    protected ModePageableList<SystemOverview> getPageableList(User user) {
+        return SystemManager.systemListPageable(user);
+    }
+
     protected DataResult<SystemOverview> getDataResult(User user, PageControl pc,
             ActionForm formIn) {
 
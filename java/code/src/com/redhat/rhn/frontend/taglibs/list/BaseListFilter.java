@@ -66,6 +66,19 @@ public abstract class BaseListFilter implements ListFilter {
         return new LinkedList(fieldMap.keySet());
     }
 
+    /**
+     * Returns the bean attribute matched by this filter, so that a
+     * {@link PageableList} can filter on it at its source. Filters matching rows
+     * some other way must return null.
+     * @return the filtered attribute, or null if the filter only works in memory
+     */
+    public String getFilterAttribute() {
+        if (fieldMap == null || fieldMap.isEmpty()) {
+            return null;
+        }
+        return (String) fieldMap.values().iterator().next();
+    }
+
     /**
      * Bind the display value of UI column(s) that need to be
      * filtered to bean property of the object that needs to be
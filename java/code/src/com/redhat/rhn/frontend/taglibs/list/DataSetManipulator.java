@@ -15,6 +15,7 @@
 
 package com.redhat.rhn.frontend.taglibs.list;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -55,6 +56,9 @@ public class DataSetManipulator {
     private ListFilter filter;
     private String filterBy;
     private String filterValue;
+    private String filterAttribute;
+    private PageableList pageable;
+    private boolean sortPushed;
     private int totalDataSetSize;
     private final HttpServletRequest request;
     private final String uniqueName;
@@ -86,9 +90,37 @@ public class DataSetManipulator {
         dataset = datasetIn;
         request = requestIn;
         uniqueName = listNameIn;
-        totalDataSetSize = dataset.size();
-        unfilteredDataSize = dataset.size();
         parentIsAnElement = parentIsElement;
+        if (dataset instanceof PageableList && parentIsAnElement && pageSize > 0 &&
+                !AlphaBarHelper.getInstance().isSelected(uniqueName, request)) {
+            pageable = (PageableList) dataset;
+            unfilteredDataSize = pageable.getSize(null, null);
+        }
+        else {
+            unfilteredDataSize = dataset.size();
+        }
+        totalDataSetSize = unfilteredDataSize;
+    }
+
+    /**
+     * Falls back to processing the whole dataset in memory, applying the filter and
+     * sort already pushed to the source.
+     */
+    private void materialize() {
+        if (pageable == null) {
+            return;
+        }
+        dataset = new ArrayList(pageable);
+        pageable = null;
+        if (filterAttribute != null) {
+            filterAttribute = null;
+            dataset = ListFilterHelper.filter(dataset, filter, filterBy, filterValue);
+        }
+        totalDataSetSize = dataset.size();
+        if (sortPushed) {
+            sortPushed = false;
+            sort();
+        }
     }
 
     /**
@@ -114,6 +146,15 @@ public class DataSetManipulator {
         filterClass.setAttribute("value", f.getClass().getCanonicalName());
         ListTagUtil.write(context, filterClass.render());
 
+        if (pageable != null && f instanceof BaseListFilter) {
+            String attribute = ((BaseListFilter) f).getFilterAttribute();
+            if (attribute != null && pageable.isFilterable(attribute)) {
+                filterAttribute = attribute;
+                totalDataSetSize = pageable.getSize(filterAttribute, filterValue);
+                return;
+            }
+        }
+        materialize();
         dataset = ListFilterHelper.filter(dataset, f, filterBy, filterValue);
         totalDataSetSize = dataset.size();
     }
@@ -127,6 +168,12 @@ public class DataSetManipulator {
             return;
         }
 
+        if (pageable != null && pageable.isSortable(sortAttr)) {
+            sortPushed = true;
+            return;
+        }
+        materialize();
+
         String sortDir = getActiveSortDirection();
         try {
             Collections.sort(dataset, new DynamicComparator(sortAttr, sortDir));
@@ -151,7 +198,20 @@ public class DataSetManipulator {
      */
     public List getPage() {
         List retval = new LinkedList();
-        if (pageSize > 0) {
+        if (pageable != null) {
+            int startOffset = getCurrentPageNumber() * pageSize;
+            if (startOffset > totalDataSetSize) {
+                startOffset = totalDataSetSize - 1;
+            }
+            if (startOffset < 0) {
+                startOffset = 0;
+            }
+            String sortAttr = sortPushed ? getActiveSortAttribute() : null;
+            boolean asc = !RequestContext.SORT_DESC.equals(getActiveSortDirection());
+            retval = pageable.getPage(sortAttr, asc, filterAttribute, filterValue,
+                    startOffset, pageSize);
+        }
+        else if (pageSize > 0) {
             int startOffset = getCurrentPageNumber() * pageSize;
             if (startOffset > dataset.size()) {
                 startOffset = dataset.size() - 1;
@@ -176,6 +236,7 @@ public class DataSetManipulator {
      * @return List representing all data available
      */
     public List getAllData() {
+        materialize();
         List retval = new LinkedList();
         retval.addAll(dataset);
         return expand(retval);
@@ -248,10 +309,10 @@ public class DataSetManipulator {
      * @return answer to that burning question
      */
     public boolean isLastPage() {
-        int maxPage = (dataset.size() / pageSize) - 1;
+        int maxPage = (totalDataSetSize / pageSize) - 1;
         // Add a page for overflow, since the dataset is not
         // evenly divisible by the pagesize
-        if (dataset.size() % pageSize > 0) {
+        if (totalDataSetSize % pageSize > 0) {
             maxPage++;
         }
         return getCurrentPageNumber() == maxPage;
@@ -300,7 +361,7 @@ public class DataSetManipulator {
      */
     public Map getPaginationLinks() {
         Map links = new HashMap();
-        if (pageSize > 0 && dataset.size() > 0 && getTotalDataSetSize() > pageSize) {
+        if (pageSize > 0 && getTotalDataSetSize() > pageSize) {
             String pageLinkName = "list_" + uniqueName + "_page";
             String[] data = new String[4];
             if (!isFirstPage()) {
@@ -365,6 +426,9 @@ public class DataSetManipulator {
      * @return boolean
      */
     public boolean isListEmpty() {
+        if (pageable != null) {
+            return totalDataSetSize == 0;
+        }
         return dataset == null || dataset.size() == 0;
     }
 
@@ -373,6 +437,10 @@ public class DataSetManipulator {
      * @return the set of characters that are active
      */
     public Set<Character> getAlphaBarIndex() {
+        if (pageable != null && pageable.isFilterable(alphaCol)) {
+            return pageable.getInitials(alphaCol, filterAttribute, filterValue);
+        }
+        materialize();
         Set<Character> chars = new HashSet<Character>();
         int i = 0;
         for (Object inputRow : dataset) {
@@ -536,6 +604,9 @@ public class DataSetManipulator {
         if (startOffset < 0) {
             startOffset = 0;
         }
+        if (pageable != null) {
+            return Math.min(startOffset, totalDataSetSize - 1) + 1;
+        }
         List parentList = dataset.subList(0, startOffset);
         List data = expand(parentList);
         int ret = data.size() + 1;
@@ -557,6 +628,9 @@ public class DataSetManipulator {
         }
 
         int endOffset = startOffset + pageSize;
+        if (pageable != null) {
+            return Math.min(endOffset, totalDataSetSize);
+        }
         if (endOffset > dataset.size()) {
             endOffset = dataset.size();
         }
@@ -571,6 +645,9 @@ public class DataSetManipulator {
     }
 
     private int getExpandedDataSize() {
+        if (pageable != null) {
+            return totalDataSetSize;
+        }
         if (!parentIsAnElement) {
             return expand(dataset).size() - dataset.size();
         }
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.taglibs.list;
+
+import com.redhat.rhn.common.db.datasource.DataResult;
+import com.redhat.rhn.common.db.datasource.Elaborator;
+import com.redhat.rhn.common.db.datasource.ModeElaborator;
+import com.redhat.rhn.common.db.datasource.SelectMode;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A pageable data set backed by the driving query of a datasource mode: sorting,
+ * filtering and paging are done by the database on the columns of the driving
+ * query, and the rows are not elaborated, which is left to the elaborator
+ * returned by {@link #getElaborator()} for the displayed page only.
+ *
+ * @param <T> the type of the rows
+ */
+public class ModePageableList<T> extends AbstractList<T>
+        implements PageableList<T>, Serializable {
+
+    // increase this number on any data change
+    private static final long serialVersionUID = 1L;
+
+    private final SelectMode mode;
+    private final Map<String, Object> params;
+    private final Map<String, Object> elabParams;
+    private final Map<String, String> columns;
+    // the rows are loaded again by another request, e.g. for a CSV export
+    private transient Map<String, Integer> sizes;
+    private transient Consumer<List<T>> onLoad;
+    private transient List<T> all;
+
+    /**
+     * Constructor
+     * @param modeIn the mode to run
+     * @param paramsIn named parameters of the driving query
+     * @param elabParamsIn named parameters of the elaborators
+     * @param columnsIn driving query column of each bean attribute which can be
+     * sorted or filtered on
+     */
+    public ModePageableList(SelectMode modeIn, Map<String, Object> paramsIn,
+            Map<String, Object> elabParamsIn, Map<String, String> columnsIn) {
+        mode = modeIn;
+        params = paramsIn;
+        elabParams = elabParamsIn;
+        columns = columnsIn;
+    }
+
+    /**
+     * Sets a callback run on every page or whole data set loaded, before it is
+     * returned, for example to mark the selected rows.
+     * @param onLoadIn the callback
+     */
+    public void setOnLoad(Consumer<List<T>> onLoadIn) {
+        onLoad = onLoadIn;
+    }
+
+    /**
+     * @return the elaborator of the rows
+     */
+    public Elaborator getElaborator() {
+        return new ModeElaborator(mode, elabParams);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSortable(String attribute) {
+        return columns.containsKey(attribute);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isFilterable(String attribute) {
+        return columns.containsKey(attribute);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSize(String filterAttribute, String filterValue) {
+        if (all != null && filterValue == null) {
+            return all.size();
+        }
+        String key = filterValue == null ? "" : filterAttribute + "=" + filterValue;
+        if (sizes == null) {
+            sizes = new HashMap<String, Integer>();
+        }
+        Integer size = sizes.get(key);
+        if (size == null) {
+            size = mode.executeCount(params, columns.get(filterAttribute), filterValue);
+            sizes.put(key, size);
+        }
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Character> getInitials(String attribute, String filterAttribute,
+            String filterValue) {
+        return mode.executeInitials(params, column(attribute),
+                columns.get(filterAttribute), filterValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> getPage(String sortAttribute, boolean ascending,
+            String filterAttribute, String filterValue, int offset, int limit) {
+        DataResult<T> page = mode.executePage(params,
+                sortAttribute == null ? null : column(sortAttribute), ascending,
+                filterValue == null ? null : column(filterAttribute), filterValue,
+                offset, limit);
+        loaded(page);
+        return page;
+    }
+
+    private String column(String attribute) {
+        String column = columns.get(attribute);
+        if (column == null) {
+            throw new IllegalArgumentException("Attribute " + attribute +
+                    " cannot be pushed down to " + mode.getName());
+        }
+        return column;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> all() {
+        if (all == null) {
+            all = mode.execute(params);
+            loaded(all);
+        }
+        return all;
+    }
+
+    private void loaded(List<T> rows) {
+        if (onLoad != null) {
+            onLoad.accept(rows);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(int index) {
+        return all().get(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return all().size();
+    }
+
+    /**
+     * Checks the row count in the database, without loading the rows.
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize(null, null) == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return all().iterator();
+    }
+}
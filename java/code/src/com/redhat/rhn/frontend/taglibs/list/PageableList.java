@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.taglibs.list;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A list tag data set able to sort, filter and page itself at the source, usually
+ * in the database, so that only the rows of the displayed page are loaded.
+ *
+ * The {@link List} methods load the whole data set: the list tag only uses them
+ * when it cannot push down what is asked, for example an unsupported sort or
+ * filter, an alpha bar selection or a CSV export. Each row counts as one list
+ * element, so rows expanding to children should not be paged at the source.
+ *
+ * @param <T> the type of the rows
+ */
+public interface PageableList<T> extends List<T> {
+
+    /**
+     * @param attribute bean attribute of the rows
+     * @return true if the data set can be sorted by the attribute at the source
+     */
+    boolean isSortable(String attribute);
+
+    /**
+     * @param attribute bean attribute of the rows
+     * @return true if the data set can be filtered on the attribute at the source
+     */
+    boolean isFilterable(String attribute);
+
+    /**
+     * Counts the rows of the data set.
+     * @param filterAttribute attribute to filter on, or null not to filter
+     * @param filterValue text the attribute has to contain, ignoring case
+     * @return the number of rows
+     */
+    int getSize(String filterAttribute, String filterValue);
+
+    /**
+     * Finds the upper case initials of an attribute, as shown by the alpha bar.
+     * @param attribute a filterable attribute
+     * @param filterAttribute attribute to filter on, or null not to filter
+     * @param filterValue text the attribute has to contain, ignoring case
+     * @return the initials
+     */
+    Set<Character> getInitials(String attribute, String filterAttribute,
+            String filterValue);
+
+    /**
+     * Loads one page of the data set.
+     * @param sortAttribute attribute to sort by, or null for the natural order
+     * @param ascending true to sort in ascending order
+     * @param filterAttribute attribute to filter on, or null not to filter
+     * @param filterValue text the attribute has to contain, ignoring case
+     * @param offset number of rows to skip
+     * @param limit maximum number of rows
+     * @return the rows of the page
+     */
+    List<T> getPage(String sortAttribute, boolean ascending, String filterAttribute,
+            String filterValue, int offset, int limit);
+}
@@ -19,6 +19,7 @@ import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.db.datasource.Elaborator;
 import com.redhat.rhn.frontend.struts.RequestContext;
 import com.redhat.rhn.frontend.taglibs.list.ListTagHelper;
+import com.redhat.rhn.frontend.taglibs.list.ModePageableList;
 import com.redhat.rhn.frontend.taglibs.list.TagHelper;
 
 import org.apache.commons.collections.map.HashedMap;
@@ -115,6 +116,11 @@ public class ListHelper {
                 TagHelper.bindElaboratorTo(getListName(), elab, request);
             }
         }
+        else if (!StringUtils.isBlank(getListName()) &&
+                dataSet instanceof ModePageableList) {
+            TagHelper.bindElaboratorTo(getListName(),
+                    ((ModePageableList) dataSet).getElaborator(), request);
+        }
     }
     /**
      * Basically returns a bound data set or null
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.taglibs.list.test;
+
+import com.redhat.rhn.frontend.taglibs.list.DataSetManipulator;
+import com.redhat.rhn.frontend.taglibs.list.ListTagUtil;
+import com.redhat.rhn.frontend.taglibs.list.PageableList;
+import com.redhat.rhn.testing.RhnBaseTestCase;
+import com.redhat.rhn.testing.RhnMockHttpServletRequest;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tests for DataSetManipulator with a data set paged at its source
+ */
+public class DataSetManipulatorTest extends RhnBaseTestCase {
+
+    private static final String LIST_NAME = "test";
+
+    private RhnMockHttpServletRequest request;
+    private StubPageableList data;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        disableLocalizationServiceLogging();
+        request = new RhnMockHttpServletRequest();
+        List<Row> rows = new ArrayList<Row>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new Row(i, "name" + (char) ('a' + i)));
+        }
+        data = new StubPageableList(rows);
+    }
+
+    public void testPageLoadedAtSource() {
+        request.setupAddParameter(ListTagUtil.makeSortByLabel(LIST_NAME), "name");
+        request.setupAddParameter(ListTagUtil.makeSortDirLabel(LIST_NAME), "desc");
+        request.setupAddParameter("list_" + LIST_NAME + "_page_next", "2");
+        DataSetManipulator manip = new DataSetManipulator(10, data, request, LIST_NAME,
+                true);
+        manip.sort();
+        List page = manip.getPage();
+
+        assertEquals(5, page.size());
+        assertEquals("namee", ((Row) page.get(0)).getName());
+        assertEquals("namea", ((Row) page.get(4)).getName());
+        assertEquals(25, manip.getTotalDataSetSize());
+        assertTrue(manip.isLastPage());
+        assertEquals(0, data.allLoads);
+        assertEquals("name", data.lastSort);
+        assertEquals(20, data.lastOffset);
+    }
+
+    public void testUnsupportedSortFallsBackToMemory() {
+        request.setupAddParameter(ListTagUtil.makeSortByLabel(LIST_NAME), "id");
+        request.setupAddParameter(ListTagUtil.makeSortDirLabel(LIST_NAME), "desc");
+        DataSetManipulator manip = new DataSetManipulator(10, data, request, LIST_NAME,
+                true);
+        manip.sort();
+        List page = manip.getPage();
+
+        assertEquals(10, page.size());
+        assertEquals(24, ((Row) page.get(0)).getId());
+        assertEquals(1, data.allLoads);
+        assertNull(data.lastSort);
+    }
+
+    public void testAlphaBarIndexFromSource() {
+        DataSetManipulator manip = new DataSetManipulator(10, data, request, LIST_NAME,
+                true);
+        manip.setAlphaColumn("name");
+        Set<Character> index = manip.getAlphaBarIndex();
+
+        assertEquals(Collections.singleton('N'), index);
+        assertEquals(0, data.allLoads);
+    }
+
+    /**
+     * A row of the data set
+     */
+    public static class Row {
+        private final int id;
+        private final String name;
+
+        Row(int idIn, String nameIn) {
+            id = idIn;
+            name = nameIn;
+        }
+
+        /**
+         * @return the id
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Pages rows in memory, only allowing to sort and filter on the name
+     */
+    private static class StubPageableList extends AbstractList<Row>
+            implements PageableList<Row> {
+
+        private final List<Row> rows;
+        private int allLoads;
+        private String lastSort;
+        private int lastOffset = -1;
+
+        StubPageableList(List<Row> rowsIn) {
+            rows = rowsIn;
+        }
+
+        @Override
+        public boolean isSortable(String attribute) {
+            return "name".equals(attribute);
+        }
+
+        @Override
+        public boolean isFilterable(String attribute) {
+            return "name".equals(attribute);
+        }
+
+        @Override
+        public int getSize(String filterAttribute, String filterValue) {
+            return filter(filterValue).size();
+        }
+
+        @Override
+        public Set<Character> getInitials(String attribute, String filterAttribute,
+                String filterValue) {
+            Set<Character> initials = new TreeSet<Character>();
+            for (Row row : filter(filterValue)) {
+                initials.add(Character.toUpperCase(row.getName().charAt(0)));
+            }
+            return initials;
+        }
+
+        @Override
+        public List<Row> getPage(String sortAttribute, boolean ascending,
+                String filterAttribute, String filterValue, int offset, int limit) {
+            lastSort = sortAttribute;
+            lastOffset = offset;
+            List<Row> result = filter(filterValue);
+            if (sortAttribute != null) {
+                Comparator<Row> order = Comparator.comparing(Row::getName);
+                result.sort(ascending ? order : order.reversed());
+            }
+            return result.subList(Math.min(offset, result.size()),
+                    Math.min(offset + limit, result.size()));
+        }
+
+        private List<Row> filter(String filterValue) {
+            List<Row> result = new ArrayList<Row>();
+            for (Row row : rows) {
+                if (filterValue == null || row.getName().contains(filterValue)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Row get(int index) {
+            if (index == 0) {
+                allLoads++;
+            }
+            return rows.get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.xmlrpc;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per API method call durations and failure counters, labelled by handler and
+ * method.
+ */
+public class ApiCallStats {
+
+    /** Statistics of the calls dispatched by {@link BaseHandler} */
+    public static final ApiCallStats INSTANCE = new ApiCallStats();
+
+    private static final String PREFIX = "xmlrpc_api_";
+
+    private final Histogram duration = Histogram.build()
+            .name(PREFIX + "call_duration_seconds").help("Execution time of API methods")
+            .labelNames("handler", "method").create();
+    private final Counter failed = Counter.build()
+            .name(PREFIX + "calls_failed").help("Number of calls of API methods that threw an exception")
+            .labelNames("handler", "method").create();
+
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the statistics of an API method, creating them if needed.
+     * @param method the API method, like 'system.getId'
+     * @return the statistics
+     */
+    public MethodStats get(String method) {
+        return methods.computeIfAbsent(method, MethodStats::new);
+    }
+
+    /**
+     * @return the metrics of all API methods, to be registered for monitoring
+     */
+    public List<Collector> getMetrics() {
+        return Arrays.asList(duration, failed);
+    }
+
+    /**
+     * Metrics of an API method. Updates are lock free, reads are not atomic
+     * across the metrics.
+     */
+    public class MethodStats {
+
+        private final String method;
+        private final Histogram.Child durationChild;
+        private final Counter.Child failedChild;
+
+        private MethodStats(String methodIn) {
+            method = methodIn;
+            int dot = method.lastIndexOf('.');
+            String handler = dot < 0 ? "" : method.substring(0, dot);
+            String name = method.substring(dot + 1);
+            durationChild = duration.labels(handler, name);
+            failedChild = failed.labels(handler, name);
+        }
+
+        /**
+         * Records the end of a call.
+         * @param nanos time spent executing the method
+         * @param success false if the method threw an exception
+         */
+        public void called(long nanos, boolean success) {
+            durationChild.observe((double) nanos / TimeUnit.SECONDS.toNanos(1));
+            if (!success) {
+                failedChild.inc();
+            }
+        }
+
+        /**
+         * @return the API method
+         */
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the number of calls
+         */
+        public long getCalls() {
+            double[] buckets = durationChild.get().buckets;
+            return (long) buckets[buckets.length - 1];
+        }
+
+        /**
+         * @return the number of calls that threw an exception
+         */
+        public long getFailed() {
+            return (long) failedChild.get();
+        }
+
+        /**
+         * @return the histogram of the execution time
+         */
+        public Histogram.Child getDuration() {
+            return durationChild;
+        }
+    }
+}
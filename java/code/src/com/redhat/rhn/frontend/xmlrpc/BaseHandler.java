@@ -20,13 +20,13 @@ import java.io.StringReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.channels.OverlappingFileLockException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
 import org.xml.sax.SAXException;
@@ -66,8 +66,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
 
     private static Logger log = Logger.getLogger(BaseHandler.class);
 
-    private static final String RO_REGEX = "^(list|get|is|find).*$";
-    private static final String KEY_REGEX = "^[1-9][0-9]*x[a-f0-9]{64}$";
+    private static final Pattern KEY_PATTERN = Pattern.compile("^[1-9][0-9]*x[a-f0-9]{64}$");
 
     protected boolean providesAuthentication() {
         return false;
@@ -85,15 +84,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
      */
     public Object invoke(String methodCalled, List params) throws XmlRpcFault {
         Class myClass = this.getClass();
-        Method[] methods;
-        try {
-            methods = myClass.getMethods();
-        }
-        catch (SecurityException e) {
-            // This should _never_ happen, because the Handler classes must
-            // have public classes if they're expected to work.
-            throw new XmlRpcFault(-1, "no public methods in class " + myClass);
-        }
+        HandlerMethodIndex index = HandlerMethodIndex.forHandler(this);
 
         String[] byNamespace = methodCalled.split("\\.");
         String beanifiedMethod = StringUtil.beanify(byNamespace[byNamespace.length - 1]);
@@ -106,8 +97,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
                 session = SessionManager.loadSession((String)params.get(0));
                 params.set(0, getLoggedInUser((String)params.get(0)));
                 if (((User)params.get(0)).isReadOnly()) {
-                    if (!beanifiedMethod.matches(RO_REGEX) && !getReadonlyMethodNames()
-                            .stream().anyMatch(m -> m.equals(beanifiedMethod))) {
+                    if (!index.isReadonly(beanifiedMethod)) {
                         throw new SecurityException("The " + beanifiedMethod +
                                 " API is not available to read-only API users");
                     }
@@ -116,7 +106,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
         }
 
         //we've found all the methods that have the same number of parameters
-        List<Method> matchedMethods = findMethods(methods, params, beanifiedMethod);
+        List<Method> matchedMethods = findMethods(index, params, beanifiedMethod);
 
         //Attempt to find a perfect match
         Method foundMethod = findPerfectMethod(params, matchedMethods);
@@ -141,8 +131,14 @@ public class BaseHandler implements XmlRpcInvocationHandler {
             }
         }
 
+        String apiMethod = methodCalled.substring(0, methodCalled.length() -
+                byNamespace[byNamespace.length - 1].length()) + foundMethod.getName();
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            return foundMethod.invoke(this, converted);
+            Object result = foundMethod.invoke(this, converted);
+            success = true;
+            return result;
         }
         catch (IllegalAccessException e) {
             throw new XmlRpcFault(-1, "unhandled internal exception");
@@ -189,6 +185,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
             throw new XmlRpcFault(-1, "unhandled internal exception");
         }
         finally {
+            ApiCallStats.INSTANCE.get(apiMethod).called(System.nanoTime() - start, success);
             if (session != null) {
                 SessionManager.extendSessionLifetime(session);
             }
@@ -223,7 +220,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
     /**
      * Private method to find the method in the java class that is being called
      * via xml-rpc
-     * @param methods The methods contained in the class
+     * @param index The dispatch table of the class
      * @param params The parameters sent to us via xml-rpc
      * @param beanifiedMethod The method name we are looking for
      * @return The matching method we're looking for
@@ -234,23 +231,10 @@ public class BaseHandler implements XmlRpcInvocationHandler {
      *      Currently this finds methods that match the number of parameters and returns
      *          those.
      */
-    private List<Method> findMethods(Method[] methods, Collection params,
+    private List<Method> findMethods(HandlerMethodIndex index, Collection params,
             String beanifiedMethod) throws XmlRpcFault {
 
-        List<Method> toReturn = new ArrayList<Method>();
-
-        //Loop through the methods array and find the one we are trying to call.
-        for (int i = 0; i < methods.length; i++) {
-            if (methods[i].getName().equals(beanifiedMethod)) {
-                // We found a method with the right name, but does the parameter count
-                // match?
-                int numberOfParams = methods[i].getParameterTypes().length;
-                if (numberOfParams == params.size()) {
-                    //Method name and number of parameters match.
-                    toReturn.add(methods[i]);
-                }
-            }
-        }
+        List<Method> toReturn = index.findMethods(beanifiedMethod, params.size());
         if (toReturn.isEmpty()) {
             //The caller didn't get the method name or number of parameters right
             String message = "Could not find method: " + beanifiedMethod +
@@ -493,7 +477,7 @@ public class BaseHandler implements XmlRpcInvocationHandler {
     }
 
     private boolean isSessionKey(String string) {
-        return string.matches(KEY_REGEX);
+        return KEY_PATTERN.matcher(string).matches();
     }
 
 }
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.xmlrpc;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Dispatch table of a handler class: its public methods by name and number of
+ * parameters, and the methods available to read-only users.
+ *
+ * Tables are built once per handler class, when the handlers are registered by
+ * {@link XmlRpcServlet#init()} or on the first call, and shared by all the
+ * instances of the class.
+ */
+public class HandlerMethodIndex {
+
+    private static final Pattern RO_PATTERN = Pattern.compile("^(list|get|is|find).*$");
+
+    private static final Map<Class<?>, HandlerMethodIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final Map<String, List<Method>> methodsByNameAndArity = new HashMap<>();
+    private final Set<String> readonlyMethodNames;
+
+    private HandlerMethodIndex(BaseHandler handler) {
+        for (Method method : handler.getClass().getMethods()) {
+            methodsByNameAndArity.computeIfAbsent(key(method.getName(),
+                    method.getParameterTypes().length), k -> new ArrayList<>()).add(method);
+        }
+        readonlyMethodNames = new HashSet<>(handler.getReadonlyMethodNames());
+    }
+
+    /**
+     * Returns the dispatch table of the class of a handler, building it if needed.
+     * @param handler the handler
+     * @return the dispatch table
+     */
+    public static HandlerMethodIndex forHandler(BaseHandler handler) {
+        return INDEXES.computeIfAbsent(handler.getClass(), c -> new HandlerMethodIndex(handler));
+    }
+
+    private static String key(String methodName, int arity) {
+        return methodName + "/" + arity;
+    }
+
+    /**
+     * Returns the public methods with the given name and number of parameters, in
+     * the order of {@link Class#getMethods()}.
+     * @param beanifiedMethod the method name
+     * @param arity the number of parameters
+     * @return the methods, possibly empty
+     */
+    public List<Method> findMethods(String beanifiedMethod, int arity) {
+        return methodsByNameAndArity.getOrDefault(key(beanifiedMethod, arity),
+                Collections.emptyList());
+    }
+
+    /**
+     * Tells whether a method may be called by read-only users, either because its
+     * name starts with 'get', 'list', 'is' or 'find', or because the handler lists it
+     * in {@link BaseHandler#getReadonlyMethodNames()}.
+     * @param beanifiedMethod the method name
+     * @return true if the method is available to read-only users
+     */
+    public boolean isReadonly(String beanifiedMethod) {
+        return RO_PATTERN.matcher(beanifiedMethod).matches() ||
+                readonlyMethodNames.contains(beanifiedMethod);
+    }
+}
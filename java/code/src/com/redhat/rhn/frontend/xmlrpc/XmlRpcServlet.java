@@ -16,6 +16,7 @@
 package com.redhat.rhn.frontend.xmlrpc;
 
 import com.redhat.rhn.frontend.xmlrpc.serializer.SerializerFactory;
+import com.suse.manager.metrics.PrometheusExporter;
 
 import org.apache.log4j.Logger;
 
@@ -43,6 +44,8 @@ public class XmlRpcServlet extends HttpServlet {
 
     private static Logger log = Logger.getLogger(XmlRpcServlet.class);
 
+    private static boolean statsRegistered = false;
+
     private RhnXmlRpcServer server;
     private HandlerFactory handlers;
     private SerializerFactory serializers;
@@ -81,6 +84,7 @@ public class XmlRpcServlet extends HttpServlet {
 
         registerInvocationHandlers(server);
         registerCustomSerializers(server);
+        registerApiCallStats();
 
         // enhancement: if we ever need more than one InvocationProcessor
         // we should use the ManifestFactory like we did above for the
@@ -113,7 +117,17 @@ public class XmlRpcServlet extends HttpServlet {
                 log.debug("registerInvocationHandler: namespace [" + namespace +
                           "] handler [" + handlers.getHandler(namespace) + "]");
             }
-            srvr.addInvocationHandler(namespace, handlers.getHandler(namespace));
+            BaseHandler handler = handlers.getHandler(namespace);
+            // build the dispatch table now rather than on the first call
+            HandlerMethodIndex.forHandler(handler);
+            srvr.addInvocationHandler(namespace, handler);
+        }
+    }
+
+    private static synchronized void registerApiCallStats() {
+        if (!statsRegistered) {
+            PrometheusExporter.INSTANCE.registerApiCalls(ApiCallStats.INSTANCE);
+            statsRegistered = true;
         }
     }
 
@@ -729,10 +729,8 @@ public class ChannelSoftwareHandler extends BaseHandler {
         setChangedValues(ucc, details);
 
         ucc.update(channelId.longValue());
-        ServerFactory.listMinionsByChannel(channelId).stream().forEach(ms -> {
-            SaltStateGeneratorService.INSTANCE.generatePillar(ms, false,
-                    Collections.emptySet());
-        });
+        SaltStateGeneratorService.INSTANCE.generatePillars(
+                ServerFactory.listMinionsByChannel(channelId), false);
         return 1;
     }
 
@@ -67,7 +67,7 @@ public class ActivationKeySerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ActivationKey key = (ActivationKey)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         TokenSerializer.populateTokenInfo(key.getToken(), helper);
         helper.add("key", key.getKey());
         helper.writeTo(output);
@@ -79,7 +79,7 @@ public class CVEAuditImageSerializer extends RhnXmlRpcCustomSerializer {
             errataAdvisories.add(errata.getAdvisory());
         }
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("image_id", image.getId());
         helper.add("patch_status", image.getPatchStatus().toString());
         helper.add("channel_labels", channelLabels);
@@ -79,7 +79,7 @@ public class CVEAuditServerSerializer extends RhnXmlRpcCustomSerializer {
             errataAdvisories.add(errata.getAdvisory());
         }
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("system_id", system.getId());
         helper.add("patch_status", system.getPatchStatus().toString());
         helper.add("channel_labels", channelLabels);
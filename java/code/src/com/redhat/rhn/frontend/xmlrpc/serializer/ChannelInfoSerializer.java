@@ -50,7 +50,7 @@ public class ChannelInfoSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         ChannelInfo c = (ChannelInfo) value;
 
         helper.add("label", c.getLabel());
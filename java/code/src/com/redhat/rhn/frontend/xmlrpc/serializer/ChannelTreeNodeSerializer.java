@@ -55,7 +55,7 @@ public class ChannelTreeNodeSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         ChannelTreeNode ctn = (ChannelTreeNode)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", ctn.getId());
         helper.add("label", ctn.getChannelLabel());
@@ -56,7 +56,7 @@ public class ConfigChannelDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ConfigChannelDto dto = (ConfigChannelDto) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", dto.getId().longValue());
         helper.add("label", dto.getLabel());
         helper.add("name", dto.getName());
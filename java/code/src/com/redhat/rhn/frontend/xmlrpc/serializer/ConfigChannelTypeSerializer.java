@@ -44,7 +44,7 @@ public class ConfigChannelTypeSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
        throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         ConfigChannelType type = (ConfigChannelType) value;
         helper.add("id", type.getId());
         helper.add("label", type.getLabel());
@@ -55,7 +55,7 @@ public class ConfigFileDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ConfigFileDto dto = (ConfigFileDto) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("type", dto.getType());
         helper.add("path", dto.getPath());
         helper.add("last_modified", dto.getModified());
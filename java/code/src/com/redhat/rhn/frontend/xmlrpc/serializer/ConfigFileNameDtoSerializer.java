@@ -64,7 +64,7 @@ public class ConfigFileNameDtoSerializer extends RhnXmlRpcCustomSerializer {
             XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ConfigFileNameDto dto = (ConfigFileNameDto) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("type", dto.getConfigFileType());
         helper.add("path", dto.getPath());
         ConfigChannelType type =
@@ -99,7 +99,7 @@ public class ConfigRevisionSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ConfigRevision rev = (ConfigRevision) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         if (rev.getConfigFileType() != null) {
             helper.add(TYPE, rev.getConfigFileType().getLabel());
@@ -52,7 +52,7 @@ public class CryptoKeyDtoSerializer extends RhnXmlRpcCustomSerializer {
 
         CryptoKeyDto key = (CryptoKeyDto) o;
 
-        SerializerHelper serializer = new SerializerHelper(xmlRpcSerializer);
+        SerializerHelper serializer = new SerializerHelper(xmlRpcSerializer, writer);
         serializer.add("description", key.getDescription());
         serializer.add("type", key.getLabel());
         serializer.writeTo(writer);
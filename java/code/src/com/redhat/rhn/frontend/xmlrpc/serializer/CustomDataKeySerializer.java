@@ -54,7 +54,7 @@ public class CustomDataKeySerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         CustomDataKeyOverview key = (CustomDataKeyOverview)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", key.getId());
         helper.add("label", key.getLabel());
         helper.add("description", key.getDescription());
@@ -49,7 +49,7 @@ public class DeviceSerializer extends RhnXmlRpcCustomSerializer {
     throws XmlRpcException, IOException {
 
         Device dev = (Device) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("device", dev.getDevice());
         helper.add("device_class", dev.getDeviceClass());
         helper.add("driver", dev.getDriver());
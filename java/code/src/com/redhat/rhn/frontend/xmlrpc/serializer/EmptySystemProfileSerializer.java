@@ -52,7 +52,7 @@ public class EmptySystemProfileSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         EmptySystemProfileOverview system = (EmptySystemProfileOverview) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", system.getId());
         helper.add("name", system.getName());
         Date regDate = system.getCreated();
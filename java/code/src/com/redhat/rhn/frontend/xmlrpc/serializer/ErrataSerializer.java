@@ -54,7 +54,7 @@ public class ErrataSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         Errata errata = (Errata) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", errata.getId());
 
@@ -48,7 +48,7 @@ public class FilePreservationDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         FilePreservationDto fs = (FilePreservationDto)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("name", fs.getLabel());
         helper.add("id", fs.getId());
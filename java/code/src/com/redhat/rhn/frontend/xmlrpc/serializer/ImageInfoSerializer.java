@@ -45,7 +45,7 @@ public class ImageInfoSerializer extends RhnXmlRpcCustomSerializer {
     @Override
     protected void doSerialize(Object value, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
         ImageInfo image = (ImageInfo) value;
         Checksum chk = image.getChecksum();
         ImageStore store = image.getStore();
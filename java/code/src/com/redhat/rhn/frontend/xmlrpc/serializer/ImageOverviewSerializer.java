@@ -67,7 +67,7 @@ public class ImageOverviewSerializer extends RhnXmlRpcCustomSerializer {
     @Override
     protected void doSerialize(Object value, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
         ImageOverview image = (ImageOverview) value;
         Checksum chk = image.getChecksum();
         ImageProfile prof = image.getProfile();
@@ -46,7 +46,7 @@ public class ImageProfileSerializer extends RhnXmlRpcCustomSerializer {
     @Override
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
        throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         ImageProfile profile = (ImageProfile) value;
         helper.add("label", profile.getLabel());
         helper.add("imageType", profile.getImageType());
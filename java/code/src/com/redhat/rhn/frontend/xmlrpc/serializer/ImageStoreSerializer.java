@@ -44,7 +44,7 @@ public class ImageStoreSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
        throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         ImageStore store = (ImageStore) value;
         helper.add("label", store.getLabel());
         helper.add("uri", store.getUri());
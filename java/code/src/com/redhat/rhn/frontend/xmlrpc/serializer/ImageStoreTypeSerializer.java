@@ -42,7 +42,7 @@ public class ImageStoreTypeSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
        throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         ImageStoreType type = (ImageStoreType) value;
         helper.add("id", type.getId());
         helper.add("label", type.getLabel());
@@ -49,7 +49,7 @@ public class IssMasterSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object obj, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
 
         IssMaster master = (IssMaster) obj;
         helper.add("id", master.getId());
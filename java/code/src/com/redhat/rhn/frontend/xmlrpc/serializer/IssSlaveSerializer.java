@@ -49,7 +49,7 @@ public class IssSlaveSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object obj, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
 
         IssSlave slave = (IssSlave) obj;
         helper.add("id", slave.getId());
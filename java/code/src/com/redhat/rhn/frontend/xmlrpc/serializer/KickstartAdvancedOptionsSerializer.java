@@ -52,7 +52,7 @@ public class KickstartAdvancedOptionsSerializer extends RhnXmlRpcCustomSerialize
         throws XmlRpcException, IOException {
         KickstartCommand cmd = (KickstartCommand)value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("name", cmd.getCommandName().getName());
         helper.add("arguments", cmd.getArguments());
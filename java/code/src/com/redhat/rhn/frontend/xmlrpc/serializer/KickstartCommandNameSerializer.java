@@ -45,7 +45,7 @@ public class KickstartCommandNameSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
         KickstartCommandName kn = (KickstartCommandName)value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", kn.getId());
         helper.add("name", kn.getName());
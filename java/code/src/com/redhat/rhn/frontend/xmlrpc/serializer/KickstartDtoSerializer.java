@@ -52,7 +52,7 @@ public class KickstartDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         KickstartDto ks = (KickstartDto)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("label", ks.getLabel());
         helper.add("active", ks.isActive());
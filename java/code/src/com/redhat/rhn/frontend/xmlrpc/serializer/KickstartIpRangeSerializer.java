@@ -48,7 +48,7 @@ public class KickstartIpRangeSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         KickstartIpRange range = (KickstartIpRange)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("ksLabel", range.getKsdata().getLabel());
         helper.add("min", range.getMinString());
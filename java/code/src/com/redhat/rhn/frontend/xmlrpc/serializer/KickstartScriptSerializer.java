@@ -62,7 +62,7 @@ public class KickstartScriptSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         KickstartScript script = (KickstartScript) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", script.getId());
         helper.add("name", script.getScriptName());
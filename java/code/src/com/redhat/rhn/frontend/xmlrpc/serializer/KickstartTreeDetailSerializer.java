@@ -56,7 +56,7 @@ public class KickstartTreeDetailSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         KickstartableTreeDetail treeDetail = (KickstartableTreeDetail) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", treeDetail.getId());
         helper.add("label", treeDetail.getLabel());
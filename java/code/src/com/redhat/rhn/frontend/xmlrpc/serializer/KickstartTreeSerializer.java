@@ -55,7 +55,7 @@ public class KickstartTreeSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         KickstartableTree tree = (KickstartableTree)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("id", tree.getId());
         helper.add("label", tree.getLabel());
@@ -65,7 +65,7 @@ public class ManagedServerGroupSerializer extends RhnXmlRpcCustomSerializer {
 
         ServerGroup sg = (ServerGroup) value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", sg.getId());
         helper.add("name", sg.getName());
         helper.add("description", sg.getDescription());
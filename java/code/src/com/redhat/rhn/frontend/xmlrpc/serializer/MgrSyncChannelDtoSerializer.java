@@ -60,7 +60,7 @@ public class MgrSyncChannelDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object obj, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         MgrSyncChannelDto channel = (MgrSyncChannelDto) obj;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
 
         helper.add("arch", channel.getArch().orElse(PackageFactory.lookupPackageArchByLabel("noarch")).getLabel());
         helper.add("description", channel.getDescription());
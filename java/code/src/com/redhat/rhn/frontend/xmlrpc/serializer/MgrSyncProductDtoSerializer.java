@@ -62,7 +62,7 @@ public class MgrSyncProductDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object obj, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         MgrSyncProductDto product = (MgrSyncProductDto) obj;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("friendly_name", product.getFriendlyName());
         helper.add("arch", product.getArch().orElse("noarch"));
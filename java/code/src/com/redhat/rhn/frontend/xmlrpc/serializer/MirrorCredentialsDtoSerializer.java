@@ -47,7 +47,7 @@ public class MirrorCredentialsDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object obj, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         MirrorCredentialsDto credentials = (MirrorCredentialsDto) obj;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
         helper.add("id", credentials.getId());
         helper.add("user", credentials.getUser());
         helper.add("isPrimary", credentials.isPrimary());
@@ -52,7 +52,7 @@ public class NetworkDtoSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         NetworkDto net = (NetworkDto)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("systemId", net.getId());
         String name = net.getName();
         if (StringUtils.isBlank(name)) {
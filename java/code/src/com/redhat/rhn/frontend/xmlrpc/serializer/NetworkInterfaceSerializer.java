@@ -76,7 +76,7 @@ public class NetworkInterfaceSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         NetworkInterface device = (NetworkInterface)value;
-        SerializerHelper devMap = new SerializerHelper(serializer);
+        SerializerHelper devMap = new SerializerHelper(serializer, output);
         ArrayList<Map<String, String>> ipv6List = new ArrayList<>();
         ArrayList<Map<String, String>> ipv4List = new ArrayList<>();
 
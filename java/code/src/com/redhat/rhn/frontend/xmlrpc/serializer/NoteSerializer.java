@@ -55,7 +55,7 @@ public class NoteSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output,
             XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         Note note = (Note) value;
         helper.add("id", note.getId());
@@ -41,7 +41,7 @@ public class ObjectSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
-        SerializerHelper s = new SerializerHelper(serializer);
+        SerializerHelper s = new SerializerHelper(serializer, output);
         s.add("value", String.valueOf(value));
         s.writeTo(output);
     }
@@ -58,7 +58,7 @@ public class PackageDtoSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
         PackageDto pack = (PackageDto) value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("name", pack.getName());
         helper.add("version", pack.getVersion());
         helper.add("release", pack.getRelease());
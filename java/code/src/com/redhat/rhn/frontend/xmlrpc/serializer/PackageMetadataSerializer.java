@@ -61,7 +61,7 @@ public class PackageMetadataSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         PackageMetadata pkg = (PackageMetadata) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("package_name_id", pkg.getId());
         helper.add("package_name", pkg.getName());
         helper.add("package_epoch", pkg.getEpoch());
@@ -55,7 +55,7 @@ public class PackageNevraSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         PackageNevra pack = (PackageNevra)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("name", pack.getName().getName());
         helper.add("epoch", pack.getEvr().getEpoch());
         helper.add("version", pack.getEvr().getVersion());
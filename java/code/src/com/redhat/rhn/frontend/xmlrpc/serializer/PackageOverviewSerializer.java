@@ -54,7 +54,7 @@ public class PackageOverviewSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         PackageOverview pO = (PackageOverview)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", pO.getId());
         helper.add("name", pO.getPackageName());
         helper.add("summary", pO.getSummary());
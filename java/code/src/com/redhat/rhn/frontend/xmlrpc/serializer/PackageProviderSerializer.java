@@ -49,7 +49,7 @@ public class PackageProviderSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         PackageProvider prov = (PackageProvider)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("name", prov.getName());
         helper.add("keys", prov.getKeys());
         helper.writeTo(output);
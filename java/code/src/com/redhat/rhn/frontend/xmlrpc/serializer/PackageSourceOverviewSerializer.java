@@ -46,7 +46,7 @@ public class PackageSourceOverviewSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         PackageSourceOverview pO = (PackageSourceOverview)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", pO.getId());
         helper.add("name", pO.getNvrea());
         helper.writeTo(output);
@@ -50,7 +50,7 @@ public class PinnedSubscriptionSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object obj, Writer writer, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         PinnedSubscription pinnedSubscription = (PinnedSubscription) obj;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, writer);
         helper.add("id", pinnedSubscription.getId());
         helper.add("subscription_id", pinnedSubscription.getSubscriptionId());
         helper.add("system_id", pinnedSubscription.getSystemId());
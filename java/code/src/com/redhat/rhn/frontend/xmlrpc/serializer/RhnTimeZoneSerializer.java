@@ -47,7 +47,7 @@ public class RhnTimeZoneSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
         RhnTimeZone tz = (RhnTimeZone) value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("time_zone_id", new Integer(tz.getTimeZoneId()));
         helper.add("olson_name", tz.getOlsonName());
         helper.writeTo(output);
@@ -54,7 +54,7 @@ public class SUSEInstalledProductSerializer extends RhnXmlRpcCustomSerializer {
             throws XmlRpcException, IOException {
 
         SUSEInstalledProduct product = (SUSEInstalledProduct) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("name", product.getName());
         helper.add("isBaseProduct", product.isBaseproduct());
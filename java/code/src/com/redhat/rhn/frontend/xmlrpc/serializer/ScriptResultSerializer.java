@@ -56,7 +56,7 @@ public class ScriptResultSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         ScriptResult scriptResult = (ScriptResult)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("serverId", scriptResult.getServerId());
         helper.add("startDate", scriptResult.getStartDate());
         helper.add("stopDate", scriptResult.getStopDate());
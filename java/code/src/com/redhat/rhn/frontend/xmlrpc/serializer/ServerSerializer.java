@@ -92,7 +92,7 @@ public class ServerSerializer extends RhnXmlRpcCustomSerializer {
 
         Server server = (Server)value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", server.getId());
         helper.add("profile_name", server.getName());
         helper.add("machine_id", server.getMachineId());
@@ -72,7 +72,7 @@ public class ServerSnapshotSerializer extends RhnXmlRpcCustomSerializer {
 
         ServerSnapshot snap = (ServerSnapshot)value;
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", snap.getId());
         helper.add("reason", snap.getReason());
         helper.add("created", snap.getCreated());
@@ -50,7 +50,7 @@ public class SnippetSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
         CobblerSnippet snippet = (CobblerSnippet)value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("name", snippet.getName());
         helper.add("contents", snippet.getContents());
         helper.add("fragment", snippet.getFragment());
@@ -51,7 +51,7 @@ public class SslContentSourceSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         SslContentSource sslSet = (SslContentSource) value;
         SslCryptoKey ca = sslSet.getCaCert();
         SslCryptoKey cert = sslSet.getClientCert();
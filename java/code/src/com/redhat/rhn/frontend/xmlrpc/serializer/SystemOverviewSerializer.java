@@ -59,7 +59,7 @@ public class SystemOverviewSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         SystemOverview system = (SystemOverview) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", system.getId());
         helper.add("name", system.getName());
         helper.add("last_checkin", system.getLastCheckinDate());
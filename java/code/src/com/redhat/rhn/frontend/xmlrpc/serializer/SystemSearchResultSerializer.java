@@ -59,7 +59,7 @@ public class SystemSearchResultSerializer extends RhnXmlRpcCustomSerializer {
             XmlRpcSerializer serializer) throws XmlRpcException,
             IOException {
         SystemSearchResult result = (SystemSearchResult) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("id", result.getId());
         helper.add("name", result.getName());
         helper.add("last_checkin", result.getLastCheckinDate());
@@ -51,7 +51,7 @@ public class UserSerializer extends RhnXmlRpcCustomSerializer {
      */
     protected void doSerialize(Object value, Writer output, XmlRpcSerializer serializer)
         throws XmlRpcException, IOException {
-       SerializerHelper helper = new SerializerHelper(serializer);
+       SerializerHelper helper = new SerializerHelper(serializer, output);
 
        User user = (User) value;
        helper.add("id", user.getId());
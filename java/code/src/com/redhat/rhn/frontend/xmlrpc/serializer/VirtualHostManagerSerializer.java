@@ -56,7 +56,7 @@ public class VirtualHostManagerSerializer extends RhnXmlRpcCustomSerializer {
     protected void doSerialize(Object obj, Writer output, XmlRpcSerializer serializer)
             throws XmlRpcException, IOException {
         VirtualHostManager manager = (VirtualHostManager) obj;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
 
         helper.add("label", manager.getLabel());
         helper.add("org_id", manager.getOrg().getId());
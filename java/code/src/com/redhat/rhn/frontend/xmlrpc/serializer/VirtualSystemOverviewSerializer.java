@@ -57,7 +57,7 @@ public class VirtualSystemOverviewSerializer extends RhnXmlRpcCustomSerializer {
         throws XmlRpcException, IOException {
 
         VirtualSystemOverview system = (VirtualSystemOverview) value;
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         helper.add("uuid", system.getUuid());
         helper.add("id", system.getVirtualSystemId());
         helper.add("guest_name", system.getName());
@@ -70,7 +70,7 @@ public class XccdfTestResultSerializer extends RhnXmlRpcCustomSerializer {
         XccdfProfile profile = testResult.getProfile();
         Action parentAction = actionDetails.getParentAction();
 
-        SerializerHelper helper = new SerializerHelper(serializer);
+        SerializerHelper helper = new SerializerHelper(serializer, output);
         addToHelper(helper, "xid", testResult.getId());
         addToHelper(helper, "sid", testResult.getServer().getId());
         addToHelper(helper, "path", actionDetails.getPath());
@@ -23,19 +23,41 @@ import redstone.xmlrpc.XmlRpcSerializer;
 
 /**
  * SimpleSerializer
+ *
+ * A helper created with the writer of the serializer streams its members straight
+ * to that writer, so nested structs are not buffered and copied at every level.
+ * A helper created without a writer buffers its members until {@link #writeTo(Writer)}.
  * @version $Rev$
  */
 public class SerializerHelper {
-    private Writer output = new StringWriter();
+    private Writer output;
     private XmlRpcSerializer serializer;
+    private final boolean streaming;
+    private boolean started;
 
     /**
-     * Constructs a SerializerHelper
+     * Constructs a SerializerHelper buffering the members until they are written
      * @param basicSerializer serializer to convert basic objects to
      * XMLRPC format
      */
     public SerializerHelper(XmlRpcSerializer basicSerializer) {
         serializer = basicSerializer;
+        output = new StringWriter();
+        streaming = false;
+    }
+
+    /**
+     * Constructs a SerializerHelper streaming the members to the given writer.
+     * Nothing else may be written to the writer until {@link #writeTo(Writer)}
+     * is called with it.
+     * @param basicSerializer serializer to convert basic objects to
+     * XMLRPC format
+     * @param out the writer the struct is written to
+     */
+    public SerializerHelper(XmlRpcSerializer basicSerializer, Writer out) {
+        serializer = basicSerializer;
+        output = out;
+        streaming = true;
     }
 
     /**
@@ -49,29 +71,55 @@ public class SerializerHelper {
     }
 
     /**
-     * Writes the xml rpc snippet  to the out param
+     * Writes the xml rpc snippet  to the out param. A streaming helper only
+     * closes the struct, so out must be the writer it was constructed with.
      * @param out the writer to whom the output will be written
      * @throws IOException problem writing to given Writer
      */
     public void writeTo(Writer out) throws IOException {
-        out.write("<struct>");
-        out.write(output.toString());
+        if (streaming) {
+            if (out != output) {
+                throw new IllegalArgumentException(
+                        "Streaming struct must be written to the writer it was created with");
+            }
+            start();
+            started = false;
+        }
+        else {
+            out.write("<struct>");
+            out.write(output.toString());
+        }
         out.write("</struct>");
         out.write("\n");
     }
 
     /**
      * resets the saved xmlrpc data so one can
-     * start over with a new snippet
+     * start over with a new snippet. Members already streamed to the
+     * writer cannot be taken back.
      */
     public void clear() {
-        output = new StringWriter();
+        if (streaming) {
+            if (started) {
+                throw new IllegalStateException("Streamed members cannot be cleared");
+            }
+        }
+        else {
+            output = new StringWriter();
+        }
     }
+
+    private void start() throws IOException {
+        if (streaming && !started) {
+            output.write("<struct>");
+            started = true;
+        }
+    }
+
     /**
      * Generates an XMLRPC <member>.
      * @param name Member name.
      * @param value Value to be serialized.
-     * @param output Buffer to serialize the value to.
      * @throws XmlRpcException thrown if a problem occurs with serializing
      * the value.
      */
@@ -83,6 +131,7 @@ public class SerializerHelper {
         }
 
         try {
+            start();
             output.write("<member><name>");
             output.write(name);
             output.write("</name>");
@@ -44,4 +44,17 @@ public class SerializerHelperTest extends TestCase {
         sl.writeTo(actual);
         assertEquals("<struct></struct>\n", actual.toString());
     }
+
+    public void testSerializeStreaming() throws Exception {
+        Writer actual = new StringWriter();
+        actual.write("<value>");
+        SerializerHelper sl = new SerializerHelper(new XmlRpcSerializer(), actual);
+        sl.add("foo", new Long(12));
+        sl.add("bar", null);
+        sl.writeTo(actual);
+        actual.write("</value>");
+        String expected = "<value><struct><member><name>foo</name><value><i4>12</i4>" +
+                "</value></member>\n</struct>\n</value>";
+        assertEquals(expected, actual.toString());
+    }
 }
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.frontend.xmlrpc.test;
+
+import com.redhat.rhn.frontend.xmlrpc.ApiCallStats;
+import com.redhat.rhn.frontend.xmlrpc.HandlerMethodIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import redstone.xmlrpc.XmlRpcFault;
+
+/**
+ * Tests for HandlerMethodIndex
+ */
+public class HandlerMethodIndexTest extends TestCase {
+
+    public void testFindMethods() {
+        HandlerMethodIndex index = HandlerMethodIndex.forHandler(new UnitTestHandler());
+        assertSame(index, HandlerMethodIndex.forHandler(new UnitTestHandler()));
+
+        assertEquals(1, index.findMethods("add", 2).size());
+        assertEquals("add", index.findMethods("add", 2).get(0).getName());
+        assertTrue(index.findMethods("add", 1).isEmpty());
+        assertTrue(index.findMethods("subtract", 2).isEmpty());
+    }
+
+    public void testIsReadonly() {
+        HandlerMethodIndex index = HandlerMethodIndex.forHandler(new UnitTestHandler());
+        assertTrue(index.isReadonly("getUserLogin"));
+        assertFalse(index.isReadonly("throwFault"));
+    }
+
+    public void testInvokeRecordsStats() throws Exception {
+        ApiCallStats.MethodStats stats = ApiCallStats.INSTANCE.get("unittest.add");
+        long calls = stats.getCalls();
+        long failed = stats.getFailed();
+        ApiCallStats.MethodStats faultStats = ApiCallStats.INSTANCE.get("unittest.throwFault");
+        long faults = faultStats.getFailed();
+
+        UnitTestHandler handler = new UnitTestHandler();
+        List<Object> params = new ArrayList<>(Arrays.asList(1, 2));
+        assertEquals(3, handler.invoke("unittest.add", params));
+        try {
+            handler.invoke("unittest.throw_fault", new ArrayList<>());
+            fail("XmlRpcFault expected");
+        }
+        catch (XmlRpcFault e) {
+            // expected
+        }
+
+        assertEquals(calls + 1, stats.getCalls());
+        assertEquals(failed, stats.getFailed());
+        assertEquals(faults + 1, faultStats.getFailed());
+    }
+}
@@ -1136,7 +1136,23 @@ public class ActionManager extends BaseManager {
      */
     public static PackageAction schedulePackageRefresh(Org schedulerOrg, Server server)
         throws TaskomaticApiException {
-        checkSaltOrManagementEntitlement(server.getId());
+        return schedulePackageRefresh(schedulerOrg, Collections.singletonList(server));
+    }
+
+    /**
+     * Schedule a single package list refresh for several servers without a user.
+     *
+     * @param schedulerOrg the organization the servers belong to
+     * @param servers the servers
+     * @return the scheduled PackageRefreshListAction
+     * @throws TaskomaticApiException if there was a Taskomatic error
+     * (typically: Taskomatic is down)
+     */
+    public static PackageAction schedulePackageRefresh(Org schedulerOrg,
+            List<? extends Server> servers) throws TaskomaticApiException {
+        for (Server server : servers) {
+            checkSaltOrManagementEntitlement(server.getId());
+        }
 
         Action action = ActionFactory.createAction(
                 ActionFactory.TYPE_PACKAGES_REFRESH_LIST);
@@ -1145,12 +1161,14 @@ public class ActionManager extends BaseManager {
         action.setSchedulerUser(null);
         action.setEarliestAction(new Date());
 
-        ServerAction sa = new ServerAction();
-        sa.setStatus(ActionFactory.STATUS_QUEUED);
-        sa.setRemainingTries(REMAINING_TRIES);
-        sa.setServer(server);
-        action.addServerAction(sa);
-        sa.setParentAction(action);
+        for (Server server : servers) {
+            ServerAction sa = new ServerAction();
+            sa.setStatus(ActionFactory.STATUS_QUEUED);
+            sa.setRemainingTries(REMAINING_TRIES);
+            sa.setServer(server);
+            action.addServerAction(sa);
+            sa.setParentAction(action);
+        }
 
         ActionFactory.save(action);
         taskomaticApi.scheduleActionExecution(action);
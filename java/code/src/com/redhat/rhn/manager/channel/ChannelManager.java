@@ -628,9 +628,7 @@ public class ChannelManager extends BaseManager {
             throws TaskomaticApiException {
         Optional<Long> actionId = Optional.empty();
         if (minions.size() > 0) {
-            for (MinionServer ms: minions) {
-                SaltStateGeneratorService.INSTANCE.generatePillar(ms, false, Collections.emptySet());
-            }
+            SaltStateGeneratorService.INSTANCE.generatePillars(minions, false);
             actionId = Optional.of(ActionManager.scheduleChannelState(user, minions).getId());
         }
         return actionId;
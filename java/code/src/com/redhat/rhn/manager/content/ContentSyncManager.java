@@ -91,6 +91,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -314,7 +315,7 @@ public class ContentSyncManager {
      * @return list of all available products
      */
     private List<MgrSyncProductDto> listProductsImpl() {
-        List<String> installedChannelLabels = getInstalledChannelLabels();
+        Set<String> installedChannelLabels = getInstalledChannelLabels();
 
         List<Tuple2<SUSEProductSCCRepository, MgrSyncStatus>> availableChannels =
                 TimeUtils.logTime(log, "getAvailableCHannels", () -> getAvailableChannels()).stream().map(e -> {
@@ -482,6 +483,7 @@ public class ContentSyncManager {
         }
         linkAndRefreshContentSource(mirrorUrl);
         ManagerInfoFactory.setLastMgrSyncRefresh();
+        ProductTreeIndex.markChanged();
     }
 
     /**
@@ -570,7 +572,7 @@ public class ContentSyncManager {
      */
     public void refreshRepositoriesAuthentication(
             Collection<SCCRepositoryJson> repositories, Credentials c, String mirrorUrl) {
-        List<Long> repoIdsFromCredential = new LinkedList<>();
+        Set<Long> repoIdsFromCredential = new HashSet<>();
         Map<Long, SCCRepository> availableRepos = SCCCachingFactory.lookupRepositories().stream()
                 .collect(Collectors.toMap(r -> r.getSccId(), r -> r));
         List<SCCRepositoryAuth> allRepoAuths = SCCCachingFactory.lookupRepositoryAuth();
@@ -700,6 +702,7 @@ public class ContentSyncManager {
         authList.stream()
             .filter(repoAuth -> !repoIdsFromCredential.contains(repoAuth.getRepository().getSccId()))
             .forEach(repoAuth -> SCCCachingFactory.deleteRepositoryAuth(repoAuth));
+        ProductTreeIndex.markChanged();
     }
 
     /**
@@ -1022,6 +1025,7 @@ public class ContentSyncManager {
                 }
             }
         }
+        ProductTreeIndex.markChanged();
         log.info("ContentSyncManager.updateChannelFamilies finished");
     }
 
@@ -1396,6 +1400,7 @@ public class ContentSyncManager {
         SUSEProductFactory.removeAllExcept(processed.values());
 
         updateUpgradePaths(products, upgradePathJsons);
+        ProductTreeIndex.markChanged();
         log.info("ContentSyncManager.updateSUSEProducts finished");
     }
 
@@ -1426,51 +1431,7 @@ public class ContentSyncManager {
      * @return stream of available repositories of product
      */
     private Stream<SUSEProductSCCRepository> getAvailableRepositories(SUSEProduct root, SUSEProduct product) {
-        List<SUSEProductSCCRepository> allEntries = SUSEProductFactory.allProductRepos();
-        List<Long> repoIdsWithAuth = SCCCachingFactory.lookupRepositoryIdsWithAuth();
-
-        Map<Tuple2<SUSEProduct, SUSEProduct>, List<SUSEProductSCCRepository>> entriesByProducts = allEntries.stream()
-                .collect(Collectors.groupingBy(e -> new Tuple2<>(e.getRootProduct(), e.getProduct())));
-        return getAvailableRepositories(root, product, entriesByProducts, repoIdsWithAuth);
-    }
-
-    /**
-     * Find all available repositories for product and all extensions of product
-     * @param root root product of product
-     * @param product product to get available repositories from
-     * @param allEntries lookup map for repositories by product and root product
-     * @param repoIdsWithAuth lookup list for all authenticated repositories by id
-     * @return stream of available repositories of product
-     */
-    private Stream<SUSEProductSCCRepository> getAvailableRepositories(SUSEProduct root, SUSEProduct product,
-            Map<Tuple2<SUSEProduct, SUSEProduct>, List<SUSEProductSCCRepository>> allEntries,
-            List<Long> repoIdsWithAuth) {
-
-            List<SUSEProductSCCRepository> entries =
-                    Optional.ofNullable(allEntries.get(new Tuple2<>(root, product)))
-                    .orElseGet(Collections::emptyList);
-            boolean isAccessible = entries.stream()
-                    .filter(e -> e.isMandatory())
-                    .allMatch(entry ->
-                 entry.getProduct().getChannelFamily().isPublic() &&
-                 // isMirrorable
-                 repoIdsWithAuth.contains(entry.getRepository().getId())
-            );
-
-            log.debug(isAccessible + " " + entries.stream().map(s -> s.getId().toString())
-                    .collect(Collectors.joining(",")));
-
-             if (isAccessible) {
-                 return Stream.concat(
-                     entries.stream(),
-                     SUSEProductFactory.findAllExtensionProductsForRootOf(product, root).stream()
-                             .flatMap(nextProduct ->
-                                     getAvailableRepositories(root, nextProduct, allEntries, repoIdsWithAuth))
-                 );
-             }
-             else {
-                 return Stream.empty();
-             }
+        return toProductRepos(ProductTreeIndex.get().availableRepositoryIds(root.getId(), product.getId()));
     }
 
     /**
@@ -1479,18 +1440,13 @@ public class ContentSyncManager {
      * @return list of available channels
      */
     public List<SUSEProductSCCRepository> getAvailableChannels() {
-        List<SUSEProductSCCRepository> allEntries = SUSEProductFactory.allProductRepos();
-        List<Long> repoIdsWithAuth = SCCCachingFactory.lookupRepositoryIdsWithAuth();
-
-        Map<Tuple2<SUSEProduct, SUSEProduct>, List<SUSEProductSCCRepository>> entriesByProducts = allEntries.stream()
-                .collect(Collectors.groupingBy(e -> new Tuple2<>(e.getRootProduct(), e.getProduct())));
+        return toProductRepos(ProductTreeIndex.get().availableRepositoryIds()).collect(Collectors.toList());
+    }
 
-        return allEntries.stream()
-                .filter(e -> e.isRoot())
-                .map(e -> e.getProduct())
-                .distinct()
-                .flatMap(p -> getAvailableRepositories(p, p, entriesByProducts, repoIdsWithAuth))
-                .collect(Collectors.toList());
+    private static Stream<SUSEProductSCCRepository> toProductRepos(List<Long> ids) {
+        Map<Long, SUSEProductSCCRepository> entriesById = SUSEProductFactory.allProductRepos().stream()
+                .collect(Collectors.toMap(SUSEProductSCCRepository::getId, Function.identity()));
+        return ids.stream().map(entriesById::get).filter(Objects::nonNull);
     }
 
     /**
@@ -1787,9 +1743,9 @@ public class ContentSyncManager {
      *
      * @return the installed channel labels
      */
-    private List<String> getInstalledChannelLabels() {
+    private Set<String> getInstalledChannelLabels() {
         List<Channel> installedChannels = ChannelFactory.listVendorChannels();
-        List<String> installedChannelLabels = new ArrayList<String>();
+        Set<String> installedChannelLabels = new HashSet<String>();
         for (Channel c : installedChannels) {
             installedChannelLabels.add(c.getLabel());
         }
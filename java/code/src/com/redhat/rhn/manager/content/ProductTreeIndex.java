@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.manager.content;
+
+import com.redhat.rhn.domain.common.SatConfigFactory;
+import com.redhat.rhn.domain.product.SUSEProductExtension;
+import com.redhat.rhn.domain.product.SUSEProductFactory;
+import com.redhat.rhn.domain.product.SUSEProductSCCRepository;
+import com.redhat.rhn.domain.product.Tuple2;
+import com.redhat.rhn.domain.scc.SCCCachingFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory index of the product tree telling which product repositories are
+ * available, that is, reachable from a root product through products whose
+ * mandatory repositories can all be mirrored.
+ *
+ * The index only holds ids, so it outlives the Hibernate session it was loaded
+ * in. It is shared until the product tree or the repository authentications
+ * change. Code changing them calls {@link #markChanged()}, which writes a new
+ * stamp in the same transaction, and the index is loaded again once a lookup
+ * reads a committed stamp different from the one it was loaded with. This
+ * works across processes, as the refresh usually runs in Taskomatic.
+ */
+public class ProductTreeIndex {
+
+    private static Logger log = Logger.getLogger(ProductTreeIndex.class);
+
+    private static volatile ProductTreeIndex current;
+
+    private final String stamp;
+    private final Set<Long> rootIds;
+    // product repository ids by root product id and product id
+    private final Map<Tuple2<Long, Long>, List<Long>> reposByRootAndProduct;
+    // root product id and product id pairs with a mandatory repository that cannot be mirrored
+    private final Set<Tuple2<Long, Long>> inaccessible;
+    // extension product ids by root product id and base product id
+    private final Map<Tuple2<Long, Long>, List<Long>> extensionsByRootAndBase;
+
+    private ProductTreeIndex(String stampIn) {
+        stamp = stampIn;
+        rootIds = new LinkedHashSet<>();
+        reposByRootAndProduct = new HashMap<>();
+        inaccessible = new HashSet<>();
+        extensionsByRootAndBase = new HashMap<>();
+
+        Set<Long> repoIdsWithAuth = new HashSet<>(SCCCachingFactory.lookupRepositoryIdsWithAuth());
+        for (SUSEProductSCCRepository entry : SUSEProductFactory.allProductRepos()) {
+            Tuple2<Long, Long> key = new Tuple2<>(entry.getRootProduct().getId(), entry.getProduct().getId());
+            reposByRootAndProduct.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getId());
+            if (entry.isMandatory() && !(entry.getProduct().getChannelFamily().isPublic() &&
+                    // isMirrorable
+                    repoIdsWithAuth.contains(entry.getRepository().getId()))) {
+                inaccessible.add(key);
+            }
+            if (entry.isRoot()) {
+                rootIds.add(entry.getProduct().getId());
+            }
+        }
+        for (SUSEProductExtension extension : SUSEProductFactory.findAllSUSEProductExtensions()) {
+            extensionsByRootAndBase.computeIfAbsent(new Tuple2<>(extension.getRootProduct().getId(),
+                    extension.getBaseProduct().getId()), k -> new ArrayList<>())
+                    .add(extension.getExtensionProduct().getId());
+        }
+    }
+
+    /**
+     * Returns the index of the current product tree, loading it if the product tree
+     * changed since it was last loaded.
+     * @return the index
+     */
+    public static ProductTreeIndex get() {
+        // read before the product tree, so that the index is never older than its stamp
+        String stamp = SatConfigFactory.getSatConfigValue(SatConfigFactory.PRODUCT_TREE_STAMP);
+        ProductTreeIndex index = current;
+        if (index == null || !Objects.equals(index.stamp, stamp)) {
+            long start = System.currentTimeMillis();
+            index = new ProductTreeIndex(stamp);
+            current = index;
+            if (log.isDebugEnabled()) {
+                log.debug("Loaded product tree index in " + (System.currentTimeMillis() - start) + " ms");
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Records that the product tree or the repository authentications changed, in
+     * the current transaction. Lookups load the index again once it is committed.
+     */
+    public static void markChanged() {
+        SatConfigFactory.setSatConfigValue(SatConfigFactory.PRODUCT_TREE_STAMP,
+                UUID.randomUUID().toString());
+    }
+
+    /**
+     * Drops the index of this process, so that the next {@link #get()} loads it
+     * again. Needed only for unit tests, whose changes are never committed.
+     */
+    public static void invalidate() {
+        current = null;
+    }
+
+    /**
+     * Returns the ids of the available product repositories of all root products.
+     * @return the product repository ids, in tree order
+     */
+    public List<Long> availableRepositoryIds() {
+        List<Long> result = new ArrayList<>();
+        for (Long rootId : rootIds) {
+            collectAvailable(rootId, rootId, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of the available product repositories of a product and of all
+     * its extensions for the given root.
+     * @param rootId id of the root product
+     * @param productId id of the product
+     * @return the product repository ids, in tree order
+     */
+    public List<Long> availableRepositoryIds(long rootId, long productId) {
+        List<Long> result = new ArrayList<>();
+        collectAvailable(rootId, productId, result);
+        return result;
+    }
+
+    private void collectAvailable(Long rootId, Long productId, List<Long> result) {
+        Tuple2<Long, Long> key = new Tuple2<>(rootId, productId);
+        if (inaccessible.contains(key)) {
+            return;
+        }
+        result.addAll(reposByRootAndProduct.getOrDefault(key, Collections.emptyList()));
+        for (Long extensionId : extensionsByRootAndBase.getOrDefault(key, Collections.emptyList())) {
+            collectAvailable(rootId, extensionId, result);
+        }
+    }
+}
@@ -41,6 +41,7 @@ import com.redhat.rhn.domain.scc.SCCRepositoryTokenAuth;
 import com.redhat.rhn.manager.content.ContentSyncException;
 import com.redhat.rhn.manager.content.ContentSyncManager;
 import com.redhat.rhn.manager.content.MgrSyncProductDto;
+import com.redhat.rhn.manager.content.ProductTreeIndex;
 import com.redhat.rhn.manager.content.StaticInfoEntry;
 import com.redhat.rhn.testing.BaseTestCaseWithUser;
 import com.redhat.rhn.testing.TestUtils;
@@ -1422,6 +1423,7 @@ public class ContentSyncManagerTest extends BaseTestCaseWithUser {
         super.setUp();
 
         // Clear data for all tests
+        ProductTreeIndex.invalidate();
         clearCredentials();
         SCCCachingFactory.clearRepositories();
         renameVendorChannels();
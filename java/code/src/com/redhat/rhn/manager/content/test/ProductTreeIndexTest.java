@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.manager.content.test;
+
+import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.credentials.Credentials;
+import com.redhat.rhn.domain.credentials.CredentialsFactory;
+import com.redhat.rhn.domain.product.test.SUSEProductTestUtils;
+import com.redhat.rhn.manager.content.ContentSyncManager;
+import com.redhat.rhn.manager.content.ProductTreeIndex;
+import com.redhat.rhn.testing.BaseTestCaseWithUser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link ProductTreeIndex}.
+ */
+public class ProductTreeIndexTest extends BaseTestCaseWithUser {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        ProductTreeIndex.invalidate();
+        SUSEProductTestUtils.createVendorSUSEProductEnvironment(user,
+                "/com/redhat/rhn/manager/content/test/smallBase", true);
+        HibernateFactory.getSession().flush();
+        HibernateFactory.getSession().clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tearDown() throws Exception {
+        ProductTreeIndex.invalidate();
+        super.tearDown();
+    }
+
+    /**
+     * Tests that the index is shared until the stamp changes.
+     * @throws Exception if anything goes wrong
+     */
+    public void testReloadOnStampChange() throws Exception {
+        ProductTreeIndex index = ProductTreeIndex.get();
+        assertSame(index, ProductTreeIndex.get());
+
+        ProductTreeIndex.markChanged();
+        ProductTreeIndex reloaded = ProductTreeIndex.get();
+        assertNotSame(index, reloaded);
+        assertEquals(index.availableRepositoryIds(), reloaded.availableRepositoryIds());
+        assertSame(reloaded, ProductTreeIndex.get());
+    }
+
+    /**
+     * Tests that removing the repository authentications of the credentials, which
+     * does not change the product tree, makes their repositories unavailable.
+     * @throws Exception if anything goes wrong
+     */
+    public void testAuthenticationChange() throws Exception {
+        List<Long> available = ProductTreeIndex.get().availableRepositoryIds();
+        assertFalse(available.isEmpty());
+
+        ContentSyncManager csm = new ContentSyncManager();
+        for (Credentials c : CredentialsFactory.lookupSCCCredentials()) {
+            csm.refreshRepositoriesAuthentication(Collections.emptyList(), c, null);
+        }
+        HibernateFactory.getSession().flush();
+
+        List<Long> availableAfter = ProductTreeIndex.get().availableRepositoryIds();
+        assertTrue(availableAfter.size() < available.size());
+    }
+}
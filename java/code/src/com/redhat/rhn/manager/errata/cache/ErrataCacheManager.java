@@ -17,6 +17,7 @@ package com.redhat.rhn.manager.errata.cache;
 import com.redhat.rhn.common.db.datasource.CallableMode;
 import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.db.datasource.ModeFactory;
+import com.redhat.rhn.common.db.datasource.SelectMode;
 import com.redhat.rhn.common.db.datasource.WriteMode;
 import com.redhat.rhn.common.hibernate.HibernateFactory;
 import com.redhat.rhn.common.messaging.MessageQueue;
@@ -151,6 +152,25 @@ public class ErrataCacheManager extends HibernateFactory {
         return m.executeUpdate(params);
     }
 
+    /**
+     * Brings the records of rhnServerNeededCache for the server provided up to date.
+     * Only stale records are deleted and only missing ones are inserted, so that a
+     * server whose needed packages barely changed costs few writes.
+     * @param sid Server Id
+     * @return number of rows inserted.
+     */
+    public static int updateNeededCache(Long sid) {
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("server_id", sid);
+        // serialize with other updates of the cache of this server
+        SelectMode lock = ModeFactory.getMode("ErrataCache_queries",
+                "lock_server_for_needed_cache");
+        lock.execute(params);
+        WriteMode m = ModeFactory.getWriteMode("ErrataCache_queries",
+                "update_needed_cache_delta");
+        return m.executeUpdate(params);
+    }
+
     /**
      * Inserts record into NeededErrata cache table
      * @param sid Server Id
@@ -26,10 +26,15 @@ import com.redhat.rhn.domain.org.OrgFactory;
 import com.redhat.rhn.manager.BaseTransactionCommand;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * UpdateErrataCacheCommand
@@ -79,16 +84,12 @@ public class UpdateErrataCacheCommand extends BaseTransactionCommand {
             log.debug("allservers returned [" + dr.size() + "]");
         }
 
+        List<Long> serverIds = new ArrayList<Long>();
         for (Iterator itr = dr.iterator(); itr.hasNext();) {
             Map item = (Map) itr.next();
-            Long sid = (Long) item.get("id");
-            if (log.isDebugEnabled() && sid != null) {
-                log.debug("Working on server [" + sid.toString() + "]");
-            }
-            Long serverId = new Long(sid.longValue());
-            processServer(serverId);
-            handleTransaction();
+            serverIds.add((Long) item.get("id"));
         }
+        processServers(serverIds);
 
         if (log.isDebugEnabled()) {
             log.debug("Deleting ErrataCache Queue");
@@ -194,13 +195,67 @@ public class UpdateErrataCacheCommand extends BaseTransactionCommand {
         log.info("Finished with servers in channel [" + cid + "]");
     }
 
-    private void processServer(Long serverId) {
-        CallableMode m = ModeFactory.getCallableMode(
-                "System_queries", "update_needed_cache");
-        Map inParams = new HashMap();
-        inParams.put("server_id", serverId);
+    /**
+     * Updates the errata cache of the given servers. Servers are independent, so
+     * they are split in partitions processed concurrently, each by a thread with
+     * its own database session committing after every server.
+     */
+    private void processServers(List<Long> serverIds) {
+        int workers = Math.min(serverIds.size(), Config.get().getInt(
+                ConfigDefaults.ERRATA_CACHE_SERVER_THREADS,
+                ConfigDefaults.DEFAULT_ERRATA_CACHE_SERVER_THREADS));
+        if (workers <= 1) {
+            processPartition(serverIds);
+            return;
+        }
 
-        m.execute(inParams, new HashMap());
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> partitions = new ArrayList<Future<?>>();
+            for (int i = 0; i < workers; i++) {
+                // stride through the ids so that partitions get servers of all ages
+                List<Long> partition = new ArrayList<Long>();
+                for (int j = i; j < serverIds.size(); j += workers) {
+                    partition.add(serverIds.get(j));
+                }
+                partitions.add(pool.submit(() -> processPartition(partition)));
+            }
+            for (Future<?> partition : partitions) {
+                partition.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while updating errata cache", e);
+        }
+        catch (ExecutionException e) {
+            log.error("Problem updating errata cache", e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void processPartition(List<Long> serverIds) {
+        for (Long sid : serverIds) {
+            if (log.isDebugEnabled()) {
+                log.debug("Working on server [" + sid + "]");
+            }
+            try {
+                processServer(sid);
+            }
+            catch (Exception e) {
+                log.error("Problem updating cache for server [" + sid + "]", e);
+                HibernateFactory.rollbackTransaction();
+            }
+            finally {
+                handleTransaction();
+            }
+        }
+    }
+
+    private void processServer(Long serverId) {
+        ErrataCacheManager.updateNeededCache(serverId);
     }
 
     private void processImage(Long imageId) {
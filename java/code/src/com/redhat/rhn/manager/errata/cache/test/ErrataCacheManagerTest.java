@@ -18,6 +18,7 @@ import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.db.datasource.ModeFactory;
 import com.redhat.rhn.common.db.datasource.WriteMode;
 import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.channel.Channel;
 import com.redhat.rhn.domain.errata.Errata;
 import com.redhat.rhn.domain.errata.test.ErrataFactoryTest;
 import com.redhat.rhn.domain.org.Org;
@@ -35,12 +36,14 @@ import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.domain.user.UserFactory;
 import com.redhat.rhn.frontend.dto.ErrataCacheDto;
 import com.redhat.rhn.manager.errata.cache.ErrataCacheManager;
+import com.redhat.rhn.testing.ErrataTestUtils;
 import com.redhat.rhn.testing.RhnBaseTestCase;
 import com.redhat.rhn.testing.TestUtils;
 import com.redhat.rhn.testing.UserTestUtils;
 
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -327,6 +330,76 @@ public class ErrataCacheManagerTest extends RhnBaseTestCase {
         }
     }
 
+    public void testUpdateNeededCache() throws Exception {
+        Long oid = UserTestUtils.createOrg("testOrg" + this.getClass().getSimpleName());
+        Org org = OrgFactory.lookupById(oid);
+        User user = UserTestUtils.createUser("testUser", oid);
+        Server server = ServerFactoryTest.createTestServer(user);
+        Package pkg = PackageTest.createTestPackage(org);
+        Errata e = ErrataFactoryTest.createTestErrata(oid);
+
+        // the server is in no channel, so it does not need this package
+        ErrataCacheManager.insertNeededErrataCache(server.getId(), e.getId(), pkg.getId());
+
+        int rows = ErrataCacheManager.updateNeededCache(server.getId());
+        assertEquals(0, rows);
+        assertTrue(ErrataCacheManager.packagesNeedingUpdates(server.getId()).isEmpty());
+    }
+
+    public void testUpdateNeededCacheInsertsNeeded() throws Exception {
+        Long oid = UserTestUtils.createOrg("testOrg" + this.getClass().getSimpleName());
+        User user = UserTestUtils.createUser("testUser", oid);
+        Errata e = ErrataFactoryTest.createTestErrata(oid);
+        Channel channel = ErrataTestUtils.createTestChannel(user, e);
+        Package unpatched = ErrataTestUtils.createTestPackage(user, channel, "noarch");
+        Package patched = ErrataTestUtils.createLaterTestPackage(user, e, channel, unpatched);
+        Server server = ErrataTestUtils.createTestServer(user, Collections.singletonList(channel));
+        ErrataTestUtils.createTestInstalledPackage(unpatched, server);
+        HibernateFactory.getSession().flush();
+
+        int rows = ErrataCacheManager.updateNeededCache(server.getId());
+        assertEquals(1, rows);
+
+        DataResult dr = ErrataCacheManager.packagesNeedingUpdates(server.getId());
+        assertEquals(1, dr.size());
+        ErrataCacheDto ecd = (ErrataCacheDto) dr.get(0);
+        assertEquals(patched.getId(), ecd.getPackageId());
+        assertEquals(e.getId(), ecd.getErrataId());
+    }
+
+    public void testUpdateNeededCacheKeepsUnchanged() throws Exception {
+        Long oid = UserTestUtils.createOrg("testOrg" + this.getClass().getSimpleName());
+        User user = UserTestUtils.createUser("testUser", oid);
+        Errata e = ErrataFactoryTest.createTestErrata(oid);
+        Channel channel = ErrataTestUtils.createTestChannel(user, e);
+        Package unpatched = ErrataTestUtils.createTestPackage(user, channel, "noarch");
+        ErrataTestUtils.createLaterTestPackage(user, e, channel, unpatched);
+        Server server = ErrataTestUtils.createTestServer(user, Collections.singletonList(channel));
+        ErrataTestUtils.createTestInstalledPackage(unpatched, server);
+        HibernateFactory.getSession().flush();
+
+        assertEquals(1, ErrataCacheManager.updateNeededCache(server.getId()));
+        String before = neededCacheRowLocations(server.getId());
+
+        // nothing changed: no row is inserted, deleted or rewritten
+        assertEquals(0, ErrataCacheManager.updateNeededCache(server.getId()));
+        assertEquals(before, neededCacheRowLocations(server.getId()));
+    }
+
+    private static String neededCacheRowLocations(Long sid) {
+        StringBuilder locations = new StringBuilder();
+        HibernateFactory.getSession().doWork(connection -> {
+            Statement stmt = connection.createStatement();
+            ResultSet rs = stmt.executeQuery(
+                "SELECT ctid FROM rhnServerNeededCache WHERE server_id = " + sid +
+                " ORDER BY ctid");
+            while (rs.next()) {
+                locations.append(rs.getString(1)).append(' ');
+            }
+        });
+        return locations.toString();
+    }
+
     public void testAllServerIdsForOrg() throws Exception {
         // create a lot of stuff to test this simple insert.
         Long oid = UserTestUtils.createOrg("testOrg" + this.getClass().getSimpleName());
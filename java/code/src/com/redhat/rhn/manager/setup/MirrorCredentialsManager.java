@@ -22,6 +22,7 @@ import com.redhat.rhn.domain.credentials.CredentialsFactory;
 import com.redhat.rhn.domain.scc.SCCCachingFactory;
 import com.redhat.rhn.manager.content.ContentSyncException;
 import com.redhat.rhn.manager.content.ContentSyncManager;
+import com.redhat.rhn.manager.content.ProductTreeIndex;
 
 import com.suse.scc.client.SCCClientException;
 import com.suse.scc.model.SCCSubscriptionJson;
@@ -169,6 +170,7 @@ public class MirrorCredentialsManager {
         SCCCachingFactory.lookupRepositoryAuthByCredential(dbCreds).stream().forEach(a -> {
             SCCCachingFactory.deleteRepositoryAuth(a);
         });
+        ProductTreeIndex.markChanged();
 
         // Clear the cache for deleted credentials
         if (request != null) {
@@ -24,12 +24,14 @@ import com.redhat.rhn.domain.entitlement.Entitlement;
 import com.redhat.rhn.domain.role.RoleFactory;
 import com.redhat.rhn.domain.server.EntitlementServerGroup;
 import com.redhat.rhn.domain.server.ManagedServerGroup;
+import com.redhat.rhn.domain.server.MinionServer;
 import com.redhat.rhn.domain.server.Server;
 import com.redhat.rhn.domain.server.ServerGroup;
 import com.redhat.rhn.domain.server.ServerGroupFactory;
 import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.domain.user.UserFactory;
 import com.suse.manager.webui.services.SaltStateGeneratorService;
+import com.suse.utils.Opt;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -336,9 +338,8 @@ public class ServerGroupManager {
         validateAdminCredentials(loggedInUser);
         for (Server s : servers) {
             SystemManager.addServerToServerGroup(s, sg);
-            s.asMinionServer().ifPresent(
-                    SaltStateGeneratorService.INSTANCE::generatePillar);
         }
+        SaltStateGeneratorService.INSTANCE.generatePillars(minionsOf(servers), true);
 
     }
 
@@ -365,9 +366,13 @@ public class ServerGroupManager {
     public void removeServers(ServerGroup sg, Collection<Server> servers) {
         for (Server s : servers) {
             SystemManager.removeServerFromServerGroup(s, sg);
-            s.asMinionServer().ifPresent(
-                    SaltStateGeneratorService.INSTANCE::generatePillar);
         }
+        SaltStateGeneratorService.INSTANCE.generatePillars(minionsOf(servers), true);
+    }
+
+    private static List<MinionServer> minionsOf(Collection<Server> servers) {
+        return servers.stream().flatMap(s -> Opt.stream(s.asMinionServer()))
+                .collect(Collectors.toList());
     }
 
     /**
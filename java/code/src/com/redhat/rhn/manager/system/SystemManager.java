@@ -78,6 +78,7 @@ import com.redhat.rhn.frontend.dto.SystemPendingEventDto;
 import com.redhat.rhn.frontend.dto.VirtualSystemOverview;
 import com.redhat.rhn.frontend.dto.kickstart.KickstartSessionDto;
 import com.redhat.rhn.frontend.listview.PageControl;
+import com.redhat.rhn.frontend.taglibs.list.ModePageableList;
 import com.redhat.rhn.frontend.xmlrpc.InvalidProxyVersionException;
 import com.redhat.rhn.frontend.xmlrpc.ProxySystemIsSatelliteException;
 import com.redhat.rhn.manager.BaseManager;
@@ -742,6 +743,22 @@ public class SystemManager extends BaseManager {
         return makeDataResult(params, elabParams, pc, m, SystemOverview.class);
     }
 
+    /**
+     * Returns list of all systems visible to user, sorted, filtered and paged in
+     * the database on their name.
+     * @param user Currently logged in user.
+     * @return pageable list of SystemOverviews.
+     */
+    public static ModePageableList<SystemOverview> systemListPageable(User user) {
+        SelectMode m = ModeFactory.getMode("System_queries", "visible_to_user");
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("user_id", user.getId());
+        Map<String, String> columns = new HashMap<String, String>();
+        columns.put("name", "name");
+        return new ModePageableList<SystemOverview>(m, params,
+                new HashMap<String, Object>(), columns);
+    }
+
     /**
      * Returns list of all physical systems visible to user.
      * @param user Currently logged in user.
@@ -2460,6 +2477,18 @@ public class SystemManager extends BaseManager {
         return !result.isEmpty();
     }
 
+    /**
+     * Finds which of the given servers host virtual guests.
+     * @param sids IDs of the servers to check
+     * @return IDs of the servers with virtual guests
+     */
+    public static Set<Long> listVirtualHosts(List<Long> sids) {
+        SelectMode m = ModeFactory.getMode("System_queries", "virtual_hosts_in_list");
+        DataResult<Map<String, Object>> result = m.execute(sids);
+        return result.stream().map(row -> ((Number) row.get("id")).longValue())
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Checks if the user has permissions to see the Server
      * @param user User being checked
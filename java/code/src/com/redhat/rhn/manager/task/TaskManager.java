@@ -23,6 +23,7 @@ import com.redhat.rhn.frontend.dto.PackageChangelogDto;
 import com.redhat.rhn.frontend.dto.PackageDto;
 import com.redhat.rhn.taskomatic.task.TaskConstants;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -71,6 +72,56 @@ public class TaskManager {
         return m.execute(params);
     }
 
+    /**
+     * Get the ids of the packages in a channel, in ascending order
+     * @param channel channel info
+     * @return the package ids
+     */
+    public static List<Long> getChannelPackageIds(Channel channel) {
+        SelectMode m = ModeFactory.getMode(TaskConstants.MODE_NAME,
+                TaskConstants.TASK_QUERY_REPOMD_GENERATOR_CHANNEL_PACKAGE_IDS);
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("channel_id", channel.getId());
+        DataResult<Map<String, Object>> dataResult = m.execute(params);
+        List<Long> result = new ArrayList<>(dataResult.size());
+        for (Map<String, Object> row : dataResult) {
+            result.add((Long) row.get("id"));
+        }
+        return result;
+    }
+
+    /**
+     * Get the channel package list for the given package ids
+     * @param channel channel info
+     * @param packageIds ids of the packages to fetch
+     * @return the packages which are still in the channel
+     */
+    public static DataResult<PackageDto> getChannelPackageDtos(Channel channel,
+            List<Long> packageIds) {
+        SelectMode m = ModeFactory.getMode(TaskConstants.MODE_NAME,
+                TaskConstants.TASK_QUERY_REPOMD_GENERATOR_CHANNEL_PACKAGES_BY_ID);
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("channel_id", channel.getId());
+        return m.execute(params, packageIds);
+    }
+
+    /**
+     * Get a fingerprint of the channel level data that is part of the repository
+     * metadata besides the package list (susedata keywords and EULAs).
+     * @param channel channel info
+     * @return the fingerprint
+     */
+    public static String getChannelRepodataFingerprint(Channel channel) {
+        SelectMode m = ModeFactory.getMode(TaskConstants.MODE_NAME,
+                TaskConstants.TASK_QUERY_REPOMD_GENERATOR_CHANNEL_FINGERPRINT);
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("channel_id", channel.getId());
+        DataResult<Map<String, Object>> dataResult = m.execute(params);
+        Map<String, Object> row = dataResult.get(0);
+        return row.get("keyword_count") + ":" + row.get("keyword_modified") + ":" +
+                row.get("eula_count");
+    }
+
     /**
      * Get capabilities of a certain type for a package
      * @param packageId the package's id
@@ -18,6 +18,7 @@ import com.redhat.rhn.taskomatic.core.SchedulerKernel;
 import com.redhat.rhn.taskomatic.domain.TaskoBunch;
 import com.redhat.rhn.taskomatic.domain.TaskoRun;
 import com.redhat.rhn.taskomatic.domain.TaskoSchedule;
+import com.redhat.rhn.taskomatic.task.MinionActionDispatcher;
 
 import org.apache.log4j.Logger;
 import org.quartz.SchedulerException;
@@ -377,6 +378,20 @@ public class TaskoXmlRpcHandler {
         return scheduleDates;
     }
 
+    /**
+     * execute minion actions immediately, without creating Quartz jobs. The actions
+     * need to be queued with {@link MinionActionDispatcher#enqueue(List, boolean)}
+     * @param actionIds action ids
+     * @param forcePackageListRefresh true to refresh the package lists afterwards
+     * @return number of dispatched actions
+     */
+    public int dispatchMinionActions(List<String> actionIds, Boolean forcePackageListRefresh) {
+        for (String actionId : actionIds) {
+            MinionActionDispatcher.dispatch(Long.parseLong(actionId), forcePackageListRefresh);
+        }
+        return actionIds.size();
+    }
+
     /**
      * schedule a one time satellite bunch
      * @param bunchName bunch name
@@ -31,6 +31,7 @@ import com.redhat.rhn.domain.role.RoleFactory;
 import com.redhat.rhn.domain.server.Server;
 import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.taskomatic.domain.TaskoSchedule;
+import com.redhat.rhn.taskomatic.task.MinionActionDispatcher;
 import com.redhat.rhn.taskomatic.task.RepoSyncTask;
 
 import com.suse.manager.utils.MinionServerUtils;
@@ -509,15 +510,30 @@ public class TaskomaticApi {
      */
     public void scheduleMinionActionExecutions(List<Action> actions, boolean forcePackageListRefresh)
             throws TaskomaticApiException {
+        Date now = new Date();
+        List<Long> immediateIds = new ArrayList<>();
         List<Map<String, String>> paramsList = new ArrayList<>();
         for (Action action: actions) {
+            // actions to run now skip Quartz, see MinionActionDispatcher
+            if (!action.getEarliestAction().after(now)) {
+                immediateIds.add(action.getId());
+                continue;
+            }
             Map<String, String> params = new HashMap<>();
             params.put("action_id", Long.toString(action.getId()));
             params.put("force_pkg_list_refresh", Boolean.toString(forcePackageListRefresh));
             params.put("earliest_action", action.getEarliestAction().toInstant().toString());
             paramsList.add(params);
         }
-        invoke("tasko.scheduleRuns", MINION_ACTION_BUNCH_LABEL, MINION_ACTION_JOB_PREFIX, paramsList);
+        if (!immediateIds.isEmpty()) {
+            MinionActionDispatcher.enqueue(immediateIds, forcePackageListRefresh);
+            invoke("tasko.dispatchMinionActions", immediateIds.stream()
+                    .map(id -> Long.toString(id))
+                    .collect(Collectors.toList()), forcePackageListRefresh);
+        }
+        if (!paramsList.isEmpty()) {
+            invoke("tasko.scheduleRuns", MINION_ACTION_BUNCH_LABEL, MINION_ACTION_JOB_PREFIX, paramsList);
+        }
     }
 
     /**
@@ -27,6 +27,7 @@ import com.redhat.rhn.taskomatic.TaskoXmlRpcServer;
 import com.redhat.rhn.taskomatic.TaskomaticApi;
 import com.redhat.rhn.taskomatic.domain.TaskoRun;
 import com.redhat.rhn.taskomatic.domain.TaskoSchedule;
+import com.redhat.rhn.taskomatic.task.MinionActionDispatcher;
 import com.suse.manager.metrics.PrometheusExporter;
 import org.apache.log4j.Logger;
 import org.quartz.Scheduler;
@@ -152,6 +153,7 @@ public class SchedulerKernel {
         try {
             SchedulerKernel.scheduler.start();
             initializeAllSatSchedules();
+            MinionActionDispatcher.start();
             synchronized (this.shutdownLock) {
                 try {
                     this.shutdownLock.wait();
@@ -195,6 +197,7 @@ public class SchedulerKernel {
             e.printStackTrace();
         }
         finally {
+            MinionActionDispatcher.stop();
             MessageQueue.stopMessaging();
             HibernateFactory.closeSessionFactory();
             // Wake up thread waiting in startup() so it can exit
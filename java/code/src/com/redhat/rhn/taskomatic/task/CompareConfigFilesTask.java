@@ -17,29 +17,29 @@ package com.redhat.rhn.taskomatic.task;
 import com.redhat.rhn.domain.action.Action;
 import com.redhat.rhn.domain.action.ActionFactory;
 import com.redhat.rhn.domain.action.config.ConfigAction;
-import com.redhat.rhn.domain.action.config.ConfigRevisionAction;
-import com.redhat.rhn.domain.config.ConfigFile;
 import com.redhat.rhn.domain.config.ConfigRevision;
 import com.redhat.rhn.domain.config.ConfigurationFactory;
 import com.redhat.rhn.domain.server.Server;
 import com.redhat.rhn.domain.server.ServerFactory;
-import com.redhat.rhn.frontend.dto.ConfigFileNameDto;
-import com.redhat.rhn.manager.configuration.ConfigurationManager;
 
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.stream.Collectors;
 
 /**
  * Compare Config Files
- *  Schedules a comparison of config files on all systems
+ *  Schedules a comparison of config files on all systems. Systems of the same
+ *  organization whose files resolve to the same set of revisions share one action.
  */
 public class CompareConfigFilesTask extends RhnJavaJob {
 
-    private Queue<Action> actionsToSchedule = new LinkedList<>();
+    private List<Long> actionsToDispatch = new ArrayList<>();
 
     /**
      * Default constructor
@@ -54,49 +54,71 @@ public class CompareConfigFilesTask extends RhnJavaJob {
             throws JobExecutionException {
 
         log.info("running config compare");
-
-        ConfigurationManager cm = ConfigurationManager.getInstance();
-        actionsToSchedule.clear();
-
-        for (Server server : ServerFactory.listConfigDiffEnabledSystems()) {
-            if (server.isInactive()) {
+        actionsToDispatch.clear();
+
+        List<Server> servers = ServerFactory.listConfigDiffEnabledSystems().stream()
+                .filter(server -> !server.isInactive())
+                .collect(Collectors.toList());
+        Map<Long, SortedSet<Long>> revisionIds = ConfigurationFactory.listAutomatedConfigRevisionIds(
+                servers.stream().map(Server::getId).collect(Collectors.toList()));
+
+        // group systems by organization and set of revisions to compare
+        Map<Long, Map<SortedSet<Long>, List<Server>>> groups = new LinkedHashMap<>();
+        for (Server server : servers) {
+            SortedSet<Long> ids = revisionIds.get(server.getId());
+            if (ids == null || ids.isEmpty()) {
                 continue;
             }
+            groups.computeIfAbsent(server.getOrg().getId(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(ids, k -> new ArrayList<>())
+                    .add(server);
+        }
 
-            Action act = ActionFactory.createAction(ActionFactory.TYPE_CONFIGFILES_DIFF);
-            ConfigAction cfact = (ConfigAction) act;
-            // set up needed fields for the action
-            act.setName(act.getActionType().getName());
-            act.setOrg(server.getOrg());
-
-            // add the server to the action
-            ActionFactory.addServerToAction(server, act);
-
-            // add file revisions to the action
-            for (ConfigFileNameDto cfn : cm.listAllFileNamesForSystem(server)) {
-                Long cfid = cfn.getConfigFileId();
-                ConfigFile cf = ConfigurationFactory.lookupConfigFileById(cfid);
-                ConfigRevision crev = cf.getLatestConfigRevision();
-
-                ActionFactory.addConfigRevisionToAction(crev, server, cfact);
-            }
-
-            if (act.getServerActions() == null || act.getServerActions().size() < 1) {
-                continue;
-            }
-            Set<ConfigRevisionAction> cra = cfact.getConfigRevisionActions();
-            if (cra == null || cra.size() < 1) {
-                continue;
+        Map<Long, ConfigRevision> revisions = ConfigurationFactory.lookupConfigRevisionsByIds(
+                revisionIds.values().stream().flatMap(SortedSet::stream).collect(Collectors.toSet()));
+
+        List<Long> minionActionIds = new ArrayList<>();
+        for (Map<SortedSet<Long>, List<Server>> orgGroups : groups.values()) {
+            for (Map.Entry<SortedSet<Long>, List<Server>> group : orgGroups.entrySet()) {
+                List<ConfigRevision> crevs = group.getKey().stream()
+                        .map(revisions::get)
+                        .filter(crev -> crev != null)
+                        .collect(Collectors.toList());
+                if (crevs.isEmpty()) {
+                    continue;
+                }
+
+                Action act = ActionFactory.createAction(ActionFactory.TYPE_CONFIGFILES_DIFF);
+                ConfigAction cfact = (ConfigAction) act;
+                // set up needed fields for the action
+                act.setName(act.getActionType().getName());
+                act.setOrg(group.getValue().get(0).getOrg());
+
+                // add the servers and their file revisions to the action
+                boolean minionsInvolved = false;
+                for (Server server : group.getValue()) {
+                    ActionFactory.addServerToAction(server, act);
+                    for (ConfigRevision crev : crevs) {
+                        ActionFactory.addConfigRevisionToAction(crev, server, cfact);
+                    }
+                    minionsInvolved |= server.asMinionServer().isPresent();
+                }
+
+                log.info("  saving comparison for " + group.getValue().size() + " systems");
+                ActionFactory.save(act);
+                if (minionsInvolved) {
+                    minionActionIds.add(act.getId());
+                }
             }
-
-            log.info("  saving comparison for " + server.getId());
-            ActionFactory.save(act);
-            actionsToSchedule.add(act);
         }
+
+        // queued in the same transaction as the actions, dispatched once it is committed
+        MinionActionDispatcher.enqueue(minionActionIds, false);
+        actionsToDispatch.addAll(minionActionIds);
     }
 
     @Override
     protected void finishJob() {
-        actionsToSchedule.forEach(a -> TaskHelper.scheduleActionExecution(a));
+        actionsToDispatch.forEach(id -> MinionActionDispatcher.dispatch(id, false));
     }
 }
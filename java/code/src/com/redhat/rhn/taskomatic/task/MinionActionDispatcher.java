@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.taskomatic.task;
+
+import com.redhat.rhn.common.conf.Config;
+import com.redhat.rhn.common.conf.ConfigDefaults;
+import com.redhat.rhn.common.db.datasource.DataResult;
+import com.redhat.rhn.common.db.datasource.ModeFactory;
+import com.redhat.rhn.common.db.datasource.SelectMode;
+import com.redhat.rhn.common.db.datasource.WriteMode;
+import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.action.Action;
+import com.redhat.rhn.domain.action.ActionFactory;
+import com.suse.manager.metrics.PrometheusExporter;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes minion actions scheduled to run immediately on an in-memory thread pool,
+ * instead of creating a Quartz job and a run for each of them.
+ *
+ * Actions are queued in the suseMinionActionQueue table in the transaction that
+ * schedules them, and removed from there once executed. Actions dispatched before
+ * {@link #start()} are kept in memory until then. Actions still queued when
+ * Taskomatic stops are executed again by {@link #start()}, and a periodic sweep
+ * executes the ones whose dispatch got lost. Since an action may have been sent to
+ * some of its minions already, only the server actions still queued are executed.
+ */
+public class MinionActionDispatcher {
+
+    private static Logger log = Logger.getLogger(MinionActionDispatcher.class);
+
+    private static final long SWEEP_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    private static ScheduledThreadPoolExecutor pool;
+
+    /* actions dispatched while the pool is not running, guarded by the class lock */
+    private static final Map<Long, Boolean> WAITING = new LinkedHashMap<>();
+
+    /* actions dispatched to the pool and not done yet */
+    private static final Set<Long> IN_FLIGHT = ConcurrentHashMap.newKeySet();
+
+    private MinionActionDispatcher() { }
+
+    /**
+     * Queues actions for immediate execution, in the current transaction.
+     * @param actionIds ids of the actions
+     * @param forcePackageListRefresh true to refresh the package lists afterwards
+     */
+    public static void enqueue(List<Long> actionIds, boolean forcePackageListRefresh) {
+        WriteMode m = ModeFactory.getWriteMode("Action_queries", "enqueue_minion_action");
+        for (Long actionId : actionIds) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("action_id", actionId);
+            params.put("force_pkg_list_refresh", forcePackageListRefresh ? "Y" : "N");
+            m.executeUpdate(params);
+        }
+    }
+
+    /**
+     * Lists the queued actions.
+     * @param queuedBefore only list actions queued before this date, null for all
+     * @return the force package list refresh flags, by action id, in queue order
+     */
+    public static Map<Long, Boolean> listQueued(Date queuedBefore) {
+        SelectMode m = ModeFactory.getMode("Action_queries", "queued_minion_actions");
+        DataResult<Map<String, Object>> rows = m.execute();
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Date created = (Date) row.get("created");
+            if (queuedBefore == null || created.before(queuedBefore)) {
+                result.put(((Number) row.get("action_id")).longValue(),
+                        "Y".equals(row.get("force_pkg_list_refresh")));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Starts the thread pool and executes the actions dispatched so far and the
+     * ones left in the queue.
+     */
+    public static synchronized void start() {
+        if (pool != null) {
+            return;
+        }
+        int threads = Config.get().getInt(ConfigDefaults.MINION_ACTION_DISPATCH_THREADS,
+                ConfigDefaults.DEFAULT_MINION_ACTION_DISPATCH_THREADS);
+        pool = new ScheduledThreadPoolExecutor(threads);
+        PrometheusExporter.INSTANCE.registerThreadPool(pool, "minion_action_dispatcher");
+
+        Map<Long, Boolean> actions = new LinkedHashMap<>(WAITING);
+        WAITING.clear();
+        Map<Long, Boolean> queued = listQueued(null);
+        HibernateFactory.closeSession();
+        queued.keySet().removeAll(actions.keySet());
+        if (!queued.isEmpty()) {
+            log.warn("Executing " + queued.size() + " minion actions queued before the last stop");
+        }
+        actions.putAll(queued);
+        actions.forEach(MinionActionDispatcher::dispatch);
+
+        pool.scheduleWithFixedDelay(MinionActionDispatcher::sweep, SWEEP_INTERVAL, SWEEP_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the thread pool. Queued actions are executed on the next {@link #start()}.
+     */
+    public static synchronized void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+        IN_FLIGHT.clear();
+    }
+
+    /**
+     * Executes a queued action as soon as a thread is available. Does nothing if the
+     * action is already being executed.
+     * @param actionId id of the action
+     * @param forcePackageListRefresh true to refresh the package list afterwards
+     */
+    public static synchronized void dispatch(long actionId, boolean forcePackageListRefresh) {
+        if (pool == null) {
+            log.info("Minion action dispatcher not running yet, action " + actionId +
+                    " will be executed once it starts");
+            WAITING.put(actionId, forcePackageListRefresh);
+            return;
+        }
+        if (!IN_FLIGHT.add(actionId)) {
+            return;
+        }
+        long queuedAt = System.currentTimeMillis();
+        pool.execute(() -> run(actionId, forcePackageListRefresh, queuedAt));
+    }
+
+    /**
+     * Dispatches again the actions queued for longer than the grace time which are not
+     * being executed, e.g. because the web transaction queuing them committed after
+     * the dispatch gave up waiting for it.
+     */
+    private static void sweep() {
+        try {
+            Date queuedBefore = new Date(System.currentTimeMillis() -
+                    MinionActionExecutor.ACTION_DATABASE_GRACE_TIME);
+            Map<Long, Boolean> stale = listQueued(queuedBefore);
+            stale.keySet().removeAll(IN_FLIGHT);
+            if (!stale.isEmpty()) {
+                log.warn("Executing " + stale.size() + " minion actions left in the queue");
+            }
+            stale.forEach(MinionActionDispatcher::dispatch);
+        }
+        catch (Exception e) {
+            log.error("Error sweeping the minion action queue", e);
+        }
+        finally {
+            HibernateFactory.closeSession();
+        }
+    }
+
+    private static synchronized boolean retryLater(long actionId, boolean forcePackageListRefresh,
+            long queuedAt, long delay) {
+        if (pool == null) {
+            return false;
+        }
+        pool.schedule(() -> run(actionId, forcePackageListRefresh, queuedAt), delay,
+                TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private static void run(long actionId, boolean forcePackageListRefresh, long queuedAt) {
+        boolean retrying = false;
+        try {
+            long delay = process(actionId, forcePackageListRefresh, queuedAt, new MinionActionExecutor());
+            HibernateFactory.commitTransaction();
+            if (delay >= 0) {
+                retrying = retryLater(actionId, forcePackageListRefresh, queuedAt, delay);
+            }
+        }
+        catch (Exception e) {
+            log.error("Error executing action " + actionId, e);
+            HibernateFactory.rollbackTransaction();
+            // like a failed Quartz job, a failed action is not executed again
+            try {
+                dequeue(actionId);
+                HibernateFactory.commitTransaction();
+            }
+            catch (Exception de) {
+                log.error("Error removing action " + actionId + " from the queue", de);
+                HibernateFactory.rollbackTransaction();
+            }
+        }
+        finally {
+            HibernateFactory.closeSession();
+            if (!retrying) {
+                IN_FLIGHT.remove(actionId);
+            }
+        }
+    }
+
+    /**
+     * Executes a queued action on the minions whose server action is still queued, and
+     * removes it from the queue, in the current transaction.
+     * The action may be dispatched before the transaction queuing it is committed: if it
+     * is not found and the grace time since it was queued is not over, it stays queued
+     * and a delay to try again after is returned.
+     * @param actionId id of the action
+     * @param forcePackageListRefresh true to refresh the package list afterwards
+     * @param queuedAt time the action was dispatched, in milliseconds
+     * @param executor the executor to use
+     * @return the delay in milliseconds to try again after, or -1 if done
+     */
+    public static long process(long actionId, boolean forcePackageListRefresh, long queuedAt,
+            MinionActionExecutor executor) {
+        Action action = ActionFactory.lookupById(actionId);
+        if (action == null) {
+            long waitedTime = System.currentTimeMillis() - queuedAt;
+            if (waitedTime < MinionActionExecutor.ACTION_DATABASE_GRACE_TIME) {
+                long delay = Math.min(Math.max(waitedTime,
+                        MinionActionExecutor.ACTION_DATABASE_MIN_RETRY_TIME),
+                        MinionActionExecutor.ACTION_DATABASE_MAX_RETRY_TIME);
+                log.debug("Action " + actionId + " not found after " + waitedTime +
+                        "ms, retrying in " + delay + "ms");
+                return delay;
+            }
+            // left in the queue for the sweep, in case the transaction commits later
+            log.error("Action not found: " + actionId);
+            return -1;
+        }
+
+        executor.executeQueuedAction(action, forcePackageListRefresh);
+        dequeue(actionId);
+        return -1;
+    }
+
+    private static void dequeue(long actionId) {
+        WriteMode m = ModeFactory.getWriteMode("Action_queries", "dequeue_minion_action");
+        m.executeUpdate(Collections.singletonMap("action_id", actionId));
+    }
+}
@@ -23,11 +23,16 @@ import com.redhat.rhn.domain.server.MinionServerFactory;
 import com.redhat.rhn.domain.user.User;
 import com.redhat.rhn.domain.user.UserFactory;
 import com.redhat.rhn.manager.system.SystemManager;
+import com.redhat.rhn.taskomatic.TaskoFactory;
+import com.redhat.rhn.taskomatic.TaskoQuartzHelper;
+import com.redhat.rhn.taskomatic.domain.TaskoSchedule;
 import com.suse.manager.webui.services.SaltServerActionService;
 
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Date;
@@ -39,8 +44,9 @@ import java.util.Optional;
  */
 public class MinionActionExecutor extends RhnJavaJob {
 
-    private static final int ACTION_DATABASE_GRACE_TIME = 600_000;
-    private static final int ACTION_DATABASE_POLL_TIME = 100;
+    static final long ACTION_DATABASE_GRACE_TIME = 600_000;
+    static final long ACTION_DATABASE_MIN_RETRY_TIME = 1_000;
+    static final long ACTION_DATABASE_MAX_RETRY_TIME = 60_000;
     private static final long MAXIMUM_TIMEDELTA_FOR_SCHEDULED_ACTIONS = 24; // hours
 
     private SaltServerActionService saltServerActionService = SaltServerActionService.INSTANCE;
@@ -80,27 +86,63 @@ public class MinionActionExecutor extends RhnJavaJob {
         Action action = ActionFactory.lookupById(actionId);
 
         // HACK: it is possible that this Taskomatic task triggered before the corresponding Action was really
-        // COMMITted in the database. Wait for some minutes checking if it appears
-        int waitedTime = 0;
-        while (action == null && waitedTime < ACTION_DATABASE_GRACE_TIME) {
-            action = ActionFactory.lookupById(actionId);
-            try {
-                Thread.sleep(ACTION_DATABASE_POLL_TIME);
-            }
-            catch (InterruptedException e) {
-                // never happens
-            }
-            waitedTime += ACTION_DATABASE_POLL_TIME;
+        // COMMITted in the database. Fire the job again a bit later rather than blocking a worker thread
+        if (action == null) {
+            retryLater(context, actionId);
+            return;
         }
 
-        if (action == null) {
-            log.error("Action not found: " + actionId);
+        executeAction(action, forcePackageListRefresh, isStagingJob,
+                Optional.ofNullable(stagingJobMinionServerId), user);
+
+        if (log.isDebugEnabled()) {
+            long duration = System.currentTimeMillis() - start;
+            log.debug("Total duration was: " + duration + " ms");
+        }
+    }
+
+    /**
+     * Executes an action via Salt, unless it was scheduled too long ago.
+     * @param action the action
+     * @param forcePackageListRefresh true to refresh the package list afterwards
+     * @param isStagingJob true if this is a staging job
+     * @param stagingJobMinionServerId the minion to stage for, in case of staging jobs
+     * @param user the user subscribing channels, for subscribe channels actions
+     */
+    public void executeAction(Action action, boolean forcePackageListRefresh, boolean isStagingJob,
+            Optional<Long> stagingJobMinionServerId, User user) {
+        if (isOutdated(action)) {
             return;
         }
-        else {
-            log.debug("Action " + actionId + " found after: " + waitedTime + "ms");
+
+        log.info("Executing action: " + action.getId());
+
+        if (ActionFactory.TYPE_SUBSCRIBE_CHANNELS.equals(action.getActionType())) {
+            handleTraditionalClients(user, (SubscribeChannelsAction) action);
         }
 
+        saltServerActionService.execute(action, forcePackageListRefresh,
+                isStagingJob, stagingJobMinionServerId);
+    }
+
+    /**
+     * Executes an action via Salt on the minions whose server action is still queued,
+     * unless it was scheduled too long ago. Minions which already picked the action
+     * up or completed it are skipped, so it is safe to call again for an action whose
+     * execution was interrupted.
+     * @param action the action
+     * @param forcePackageListRefresh true to refresh the package list afterwards
+     */
+    public void executeQueuedAction(Action action, boolean forcePackageListRefresh) {
+        if (isOutdated(action)) {
+            return;
+        }
+
+        log.info("Executing action: " + action.getId());
+        saltServerActionService.executeQueued(action, forcePackageListRefresh);
+    }
+
+    private boolean isOutdated(Action action) {
         // calculate offset between scheduled time of
         // actions and (now)
         long timeDelta = Duration
@@ -112,22 +154,36 @@ public class MinionActionExecutor extends RhnJavaJob {
                     " was scheduled to be executed more than " +
                     MAXIMUM_TIMEDELTA_FOR_SCHEDULED_ACTIONS +
                     " hours ago. Skipping it.");
-            return;
-        }
-
-        log.info("Executing action: " + actionId);
-
-        if (ActionFactory.TYPE_SUBSCRIBE_CHANNELS.equals(action.getActionType())) {
-            handleTraditionalClients(user, (SubscribeChannelsAction) action);
+            return true;
         }
+        return false;
+    }
 
-        saltServerActionService.execute(action, forcePackageListRefresh,
-                isStagingJob, Optional.ofNullable(stagingJobMinionServerId));
-
-        if (log.isDebugEnabled()) {
-            long duration = System.currentTimeMillis() - start;
-            log.debug("Total duration was: " + duration + " ms");
+    /**
+     * Reschedules the job of an action which is not in the database yet, with a
+     * growing delay, until the grace time since the job was scheduled is over.
+     */
+    private void retryLater(JobExecutionContext context, long actionId) {
+        JobDataMap dataMap = context.getJobDetail().getJobDataMap();
+        TaskoSchedule schedule = dataMap.containsKey("schedule_id") ?
+                TaskoFactory.lookupScheduleById(dataMap.getLong("schedule_id")) : null;
+        if (schedule != null) {
+            long scheduled = schedule.getActiveFrom().getTime();
+            if (schedule.getCreated() != null) {
+                scheduled = Math.max(scheduled, schedule.getCreated().getTime());
+            }
+            long waitedTime = System.currentTimeMillis() - scheduled;
+            if (waitedTime < ACTION_DATABASE_GRACE_TIME) {
+                long delay = Math.min(Math.max(waitedTime, ACTION_DATABASE_MIN_RETRY_TIME),
+                        ACTION_DATABASE_MAX_RETRY_TIME);
+                if (TaskoQuartzHelper.rescheduleJob(schedule, Instant.now().plusMillis(delay)) != null) {
+                    log.debug("Action " + actionId + " not found after " + waitedTime +
+                            "ms, retrying in " + delay + "ms");
+                    return;
+                }
+            }
         }
+        log.error("Action not found: " + actionId);
     }
 
     // for traditional systems only the subscribe channels action will be handled here
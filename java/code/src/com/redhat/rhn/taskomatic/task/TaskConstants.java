@@ -130,6 +130,15 @@ public class TaskConstants {
     public static final String TASK_QUERY_REPOMD_GENERATOR_CHANNEL_PACKAGES_BATCH =
         "repomdgenerator_channel_package_batch";
 
+    public static final String TASK_QUERY_REPOMD_GENERATOR_CHANNEL_PACKAGE_IDS =
+        "repomdgenerator_channel_package_ids";
+
+    public static final String TASK_QUERY_REPOMD_GENERATOR_CHANNEL_PACKAGES_BY_ID =
+        "repomdgenerator_channel_packages_by_id";
+
+    public static final String TASK_QUERY_REPOMD_GENERATOR_CHANNEL_FINGERPRINT =
+        "repomdgenerator_channel_fingerprint";
+
     public static final String TASK_QUERY_REPOMD_GENERATOR_CAPABILITY_FILES =
         "repomdgenerator_capability_files";
 
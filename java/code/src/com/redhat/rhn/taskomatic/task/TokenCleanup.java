@@ -15,12 +15,15 @@
 package com.redhat.rhn.taskomatic.task;
 
 import com.redhat.rhn.domain.channel.AccessTokenFactory;
+import com.redhat.rhn.domain.server.MinionServer;
 import com.redhat.rhn.domain.server.MinionServerFactory;
 import com.suse.manager.webui.services.SaltStateGeneratorService;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 
 /**
@@ -38,12 +41,11 @@ public class TokenCleanup extends RhnJavaJob {
             log.debug("start token cleanup");
         }
         try {
+            List<MinionServer> refreshed = new ArrayList<>();
             MinionServerFactory.listMinions().forEach(minionServer -> {
                 try {
                     if (AccessTokenFactory.refreshTokens(minionServer, Collections.emptySet())) {
-                        // TODO schedule state.apply channels to refresh channels on minion ?
-                        SaltStateGeneratorService.INSTANCE.generatePillar(
-                                minionServer, false, Collections.emptySet());
+                        refreshed.add(minionServer);
                     }
                 }
                 catch (Exception e) {
@@ -51,6 +53,13 @@ public class TokenCleanup extends RhnJavaJob {
                             minionServer.getMinionId(), e);
                 }
             });
+            // TODO schedule state.apply channels to refresh channels on minion ?
+            try {
+                SaltStateGeneratorService.INSTANCE.generatePillars(refreshed, false);
+            }
+            catch (Exception e) {
+                log.error("error generating pillars of minions with refreshed access tokens", e);
+            }
             AccessTokenFactory.cleanupUnusedExpired();
         }
         catch (Exception e) {
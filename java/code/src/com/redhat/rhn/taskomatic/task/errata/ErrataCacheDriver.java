@@ -15,6 +15,7 @@
 package com.redhat.rhn.taskomatic.task.errata;
 
 import com.redhat.rhn.common.conf.Config;
+import com.redhat.rhn.common.conf.ConfigDefaults;
 import com.redhat.rhn.domain.task.Task;
 import com.redhat.rhn.domain.task.TaskFactory;
 import com.redhat.rhn.taskomatic.task.threaded.QueueDriver;
@@ -72,7 +73,8 @@ public class ErrataCacheDriver implements QueueDriver {
      * {@inheritDoc}
      */
     public int getMaxWorkers() {
-        return Config.get().getInt("taskomatic.errata_cache_workers", 2);
+        return Config.get().getInt(ConfigDefaults.ERRATA_CACHE_WORKERS,
+                ConfigDefaults.DEFAULT_ERRATA_CACHE_WORKERS);
     }
 
     /**
@@ -22,6 +22,7 @@ import java.io.OutputStream;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -36,6 +37,8 @@ public class CompressingDigestOutputWriter extends OutputStream {
     private OutputStream compressedStream;
     private BufferedOutputStream bufferedStream;
 
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     /**
      *
      * @param stream The stream to compress
@@ -45,12 +48,28 @@ public class CompressingDigestOutputWriter extends OutputStream {
      */
     public CompressingDigestOutputWriter(OutputStream stream, String checksumAlgo)
                                         throws NoSuchAlgorithmException, IOException {
+            this(stream, checksumAlgo, Deflater.DEFAULT_COMPRESSION, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     *
+     * @param stream The stream to compress
+     * @param checksumAlgo checksum algorithm
+     * @param compressionLevel gzip compression level, 0-9 or -1 for the default
+     * @param bufferSize size in bytes of the compression and output buffers
+     * @throws NoSuchAlgorithmException nosuchalgorithmexception
+     * @throws IOException ioexception
+     */
+    public CompressingDigestOutputWriter(OutputStream stream, String checksumAlgo,
+            int compressionLevel, int bufferSize)
+                                        throws NoSuchAlgorithmException, IOException {
             compressedDigestStream = new DigestOutputStream(stream,
                     MessageDigest.getInstance(checksumAlgo));
-            compressedStream = new GZIPOutputStream(compressedDigestStream);
+            compressedStream = new LevelGZIPOutputStream(compressedDigestStream,
+                    bufferSize, compressionLevel);
             uncompressedDigestStream = new DigestOutputStream(compressedStream,
                     MessageDigest.getInstance(checksumAlgo));
-            bufferedStream = new BufferedOutputStream(uncompressedDigestStream);
+            bufferedStream = new BufferedOutputStream(uncompressedDigestStream, bufferSize);
     }
 
     /**
@@ -62,6 +81,18 @@ public class CompressingDigestOutputWriter extends OutputStream {
         bufferedStream.write(arg0);
     }
 
+    /**
+     * write stream with byte range
+     * @param b bytes
+     * @param off offset of the first byte to write
+     * @param len number of bytes to write
+     * @throws IOException ioexception
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        bufferedStream.write(b, off, len);
+    }
+
     /**
      * write stream with byte
      * @param b byte
@@ -105,4 +136,14 @@ public class CompressingDigestOutputWriter extends OutputStream {
                 .getMessageDigest().digest());
     }
 
+    /**
+     * GZIPOutputStream with a configurable compression level.
+     */
+    private static class LevelGZIPOutputStream extends GZIPOutputStream {
+
+        LevelGZIPOutputStream(OutputStream out, int size, int level) throws IOException {
+            super(out, size);
+            def.setLevel(level);
+        }
+    }
 }
@@ -84,13 +84,20 @@ public class FilelistsXmlWriter extends RepomdWriter {
      * @param pkgDto pkg info to add to xml
      */
     public void addPackage(PackageDto pkgDto) {
+        addPackageXml(getPackageXml(pkgDto));
+    }
+
+    /**
+     * Returns the filelists.xml fragment for a package, generating and caching it
+     * in the database if needed
+     * @param pkgDto pkg info
+     * @return the package xml fragment
+     */
+    public String getPackageXml(PackageDto pkgDto) {
         try {
             String xml = pkgDto.getFilelistXml();
             if (ConfigDefaults.get().useDBRepodata() && !StringUtils.isEmpty(xml)) {
-                if (xml != null) {
-                    handler.addCharacters(xml);
-                    return;
-                }
+                return xml;
             }
 
             OutputStream st = new ByteArrayOutputStream();
@@ -104,14 +111,11 @@ public class FilelistsXmlWriter extends RepomdWriter {
 
             String pkg =  st.toString();
             PackageManager.updateRepoFileList(pkgDto.getId(), pkg);
-            handler.addCharacters(pkg);
-
-
+            return pkg;
         }
         catch (SAXException e) {
             throw new RepomdRuntimeException(e);
         }
-
     }
 
     /**
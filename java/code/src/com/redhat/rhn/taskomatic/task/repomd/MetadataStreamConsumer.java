@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.taskomatic.task.repomd;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Feeds the package fragments of one metadata stream to a {@link Sink} running on
+ * its own thread, so that the XML serialization, compression and digesting of
+ * the streams run in parallel with each other and with package elaboration.
+ *
+ * The queue between the producer and the consumer is bounded: a producer faster
+ * than the consumer blocks instead of piling fragments up in memory.
+ *
+ * @param <T> the type of the fragments
+ */
+public class MetadataStreamConsumer<T> {
+
+    /**
+     * Destination of the fragments, only ever called from the consumer thread.
+     * @param <T> the type of the fragments
+     */
+    public interface Sink<T> {
+
+        /**
+         * Writes a fragment.
+         * @param fragment the fragment
+         * @throws Exception if writing fails
+         */
+        void write(T fragment) throws Exception;
+
+        /**
+         * Flushes buffered data, called every flushInterval fragments.
+         * @throws Exception if flushing fails
+         */
+        void flush() throws Exception;
+    }
+
+    private static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final Sink<T> sink;
+    private final int flushInterval;
+    private final String name;
+    private final Future<?> future;
+    private volatile Throwable failure;
+
+    /**
+     * Starts the consumer.
+     * @param nameIn name of the stream, for error reporting
+     * @param sinkIn the destination of the fragments
+     * @param capacity maximum number of fragments waiting to be written
+     * @param flushIntervalIn number of fragments between two flushes of the sink
+     * @param executor the executor running the consumer
+     */
+    public MetadataStreamConsumer(String nameIn, Sink<T> sinkIn, int capacity,
+            int flushIntervalIn, ExecutorService executor) {
+        name = nameIn;
+        sink = sinkIn;
+        flushInterval = flushIntervalIn;
+        queue = new ArrayBlockingQueue<>(capacity);
+        future = executor.submit(this::consume);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume() {
+        long written = 0;
+        try {
+            for (Object item = queue.take(); item != END; item = queue.take()) {
+                if (failure != null) {
+                    // keep draining so that the producer never blocks on a dead consumer
+                    continue;
+                }
+                try {
+                    sink.write((T) item);
+                    if (++written % flushInterval == 0) {
+                        sink.flush();
+                    }
+                }
+                catch (Exception e) {
+                    failure = e;
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a fragment, blocking while the queue is full.
+     * @param fragment the fragment
+     */
+    public void add(T fragment) {
+        checkFailure();
+        try {
+            queue.put(fragment);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepomdRuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits until all queued fragments have been written.
+     */
+    public void finish() {
+        try {
+            queue.put(END);
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepomdRuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            throw new RepomdRuntimeException(e.getCause());
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops the consumer, dropping the queued fragments.
+     */
+    public void abort() {
+        queue.clear();
+        if (!queue.offer(END)) {
+            future.cancel(true);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new RepomdRuntimeException("Error writing " + name, failure);
+        }
+    }
+}
@@ -83,14 +83,20 @@ public class OtherXmlWriter extends RepomdWriter {
      * @param pkgDto pkg info to add to xml
      */
     public void addPackage(PackageDto pkgDto) {
+        addPackageXml(getPackageXml(pkgDto));
+    }
 
+    /**
+     * Returns the other.xml fragment for a package, generating and caching it
+     * in the database if needed
+     * @param pkgDto pkg info
+     * @return the package xml fragment
+     */
+    public String getPackageXml(PackageDto pkgDto) {
         try {
             String xml = pkgDto.getOtherXml();
             if (ConfigDefaults.get().useDBRepodata() && !StringUtils.isEmpty(xml)) {
-                if (xml != null) {
-                    handler.addCharacters(xml);
-                    return;
-                }
+                return xml;
             }
 
             OutputStream st = new ByteArrayOutputStream();
@@ -104,14 +110,13 @@ public class OtherXmlWriter extends RepomdWriter {
 
             String pkg =  st.toString();
             PackageManager.updateRepoOther(pkgDto.getId(), pkg);
-            handler.addCharacters(pkg);
-
+            return pkg;
         }
         catch (SAXException e) {
             throw new RepomdRuntimeException(e);
         }
         catch (SQLException e) {
-            SqlExceptionTranslator.sqlException(e);
+            throw SqlExceptionTranslator.sqlException(e);
         }
     }
 
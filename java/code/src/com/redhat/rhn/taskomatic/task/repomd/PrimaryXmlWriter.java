@@ -87,14 +87,20 @@ public class PrimaryXmlWriter extends RepomdWriter {
      * @param pkgDto pkg info to add to xml
      */
     public void addPackage(PackageDto pkgDto) {
+        addPackageXml(getPackageXml(pkgDto));
+    }
+
+    /**
+     * Returns the primary.xml fragment for a package, generating and caching it
+     * in the database if needed
+     * @param pkgDto pkg info
+     * @return the package xml fragment
+     */
+    public String getPackageXml(PackageDto pkgDto) {
         try {
             String xml = pkgDto.getPrimaryXml();
             if (ConfigDefaults.get().useDBRepodata() && !StringUtils.isEmpty(xml)) {
-
-                if (xml != null) {
-                    handler.addCharacters(xml);
-                    return;
-                }
+                return xml;
             }
 
             ByteArrayOutputStream st = new ByteArrayOutputStream();
@@ -114,8 +120,7 @@ public class PrimaryXmlWriter extends RepomdWriter {
 
             String pkg =  st.toString();
             PackageManager.updateRepoPrimary(pkgDto.getId(), pkg);
-            handler.addCharacters(pkg);
-
+            return pkg;
         }
         catch (SAXException e) {
             throw new RepomdRuntimeException(e);
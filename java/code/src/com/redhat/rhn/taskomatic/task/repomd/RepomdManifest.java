@@ -0,0 +1,387 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.taskomatic.task.repomd;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-channel manifest of the package fragments written to primary, filelists,
+ * other and susedata. It allows the repository metadata to be regenerated by
+ * splicing in the added packages and dropping the removed ones, without
+ * elaborating the whole channel again.
+ *
+ * The manifest is made of an index file, holding the format version, the
+ * checksum type, a fingerprint of channel level inputs and the sorted package
+ * ids, and of a gzip compressed data file holding the fragments of every
+ * package in the same order.
+ */
+public class RepomdManifest {
+
+    public static final String INDEX_FILE = ".manifest.idx";
+    public static final String DATA_FILE = ".manifest.dat.gz";
+    public static final String NEW_SUFFIX = ".new";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long END_MARKER = -1L;
+
+    private static Logger log = Logger.getLogger(RepomdManifest.class);
+
+    private final String checksumType;
+    private final String fingerprint;
+    private final List<Long> packageIds;
+
+    private RepomdManifest(String checksumTypeIn, String fingerprintIn,
+            List<Long> packageIdsIn) {
+        checksumType = checksumTypeIn;
+        fingerprint = fingerprintIn;
+        packageIds = packageIdsIn;
+    }
+
+    /**
+     * Loads the manifest index of a channel.
+     * @param prefix the channel repodata directory, including the trailing separator
+     * @param checksumTypeIn the checksum type the repository is generated with
+     * @param fingerprintIn the current fingerprint of channel level inputs
+     * @return the manifest, or null if it is missing, unreadable or out of date
+     */
+    public static RepomdManifest load(String prefix, String checksumTypeIn,
+            String fingerprintIn) {
+        File index = new File(prefix + INDEX_FILE);
+        if (!index.exists() || !new File(prefix + DATA_FILE).exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(index)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                log.info("Repodata manifest format changed, ignoring " + index);
+                return null;
+            }
+            String checksum = in.readUTF();
+            String print = in.readUTF();
+            if (!checksum.equals(checksumTypeIn) || !print.equals(fingerprintIn)) {
+                log.info("Repodata manifest " + index + " is out of date");
+                return null;
+            }
+            int count = in.readInt();
+            List<Long> ids = new ArrayList<>(count);
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                if (id <= previous) {
+                    log.warn("Repodata manifest " + index + " is not sorted");
+                    return null;
+                }
+                ids.add(id);
+                previous = id;
+            }
+            if (in.read() != -1) {
+                log.warn("Trailing data in repodata manifest " + index);
+                return null;
+            }
+            return new RepomdManifest(checksum, print, Collections.unmodifiableList(ids));
+        }
+        catch (IOException e) {
+            log.warn("Unable to read repodata manifest " + index + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the manifest of a channel, so that the next generation is a full one.
+     * @param prefix the channel repodata directory, including the trailing separator
+     */
+    public static void delete(String prefix) {
+        for (String name : new String[] {INDEX_FILE, DATA_FILE,
+                INDEX_FILE + NEW_SUFFIX, DATA_FILE + NEW_SUFFIX}) {
+            File file = new File(prefix + name);
+            if (file.exists() && !file.delete()) {
+                log.warn("Couldn't remove " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Moves a manifest written by {@link Writer} in place of the current one.
+     * @param prefix the channel repodata directory, including the trailing separator
+     * @return true if the new manifest is in place
+     */
+    public static boolean commit(String prefix) {
+        File newIndex = new File(prefix + INDEX_FILE + NEW_SUFFIX);
+        File newData = new File(prefix + DATA_FILE + NEW_SUFFIX);
+        if (!newIndex.exists() || !newData.exists()) {
+            delete(prefix);
+            return false;
+        }
+        // remove the index first so a crash in between leaves no usable manifest
+        new File(prefix + INDEX_FILE).delete();
+        if (!newData.renameTo(new File(prefix + DATA_FILE)) ||
+                !newIndex.renameTo(new File(prefix + INDEX_FILE))) {
+            delete(prefix);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the checksum type the manifest was written with
+     */
+    public String getChecksumType() {
+        return checksumType;
+    }
+
+    /**
+     * @return the fingerprint of channel level inputs at writing time
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the ids of the packages in the manifest, in ascending order
+     */
+    public List<Long> getPackageIds() {
+        return packageIds;
+    }
+
+    /**
+     * Opens the data file to stream the package fragments in id order.
+     * @param prefix the channel repodata directory, including the trailing separator
+     * @return the reader, to be closed by the caller
+     * @throws IOException if the data file cannot be opened
+     */
+    public Reader openReader(String prefix) throws IOException {
+        return new Reader(new File(prefix + DATA_FILE), packageIds);
+    }
+
+    /**
+     * XML fragments of a single package.
+     */
+    public static class Entry {
+
+        private final long packageId;
+        private final String primary;
+        private final String filelists;
+        private final String other;
+        private final String susedata;
+
+        /**
+         * Constructor
+         * @param packageIdIn the package id
+         * @param primaryIn primary.xml fragment
+         * @param filelistsIn filelists.xml fragment
+         * @param otherIn other.xml fragment
+         * @param susedataIn susedata.xml fragment, may be empty
+         */
+        public Entry(long packageIdIn, String primaryIn, String filelistsIn,
+                String otherIn, String susedataIn) {
+            packageId = packageIdIn;
+            primary = nullToEmpty(primaryIn);
+            filelists = nullToEmpty(filelistsIn);
+            other = nullToEmpty(otherIn);
+            susedata = nullToEmpty(susedataIn);
+        }
+
+        /**
+         * @return the package id
+         */
+        public long getPackageId() {
+            return packageId;
+        }
+
+        /**
+         * @return the primary.xml fragment
+         */
+        public String getPrimary() {
+            return primary;
+        }
+
+        /**
+         * @return the filelists.xml fragment
+         */
+        public String getFilelists() {
+            return filelists;
+        }
+
+        /**
+         * @return the other.xml fragment
+         */
+        public String getOther() {
+            return other;
+        }
+
+        /**
+         * @return the susedata.xml fragment
+         */
+        public String getSusedata() {
+            return susedata;
+        }
+
+        private static String nullToEmpty(String in) {
+            return in == null ? "" : in;
+        }
+    }
+
+    /**
+     * Streams the entries of a manifest data file, checking them against the index.
+     */
+    public static class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final List<Long> expectedIds;
+        private int position;
+
+        private Reader(File data, List<Long> expectedIdsIn) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                    new FileInputStream(data))));
+            expectedIds = expectedIdsIn;
+        }
+
+        /**
+         * Reads the next entry.
+         * @return the entry, or null once all entries listed in the index were read
+         * @throws IOException if the data file is corrupt or does not match the index
+         */
+        public Entry next() throws IOException {
+            long id = in.readLong();
+            if (id == END_MARKER) {
+                if (position != expectedIds.size()) {
+                    throw new IOException("Repodata manifest data ends after " +
+                            position + " of " + expectedIds.size() + " packages");
+                }
+                // reach the end of the gzip stream so that its CRC gets verified
+                if (in.read() != -1) {
+                    throw new IOException("Trailing data in repodata manifest");
+                }
+                return null;
+            }
+            if (position >= expectedIds.size() || expectedIds.get(position) != id) {
+                throw new IOException("Repodata manifest data does not match its index" +
+                        " at package " + id);
+            }
+            position++;
+            return new Entry(id, readString(), readString(), readString(), readString());
+        }
+
+        private String readString() throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Invalid fragment length in repodata manifest");
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes a new manifest next to the current one, see {@link RepomdManifest#commit}.
+     */
+    public static class Writer implements Closeable {
+
+        private final String prefix;
+        private final DataOutputStream out;
+        private final List<Long> ids = new ArrayList<>();
+        private long lastId = Long.MIN_VALUE;
+
+        /**
+         * Constructor
+         * @param prefixIn the channel repodata directory, including the trailing separator
+         * @throws IOException if the data file cannot be created
+         */
+        public Writer(String prefixIn) throws IOException {
+            prefix = prefixIn;
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+                    new FileOutputStream(prefix + DATA_FILE + NEW_SUFFIX))));
+        }
+
+        /**
+         * Appends an entry, entries must be added in ascending package id order.
+         * @param entry the entry
+         * @throws IOException if writing fails
+         */
+        public void add(Entry entry) throws IOException {
+            if (entry.getPackageId() <= lastId) {
+                throw new IOException("Repodata manifest entries out of order at package " +
+                        entry.getPackageId());
+            }
+            lastId = entry.getPackageId();
+            ids.add(lastId);
+            out.writeLong(lastId);
+            writeString(entry.getPrimary());
+            writeString(entry.getFilelists());
+            writeString(entry.getOther());
+            writeString(entry.getSusedata());
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        /**
+         * Completes the data file and writes the index file.
+         * @param checksumTypeIn the checksum type the repository is generated with
+         * @param fingerprintIn the fingerprint of channel level inputs
+         * @throws IOException if writing fails
+         */
+        public void finish(String checksumTypeIn, String fingerprintIn) throws IOException {
+            out.writeLong(END_MARKER);
+            out.close();
+            try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(prefix + INDEX_FILE + NEW_SUFFIX)))) {
+                index.writeInt(FORMAT_VERSION);
+                index.writeUTF(checksumTypeIn);
+                index.writeUTF(fingerprintIn);
+                index.writeInt(ids.size());
+                for (Long id : ids) {
+                    index.writeLong(id);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -46,6 +46,15 @@ public class RepomdRuntimeException extends RhnRuntimeException {
         super(cause);
     }
 
+    /**
+     * Constructor takes in a msg and a cause
+     * @param msg exception msg
+     * @param cause cause
+     */
+    public RepomdRuntimeException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
     private static final long serialVersionUID = 59953070843471704L;
 
 }
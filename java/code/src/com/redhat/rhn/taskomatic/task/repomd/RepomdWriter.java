@@ -96,6 +96,22 @@ public abstract class RepomdWriter {
 
 
 
+    /**
+     * Appends an already generated package fragment to the document
+     * @param xml package xml fragment, nothing is written if empty
+     */
+    public void addPackageXml(String xml) {
+        if (StringUtils.isEmpty(xml)) {
+            return;
+        }
+        try {
+            handler.addCharacters(xml);
+        }
+        catch (SAXException e) {
+            throw new RepomdRuntimeException(e);
+        }
+    }
+
     /**
      *
      * @param handler content handler
@@ -29,7 +29,10 @@ import com.redhat.rhn.manager.rhnpackage.PackageManager;
 import com.redhat.rhn.manager.satellite.SystemCommandExecutor;
 import com.redhat.rhn.manager.task.TaskManager;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -44,7 +47,17 @@ import java.security.DigestInputStream;
 import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -65,6 +78,13 @@ public class RpmRepositoryWriter extends RepositoryWriter {
     private static final String GROUP = "groups";
     private static final String MODULES = "modules";
 
+    // batch the elaboration so we don't have to hold many thousands of
+    // packages in memory at once
+    private static final int BATCH_SIZE = 1000;
+    // above this number of added packages a full generation is done instead
+    private static final int MAX_INCREMENTAL_PACKAGES = 5 * BATCH_SIZE;
+    private static final int ABORT_TIMEOUT_SECONDS = 10;
+
     private String checksumtype;
 
     /**
@@ -148,110 +168,34 @@ public class RpmRepositoryWriter extends RepositoryWriter {
                 channel.getPackageCount() + " packages, " +
                 channel.getErrataCount() + " errata");
 
-        CompressingDigestOutputWriter primaryFile;
-        CompressingDigestOutputWriter filelistsFile;
-        CompressingDigestOutputWriter otherFile;
-        CompressingDigestOutputWriter susedataFile;
-
-        try {
-            primaryFile = new CompressingDigestOutputWriter(
-                    new FileOutputStream(prefix + PRIMARY_FILE),
-                    checksumAlgo);
-            filelistsFile = new CompressingDigestOutputWriter(
-                    new FileOutputStream(prefix + FILELISTS_FILE),
-                    checksumAlgo);
-            otherFile = new CompressingDigestOutputWriter(
-                    new FileOutputStream(prefix + OTHER_FILE), checksumAlgo);
-            susedataFile = new CompressingDigestOutputWriter(
-                    new FileOutputStream(prefix + SUSEDATA_FILE), checksumAlgo);
-        }
-        catch (IOException e) {
-            throw new RepomdRuntimeException(e);
-        }
-        catch (NoSuchAlgorithmException e) {
-            throw new RepomdRuntimeException(e);
-        }
-
-        BufferedWriter primaryBufferedWriter = new BufferedWriter(
-                new OutputStreamWriter(primaryFile));
-        BufferedWriter filelistsBufferedWriter = new BufferedWriter(
-                new OutputStreamWriter(filelistsFile));
-        BufferedWriter otherBufferedWriter = new BufferedWriter(
-                new OutputStreamWriter(otherFile));
-        BufferedWriter susedataBufferedWriter = new BufferedWriter(
-                new OutputStreamWriter(susedataFile));
-        PrimaryXmlWriter primary = new PrimaryXmlWriter(
-                primaryBufferedWriter);
-        FilelistsXmlWriter filelists = new FilelistsXmlWriter(
-                filelistsBufferedWriter);
-        OtherXmlWriter other = new OtherXmlWriter(otherBufferedWriter);
-        SuseDataXmlWriter susedata = new SuseDataXmlWriter(
-                susedataBufferedWriter);
         Date start = new Date();
-
-        primary.begin(channel);
-        filelists.begin(channel);
-        other.begin(channel);
-        susedata.begin(channel);
-
-        // batch the elaboration so we don't have to hold many thousands of
-        // packages in memory at once
-        final int batchSize = 1000;
-
-        for (long i = 0; i < channel.getPackageCount(); i += batchSize) {
-            DataResult<PackageDto> packageBatch = TaskManager.getChannelPackageDtos(channel, i, batchSize);
-            packageBatch.elaborate();
-            for (PackageDto pkgDto : packageBatch) {
-                // this is a sanity check
-                // package may have been deleted before packageBatch.elaborate()
-                if (pkgDto.getChecksum() == null) {
-                    // channel content changed, we cannot guarantee correct repodata
-                    throw new RepomdRuntimeException("Package with id " + pkgDto.getId() +
-                            " removed from server, interrupting repo generation for " +
-                            channel.getLabel());
-                }
-                primary.addPackage(pkgDto);
-                filelists.addPackage(pkgDto);
-                other.addPackage(pkgDto);
-                susedata.addPackage(pkgDto);
-                try {
-                    primaryFile.flush();
-                    filelistsFile.flush();
-                    otherFile.flush();
-                    susedataFile.flush();
-                }
-                catch (IOException e) {
-                    throw new RepomdRuntimeException(e);
-                }
+        String fingerprint = TaskManager.getChannelRepodataFingerprint(channel);
+
+        PackageMetadataFiles packageFiles = null;
+        if (ConfigDefaults.get().isTaskoChannelRepodataIncremental()) {
+            RepomdManifest manifest = RepomdManifest.load(prefix, checksumtype, fingerprint);
+            if (manifest != null) {
+                packageFiles = writePackagesIncrementally(channel, prefix, checksumAlgo,
+                        manifest);
+            }
+            else {
+                log.info("No usable repodata manifest for channel '" + channel.getLabel() +
+                        "', generating all package metadata");
             }
-            log.info("Processed " + (i + packageBatch.getEnd()) + " packages");
         }
-        primary.end();
-        filelists.end();
-        other.end();
-        susedata.end();
-        try {
-            primaryBufferedWriter.close();
-            filelistsBufferedWriter.close();
-            otherBufferedWriter.close();
-            susedataBufferedWriter.close();
-        }
-        catch (IOException e) {
-            throw new RepomdRuntimeException(e);
+        if (packageFiles == null) {
+            packageFiles = writePackages(channel, prefix, checksumAlgo);
         }
+        packageFiles.end(checksumtype, fingerprint);
 
-        RepomdIndexData primaryData = new RepomdIndexData(primaryFile
-                .getCompressedChecksum(), primaryFile
-                .getUncompressedChecksum(), channel.getLastModified());
-        RepomdIndexData filelistsData = new RepomdIndexData(filelistsFile
-                .getCompressedChecksum(), filelistsFile
-                .getUncompressedChecksum(), channel.getLastModified());
-        RepomdIndexData otherData = new RepomdIndexData(otherFile
-                .getCompressedChecksum(), otherFile
-                .getUncompressedChecksum(), channel.getLastModified());
-        RepomdIndexData susedataData = new RepomdIndexData(susedataFile
-                .getCompressedChecksum(), susedataFile
-                .getUncompressedChecksum(), channel.getLastModified());
+        RepomdIndexData primaryData = packageFiles.getPrimaryData(
+                channel.getLastModified());
+        RepomdIndexData filelistsData = packageFiles.getFilelistsData(
+                channel.getLastModified());
+        RepomdIndexData otherData = packageFiles.getOtherData(
+                channel.getLastModified());
+        RepomdIndexData susedataData = packageFiles.getSusedataData(
+                channel.getLastModified());
 
         if (log.isDebugEnabled()) {
             log.debug("Starting updateinfo generation for '" + channel.getLabel() + '"');
@@ -320,6 +264,135 @@ public class RpmRepositoryWriter extends RepositoryWriter {
                 (int) (new Date().getTime() - start.getTime()) / 1000 + " seconds");
     }
 
+    /**
+     * Generates the package metadata elaborating every package of the channel
+     * @param channel the channel
+     * @param prefix the directory prefix
+     * @param checksumAlgo checksum algorithm
+     * @return the written package metadata files
+     */
+    private PackageMetadataFiles writePackages(Channel channel, String prefix,
+            String checksumAlgo) {
+        PackageMetadataFiles packageFiles = new PackageMetadataFiles(channel, prefix,
+                checksumAlgo);
+        try {
+            // batch the elaboration so we don't have to hold many thousands of
+            // packages in memory at once
+            for (long i = 0; i < channel.getPackageCount(); i += BATCH_SIZE) {
+                DataResult<PackageDto> packageBatch =
+                        TaskManager.getChannelPackageDtos(channel, i, BATCH_SIZE);
+                packageBatch.elaborate();
+                for (PackageDto pkgDto : packageBatch) {
+                    checkPackage(channel, pkgDto);
+                    packageFiles.add(packageFiles.createEntry(pkgDto));
+                }
+                log.info("Processed " + (i + packageBatch.getEnd()) + " packages");
+            }
+        }
+        catch (RuntimeException e) {
+            packageFiles.abort();
+            throw e;
+        }
+        return packageFiles;
+    }
+
+    /**
+     * Generates the package metadata from the channel manifest, elaborating only
+     * the packages added since the manifest was written and skipping the removed ones
+     * @param channel the channel
+     * @param prefix the directory prefix
+     * @param checksumAlgo checksum algorithm
+     * @param manifest the manifest of the previous generation
+     * @return the written package metadata files, or null if a full generation
+     * is needed instead
+     */
+    private PackageMetadataFiles writePackagesIncrementally(Channel channel,
+            String prefix, String checksumAlgo, RepomdManifest manifest) {
+        List<Long> currentIds = TaskManager.getChannelPackageIds(channel);
+        Set<Long> current = new HashSet<>(currentIds);
+        Set<Long> known = new HashSet<>(manifest.getPackageIds());
+
+        List<Long> added = new ArrayList<>();
+        for (Long id : currentIds) {
+            if (!known.contains(id)) {
+                added.add(id);
+            }
+        }
+        int removed = known.size() - (currentIds.size() - added.size());
+        if (added.size() > MAX_INCREMENTAL_PACKAGES) {
+            log.info(added.size() + " packages added to channel '" + channel.getLabel() +
+                    "', generating all package metadata");
+            return null;
+        }
+
+        PackageMetadataFiles packageFiles = new PackageMetadataFiles(channel, prefix,
+                checksumAlgo);
+        try {
+            SortedMap<Long, RepomdManifest.Entry> addedEntries = new TreeMap<>();
+            for (int i = 0; i < added.size(); i += BATCH_SIZE) {
+                DataResult<PackageDto> packageBatch = TaskManager.getChannelPackageDtos(
+                        channel, added.subList(i, Math.min(i + BATCH_SIZE, added.size())));
+                packageBatch.elaborate();
+                for (PackageDto pkgDto : packageBatch) {
+                    checkPackage(channel, pkgDto);
+                    addedEntries.put(pkgDto.getId(), packageFiles.createEntry(pkgDto));
+                }
+            }
+            if (addedEntries.size() != added.size()) {
+                // channel content changed, we cannot guarantee correct repodata
+                throw new RepomdRuntimeException("Packages removed from channel " +
+                        channel.getLabel() + " during repo generation");
+            }
+
+            // both the manifest and the added packages are sorted by id: merge them
+            Iterator<RepomdManifest.Entry> addedIterator = addedEntries.values().iterator();
+            RepomdManifest.Entry nextAdded = addedIterator.hasNext() ? addedIterator.next() : null;
+            try (RepomdManifest.Reader reader = manifest.openReader(prefix)) {
+                for (RepomdManifest.Entry entry = reader.next(); entry != null;
+                        entry = reader.next()) {
+                    while (nextAdded != null && nextAdded.getPackageId() < entry.getPackageId()) {
+                        packageFiles.add(nextAdded);
+                        nextAdded = addedIterator.hasNext() ? addedIterator.next() : null;
+                    }
+                    if (current.contains(entry.getPackageId())) {
+                        packageFiles.add(entry);
+                    }
+                }
+            }
+            while (nextAdded != null) {
+                packageFiles.add(nextAdded);
+                nextAdded = addedIterator.hasNext() ? addedIterator.next() : null;
+            }
+        }
+        catch (IOException e) {
+            log.warn("Repodata manifest for channel '" + channel.getLabel() +
+                    "' is inconsistent, generating all package metadata: " + e.getMessage());
+            packageFiles.abort();
+            return null;
+        }
+        catch (RuntimeException e) {
+            packageFiles.abort();
+            throw e;
+        }
+        log.info("Updated package metadata of channel '" + channel.getLabel() + "': " +
+                added.size() + " packages added, " + removed + " removed");
+        return packageFiles;
+    }
+
+    /**
+     * Sanity check, a package may have been deleted before its elaboration
+     * @param channel the channel
+     * @param pkgDto the elaborated package
+     */
+    private void checkPackage(Channel channel, PackageDto pkgDto) {
+        if (pkgDto.getChecksum() == null) {
+            // channel content changed, we cannot guarantee correct repodata
+            throw new RepomdRuntimeException("Package with id " + pkgDto.getId() +
+                    " removed from server, interrupting repo generation for " +
+                    channel.getLabel());
+        }
+    }
+
     /**
      * Deletes existing repo and generates file stating that no repo was generated
      * @param channel the channel to do this for
@@ -442,7 +515,9 @@ public class RpmRepositoryWriter extends RepositoryWriter {
         CompressingDigestOutputWriter updateinfoFile;
         try {
             updateinfoFile = new CompressingDigestOutputWriter(
-                    new FileOutputStream(prefix + UPDATEINFO_FILE), checksumtypeIn);
+                    new FileOutputStream(prefix + UPDATEINFO_FILE), checksumtypeIn,
+                    ConfigDefaults.get().getTaskoChannelRepodataCompressionLevel(),
+                    ConfigDefaults.get().getTaskoChannelRepodataBufferSize());
         }
         catch (FileNotFoundException e) {
             throw new RepomdRuntimeException(e);
@@ -572,6 +647,295 @@ public class RpmRepositoryWriter extends RepositoryWriter {
         other.renameTo(new File(prefix + "other.xml.gz"));
         susedata.renameTo(new File(prefix + "susedata.xml.gz"));
         repomd.renameTo(new File(prefix + "repomd.xml"));
+
+        RepomdManifest.commit(prefix);
     }
 
+    /**
+     * The primary, filelists, other and susedata files of a repository, written
+     * together with the channel manifest.
+     *
+     * Package fragments are generated on the calling thread, which owns the
+     * database session, and handed to one {@link MetadataStreamConsumer} per file
+     * doing the XML serialization, compression and digesting.
+     */
+    private class PackageMetadataFiles {
+
+        private CompressingDigestOutputWriter primaryFile;
+        private CompressingDigestOutputWriter filelistsFile;
+        private CompressingDigestOutputWriter otherFile;
+        private CompressingDigestOutputWriter susedataFile;
+        private BufferedWriter primaryBufferedWriter;
+        private BufferedWriter filelistsBufferedWriter;
+        private BufferedWriter otherBufferedWriter;
+        private BufferedWriter susedataBufferedWriter;
+        private PrimaryXmlWriter primary;
+        private FilelistsXmlWriter filelists;
+        private OtherXmlWriter other;
+        private SuseDataXmlWriter susedata;
+        private RepomdManifest.Writer manifest;
+        private String prefix;
+
+        private ExecutorService executor;
+        private MetadataStreamConsumer<String> primaryConsumer;
+        private MetadataStreamConsumer<String> filelistsConsumer;
+        private MetadataStreamConsumer<String> otherConsumer;
+        private MetadataStreamConsumer<String> susedataConsumer;
+        private MetadataStreamConsumer<RepomdManifest.Entry> manifestConsumer;
+
+        PackageMetadataFiles(Channel channel, String prefixIn, String checksumAlgo) {
+            prefix = prefixIn;
+            int level = ConfigDefaults.get().getTaskoChannelRepodataCompressionLevel();
+            int bufferSize = ConfigDefaults.get().getTaskoChannelRepodataBufferSize();
+            try {
+                primaryFile = new CompressingDigestOutputWriter(
+                        new FileOutputStream(prefix + PRIMARY_FILE),
+                        checksumAlgo, level, bufferSize);
+                filelistsFile = new CompressingDigestOutputWriter(
+                        new FileOutputStream(prefix + FILELISTS_FILE),
+                        checksumAlgo, level, bufferSize);
+                otherFile = new CompressingDigestOutputWriter(
+                        new FileOutputStream(prefix + OTHER_FILE),
+                        checksumAlgo, level, bufferSize);
+                susedataFile = new CompressingDigestOutputWriter(
+                        new FileOutputStream(prefix + SUSEDATA_FILE),
+                        checksumAlgo, level, bufferSize);
+            }
+            catch (IOException e) {
+                throw new RepomdRuntimeException(e);
+            }
+            catch (NoSuchAlgorithmException e) {
+                throw new RepomdRuntimeException(e);
+            }
+
+            primaryBufferedWriter = new BufferedWriter(
+                    new OutputStreamWriter(primaryFile), bufferSize);
+            filelistsBufferedWriter = new BufferedWriter(
+                    new OutputStreamWriter(filelistsFile), bufferSize);
+            otherBufferedWriter = new BufferedWriter(
+                    new OutputStreamWriter(otherFile), bufferSize);
+            susedataBufferedWriter = new BufferedWriter(
+                    new OutputStreamWriter(susedataFile), bufferSize);
+            primary = new PrimaryXmlWriter(primaryBufferedWriter);
+            filelists = new FilelistsXmlWriter(filelistsBufferedWriter);
+            other = new OtherXmlWriter(otherBufferedWriter);
+            susedata = new SuseDataXmlWriter(susedataBufferedWriter);
+
+            primary.begin(channel);
+            filelists.begin(channel);
+            other.begin(channel);
+            susedata.begin(channel);
+
+            try {
+                manifest = new RepomdManifest.Writer(prefix);
+            }
+            catch (IOException e) {
+                log.warn("Unable to write repodata manifest: " + e.getMessage());
+                RepomdManifest.delete(prefix);
+            }
+
+            executor = Executors.newFixedThreadPool(manifest == null ? 4 : 5,
+                    new BasicThreadFactory.Builder()
+                    .namingPattern("repodata-" + channel.getLabel() + "-%d")
+                    .daemon(true)
+                    .build());
+            primaryConsumer = createConsumer("primary.xml", primary,
+                    primaryBufferedWriter);
+            filelistsConsumer = createConsumer("filelists.xml", filelists,
+                    filelistsBufferedWriter);
+            otherConsumer = createConsumer("other.xml", other, otherBufferedWriter);
+            susedataConsumer = createConsumer("susedata.xml", susedata,
+                    susedataBufferedWriter);
+            if (manifest != null) {
+                manifestConsumer = new MetadataStreamConsumer<>("repodata manifest",
+                        new MetadataStreamConsumer.Sink<RepomdManifest.Entry>() {
+                            @Override
+                            public void write(RepomdManifest.Entry entry) throws IOException {
+                                manifest.add(entry);
+                            }
+
+                            @Override
+                            public void flush() {
+                                // the manifest is only read once complete
+                            }
+                        }, BATCH_SIZE, BATCH_SIZE, executor);
+            }
+        }
+
+        private MetadataStreamConsumer<String> createConsumer(String name,
+                RepomdWriter writer, BufferedWriter out) {
+            return new MetadataStreamConsumer<>(name,
+                    new MetadataStreamConsumer.Sink<String>() {
+                        @Override
+                        public void write(String fragment) {
+                            writer.addPackageXml(fragment);
+                        }
+
+                        @Override
+                        public void flush() throws IOException {
+                            out.flush();
+                        }
+                    }, BATCH_SIZE, BATCH_SIZE, executor);
+        }
+
+        /**
+         * Generates the metadata fragments of a package
+         * @param pkgDto the elaborated package
+         * @return the manifest entry
+         */
+        RepomdManifest.Entry createEntry(PackageDto pkgDto) {
+            return new RepomdManifest.Entry(pkgDto.getId(),
+                    primary.getPackageXml(pkgDto),
+                    filelists.getPackageXml(pkgDto),
+                    other.getPackageXml(pkgDto),
+                    susedata.getPackageXml(pkgDto));
+        }
+
+        /**
+         * Queues the fragments of a package for the metadata files and the manifest
+         * @param entry the package fragments
+         */
+        void add(RepomdManifest.Entry entry) {
+            primaryConsumer.add(entry.getPrimary());
+            filelistsConsumer.add(entry.getFilelists());
+            otherConsumer.add(entry.getOther());
+            susedataConsumer.add(entry.getSusedata());
+            if (manifestConsumer != null) {
+                try {
+                    manifestConsumer.add(entry);
+                }
+                catch (RepomdRuntimeException e) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    // the consumer stopped writing to the manifest when it failed
+                    log.warn("Unable to write repodata manifest: " + e.getMessage());
+                    abortManifest();
+                }
+            }
+        }
+
+        /**
+         * Completes the metadata files and the manifest
+         * @param checksumType checksum type of the repository
+         * @param fingerprint fingerprint of channel level inputs
+         */
+        void end(String checksumType, String fingerprint) {
+            try {
+                try {
+                    primaryConsumer.finish();
+                    filelistsConsumer.finish();
+                    otherConsumer.finish();
+                    susedataConsumer.finish();
+                }
+                catch (RuntimeException e) {
+                    abort();
+                    throw e;
+                }
+                primary.end();
+                filelists.end();
+                other.end();
+                susedata.end();
+                try {
+                    primaryBufferedWriter.close();
+                    filelistsBufferedWriter.close();
+                    otherBufferedWriter.close();
+                    susedataBufferedWriter.close();
+                }
+                catch (IOException e) {
+                    throw new RepomdRuntimeException(e);
+                }
+                if (manifestConsumer != null) {
+                    try {
+                        manifestConsumer.finish();
+                        manifest.finish(checksumType, fingerprint);
+                    }
+                    catch (IOException | RepomdRuntimeException e) {
+                        log.warn("Unable to write repodata manifest: " + e.getMessage());
+                        abortManifest();
+                    }
+                }
+            }
+            finally {
+                executor.shutdown();
+            }
+        }
+
+        /**
+         * Closes all files, discarding their content
+         */
+        void abort() {
+            for (MetadataStreamConsumer<?> consumer : new MetadataStreamConsumer<?>[] {
+                    primaryConsumer, filelistsConsumer, otherConsumer, susedataConsumer}) {
+                consumer.abort();
+            }
+            if (manifestConsumer != null) {
+                manifestConsumer.abort();
+                manifestConsumer = null;
+            }
+            executor.shutdownNow();
+            try {
+                // do not close the files under the feet of a consumer still writing
+                executor.awaitTermination(ABORT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (Closeable c : new Closeable[] {primaryBufferedWriter,
+                    filelistsBufferedWriter, otherBufferedWriter, susedataBufferedWriter}) {
+                try {
+                    c.close();
+                }
+                catch (IOException e) {
+                    log.debug("Error closing metadata file: " + e.getMessage());
+                }
+            }
+            deleteManifest();
+        }
+
+        /**
+         * Stops writing the manifest and deletes it, to be called once its consumer
+         * no longer writes to it
+         */
+        private void abortManifest() {
+            if (manifestConsumer != null) {
+                manifestConsumer.abort();
+                manifestConsumer = null;
+            }
+            deleteManifest();
+        }
+
+        private void deleteManifest() {
+            if (manifest != null) {
+                try {
+                    manifest.close();
+                }
+                catch (IOException e) {
+                    log.debug("Error closing repodata manifest: " + e.getMessage());
+                }
+                manifest = null;
+            }
+            RepomdManifest.delete(prefix);
+        }
+
+        RepomdIndexData getPrimaryData(Date lastModified) {
+            return new RepomdIndexData(primaryFile.getCompressedChecksum(),
+                    primaryFile.getUncompressedChecksum(), lastModified);
+        }
+
+        RepomdIndexData getFilelistsData(Date lastModified) {
+            return new RepomdIndexData(filelistsFile.getCompressedChecksum(),
+                    filelistsFile.getUncompressedChecksum(), lastModified);
+        }
+
+        RepomdIndexData getOtherData(Date lastModified) {
+            return new RepomdIndexData(otherFile.getCompressedChecksum(),
+                    otherFile.getUncompressedChecksum(), lastModified);
+        }
+
+        RepomdIndexData getSusedataData(Date lastModified) {
+            return new RepomdIndexData(susedataFile.getCompressedChecksum(),
+                    susedataFile.getUncompressedChecksum(), lastModified);
+        }
+    }
 }
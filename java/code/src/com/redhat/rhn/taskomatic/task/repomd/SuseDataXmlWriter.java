@@ -79,6 +79,16 @@ public class SuseDataXmlWriter extends RepomdWriter {
      * @param pkgDto pkg info to add to xml
      */
     public void addPackage(PackageDto pkgDto) {
+        addPackageXml(getPackageXml(pkgDto));
+    }
+
+    /**
+     * Returns the susedata.xml fragment for a package
+     * @param pkgDto pkg info
+     * @return the package xml fragment, an empty string if the package has
+     * neither keywords nor EULAs
+     */
+    public String getPackageXml(PackageDto pkgDto) {
         long pkgId = pkgDto.getId().longValue();
         List<String> eulas = new EulaManager().getEulasForPackage(pkgId);
 
@@ -87,7 +97,7 @@ public class SuseDataXmlWriter extends RepomdWriter {
 
         if (keywords.isEmpty() && eulas.isEmpty()) {
             // this package has no keywords and no EULA
-            return;
+            return "";
         }
         try {
             ByteArrayOutputStream st = new ByteArrayOutputStream();
@@ -100,8 +110,7 @@ public class SuseDataXmlWriter extends RepomdWriter {
             tmpHandler.endElement("package");
             tmpHandler.endDocument();
 
-            String pkg =  st.toString();
-            handler.addCharacters(pkg);
+            return st.toString();
         }
         catch (SAXException e) {
             throw new RepomdRuntimeException(e);
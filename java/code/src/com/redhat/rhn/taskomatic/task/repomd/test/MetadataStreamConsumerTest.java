@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.taskomatic.task.repomd.test;
+
+import com.redhat.rhn.taskomatic.task.repomd.MetadataStreamConsumer;
+import com.redhat.rhn.taskomatic.task.repomd.RepomdRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for MetadataStreamConsumer
+ */
+public class MetadataStreamConsumerTest extends TestCase {
+
+    private ExecutorService executor;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testWritesInOrderAndFlushes() {
+        List<String> written = new ArrayList<>();
+        int[] flushes = {0};
+        MetadataStreamConsumer<String> consumer = new MetadataStreamConsumer<>("test",
+                new MetadataStreamConsumer.Sink<String>() {
+                    @Override
+                    public void write(String fragment) {
+                        written.add(fragment);
+                    }
+
+                    @Override
+                    public void flush() {
+                        flushes[0]++;
+                    }
+                }, 2, 10, executor);
+
+        for (int i = 0; i < 25; i++) {
+            consumer.add("pkg" + i);
+        }
+        consumer.finish();
+
+        assertEquals(25, written.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals("pkg" + i, written.get(i));
+        }
+        assertEquals(2, flushes[0]);
+    }
+
+    public void testFailureIsReported() {
+        MetadataStreamConsumer<String> consumer = new MetadataStreamConsumer<>("test",
+                new MetadataStreamConsumer.Sink<String>() {
+                    @Override
+                    public void write(String fragment) throws Exception {
+                        throw new Exception("disk full");
+                    }
+
+                    @Override
+                    public void flush() {
+                    }
+                }, 1, 10, executor);
+
+        // a failing consumer keeps draining, so the producer never blocks
+        for (int i = 0; i < 10; i++) {
+            try {
+                consumer.add("pkg" + i);
+            }
+            catch (RepomdRuntimeException e) {
+                // expected once the failure is noticed
+            }
+        }
+        try {
+            consumer.finish();
+            fail("failure not reported");
+        }
+        catch (RepomdRuntimeException e) {
+            assertEquals("disk full", e.getCause().getMessage());
+        }
+    }
+}
@@ -14,12 +14,15 @@
  */
 package com.redhat.rhn.taskomatic.task.repomd.test;
 
+import com.redhat.rhn.common.conf.Config;
+import com.redhat.rhn.common.conf.ConfigDefaults;
 import com.redhat.rhn.common.db.datasource.DataResult;
 import com.redhat.rhn.common.hibernate.HibernateFactory;
 import com.redhat.rhn.domain.channel.Channel;
 import com.redhat.rhn.domain.channel.ChannelFactory;
 import com.redhat.rhn.domain.channel.test.ChannelFactoryTest;
 import com.redhat.rhn.domain.rhnpackage.PackageCapability;
+import com.redhat.rhn.domain.rhnpackage.PackageFactory;
 import com.redhat.rhn.domain.rhnpackage.PackageProvides;
 import com.redhat.rhn.domain.rhnpackage.PackageRequires;
 import com.redhat.rhn.domain.rhnpackage.test.PackageCapabilityTest;
@@ -27,6 +30,7 @@ import com.redhat.rhn.frontend.dto.PackageDto;
 import com.redhat.rhn.manager.rhnpackage.PackageManager;
 import com.redhat.rhn.manager.rhnpackage.test.PackageManagerTest;
 import com.redhat.rhn.manager.task.TaskManager;
+import com.redhat.rhn.taskomatic.task.repomd.RepomdManifest;
 import com.redhat.rhn.taskomatic.task.repomd.RpmRepositoryWriter;
 import com.redhat.rhn.testing.BaseTestCaseWithUser;
 import com.redhat.rhn.testing.TestUtils;
@@ -159,6 +163,82 @@ public class RpmRepositoryWriterTest extends BaseTestCaseWithUser {
         }
     }
 
+    public void testWriteRepomdFilesIncrementally() throws Exception {
+        RpmRepositoryWriter writer = new RpmRepositoryWriter("rhn/repodata", mountPointDir.toAbsolutePath().toString());
+
+        Channel channel = ChannelFactoryTest.createTestChannel(user);
+        channel.setChecksumType(ChannelFactory.findChecksumTypeByLabel("sha256"));
+        com.redhat.rhn.domain.rhnpackage.Package pkg1 = PackageManagerTest.addPackageToChannel("incpkg1", channel);
+        PackageManagerTest.addPackageToChannel("incpkg2", channel);
+        HibernateFactory.getSession().flush();
+        HibernateFactory.getSession().clear();
+
+        writer.writeRepomdFiles(channel);
+
+        Path channelDir = mountPointDir.resolve("rhn").resolve("repodata").resolve(channel.getLabel());
+        assertTrue(channelDir.resolve(RepomdManifest.INDEX_FILE).toFile().exists());
+        assertTrue(channelDir.resolve(RepomdManifest.DATA_FILE).toFile().exists());
+
+        // remove one package and add another one, then splice them in
+        channel = ChannelFactory.lookupById(channel.getId());
+        channel.getPackages().remove(PackageFactory.lookupByIdAndOrg(pkg1.getId(), channel.getOrg()));
+        PackageManagerTest.addPackageToChannel("incpkg3", channel);
+        HibernateFactory.getSession().flush();
+        HibernateFactory.getSession().clear();
+
+        writer.writeRepomdFiles(channel);
+        String incrementalPrimary = readGzip(channelDir.resolve("primary.xml.gz").toFile());
+        String incrementalRepomd = TestUtils.readAll(new FileInputStream(channelDir.resolve("repomd.xml").toFile()));
+        assertFalse(incrementalPrimary.contains("<name>incpkg1</name>"));
+        assertTrue(incrementalPrimary.contains("<name>incpkg2</name>"));
+        assertTrue(incrementalPrimary.contains("<name>incpkg3</name>"));
+
+        // a full generation must produce the very same metadata
+        Config.get().setBoolean(ConfigDefaults.TASKOMATIC_CHANNEL_REPODATA_INCREMENTAL, "false");
+        try {
+            writer.writeRepomdFiles(channel);
+        }
+        finally {
+            Config.get().remove(ConfigDefaults.TASKOMATIC_CHANNEL_REPODATA_INCREMENTAL);
+        }
+        assertEquals(readGzip(channelDir.resolve("primary.xml.gz").toFile()), incrementalPrimary);
+        assertEquals(TestUtils.readAll(new FileInputStream(channelDir.resolve("repomd.xml").toFile())),
+                incrementalRepomd);
+    }
+
+    public void testWriteRepomdFilesWithBrokenManifest() throws Exception {
+        RpmRepositoryWriter writer = new RpmRepositoryWriter("rhn/repodata", mountPointDir.toAbsolutePath().toString());
+
+        Channel channel = ChannelFactoryTest.createTestChannel(user);
+        channel.setChecksumType(ChannelFactory.findChecksumTypeByLabel("sha256"));
+        PackageManagerTest.addPackageToChannel("brokenpkg1", channel);
+        HibernateFactory.getSession().flush();
+        HibernateFactory.getSession().clear();
+
+        writer.writeRepomdFiles(channel);
+
+        Path channelDir = mountPointDir.resolve("rhn").resolve("repodata").resolve(channel.getLabel());
+        FileUtils.writeStringToFile(channelDir.resolve(RepomdManifest.DATA_FILE).toFile(), "garbage", "UTF-8");
+
+        channel = ChannelFactory.lookupById(channel.getId());
+        PackageManagerTest.addPackageToChannel("brokenpkg2", channel);
+        HibernateFactory.getSession().flush();
+        HibernateFactory.getSession().clear();
+
+        // falls back to a full generation and writes a fresh manifest
+        writer.writeRepomdFiles(channel);
+        String primary = readGzip(channelDir.resolve("primary.xml.gz").toFile());
+        assertTrue(primary.contains("<name>brokenpkg1</name>"));
+        assertTrue(primary.contains("<name>brokenpkg2</name>"));
+        assertNotNull(readGzip(channelDir.resolve(RepomdManifest.DATA_FILE).toFile()));
+    }
+
+    private String readGzip(File file) throws IOException {
+        try (FileInputStream fin = new FileInputStream(file); InputStream gzipStream = new GZIPInputStream(fin)) {
+            return TestUtils.readAll(gzipStream);
+        }
+    }
+
     private String cleanupRepomd(String str) {
         String ret = str.trim().replaceFirst("<checksum type=\"sha256\">.*</checksum>", "<checksum type=\"sha256\">xxx</checksum>");
         ret = ret.replaceFirst("<open-checksum type=\"sha256\">.*</open-checksum>", "<open-checksum type=\"sha256\">xxx</open-checksum>");
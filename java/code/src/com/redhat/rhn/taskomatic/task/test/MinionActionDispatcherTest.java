@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2020 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.rhn.taskomatic.task.test;
+
+import com.redhat.rhn.common.hibernate.HibernateFactory;
+import com.redhat.rhn.domain.action.Action;
+import com.redhat.rhn.domain.action.ActionFactory;
+import com.redhat.rhn.domain.action.server.ServerAction;
+import com.redhat.rhn.domain.action.test.ActionFactoryTest;
+import com.redhat.rhn.domain.server.MinionServer;
+import com.redhat.rhn.domain.server.MinionServerFactory;
+import com.redhat.rhn.domain.server.MinionSummary;
+import com.redhat.rhn.domain.server.test.MinionServerFactoryTest;
+import com.redhat.rhn.taskomatic.task.MinionActionDispatcher;
+import com.redhat.rhn.taskomatic.task.MinionActionExecutor;
+import com.redhat.rhn.testing.JMockBaseTestCaseWithUser;
+import com.suse.manager.webui.services.SaltServerActionService;
+
+import org.jmock.Expectations;
+import org.jmock.lib.legacy.ClassImposteriser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for MinionActionDispatcher
+ */
+public class MinionActionDispatcherTest extends JMockBaseTestCaseWithUser {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        setImposteriser(ClassImposteriser.INSTANCE);
+    }
+
+    public void testEnqueue() throws Exception {
+        Action action1 = ActionFactoryTest.createAction(user, ActionFactory.TYPE_PACKAGES_UPDATE);
+        Action action2 = ActionFactoryTest.createAction(user, ActionFactory.TYPE_APPLY_STATES);
+
+        MinionActionDispatcher.enqueue(Arrays.asList(action1.getId(), action2.getId()), true);
+        // queuing again does not duplicate
+        MinionActionDispatcher.enqueue(Collections.singletonList(action1.getId()), false);
+
+        Map<Long, Boolean> queued = MinionActionDispatcher.listQueued(null);
+        assertEquals(Boolean.TRUE, queued.get(action1.getId()));
+        assertEquals(Boolean.TRUE, queued.get(action2.getId()));
+
+        // the sweep only picks up actions queued for a while
+        assertFalse(MinionActionDispatcher.listQueued(new Date(0)).containsKey(action1.getId()));
+    }
+
+    public void testProcess() throws Exception {
+        Action action = ActionFactoryTest.createAction(user, ActionFactory.TYPE_PACKAGES_UPDATE);
+        MinionActionDispatcher.enqueue(Collections.singletonList(action.getId()), true);
+
+        SaltServerActionService saltServerActionService = mock(SaltServerActionService.class);
+        context().checking(new Expectations() {{
+            oneOf(saltServerActionService).executeQueued(with(action), with(true));
+        }});
+        MinionActionExecutor executor = new MinionActionExecutor();
+        executor.setSaltServerActionService(saltServerActionService);
+
+        assertEquals(-1, MinionActionDispatcher.process(action.getId(), true,
+                System.currentTimeMillis(), executor));
+        assertFalse(MinionActionDispatcher.listQueued(null).containsKey(action.getId()));
+    }
+
+    public void testProcessRetriesMissingAction() throws Exception {
+        SaltServerActionService saltServerActionService = mock(SaltServerActionService.class);
+        context().checking(new Expectations() {{
+            never(saltServerActionService).executeQueued(with(any(Action.class)), with(any(Boolean.class)));
+        }});
+        MinionActionExecutor executor = new MinionActionExecutor();
+        executor.setSaltServerActionService(saltServerActionService);
+
+        // not committed yet: try again later
+        long delay = MinionActionDispatcher.process(-1L, false, System.currentTimeMillis(), executor);
+        assertTrue(delay > 0);
+
+        // grace time over: give up
+        long anHourAgo = System.currentTimeMillis() - 3_600_000;
+        assertEquals(-1, MinionActionDispatcher.process(-1L, false, anHourAgo, executor));
+    }
+
+    public void testRecoveryOnlyExecutesQueuedServerActions() throws Exception {
+        Action action = ActionFactoryTest.createAction(user, ActionFactory.TYPE_PACKAGES_UPDATE);
+        MinionServer queuedMinion = MinionServerFactoryTest.createTestMinionServer(user);
+        MinionServer completedMinion = MinionServerFactoryTest.createTestMinionServer(user);
+        action.addServerAction(ActionFactoryTest.createServerAction(queuedMinion, action));
+        ServerAction completed = ActionFactoryTest.createServerAction(completedMinion, action);
+        // completed by the job return event before Taskomatic went down
+        completed.setStatus(ActionFactory.STATUS_COMPLETED);
+        action.addServerAction(completed);
+        ActionFactory.save(action);
+        MinionActionDispatcher.enqueue(Collections.singletonList(action.getId()), false);
+        HibernateFactory.getSession().flush();
+
+        // found again on start
+        assertTrue(MinionActionDispatcher.listQueued(null).containsKey(action.getId()));
+
+        // only the queued server action is executed again
+        List<MinionSummary> minions = MinionServerFactory.findMinionSummaries(action.getId(),
+                ActionFactory.STATUS_QUEUED);
+        assertEquals(1, minions.size());
+        assertEquals(queuedMinion.getId(), minions.get(0).getServerId());
+    }
+}
@@ -15,11 +15,16 @@
 package com.suse.manager.metrics;
 
 import com.redhat.rhn.common.conf.ConfigDefaults;
+import com.redhat.rhn.common.messaging.MessageQueueStats;
+import com.redhat.rhn.frontend.xmlrpc.ApiCallStats;
+import com.suse.manager.webui.services.SaltStateGeneratorService;
+import io.prometheus.client.Collector;
 import io.prometheus.client.exporter.HTTPServer;
 import org.apache.log4j.Logger;
 import org.quartz.Scheduler;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -61,6 +66,47 @@ public enum PrometheusExporter {
         }
     }
 
+    /**
+     * Registers thread pools for monitoring, reported as a single pool.
+     * @param pools the thread pools
+     * @param poolId a unique ID for the pools
+     */
+    public void registerThreadPools(List<ThreadPoolExecutor> pools, String poolId) {
+        if (ENABLED) {
+            new ThreadPoolCollector(pools, poolId).register();
+        }
+    }
+
+    /**
+     * Registers the MessageQueue event statistics for monitoring.
+     * @param stats the statistics
+     */
+    public void registerMessageQueue(MessageQueueStats stats) {
+        if (ENABLED) {
+            stats.getMetrics().forEach(Collector::register);
+        }
+    }
+
+    /**
+     * Registers the XML-RPC API call statistics for monitoring.
+     * @param stats the statistics
+     */
+    public void registerApiCalls(ApiCallStats stats) {
+        if (ENABLED) {
+            stats.getMetrics().forEach(Collector::register);
+        }
+    }
+
+    /**
+     * Registers the pillar file counters of the Salt state generator for monitoring.
+     * @param service the Salt state generator
+     */
+    public void registerPillarFiles(SaltStateGeneratorService service) {
+        if (ENABLED) {
+            service.getMetrics().forEach(Collector::register);
+        }
+    }
+
     /**
      * Registers a Scheduler for monitoring.
      * @param scheduler a scheduler
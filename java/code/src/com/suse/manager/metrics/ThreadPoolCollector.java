@@ -17,15 +17,16 @@ package com.suse.manager.metrics;
 import io.prometheus.client.Collector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
- * Collector for a ThreadPool.
+ * Collector for a ThreadPool, or for several thread pools reported as one.
  */
 public class ThreadPoolCollector extends Collector {
 
-    private ThreadPoolExecutor pool;
+    private List<ThreadPoolExecutor> pools;
     private String poolId;
 
     /**
@@ -34,7 +35,16 @@ public class ThreadPoolCollector extends Collector {
      * @param poolIdIn a unique ID for the pool
      */
     public ThreadPoolCollector(ThreadPoolExecutor poolIn, String poolIdIn) {
-        this.pool = poolIn;
+        this(Collections.singletonList(poolIn), poolIdIn);
+    }
+
+    /**
+     * Constructor for thread pools whose counts are summed up.
+     * @param poolsIn the thread pools
+     * @param poolIdIn a unique ID for the pools
+     */
+    public ThreadPoolCollector(List<ThreadPoolExecutor> poolsIn, String poolIdIn) {
+        this.pools = new ArrayList<>(poolsIn);
         this.poolId = poolIdIn;
     }
 
@@ -42,14 +52,25 @@ public class ThreadPoolCollector extends Collector {
     public List<MetricFamilySamples> collect() {
         List<MetricFamilySamples> out = new ArrayList<>();
 
+        long threads = 0;
+        long active = 0;
+        long tasks = 0;
+        long completed = 0;
+        for (ThreadPoolExecutor pool : this.pools) {
+            threads += pool.getPoolSize();
+            active += pool.getActiveCount();
+            tasks += pool.getTaskCount();
+            completed += pool.getCompletedTaskCount();
+        }
+
         out.add(CustomCollectorUtils.counterFor("thread_pool_threads",
-                "Threads total count", this.pool.getPoolSize(), this.poolId));
+                "Threads total count", threads, this.poolId));
         out.add(CustomCollectorUtils.gaugeFor("thread_pool_threads_active",
-                "Active threads count", this.pool.getActiveCount(), this.poolId));
+                "Active threads count", active, this.poolId));
         out.add(CustomCollectorUtils.counterFor("thread_pool_task_count",
-                "Number of tasks ever submitted", this.pool.getTaskCount(), this.poolId));
+                "Number of tasks ever submitted", tasks, this.poolId));
         out.add(CustomCollectorUtils.counterFor("thread_pool_completed_task_count",
-                "Number of tasks ever completed", this.pool.getCompletedTaskCount(), this.poolId));
+                "Number of tasks ever completed", completed, this.poolId));
 
         return out;
     }
@@ -37,12 +37,15 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 /**
@@ -55,6 +58,8 @@ public class PGEventStream extends AbstractEventStream implements PGNotification
     private static final int THREAD_POOL_SIZE = ConfigDefaults.get().getSaltEventThreadPoolSize();
 
     private PGConnection connection;
+    private volatile boolean stopped = false;
+    private final List<PartitionConsumer> consumers = new ArrayList<>(THREAD_POOL_SIZE);
     private final ExecutorService executorService = Executors.newFixedThreadPool(
             THREAD_POOL_SIZE,
             new BasicThreadFactory.Builder().namingPattern("salt-event-thread-%d").build()
@@ -73,6 +78,12 @@ public class PGEventStream extends AbstractEventStream implements PGNotification
         dataSource.setUser(config.getString(ConfigDefaults.DB_USER));
         dataSource.setPassword(config.getString(ConfigDefaults.DB_PASSWORD));
 
+        for (int partition = 0; partition < THREAD_POOL_SIZE; partition++) {
+            PartitionConsumer consumer = new PartitionConsumer(partition);
+            consumers.add(consumer);
+            executorService.execute(consumer);
+        }
+
         try {
             connection = (PGConnection) dataSource.getConnection();
             connection.addNotificationListener(this);
@@ -87,6 +98,7 @@ public class PGEventStream extends AbstractEventStream implements PGNotification
             notification(0, null, null);
         }
         catch (SQLException e) {
+            stopConsumers();
             throw new SaltException(e);
         }
     }
@@ -107,35 +119,89 @@ public class PGEventStream extends AbstractEventStream implements PGNotification
                 }
                 catch (SQLException e) {
                     cancel();
+                    stopConsumers();
                     clearListeners(0, "Postgres notification connection was lost");
                 }
             }
         }, 0, 5_000);
     }
 
+    /**
+     * Wakes up all partition consumers. Notifications arriving while a consumer is
+     * already awake are coalesced into a single further drain of its partition.
+     */
     @Override
     public void notification(int processId, String channelName, String payload) {
-        // compute the number of jobs we need to do - each job COMMITs individually
-        // jobs = events / MAX_EVENTS_PER_COMMIT (rounded up)
-        long jobs = (SaltEventFactory.countSaltEvents() + MAX_EVENTS_PER_COMMIT - 1) / MAX_EVENTS_PER_COMMIT;
-
-        // queue one handlingTransaction(processEvents) call per job
-        for (int j = 0; j < jobs; j++) {
-            executorService.execute(() -> {
-                List<SaltEvent> uncommittedEvents = new LinkedList<>();
+        consumers.forEach(PartitionConsumer::wakeUp);
+    }
+
+    private void stopConsumers() {
+        stopped = true;
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Consumes the events of the minions hashing to one partition, so that the events of a minion are
+     * processed in order, while different partitions are processed in parallel.
+     */
+    private class PartitionConsumer implements Runnable {
+
+        private final int partition;
+        private final AtomicBoolean pending = new AtomicBoolean(false);
+        private final Semaphore wakeUps = new Semaphore(0);
+
+        PartitionConsumer(int partitionIn) {
+            partition = partitionIn;
+        }
+
+        void wakeUp() {
+            if (pending.compareAndSet(false, true)) {
+                wakeUps.release();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                try {
+                    wakeUps.acquire();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                pending.set(false);
+                try {
+                    drain();
+                }
+                catch (Exception e) {
+                    LOG.error("Unexpected exception while processing Salt events of partition " + partition, e);
+                }
+            }
+        }
+
+        /**
+         * Processes the events of the partition until it is empty, committing every MAX_EVENTS_PER_COMMIT events.
+         */
+        private void drain() {
+            List<SaltEvent> uncommittedEvents = new LinkedList<>();
+            do {
+                uncommittedEvents.clear();
                 TransactionHelper.handlingTransaction(
-                        () -> processEvents(uncommittedEvents),
+                        () -> processEvents(partition, uncommittedEvents),
                         e -> handleExceptions(uncommittedEvents, e));
-            });
+            } while (!stopped && !uncommittedEvents.isEmpty());
         }
     }
 
     /**
-     * Reads one or more events from suseSaltEvent and notifies listeners (typically, {@link PGEventListener}).
+     * Reads one or more events of a partition from suseSaltEvent and notifies listeners (typically,
+     * {@link PGEventListener}).
+     * @param partition the partition to read
      * @param uncommittedEvents used to keep track of events being processed
      */
-    private void processEvents(List<SaltEvent> uncommittedEvents) {
-        Stream<SaltEvent> events = SaltEventFactory.popSaltEvents(MAX_EVENTS_PER_COMMIT)
+    private void processEvents(int partition, List<SaltEvent> uncommittedEvents) {
+        Stream<SaltEvent> events = SaltEventFactory.popSaltEvents(MAX_EVENTS_PER_COMMIT, partition, THREAD_POOL_SIZE)
                 .sorted(comparing(SaltEvent::getMinionId, nullsLast(naturalOrder())).thenComparing(SaltEvent::getId));
 
         events.forEach(event -> {
@@ -177,6 +243,7 @@ public class PGEventStream extends AbstractEventStream implements PGNotification
 
     @Override
     public void close() throws IOException {
+        stopConsumers();
         try {
             connection.close();
             LOG.debug("connection closed gracefully");
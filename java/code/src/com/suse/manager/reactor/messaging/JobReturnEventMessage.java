@@ -51,6 +51,14 @@ public class JobReturnEventMessage implements EventMessage {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getOrderingKey() {
+        return jobReturnEvent.getMinionId();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -42,6 +42,11 @@ public class MinionStartEventMessage implements EventMessage {
         return null;
     }
 
+    @Override
+    public Object getOrderingKey() {
+        return minionId;
+    }
+
     @Override
     public String toText() {
         return toString();
@@ -54,6 +54,14 @@ public class RegisterMinionEventMessage implements EventMessage {
         return minionId;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getOrderingKey() {
+        return minionId;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -45,6 +45,14 @@ public class SystemIdGenerateEventMessage implements EventMessage {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getOrderingKey() {
+        return minionId;
+    }
+
     /**
      * {@inheritDoc}
      */
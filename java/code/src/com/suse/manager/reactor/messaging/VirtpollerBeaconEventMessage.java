@@ -52,6 +52,14 @@ public class VirtpollerBeaconEventMessage implements EventMessage {
         return data;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object getOrderingKey() {
+        return minionId;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -55,9 +55,11 @@ import com.redhat.rhn.domain.image.ImageRepoDigest;
 import com.redhat.rhn.domain.image.OSImageStoreUtils;
 import com.redhat.rhn.domain.product.SUSEProduct;
 import com.redhat.rhn.domain.product.SUSEProductFactory;
+import com.redhat.rhn.domain.rhnpackage.PackageArch;
 import com.redhat.rhn.domain.rhnpackage.PackageEvr;
 import com.redhat.rhn.domain.rhnpackage.PackageEvrFactory;
 import com.redhat.rhn.domain.rhnpackage.PackageFactory;
+import com.redhat.rhn.domain.rhnpackage.PackageName;
 import com.redhat.rhn.domain.server.InstalledPackage;
 import com.redhat.rhn.domain.server.InstalledProduct;
 import com.redhat.rhn.domain.server.MinionServer;
@@ -131,6 +133,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -331,6 +335,7 @@ public class SaltUtils {
                         SaltUtils::packageToKey,
                         Function.identity()
                 ));
+        List<Map.Entry<String, Info>> added = new ArrayList<>();
         collect.entrySet().stream().forEach(e -> {
             String name = e.getKey();
             Change<List<Info>> change = e.getValue();
@@ -352,15 +357,16 @@ public class SaltUtils {
             });
 
             newPackages.values().stream().forEach(info -> {
-                server.getPackages().add(
-                    Optional.ofNullable(
-                        currentPackages.get(packageToKey(name, info)))
-                        .orElseGet(
-                                () -> createPackageFromSalt(name, info, server)
-                        )
-                );
+                InstalledPackage current = currentPackages.get(packageToKey(name, info));
+                if (current != null) {
+                    server.getPackages().add(current);
+                }
+                else {
+                    added.add(new AbstractMap.SimpleImmutableEntry<>(name, info));
+                }
             });
         });
+        server.getPackages().addAll(createPackagesFromSalt(added, server));
     }
 
     /**
@@ -1238,13 +1244,56 @@ public class SaltUtils {
         ).map(Map.Entry::getValue).collect(Collectors.toList());
         packages.retainAll(unchanged);
 
-        Collection<InstalledPackage> added = newPackageMap.entrySet().stream().filter(
+        List<Map.Entry<String, Pkg.Info>> added = newPackageMap.entrySet().stream().filter(
            e -> !oldPackageMap.containsKey(e.getKey())
-        ).map(
-           e -> createPackageFromSalt(e.getValue().getKey(), e.getValue().getValue(),
-                   server)
-        ).collect(Collectors.toList());
-        packages.addAll(added);
+        ).map(Map.Entry::getValue).collect(Collectors.toList());
+        packages.addAll(createPackagesFromSalt(added, server));
+    }
+
+    /**
+     * Create {@link InstalledPackage} objects from package names and infos, resolving
+     * all names and EVRs in bulk.
+     *
+     * @param pkgs package names and infos from salt
+     * @param server server the packages will be added to
+     * @return the InstalledPackage objects
+     */
+    private static List<InstalledPackage> createPackagesFromSalt(
+            List<Map.Entry<String, Pkg.Info>> pkgs, Server server) {
+        if (pkgs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, PackageName> names = PackageFactory.lookupOrCreatePackageNames(
+                pkgs.stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+        Map<PackageEvr, PackageEvr> evrs = PackageEvrFactory.lookupOrCreatePackageEvrs(
+                pkgs.stream().map(e -> toPackageEvr(e.getValue())).collect(Collectors.toSet()));
+        // arches are few and served by the Hibernate query cache
+        Map<String, PackageArch> arches = new HashMap<>();
+
+        return pkgs.stream().map(e -> {
+            Pkg.Info info = e.getValue();
+            InstalledPackage pkg = new InstalledPackage();
+            pkg.setEvr(evrs.get(toPackageEvr(info)));
+            pkg.setArch(arches.computeIfAbsent(info.getArchitecture().get(),
+                    PackageFactory::lookupPackageArchByLabel));
+            pkg.setInstallTime(new Date(info.getInstallDateUnixTime().get() * 1000));
+            pkg.setName(names.get(e.getKey()));
+            pkg.setServer(server);
+            return pkg;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a transient EVR for a package as returned by Salt.
+     *
+     * @param info the package info
+     * @return the transient EVR
+     */
+    private static PackageEvr toPackageEvr(Pkg.Info info) {
+        return new PackageEvr(
+                info.getEpoch().orElse(null),
+                info.getVersion().get(),
+                info.getRelease().orElse("0"));
     }
 
     /**
@@ -1353,32 +1402,6 @@ public class SaltUtils {
         }
     }
 
-    /**
-     * Create a {@link InstalledPackage} object from package name and info and return it.
-     *
-     * @param name package name from salt
-     * @param info package info from salt
-     * @param server server this package will be added to
-     * @return the InstalledPackage object
-     */
-    private static InstalledPackage createPackageFromSalt(String name, Pkg.Info info,
-            Server server) {
-
-        String epoch = info.getEpoch().orElse(null);
-        String release = info.getRelease().orElse("0");
-        String version = info.getVersion().get();
-        PackageEvr evr = PackageEvrFactory
-                .lookupOrCreatePackageEvr(epoch, version, release);
-
-        InstalledPackage pkg = new InstalledPackage();
-        pkg.setEvr(evr);
-        pkg.setArch(PackageFactory.lookupPackageArchByLabel(info.getArchitecture().get()));
-        pkg.setInstallTime(new Date(info.getInstallDateUnixTime().get() * 1000));
-        pkg.setName(PackageFactory.lookupOrCreatePackageByName(name));
-        pkg.setServer(server);
-        return pkg;
-    }
-
     private static ImagePackage createImagePackageFromSalt(
             String name, Pkg.Info info, ImageInfo imageInfo) {
         String epoch = info.getEpoch().orElse(null);
@@ -20,11 +20,10 @@ import com.redhat.rhn.domain.channel.AccessTokenFactory;
 import com.redhat.rhn.domain.channel.Channel;
 import com.redhat.rhn.domain.channel.ChannelFactory;
 import com.redhat.rhn.domain.channel.Comps;
-import com.redhat.rhn.domain.rhnpackage.Package;
-import com.redhat.rhn.domain.rhnpackage.PackageFactory;
 
+import com.suse.manager.webui.utils.DownloadTokenCache;
+import com.suse.manager.webui.utils.PackagePathIndex;
 import com.suse.manager.webui.utils.TokenBuilder;
-import com.suse.utils.Opt;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -176,15 +175,15 @@ public class DownloadController {
             validateToken(token, channel, basename);
         }
 
-        Package pkg = PackageFactory.lookupByChannelLabelNevra(
-                channel, name, version, release, null, arch);
-        if (pkg == null) {
+        String pkgPath = PackagePathIndex.INSTANCE.lookupPath(channel, name, version,
+                release, arch);
+        if (pkgPath == null) {
             halt(HttpStatus.SC_NOT_FOUND,
                  String.format("%s not found in %s", basename, channel));
         }
 
         File file = new File(Config.get().getString(ConfigDefaults.MOUNT_POINT),
-                pkg.getPath()).getAbsoluteFile();
+                pkgPath).getAbsoluteFile();
 
         return downloadFile(request, response, file);
     }
@@ -217,11 +216,44 @@ public class DownloadController {
     /**
      * Validate a given token for a given channel.
      *
+     * Validated tokens are cached, together with the channels found accessible by
+     * their organization, so that further downloads with the same token need
+     * neither database lookups nor signature verification.
+     *
      * @param token the token to validate
      * @param channel the channel
      * @param filename the filename
      */
     private static void validateToken(String token, String channel, String filename) {
+        DownloadTokenCache.ValidatedToken validated = DownloadTokenCache.INSTANCE.get(token);
+        if (validated == null) {
+            validated = verifyToken(token, channel, filename);
+        }
+
+        // enforce channel claim
+        if (!validated.allowsChannel(channel)) {
+            halt(HttpStatus.SC_FORBIDDEN, "Token does not provide access to channel " + channel);
+        }
+
+        // enforce org claim
+        if (!validated.isAccessible(channel)) {
+            if (!ChannelFactory.isAccessibleBy(channel, validated.getOrgId())) {
+                halt(HttpStatus.SC_FORBIDDEN, "Token does not provide access to channel %s" + channel);
+            }
+            validated.setAccessible(channel);
+        }
+    }
+
+    /**
+     * Verify a token against the database and its signature and cache its claims.
+     *
+     * @param token the token to verify
+     * @param channel the channel
+     * @param filename the filename
+     * @return the claims of the token
+     */
+    private static DownloadTokenCache.ValidatedToken verifyToken(String token, String channel,
+            String filename) {
         AccessTokenFactory.lookupByToken(token).ifPresent(obj -> {
             if (!obj.getValid()) {
                 halt(HttpStatus.SC_FORBIDDEN, "This token is not valid");
@@ -230,27 +262,28 @@ public class DownloadController {
         try {
             JwtClaims claims = JWT_CONSUMER.processToClaims(token);
 
-            // enforce channel claim
-            Optional<List<String>> channelClaim = Optional.ofNullable(claims.getStringListClaimValue("onlyChannels"))
+            List<String> channelClaim = Optional.ofNullable(claims.getStringListClaimValue("onlyChannels"))
                     // new versions of getStringListClaimValue() return an empty list instead of null
-                    .filter(l -> !l.isEmpty());
-            if (Opt.fold(channelClaim, () -> false, channels -> !channels.contains(channel))) {
+                    .filter(l -> !l.isEmpty())
+                    .orElse(null);
+            if (channelClaim != null && !channelClaim.contains(channel)) {
                 halt(HttpStatus.SC_FORBIDDEN, "Token does not provide access to channel " + channel);
             }
 
-            // enforce org claim
-            Optional<Long> orgClaim = Optional.ofNullable(claims.getClaimValue("org", Long.class));
-            Opt.consume(orgClaim, () -> {
+            Long orgClaim = claims.getClaimValue("org", Long.class);
+            if (orgClaim == null) {
                 halt(HttpStatus.SC_BAD_REQUEST, "Token does not specify the organization");
-            }, orgId -> {
-                if (!ChannelFactory.isAccessibleBy(channel, orgId)) {
-                    halt(HttpStatus.SC_FORBIDDEN, "Token does not provide access to channel %s" + channel);
-                }
-            });
+            }
+
+            Long expiration = claims.getExpirationTime() == null ? null :
+                    claims.getExpirationTime().getValueInMillis();
+            return DownloadTokenCache.INSTANCE.put(token, orgClaim, channelClaim, expiration);
         }
         catch (InvalidJwtException | MalformedClaimException e) {
             halt(HttpStatus.SC_FORBIDDEN,
                  String.format("Token is not valid to access %s in %s: %s", filename, channel, e.getMessage()));
+            // not reached, halt always throws
+            return null;
         }
     }
 
@@ -29,6 +29,7 @@ import com.redhat.rhn.testing.BaseTestCaseWithUser;
 import com.redhat.rhn.testing.RhnMockHttpServletResponse;
 import com.redhat.rhn.testing.TestUtils;
 import com.suse.manager.webui.controllers.DownloadController;
+import com.suse.manager.webui.utils.DownloadTokenCache;
 import com.suse.manager.webui.utils.SparkTestUtils;
 import com.suse.manager.webui.utils.TokenBuilder;
 import junit.extensions.TestSetup;
@@ -358,6 +359,39 @@ public class DownloadControllerTest extends BaseTestCaseWithUser {
         }
     }
 
+    /**
+     * Test that a token cached by a first download is not accepted anymore once it
+     * has been invalidated.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    public void testCachedTokenInvalidated() throws Exception {
+        MinionServer testMinionServer = MinionServerFactoryTest.createTestMinionServer(user);
+        testMinionServer.getChannels().add(channel);
+        AccessTokenFactory.refreshTokens(testMinionServer);
+
+        AccessToken token = testMinionServer.getAccessTokens().iterator().next();
+        Map<String, String> params = new HashMap<>();
+        params.put(token.getToken(), "");
+
+        DownloadController.downloadPackage(getMockRequestWithParams(params), response);
+        assertEquals(packageFile.getAbsolutePath(), response.raw().getHeader("X-Sendfile"));
+        assertNotNull(DownloadTokenCache.INSTANCE.get(token.getToken()));
+
+        token.setValid(false);
+        AccessTokenFactory.save(token);
+        assertNull(DownloadTokenCache.INSTANCE.get(token.getToken()));
+
+        try {
+            DownloadController.downloadPackage(getMockRequestWithParams(params),
+                    RequestResponseFactory.create(new RhnMockHttpServletResponse()));
+            fail("Controller should fail if the token was invalidated");
+        }
+        catch (spark.HaltException e) {
+            assertEquals(403, e.getStatusCode());
+        }
+    }
+
     /**
      * Test a download with a correct channel in the token and the token
      * in a query param.
@@ -144,6 +144,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -170,6 +173,7 @@ public class SaltServerActionService {
     private static final String PARAM_FILES = "param_files";
     private static final String REMOTE_COMMANDS = "remotecommands";
     private static final String SYSTEM_REBOOT = "system.reboot";
+    private static final int DEFAULT_SSH_BATCH_SIZE = 25;
 
     /** SLS pillar parameter name for the list of update stack patch names. */
     public static final String PARAM_UPDATE_STACK_PATCHES = "param_update_stack_patches";
@@ -336,12 +340,6 @@ public class SaltServerActionService {
         }
     }
 
-    private Optional<ServerAction> serverActionFor(Action actionIn, MinionSummary minion) {
-        return actionIn.getServerActions().stream()
-                .filter(sa -> sa.getServerId().equals(minion.getServerId()))
-                .findFirst();
-    }
-
     /**
      * Execute a given {@link Action} via salt.
      *
@@ -355,8 +353,26 @@ public class SaltServerActionService {
      */
     public void execute(Action actionIn, boolean forcePackageListRefresh,
             boolean isStagingJob, Optional<Long> stagingJobMinionServerId) {
+        execute(actionIn, forcePackageListRefresh, isStagingJob, stagingJobMinionServerId,
+                MinionServerFactory.findMinionSummaries(actionIn.getId()));
+    }
+
+    /**
+     * Execute a given {@link Action} via salt, only on the minions whose server action
+     * is still queued. To be used when the action may already have been sent to some
+     * of its minions.
+     *
+     * @param actionIn the action to execute
+     * @param forcePackageListRefresh add metadata to force a package list
+     * refresh
+     */
+    public void executeQueued(Action actionIn, boolean forcePackageListRefresh) {
+        execute(actionIn, forcePackageListRefresh, false, Optional.empty(),
+                MinionServerFactory.findMinionSummaries(actionIn.getId(), ActionFactory.STATUS_QUEUED));
+    }
 
-        List<MinionSummary> allMinions = MinionServerFactory.findMinionSummaries(actionIn.getId());
+    private void execute(Action actionIn, boolean forcePackageListRefresh,
+            boolean isStagingJob, Optional<Long> stagingJobMinionServerId, List<MinionSummary> allMinions) {
 
         // split minions into regular and salt-ssh
         Map<Boolean, List<MinionSummary>> partitionBySSHPush = allMinions.stream()
@@ -374,9 +390,7 @@ public class SaltServerActionService {
         List<MinionServer> sshPushMinions = MinionServerFactory.findMinionsByServerIds(
                 sshMinionSummaries.stream().map(MinionSummary::getServerId).collect(Collectors.toList()));
 
-        for (MinionServer sshMinion: sshPushMinions) {
-            executeSSHAction(actionIn, sshMinion);
-        }
+        executeSSHActions(actionIn, sshPushMinions);
     }
 
     private void executeForRegularMinions(Action actionIn, boolean forcePackageListRefresh,
@@ -400,35 +414,26 @@ public class SaltServerActionService {
 
             results = execute(actionIn, call, targetMinions, forcePackageListRefresh, isStagingJob);
 
-            results.get(true).forEach(minionServer -> {
-                serverActionFor(actionIn, minionServer).ifPresent(serverAction -> {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Asynchronous call on minion: " +
-                                minionServer.getMinionId());
-                    }
-                    if (!isStagingJob) {
-                        serverAction.setStatus(ActionFactory.STATUS_PICKED_UP);
-                        ActionFactory.save(serverAction);
-                    }
-                });
-            });
-
-            results.get(false).forEach(minionServer -> {
-                serverActionFor(actionIn, minionServer).ifPresent(serverAction -> {
-                    LOG.warn("Failed to schedule action for minion: " +
-                            minionServer.getMinionId());
-                    if (!isStagingJob) {
-                        serverAction.setCompletionTime(new Date());
-                        serverAction.setResultCode(-1L);
-                        serverAction.setResultMsg("Failed to schedule action.");
-                        serverAction.setStatus(ActionFactory.STATUS_FAILED);
-                        ActionFactory.save(serverAction);
-                    }
-                });
-            });
+            if (LOG.isDebugEnabled()) {
+                results.get(true).forEach(minion ->
+                        LOG.debug("Asynchronous call on minion: " + minion.getMinionId()));
+            }
+            results.get(false).forEach(minion ->
+                    LOG.warn("Failed to schedule action for minion: " + minion.getMinionId()));
+
+            if (!isStagingJob) {
+                ActionFactory.updateServerActionsStatus(actionIn, serverIdsOf(results.get(true)),
+                        ActionFactory.STATUS_PICKED_UP);
+                ActionFactory.failServerActions(actionIn, serverIdsOf(results.get(false)),
+                        "Failed to schedule action.");
+            }
         }
     }
 
+    private static List<Long> serverIdsOf(List<MinionSummary> minions) {
+        return minions.stream().map(MinionSummary::getServerId).collect(Collectors.toList());
+    }
+
     /**
      * Call Salt to start the execution of the given action chain.
      *
@@ -1578,9 +1583,9 @@ public class SaltServerActionService {
         try {
             Map<Boolean, List<MinionSummary>> result = new HashMap<>();
 
-            List<String> results = SaltService.INSTANCE
+            Set<String> results = new HashSet<>(SaltService.INSTANCE
                     .callAsync(call.withMetadata(metadata), new MinionList(minionIds))
-                    .getMinions();
+                    .getMinions());
 
             result = minionSummaries.stream().collect(Collectors
                     .partitioningBy(minionId -> results.contains(minionId.getMinionId())));
@@ -1634,6 +1639,86 @@ public class SaltServerActionService {
         }
     }
 
+    /**
+     * Execute an action on ssh-push minions. The minions sharing the same proxy path
+     * are targeted in batches by a single salt-ssh call, the batches run in parallel
+     * on the salt-ssh executor.
+     *
+     * @param action the action to be executed
+     * @param minions minions on which the action will be executed
+     */
+    public void executeSSHActions(Action action, List<MinionServer> minions) {
+        if (minions.size() <= 1) {
+            minions.forEach(minion -> executeSSHAction(action, minion));
+            return;
+        }
+
+        Map<String, MinionServer> minionsById = new HashMap<>();
+        Map<String, ServerAction> serverActions = new HashMap<>();
+        for (MinionServer minion : minions) {
+            prepareSSHAction(action, minion).ifPresent(sa -> {
+                minionsById.put(minion.getMinionId(), minion);
+                serverActions.put(minion.getMinionId(), sa);
+            });
+        }
+        if (minionsById.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Config.get().getInt(ConfigDefaults.SALT_SSH_BATCH_SIZE, DEFAULT_SSH_BATCH_SIZE);
+        List<MinionServer> refreshMinions = new ArrayList<>();
+        Map<LocalCall<?>, List<MinionSummary>> calls = callsForAction(action,
+                minionsById.values().stream().map(MinionSummary::new).collect(Collectors.toList()));
+
+        // the calls run one after the other, as they would for a single minion
+        for (Map.Entry<LocalCall<?>, List<MinionSummary>> entry : calls.entrySet()) {
+            LocalCall<?> call = entry.getKey();
+            Map<List<String>, List<String>> minionIdsByProxyPath = entry.getValue().stream()
+                    .map(MinionSummary::getMinionId)
+                    .filter(serverActions::containsKey)
+                    .collect(Collectors.groupingBy(minionId -> SaltSSHService.proxyPathToHostnames(
+                            minionsById.get(minionId).getServerPaths(), Optional.empty())));
+
+            Map<String, CompletionStage<Result<JsonElement>>> results = new HashMap<>();
+            minionIdsByProxyPath.values().forEach(minionIds -> {
+                for (int i = 0; i < minionIds.size(); i += batchSize) {
+                    List<String> batch = minionIds.subList(i, Math.min(i + batchSize, minionIds.size()));
+                    results.putAll(saltService.getSaltSSHService().callAsyncSSH(new ElementCallJson(call),
+                            new MinionList(batch), new CompletableFuture<>()));
+                }
+            });
+
+            results.forEach((minionId, resultStage) -> {
+                ServerAction sa = serverActions.get(minionId);
+                Optional<JsonElement> result;
+                try {
+                    result = Optional.ofNullable(resultStage.toCompletableFuture().join())
+                            .flatMap(r -> r.fold(error -> {
+                                LOG.warn(error.toString());
+                                return Optional.<JsonElement>empty();
+                            }, Optional::of));
+                }
+                catch (CompletionException e) {
+                    if (!isSaltError(e)) {
+                        throw e;
+                    }
+                    LOG.error("Error executing Salt call for action: " + action.getName() +
+                            "on minion " + minionId, e.getCause());
+                    sa.setStatus(STATUS_FAILED);
+                    sa.setResultMsg("Error calling Salt: " + e.getCause().getMessage());
+                    sa.setCompletionTime(new Date());
+                    serverActions.remove(minionId);
+                    return;
+                }
+                if (!handleSSHResult(action, minionsById.get(minionId), sa, call, result,
+                        refreshMinions)) {
+                    serverActions.remove(minionId);
+                }
+            });
+        }
+        refreshSSHPackageLists(refreshMinions);
+    }
+
     /**
      * Execute an action on an ssh-push minion.
      *
@@ -1641,6 +1726,83 @@ public class SaltServerActionService {
      * @param minion minion on which the action will be executed
      */
     public void executeSSHAction(Action action, MinionServer minion) {
+        Optional<ServerAction> serverAction = prepareSSHAction(action, minion);
+        if (serverAction.isPresent()) {
+            ServerAction sa = serverAction.get();
+            List<MinionServer> refreshMinions = new ArrayList<>();
+            Map<LocalCall<?>, List<MinionSummary>> calls = callsForAction(action,
+                    Arrays.asList(new MinionSummary(minion)));
+
+            for (LocalCall<?> call : calls.keySet()) {
+                Optional<JsonElement> result;
+                // try-catch as we'd like to log the warning in case of exception
+                try {
+                    result = saltService.callSync(new ElementCallJson(call), minion.getMinionId());
+                }
+                catch (RuntimeException e) {
+                    LOG.error("Error executing Salt call for action: " + action.getName() +
+                            "on minion " + minion.getMinionId(), e);
+                    sa.setStatus(STATUS_FAILED);
+                    sa.setResultMsg("Error calling Salt: " + e.getMessage());
+                    sa.setCompletionTime(new Date());
+                    throw e;
+                }
+
+                if (!handleSSHResult(action, minion, sa, call, result, refreshMinions)) {
+                    return;
+                }
+            }
+            refreshSSHPackageLists(refreshMinions);
+        }
+        return;
+    }
+
+    /**
+     * Schedules a package list refresh for ssh-push minions and executes it, in batches.
+     *
+     * @param minions minions whose package list must be refreshed
+     */
+    private void refreshSSHPackageLists(List<MinionServer> minions) {
+        minions.stream()
+                .collect(Collectors.groupingBy(minion -> minion.getOrg().getId()))
+                .values().forEach(orgMinions -> {
+                    try {
+                        Action pkgList = ActionManager.schedulePackageRefresh(orgMinions.get(0).getOrg(),
+                                orgMinions);
+                        executeSSHActions(pkgList, orgMinions);
+                    }
+                    catch (TaskomaticApiException e) {
+                        LOG.error("Could not schedule package refresh for minions: " +
+                                orgMinions.stream().map(MinionServer::getMinionId)
+                                        .collect(Collectors.joining(", ")), e);
+                    }
+                });
+    }
+
+    /**
+     * Checks whether an exception was caused by a failing Salt call.
+     *
+     * @param e the exception
+     * @return true if a {@link SaltException} is among the causes
+     */
+    private static boolean isSaltError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SaltException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an action can be executed on an ssh-push minion and counts the
+     * try.
+     *
+     * @param action the action to be executed
+     * @param minion minion on which the action will be executed
+     * @return the server action to execute, empty if it must not be executed
+     */
+    private Optional<ServerAction> prepareSSHAction(Action action, MinionServer minion) {
         Optional<ServerAction> serverAction = action.getServerActions().stream()
                 .filter(sa -> sa.getServerId().equals(minion.getId()))
                 .findFirst();
@@ -1650,13 +1812,13 @@ public class SaltServerActionService {
                     sa.getStatus().equals(STATUS_COMPLETED)) {
                 LOG.info("Action '" + action.getName() + "' is completed or failed." +
                         " Skipping.");
-                return;
+                return Optional.empty();
             }
 
             if (prerequisiteInStatus(sa, ActionFactory.STATUS_QUEUED)) {
                 LOG.info("Prerequisite of action '" + action.getName() + "' is still" +
                         " queued. Skipping executing of the action.");
-                return;
+                return Optional.empty();
             }
 
             if (prerequisiteInStatus(sa, ActionFactory.STATUS_FAILED)) {
@@ -1666,75 +1828,63 @@ public class SaltServerActionService {
                 sa.setResultMsg("Prerequisite failed.");
                 sa.setResultCode(-100L);
                 sa.setCompletionTime(new Date());
-                return;
+                return Optional.empty();
             }
 
             sa.setRemainingTries(sa.getRemainingTries() - 1);
+        }
+        return serverAction;
+    }
 
-            Map<LocalCall<?>, List<MinionSummary>> calls = callsForAction(action,
-                    Arrays.asList(new MinionSummary(minion)));
-
-            for (LocalCall<?> call : calls.keySet()) {
-                Optional<JsonElement> result;
-                // try-catch as we'd like to log the warning in case of exception
-                try {
-                    result = saltService.callSync(new ElementCallJson(call), minion.getMinionId());
-                }
-                catch (RuntimeException e) {
-                    LOG.error("Error executing Salt call for action: " + action.getName() +
-                            "on minion " + minion.getMinionId(), e);
-                    sa.setStatus(STATUS_FAILED);
-                    sa.setResultMsg("Error calling Salt: " + e.getMessage());
-                    sa.setCompletionTime(new Date());
-                    throw e;
-                }
-
-                if (!result.isPresent()) {
-                    LOG.error("Action '" + action.getName() + "' failed. Got not result from Salt," +
-                            " probablly minion is down or could not be contacted.");
-                    sa.setStatus(STATUS_FAILED);
-                    sa.setResultMsg("Minion is down or could not be contacted.");
-                    sa.setCompletionTime(new Date());
-                    return;
-                }
+    /**
+     * Updates the server action of an ssh-push minion with the result of a call.
+     *
+     * @param action the executed action
+     * @param minion minion on which the action was executed
+     * @param sa the server action to update
+     * @param call the executed call
+     * @param result the result of the call, empty if the minion could not be contacted
+     * @param refreshMinions collects the minions whose package list must be refreshed
+     * @return false if the action failed and the remaining calls must be skipped
+     */
+    private boolean handleSSHResult(Action action, MinionServer minion, ServerAction sa,
+            LocalCall<?> call, Optional<JsonElement> result, List<MinionServer> refreshMinions) {
+        if (!result.isPresent()) {
+            LOG.error("Action '" + action.getName() + "' failed. Got not result from Salt," +
+                    " probablly minion is down or could not be contacted.");
+            sa.setStatus(STATUS_FAILED);
+            sa.setResultMsg("Minion is down or could not be contacted.");
+            sa.setCompletionTime(new Date());
+            return false;
+        }
 
-                result.ifPresent(r -> {
-                    if (LOG.isTraceEnabled()) {
-                        LOG.trace("Salt call result: " + r);
-                    }
-                    String function = (String) call.getPayload().get("fun");
+        result.ifPresent(r -> {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Salt call result: " + r);
+            }
+            String function = (String) call.getPayload().get("fun");
 
-                    // reboot needs special handling in case of ssh push
-                    if (action.getActionType().equals(ActionFactory.TYPE_REBOOT)) {
-                        sa.setStatus(ActionFactory.STATUS_PICKED_UP);
-                        sa.setPickupTime(new Date());
-                    }
-                    else {
-                        saltUtils.updateServerAction(sa, 0L, true, "n/a",
-                                r, function);
-                    }
+            // reboot needs special handling in case of ssh push
+            if (action.getActionType().equals(ActionFactory.TYPE_REBOOT)) {
+                sa.setStatus(ActionFactory.STATUS_PICKED_UP);
+                sa.setPickupTime(new Date());
+            }
+            else {
+                saltUtils.updateServerAction(sa, 0L, true, "n/a",
+                        r, function);
+            }
 
-                    // Perform a "check-in" after every executed action
-                    minion.updateServerInfo();
+            // Perform a "check-in" after every executed action
+            minion.updateServerInfo();
 
-                    // Perform a package profile update in the end if necessary
-                    if (saltUtils.shouldRefreshPackageList(function, result)) {
-                        LOG.info("Scheduling a package profile update");
-                        Action pkgList;
-                        try {
-                            pkgList = ActionManager.schedulePackageRefresh(minion.getOrg(), minion);
-                            executeSSHAction(pkgList, minion);
-                        }
-                        catch (TaskomaticApiException e) {
-                            LOG.error("Could not schedule package refresh for minion: " +
-                                    minion.getMinionId());
-                            LOG.error(e);
-                        }
-                    }
-                });
+            // Perform a package profile update in the end if necessary
+            if (saltUtils.shouldRefreshPackageList(function, result) &&
+                    !refreshMinions.contains(minion)) {
+                LOG.info("Scheduling a package profile update for minion " + minion.getMinionId());
+                refreshMinions.add(minion);
             }
-        }
-        return;
+        });
+        return true;
     }
 
     /**
@@ -32,7 +32,6 @@ import com.redhat.rhn.domain.channel.AccessTokenFactory;
 import com.redhat.rhn.domain.channel.Channel;
 import com.redhat.rhn.domain.config.ConfigChannel;
 import com.redhat.rhn.domain.org.Org;
-import com.redhat.rhn.domain.server.ManagedServerGroup;
 import com.redhat.rhn.domain.server.MinionServer;
 import com.redhat.rhn.domain.server.MinionServerFactory;
 import com.redhat.rhn.domain.server.Server;
@@ -45,29 +44,42 @@ import com.redhat.rhn.domain.state.ServerStateRevision;
 import com.redhat.rhn.domain.state.StateFactory;
 import com.redhat.rhn.domain.state.StateRevision;
 import com.redhat.rhn.domain.user.User;
+import com.redhat.rhn.manager.entitlement.EntitlementManager;
+import com.redhat.rhn.manager.system.SystemManager;
+import com.suse.manager.metrics.PrometheusExporter;
 import com.suse.manager.utils.MachinePasswordUtils;
 import com.suse.manager.webui.controllers.StatesAPI;
 import com.suse.manager.webui.utils.SaltConfigChannelState;
 import com.suse.manager.webui.utils.SaltPillar;
+import com.suse.manager.webui.utils.SaltState;
 import com.suse.manager.webui.utils.SaltStateGenerator;
 import com.suse.manager.webui.utils.salt.custom.OSImageInspectSlsResult;
 
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
 import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Service to manage the Salt states generated by Suse Manager.
@@ -103,9 +115,25 @@ public enum SaltStateGeneratorService {
 
     private Path pillarDataPath;
 
+    private final Counter pillarFilesWritten = Counter.build()
+            .name("salt_pillar_files_written").help("Number of minion pillar files written")
+            .create();
+    private final Counter pillarFilesUnchanged = Counter.build()
+            .name("salt_pillar_files_unchanged")
+            .help("Number of minion pillar files not written as their content did not change")
+            .create();
+
     SaltStateGeneratorService() {
         suseManagerStatesFilesRoot = Paths.get(SUMA_STATE_FILES_ROOT_PATH);
         pillarDataPath = Paths.get(SUMA_PILLAR_DATA_PATH);
+        PrometheusExporter.INSTANCE.registerPillarFiles(this);
+    }
+
+    /**
+     * @return the pillar file counters, to be registered for monitoring
+     */
+    public List<Collector> getMetrics() {
+        return Arrays.asList(pillarFilesWritten, pillarFilesUnchanged);
     }
 
     /**
@@ -130,31 +158,102 @@ public enum SaltStateGeneratorService {
         if (refreshAccessTokens) {
             AccessTokenFactory.refreshTokens(minion, tokensToActivate);
         }
+        generatePillars(Collections.singletonList(minion), false);
+    }
+
+    /**
+     * Generate the server specific pillars of many minions at once. The groups,
+     * access tokens and channels of all the minions are loaded with a few queries,
+     * then the pillar files are written in parallel. A file is only rewritten if its
+     * content changed, so that the Salt master does not reload unchanged pillars.
+     * @param minions the minion servers
+     * @param refreshAccessTokens if access tokens should be refreshed first
+     * @return the number of pillar files written
+     */
+    public int generatePillars(Collection<MinionServer> minions, boolean refreshAccessTokens) {
+        if (minions.isEmpty()) {
+            return 0;
+        }
+        LOG.debug("Generating pillar files for " + minions.size() + " minions");
+
+        if (refreshAccessTokens) {
+            minions.forEach(minion -> AccessTokenFactory.refreshTokens(minion));
+        }
+
+        List<Long> ids = minions.stream().map(Server::getId).collect(Collectors.toList());
+        Map<Long, List<ServerGroup>> groups = ServerGroupFactory.listGroupsByServerIds(ids);
+        Map<Long, List<AccessToken>> tokens = AccessTokenFactory.listValidByMinionIds(ids);
+        Set<Long> virtualHosts = SystemManager.listVirtualHosts(ids);
+
+        // the pillar data is collected in this thread, as it needs the hibernate session
+        Map<Path, SaltPillar> pillars = new HashMap<>();
+        for (MinionServer minion : minions) {
+            List<AccessToken> minionTokens;
+            if (Hibernate.isInitialized(minion.getAccessTokens())) {
+                // the tokens in the session may not be flushed yet
+                minionTokens = minion.getAccessTokens().stream()
+                        .filter(AccessToken::getValid).collect(Collectors.toList());
+            }
+            else {
+                minionTokens = tokens.getOrDefault(minion.getId(), Collections.emptyList());
+            }
+            try {
+                pillars.put(pillarDataPath.resolve(getServerPillarFileName(minion)),
+                        createPillar(minion,
+                                groups.getOrDefault(minion.getId(), Collections.emptyList()),
+                                minionTokens, virtualHosts.contains(minion.getId())));
+            }
+            catch (RuntimeException e) {
+                // do not let one broken minion keep the pillars of the others stale
+                LOG.error("Error generating pillar for minion: " + minion.getMinionId(), e);
+            }
+        }
+
+        try {
+            Files.createDirectories(pillarDataPath);
+        }
+        catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            return 0;
+        }
+        AtomicInteger written = new AtomicInteger();
+        pillars.entrySet().parallelStream().forEach(entry -> {
+            try {
+                if (writeIfChanged(entry.getKey(), entry.getValue())) {
+                    written.incrementAndGet();
+                }
+            }
+            catch (IOException e) {
+                LOG.error(e.getMessage(), e);
+            }
+        });
+        pillarFilesWritten.inc(written.get());
+        pillarFilesUnchanged.inc(pillars.size() - written.get());
+        LOG.debug("Wrote " + written.get() + " pillar files, " + (pillars.size() - written.get()) +
+                " were unchanged");
+        return written.get();
+    }
+
+    private SaltPillar createPillar(MinionServer minion, List<ServerGroup> groups,
+            List<AccessToken> tokens, boolean hasGuests) {
+        Long[] groupIds = groups.stream()
+                .filter(group -> group.getGroupType() == null)
+                .map(ServerGroup::getId).sorted().toArray(Long[]::new);
+        String[] addonGroupTypes = groups.stream()
+                .filter(group -> group.getGroupType() != null)
+                .map(group -> group.getGroupType().getLabel()).sorted().toArray(String[]::new);
 
-        List<ManagedServerGroup> groups = ServerGroupFactory.listManagedGroups(minion);
-        List<String> addonGroupTypes =
-                ServerGroupFactory.listEntitlementGroups(minion).stream().flatMap(group -> {
-                    if (group.getGroupType() != null) {
-                        return Stream.of(group.getGroupType().getLabel());
-                    }
-                    else {
-                        return Stream.empty();
-                    }
-                }).collect(Collectors.toList());
-
-        List<Long> groupIds = groups.stream()
-                .map(ServerGroup::getId).collect(Collectors.toList());
         SaltPillar pillar = new SaltPillar();
         pillar.add("org_id", minion.getOrg().getId());
-        pillar.add("group_ids", groupIds.toArray(new Long[groupIds.size()]));
-        pillar.add("addon_group_types",
-                addonGroupTypes.toArray(new String[addonGroupTypes.size()]));
+        pillar.add("group_ids", groupIds);
+        pillar.add("addon_group_types", addonGroupTypes);
         pillar.add("contact_method", minion.getContactMethod().getLabel());
         pillar.add("mgr_server", getChannelHost(minion));
         pillar.add("machine_password", MachinePasswordUtils.machinePassword(minion));
 
-        Map<String, Object> chanPillar = new HashMap<>();
-        minion.getAccessTokens().stream().filter(AccessToken::getValid).forEach(accessToken -> {
+        // sorted, so that unchanged pillars render to the same file content
+        Map<String, Object> chanPillar = new TreeMap<>();
+        tokens.forEach(accessToken -> {
             accessToken.getChannels().forEach(chan -> {
                 Map<String, Object> chanProps = getChannelPillarData(minion, accessToken, chan);
 
@@ -175,25 +274,45 @@ public enum SaltStateGeneratorService {
         // The virtpoller is still usefull with the libvirt events: it will help
         // synchronizing the DB with the actual guest lists in case we had a temporary shutdown.
         // TODO: find a better way to detect when the beacon should be configured
-        if (minion.isVirtualHost()) {
+        if (hasGuests || Arrays.asList(addonGroupTypes).contains(
+                EntitlementManager.VIRTUALIZATION.getLabel())) {
             beaconConfig.put("virtpoller", VIRTPOLLER_BEACON_PROPS);
         }
         if (!beaconConfig.isEmpty()) {
             pillar.add("beacons", beaconConfig);
         }
+        return pillar;
+    }
 
+    /**
+     * Writes a state to a file, unless the file already has the same content. The
+     * file is replaced atomically, so that Salt never reads a partially written file.
+     * @param filePath the file to write
+     * @param state the state to write
+     * @return true if the file was written, false if it was unchanged
+     * @throws IOException when file io fails
+     */
+    private boolean writeIfChanged(Path filePath, SaltState state) throws IOException {
+        StringWriter out = new StringWriter();
+        new SaltStateGenerator(out).generate(state);
+        byte[] content = out.toString().getBytes(StandardCharsets.UTF_8);
+
+        // compare with the file itself: other processes (e.g. Taskomatic) write it too
+        if (Files.isRegularFile(filePath) && Files.size(filePath) == content.length &&
+                Arrays.equals(Files.readAllBytes(filePath), content)) {
+            return false;
+        }
+        Path tempPath = filePath.resolveSibling("." + filePath.getFileName() + "." +
+                UUID.randomUUID() + ".tmp");
         try {
-            Files.createDirectories(pillarDataPath);
-            Path filePath = pillarDataPath.resolve(
-                    getServerPillarFileName(minion)
-            );
-            com.suse.manager.webui.utils.SaltStateGenerator saltStateGenerator =
-                    new com.suse.manager.webui.utils.SaltStateGenerator(filePath.toFile());
-            saltStateGenerator.generate(pillar);
+            Files.write(tempPath, content);
+            Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
         }
-        catch (IOException e) {
-            LOG.error(e.getMessage(), e);
+        finally {
+            Files.deleteIfExists(tempPath);
         }
+        return true;
     }
 
     /**
@@ -105,6 +105,7 @@ public class SaltSSHService {
             "/var/lib/spacewalk/" + PROXY_SSH_PUSH_USER + "/.ssh/id_susemanager_ssh_push";
 
     private static final int SSL_PORT = 443;
+    private static final int DEFAULT_CONCURRENT_CALLS = 5;
 
     public static final int SSH_PUSH_PORT = 22;
 
@@ -156,7 +157,8 @@ public class SaltSSHService {
         this.saltClient = saltClientIn;
         // use a small fixed pool so we don't overwhelm the salt-api
         // with salt-ssh executions
-        this.asyncSaltSSHExecutor = Executors.newFixedThreadPool(3);
+        this.asyncSaltSSHExecutor = Executors.newFixedThreadPool(Math.max(1,
+                Config.get().getInt(ConfigDefaults.SALT_SSH_CONCURRENT_CALLS, DEFAULT_CONCURRENT_CALLS)));
         this.saltActionChainGeneratorService = saltActionChainGeneratorServiceIn;
     }
 
@@ -185,15 +187,18 @@ public class SaltSSHService {
      */
     public <R> Map<String, Result<R>> callSyncSSH(LocalCall<R> call, MinionList target, Optional<String> extraFileRefs)
             throws SaltException {
-        // Using custom LocalCall timeout if included in the payload
-        Optional<Integer> sshTimeout = call.getPayload().containsKey("timeout") ?
-                    Optional.ofNullable((Integer) call.getPayload().get("timeout")) :
-                    getSshPushTimeout();
-        SaltRoster roster = prepareSaltRoster(target, sshTimeout);
+        SaltRoster roster = prepareSaltRoster(target, getSshTimeout(call));
         return unwrapSSHReturn(
                 callSyncSSHInternal(call, target, roster, false, isSudoUser(getSSHUser()), extraFileRefs));
     }
 
+    private Optional<Integer> getSshTimeout(LocalCall<?> call) {
+        // Using custom LocalCall timeout if included in the payload
+        return call.getPayload().containsKey("timeout") ?
+                Optional.ofNullable((Integer) call.getPayload().get("timeout")) :
+                getSshPushTimeout();
+    }
+
     /**
      * Synchronously executes a salt function on given minion list using salt-ssh.
      *
@@ -286,13 +291,14 @@ public class SaltSSHService {
     public <R> Map<String, CompletionStage<Result<R>>> callAsyncSSH(
             LocalCall<R> call, MinionList target, CompletableFuture<GenericError> cancel,
             Optional<String> extraFilerefs) {
-        SaltRoster roster = prepareSaltRoster(target, getSshPushTimeout());
+        SaltRoster roster = prepareSaltRoster(target, getSshTimeout(call));
         Map<String, CompletableFuture<Result<R>>> futures = new HashedMap();
         target.getTarget().forEach(minionId ->
                 futures.put(minionId, new CompletableFuture<>())
         );
         CompletableFuture<Map<String, Result<R>>> asyncCallFuture =
                 CompletableFuture.supplyAsync(() -> {
+                    long start = System.currentTimeMillis();
                     try {
                         return unwrapSSHReturn(
                                 callSyncSSHInternal(call, target, roster,
@@ -303,6 +309,11 @@ public class SaltSSHService {
                         LOG.error("Error calling async salt-ssh minions", e);
                         throw new RuntimeException(e);
                     }
+                    finally {
+                        LOG.info("salt-ssh call " + call.getPayload().get("fun") + " on " +
+                                target.getTarget().size() + " minion(s) took " +
+                                (System.currentTimeMillis() - start) + " ms");
+                    }
                 }, asyncSaltSSHExecutor);
 
         asyncCallFuture.whenComplete((executionResult, err) ->
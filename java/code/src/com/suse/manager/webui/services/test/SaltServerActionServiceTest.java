@@ -58,13 +58,18 @@ import com.redhat.rhn.testing.TestUtils;
 import com.suse.manager.utils.SaltUtils;
 import com.suse.manager.webui.services.SaltActionChainGeneratorService;
 import com.suse.manager.webui.services.SaltServerActionService;
+import com.suse.manager.webui.services.impl.SaltSSHService;
 import com.suse.manager.webui.services.impl.SaltService;
 import com.suse.manager.webui.utils.SaltModuleRun;
 import com.suse.manager.webui.utils.SaltState;
 import com.suse.manager.webui.utils.SaltSystemReboot;
 import com.suse.salt.netapi.calls.LocalAsyncResult;
 import com.suse.salt.netapi.calls.LocalCall;
+import com.suse.salt.netapi.datatypes.target.MinionList;
 import com.suse.salt.netapi.datatypes.target.Target;
+import com.suse.salt.netapi.errors.GenericError;
+import com.suse.salt.netapi.exception.SaltException;
+import com.suse.salt.netapi.results.Result;
 import org.jmock.Expectations;
 import org.jmock.lib.legacy.ClassImposteriser;
 
@@ -83,6 +88,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
 import static com.redhat.rhn.domain.action.ActionFactory.STATUS_COMPLETED;
@@ -525,6 +533,103 @@ public class SaltServerActionServiceTest extends JMockBaseTestCaseWithUser {
         assertEquals(STATUS_COMPLETED, serverAction.getStatus());
     }
 
+    /**
+     * Tests that an action on several ssh-push minions is executed with one salt-ssh
+     * call per batch and that each minion gets its own result.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    public void testExecuteSSHActionsInBatch() throws Exception {
+        successWorker();
+        MinionServer minion2 = MinionServerFactoryTest.createTestMinionServer(user);
+        Action action = ActionFactoryTest.createAction(user, ActionFactory.TYPE_SCRIPT_RUN);
+        ServerAction serverAction = ActionFactoryTest.createServerAction(minion, action);
+        serverAction.setStatus(STATUS_QUEUED);
+        serverAction.setRemainingTries(5L);
+        ServerAction serverAction2 = ActionFactoryTest.createServerAction(minion2, action);
+        serverAction2.setStatus(STATUS_QUEUED);
+        serverAction2.setRemainingTries(5L);
+        action.setServerActions(new HashSet<>(Arrays.asList(serverAction, serverAction2)));
+
+        SaltSSHService saltSSHServiceMock = mock(SaltSSHService.class);
+        Map<String, CompletionStage<Result<JsonElement>>> results = new HashMap<>();
+        results.put(minion.getMinionId(),
+                CompletableFuture.completedFuture(Result.success(mock(JsonElement.class))));
+        results.put(minion2.getMinionId(),
+                CompletableFuture.completedFuture(Result.error(new GenericError("unreachable"))));
+        context().checking(new Expectations() {{
+            allowing(saltServiceMock).getSaltSSHService();
+            will(returnValue(saltSSHServiceMock));
+            oneOf(saltSSHServiceMock).callAsyncSSH(
+                    with(any(LocalCall.class)),
+                    with(any(MinionList.class)),
+                    with(any(CompletableFuture.class)));
+            will(returnValue(results));
+        }});
+
+        saltServerActionService.executeSSHActions(action, Arrays.asList(minion, minion2));
+
+        assertEquals(Long.valueOf(4L), serverAction.getRemainingTries());
+        assertEquals(STATUS_COMPLETED, serverAction.getStatus());
+        assertEquals(STATUS_FAILED, serverAction2.getStatus());
+        assertEquals("Minion is down or could not be contacted.", serverAction2.getResultMsg());
+    }
+
+    /**
+     * Tests that a failing salt-ssh batch fails the actions of its minions, while an
+     * unexpected error is not hidden.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    public void testExecuteSSHActionsInBatchErrors() throws Exception {
+        MinionServer minion2 = MinionServerFactoryTest.createTestMinionServer(user);
+        Action action = ActionFactoryTest.createAction(user, ActionFactory.TYPE_SCRIPT_RUN);
+        ServerAction serverAction = ActionFactoryTest.createServerAction(minion, action);
+        serverAction.setStatus(STATUS_QUEUED);
+        serverAction.setRemainingTries(5L);
+        ServerAction serverAction2 = ActionFactoryTest.createServerAction(minion2, action);
+        serverAction2.setStatus(STATUS_QUEUED);
+        serverAction2.setRemainingTries(5L);
+        action.setServerActions(new HashSet<>(Arrays.asList(serverAction, serverAction2)));
+
+        CompletableFuture<Result<JsonElement>> saltError = new CompletableFuture<>();
+        saltError.completeExceptionally(new RuntimeException(new SaltException("salt-ssh failed")));
+        Map<String, CompletionStage<Result<JsonElement>>> saltErrorResults = new HashMap<>();
+        saltErrorResults.put(minion.getMinionId(), saltError);
+        saltErrorResults.put(minion2.getMinionId(), saltError);
+
+        CompletableFuture<Result<JsonElement>> otherError = new CompletableFuture<>();
+        otherError.completeExceptionally(new IllegalStateException("bug"));
+        Map<String, CompletionStage<Result<JsonElement>>> otherErrorResults = new HashMap<>();
+        otherErrorResults.put(minion.getMinionId(), otherError);
+        otherErrorResults.put(minion2.getMinionId(), otherError);
+
+        SaltSSHService saltSSHServiceMock = mock(SaltSSHService.class);
+        context().checking(new Expectations() {{
+            allowing(saltServiceMock).getSaltSSHService();
+            will(returnValue(saltSSHServiceMock));
+            exactly(2).of(saltSSHServiceMock).callAsyncSSH(
+                    with(any(LocalCall.class)),
+                    with(any(MinionList.class)),
+                    with(any(CompletableFuture.class)));
+            will(onConsecutiveCalls(returnValue(saltErrorResults), returnValue(otherErrorResults)));
+        }});
+
+        saltServerActionService.executeSSHActions(action, Arrays.asList(minion, minion2));
+        assertEquals(STATUS_FAILED, serverAction.getStatus());
+        assertEquals(STATUS_FAILED, serverAction2.getStatus());
+
+        serverAction.setStatus(STATUS_QUEUED);
+        serverAction2.setStatus(STATUS_QUEUED);
+        try {
+            saltServerActionService.executeSSHActions(action, Arrays.asList(minion, minion2));
+            fail("unexpected errors must be thrown");
+        }
+        catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
     /**
      * Tests that an execution with empty result from salt keeps the action in the queued
      * state and decreases the number of tries.
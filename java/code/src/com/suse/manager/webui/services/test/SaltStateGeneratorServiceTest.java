@@ -254,6 +254,55 @@ public class SaltStateGeneratorServiceTest extends BaseTestCaseWithUser {
         assertEquals(proxyHostname, channelFromFile.get("host"));
     }
 
+    public void testGeneratePillarsOnlyWritesChanges() throws Exception {
+        MinionServer minion1 = MinionServerFactoryTest.createTestMinionServer(user);
+        MinionServer minion2 = MinionServerFactoryTest.createTestMinionServer(user);
+        Channel channel = ChannelTestUtils.createBaseChannel(user);
+        minion1.addChannel(channel);
+        minion2.addChannel(channel);
+        ServerFactory.save(minion1);
+        ServerFactory.save(minion2);
+
+        assertEquals(2, SaltStateGeneratorService.INSTANCE.generatePillars(Arrays.asList(minion1, minion2), true));
+
+        Path file1 = tmpPillarRoot.resolve(PILLAR_DATA_FILE_PREFIX + "_" +
+                minion1.getMinionId() + "." + PILLAR_DATA_FILE_EXT);
+        Path file2 = tmpPillarRoot.resolve(PILLAR_DATA_FILE_PREFIX + "_" +
+                minion2.getMinionId() + "." + PILLAR_DATA_FILE_EXT);
+        assertTrue(Files.exists(file1));
+        assertTrue(Files.exists(file2));
+        byte[] content1 = Files.readAllBytes(file1);
+
+        // nothing changed: no file is written
+        double written = getPillarFilesCount(0);
+        double unchanged = getPillarFilesCount(1);
+        assertEquals(0, SaltStateGeneratorService.INSTANCE.generatePillars(Arrays.asList(minion1, minion2), false));
+        assertTrue(Arrays.equals(content1, Files.readAllBytes(file1)));
+        assertEquals(written, getPillarFilesCount(0), 0);
+        assertEquals(unchanged + 2, getPillarFilesCount(1), 0);
+
+        // a new group changes the pillar of its member only
+        ServerGroup group = ServerGroupTest.createTestServerGroup(user.getOrg(), null);
+        ServerFactory.addServerToGroup(minion1, group);
+        assertEquals(1, SaltStateGeneratorService.INSTANCE.generatePillars(Arrays.asList(minion1, minion2), false));
+        assertEquals(written + 1, getPillarFilesCount(0), 0);
+
+        Map<String, Object> map;
+        try (FileInputStream fi = new FileInputStream(file1.toFile())) {
+            map = new Yaml().loadAs(fi, Map.class);
+        }
+        List<Integer> groups = (List<Integer>) map.get("group_ids");
+        assertContains(groups.stream().map(id -> new Long((int) id))
+                .collect(Collectors.toList()), group.getId());
+        Map<String, Object> channels = (Map<String, Object>) map.get("channels");
+        assertEquals(1, channels.size());
+        assertTrue(channels.containsKey(channel.getLabel()));
+    }
+
+    private static double getPillarFilesCount(int metric) {
+        return SaltStateGeneratorService.INSTANCE.getMetrics().get(metric).collect().get(0).samples.get(0).value;
+    }
+
     public void testGenerateServerConfigState() throws Exception {
         MinionServer minion = MinionServerFactoryTest.createTestMinionServer(user);
 
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.suse.manager.webui.utils;
+
+import com.redhat.rhn.common.conf.Config;
+import com.redhat.rhn.common.conf.ConfigDefaults;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the download tokens already validated, so that a minion
+ * downloading many files does not cause a database lookup and a signature
+ * verification for each of them.
+ *
+ * Entries expire after a configurable time or when the token itself expires,
+ * whichever comes first, and are dropped as soon as the token is invalidated or
+ * deleted on this server.
+ */
+public class DownloadTokenCache {
+
+    /** The cache used by the download endpoint */
+    public static final DownloadTokenCache INSTANCE = new DownloadTokenCache(
+            TimeUnit.SECONDS.toMillis(Config.get().getInt(
+                    ConfigDefaults.SALT_DOWNLOAD_TOKEN_CACHE_TTL, 60)),
+            Config.get().getInt(ConfigDefaults.SALT_DOWNLOAD_TOKEN_CACHE_SIZE, 10000),
+            System::currentTimeMillis);
+
+    private final Map<String, ValidatedToken> tokens = new ConcurrentHashMap<>();
+    private final long ttl;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    /**
+     * Constructor
+     * @param ttlIn time in milliseconds a validated token is trusted, 0 disables
+     * the cache
+     * @param maxSizeIn maximum number of tokens in the cache
+     * @param clockIn source of the current time in milliseconds
+     */
+    public DownloadTokenCache(long ttlIn, int maxSizeIn, LongSupplier clockIn) {
+        ttl = ttlIn;
+        maxSize = maxSizeIn;
+        clock = clockIn;
+    }
+
+    /**
+     * Returns the claims of a validated token.
+     * @param token the token
+     * @return the claims, or null if the token has to be validated again
+     */
+    public ValidatedToken get(String token) {
+        ValidatedToken validated = tokens.get(token);
+        if (validated != null && validated.expiresAt <= clock.getAsLong()) {
+            tokens.remove(token, validated);
+            return null;
+        }
+        return validated;
+    }
+
+    /**
+     * Caches the claims of a validated token.
+     * @param token the token
+     * @param orgId the organization of the token
+     * @param channels the channels the token is restricted to, or null if any
+     * channel of the organization is allowed
+     * @param expiration expiration time of the token in milliseconds, or null if it
+     * does not expire
+     * @return the cached claims
+     */
+    public ValidatedToken put(String token, long orgId, List<String> channels,
+            Long expiration) {
+        long now = clock.getAsLong();
+        long expiresAt = now + ttl;
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration);
+        }
+        ValidatedToken validated = new ValidatedToken(orgId, channels, expiresAt);
+        if (expiresAt <= now) {
+            return validated;
+        }
+        if (tokens.size() >= maxSize) {
+            tokens.values().removeIf(v -> v.expiresAt <= now);
+            if (tokens.size() >= maxSize) {
+                return validated;
+            }
+        }
+        tokens.put(token, validated);
+        return validated;
+    }
+
+    /**
+     * Drops a token from the cache, to be called when it is invalidated.
+     * @param token the token
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            tokens.remove(token);
+        }
+    }
+
+    /**
+     * Drops all tokens from the cache.
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    /**
+     * @return the number of tokens in the cache
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Claims of a validated token.
+     */
+    public static class ValidatedToken {
+
+        private final long orgId;
+        private final List<String> channels;
+        private final long expiresAt;
+        private final Set<String> accessibleChannels = ConcurrentHashMap.newKeySet();
+
+        ValidatedToken(long orgIdIn, List<String> channelsIn, long expiresAtIn) {
+            orgId = orgIdIn;
+            channels = channelsIn == null ? null : Collections.unmodifiableList(channelsIn);
+            expiresAt = expiresAtIn;
+        }
+
+        /**
+         * @return the organization of the token
+         */
+        public long getOrgId() {
+            return orgId;
+        }
+
+        /**
+         * @param channel a channel label
+         * @return true if the token is not restricted to other channels
+         */
+        public boolean allowsChannel(String channel) {
+            return channels == null || channels.contains(channel);
+        }
+
+        /**
+         * @param channel a channel label
+         * @return true if the channel was already found accessible by the
+         * organization of the token
+         */
+        public boolean isAccessible(String channel) {
+            return accessibleChannels.contains(channel);
+        }
+
+        /**
+         * Records that the channel is accessible by the organization of the token.
+         * @param channel a channel label
+         */
+        public void setAccessible(String channel) {
+            accessibleChannels.add(channel);
+        }
+    }
+}
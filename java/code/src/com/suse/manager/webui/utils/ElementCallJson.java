@@ -26,7 +26,7 @@ import java.util.Map;
 
 /**
  * Manipulate a given {@link LocalCall} object to return a {@link JsonElement} instead
- * of the specified return type.
+ * of the specified return type. The timeouts of the call are kept.
  */
 public class ElementCallJson extends LocalCall<JsonElement> {
 
@@ -39,6 +39,8 @@ public class ElementCallJson extends LocalCall<JsonElement> {
         super((String) call.getPayload().get("fun"),
                 ofNullable((List<?>) call.getPayload().get("arg")),
                 ofNullable((Map<String, ?>) call.getPayload().get("kwarg")),
-                new TypeToken<JsonElement>() { });
+                new TypeToken<JsonElement>() { },
+                ofNullable((Integer) call.getPayload().get("timeout")),
+                ofNullable((Integer) call.getPayload().get("gather_job_timeout")));
     }
 }
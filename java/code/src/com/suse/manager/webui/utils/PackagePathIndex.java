@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.suse.manager.webui.utils;
+
+import com.redhat.rhn.common.conf.Config;
+import com.redhat.rhn.common.conf.ConfigDefaults;
+import com.redhat.rhn.domain.channel.ChannelFactory;
+import com.redhat.rhn.domain.rhnpackage.Package;
+import com.redhat.rhn.domain.rhnpackage.PackageFactory;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory index of the paths of the packages downloaded from each channel, so
+ * that serving a package already requested does not need a database lookup.
+ *
+ * The index of a channel is filled as packages get requested and dropped when the
+ * last modification time of the channel changes, which happens whenever its
+ * content changes. That time is checked at most once per configurable interval.
+ */
+public class PackagePathIndex {
+
+    /** The index used by the download endpoint */
+    public static final PackagePathIndex INSTANCE = new PackagePathIndex(
+            TimeUnit.SECONDS.toMillis(Config.get().getInt(
+                    ConfigDefaults.SALT_DOWNLOAD_PATH_INDEX_CHECK_INTERVAL, 30)),
+            Config.get().getInt(ConfigDefaults.SALT_DOWNLOAD_PATH_INDEX_SIZE, 50000),
+            System::currentTimeMillis);
+
+    private final Map<String, ChannelIndex> channels = new ConcurrentHashMap<>();
+    private final long checkInterval;
+    private final int maxPackages;
+    private final LongSupplier clock;
+
+    /**
+     * Constructor
+     * @param checkIntervalIn time in milliseconds between two checks of the
+     * modification time of a channel, 0 disables the index
+     * @param maxPackagesIn maximum number of packages indexed per channel
+     * @param clockIn source of the current time in milliseconds
+     */
+    public PackagePathIndex(long checkIntervalIn, int maxPackagesIn,
+            LongSupplier clockIn) {
+        checkInterval = checkIntervalIn;
+        maxPackages = maxPackagesIn;
+        clock = clockIn;
+    }
+
+    /**
+     * Returns the path of a package in a channel, relative to the mount point.
+     * @param channel the channel label
+     * @param name the package name
+     * @param version the package version
+     * @param release the package release
+     * @param arch the package architecture label
+     * @return the path, or null if the channel has no such package
+     */
+    public String lookupPath(String channel, String name, String version,
+            String release, String arch) {
+        if (checkInterval <= 0) {
+            return loadPath(channel, name, version, release, arch);
+        }
+        ChannelIndex index = getIndex(channel);
+        String nevra = name + "-" + version + "-" + release + "." + arch;
+        String path = index.paths.get(nevra);
+        if (path == null) {
+            path = loadPath(channel, name, version, release, arch);
+            if (path != null && index.paths.size() < maxPackages) {
+                index.paths.put(nevra, path);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Drops the index of a channel.
+     * @param channel the channel label
+     */
+    public void invalidate(String channel) {
+        channels.remove(channel);
+    }
+
+    /**
+     * Drops the index of all channels.
+     */
+    public void clear() {
+        channels.clear();
+    }
+
+    private ChannelIndex getIndex(String channel) {
+        long now = clock.getAsLong();
+        ChannelIndex index = channels.get(channel);
+        if (index == null) {
+            index = new ChannelIndex(loadLastModified(channel), now);
+            ChannelIndex previous = channels.putIfAbsent(channel, index);
+            return previous == null ? index : previous;
+        }
+        long checked = index.checkedAt.get();
+        // a single thread checks, the others keep using the index meanwhile
+        if (now - checked >= checkInterval && index.checkedAt.compareAndSet(checked, now)) {
+            Date lastModified = loadLastModified(channel);
+            if (!Objects.equals(lastModified, index.lastModified)) {
+                ChannelIndex fresh = new ChannelIndex(lastModified, now);
+                channels.replace(channel, index, fresh);
+                return fresh;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Loads the last modification time of a channel from the database.
+     * @param channel the channel label
+     * @return the last modification time, or null if there is no such channel
+     */
+    protected Date loadLastModified(String channel) {
+        return ChannelFactory.lookupLastModifiedByLabel(channel);
+    }
+
+    /**
+     * Loads the path of a package in a channel from the database.
+     * @param channel the channel label
+     * @param name the package name
+     * @param version the package version
+     * @param release the package release
+     * @param arch the package architecture label
+     * @return the path, or null if the channel has no such package
+     */
+    protected String loadPath(String channel, String name, String version,
+            String release, String arch) {
+        Package pkg = PackageFactory.lookupByChannelLabelNevra(channel, name, version,
+                release, null, arch);
+        return pkg == null ? null : pkg.getPath();
+    }
+
+    /**
+     * Paths of the packages of a channel at a given modification time.
+     */
+    private static class ChannelIndex {
+        private final Date lastModified;
+        private final AtomicLong checkedAt;
+        private final Map<String, String> paths = new ConcurrentHashMap<>();
+
+        ChannelIndex(Date lastModifiedIn, long checkedAtIn) {
+            lastModified = lastModifiedIn;
+            checkedAt = new AtomicLong(checkedAtIn);
+        }
+    }
+}
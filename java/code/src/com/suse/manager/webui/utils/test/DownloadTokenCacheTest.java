@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.suse.manager.webui.utils.test;
+
+import com.suse.manager.webui.utils.DownloadTokenCache;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for DownloadTokenCache
+ */
+public class DownloadTokenCacheTest extends TestCase {
+
+    private long now = 1000;
+
+    public void testExpiresAfterTtl() {
+        DownloadTokenCache cache = new DownloadTokenCache(100, 10, () -> now);
+        cache.put("token", 1, Arrays.asList("chan1"), null);
+
+        DownloadTokenCache.ValidatedToken validated = cache.get("token");
+        assertNotNull(validated);
+        assertEquals(1, validated.getOrgId());
+        assertTrue(validated.allowsChannel("chan1"));
+        assertFalse(validated.allowsChannel("chan2"));
+
+        now += 100;
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    public void testExpiresWithToken() {
+        DownloadTokenCache cache = new DownloadTokenCache(100, 10, () -> now);
+        cache.put("token", 1, null, now + 10);
+        assertTrue(cache.get("token").allowsChannel("any"));
+
+        now += 10;
+        assertNull(cache.get("token"));
+
+        // already expired tokens are not cached
+        cache.put("expired", 1, null, now);
+        assertNull(cache.get("expired"));
+    }
+
+    public void testInvalidate() {
+        DownloadTokenCache cache = new DownloadTokenCache(100, 10, () -> now);
+        DownloadTokenCache.ValidatedToken validated = cache.put("token", 1, null, null);
+        validated.setAccessible("chan1");
+        assertTrue(cache.get("token").isAccessible("chan1"));
+        assertFalse(cache.get("token").isAccessible("chan2"));
+
+        cache.invalidate("token");
+        assertNull(cache.get("token"));
+    }
+
+    public void testBounded() {
+        DownloadTokenCache cache = new DownloadTokenCache(100, 2, () -> now);
+        cache.put("token1", 1, null, null);
+        cache.put("token2", 1, null, null);
+        cache.put("token3", 1, null, null);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("token3"));
+
+        // expired entries make room
+        now += 100;
+        cache.put("token3", 1, null, null);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get("token3"));
+    }
+
+    public void testDisabled() {
+        DownloadTokenCache cache = new DownloadTokenCache(0, 10, () -> now);
+        assertNotNull(cache.put("token", 1, null, null));
+        assertNull(cache.get("token"));
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.suse.manager.webui.utils.test;
+
+import com.suse.manager.webui.utils.PackagePathIndex;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for PackagePathIndex
+ */
+public class PackagePathIndexTest extends TestCase {
+
+    private long now = 1000;
+    private final Map<String, Date> lastModified = new HashMap<>();
+    private final Map<String, String> paths = new HashMap<>();
+    private int pathLoads;
+    private int lastModifiedLoads;
+
+    private class TestIndex extends PackagePathIndex {
+        TestIndex(long checkInterval, int maxPackages) {
+            super(checkInterval, maxPackages, () -> now);
+        }
+
+        @Override
+        protected Date loadLastModified(String channel) {
+            lastModifiedLoads++;
+            return lastModified.get(channel);
+        }
+
+        @Override
+        protected String loadPath(String channel, String name, String version,
+                String release, String arch) {
+            pathLoads++;
+            return paths.get(channel + "/" + name + "-" + version + "-" + release + "." +
+                    arch);
+        }
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        lastModified.put("chan", new Date(1));
+        paths.put("chan/pkg-1.0-1.x86_64", "packages/pkg-1.0-1.x86_64.rpm");
+    }
+
+    public void testIndexesRequestedPackages() {
+        PackagePathIndex index = new TestIndex(100, 10);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("packages/pkg-1.0-1.x86_64.rpm",
+                    index.lookupPath("chan", "pkg", "1.0", "1", "x86_64"));
+        }
+        assertEquals(1, pathLoads);
+        assertEquals(1, lastModifiedLoads);
+
+        // unknown packages are looked up every time
+        assertNull(index.lookupPath("chan", "pkg", "2.0", "1", "x86_64"));
+        assertNull(index.lookupPath("chan", "pkg", "2.0", "1", "x86_64"));
+        assertEquals(3, pathLoads);
+    }
+
+    public void testDroppedWhenChannelChanges() {
+        PackagePathIndex index = new TestIndex(100, 10);
+        index.lookupPath("chan", "pkg", "1.0", "1", "x86_64");
+        paths.put("chan/pkg-1.0-1.x86_64", "packages/moved.rpm");
+
+        // unchanged channel, checked again after the interval
+        now += 100;
+        assertEquals("packages/pkg-1.0-1.x86_64.rpm",
+                index.lookupPath("chan", "pkg", "1.0", "1", "x86_64"));
+        assertEquals(2, lastModifiedLoads);
+
+        // changed channel, but not checked yet
+        lastModified.put("chan", new Date(2));
+        now += 50;
+        assertEquals("packages/pkg-1.0-1.x86_64.rpm",
+                index.lookupPath("chan", "pkg", "1.0", "1", "x86_64"));
+
+        now += 50;
+        assertEquals("packages/moved.rpm",
+                index.lookupPath("chan", "pkg", "1.0", "1", "x86_64"));
+        assertEquals(3, lastModifiedLoads);
+    }
+
+    public void testBounded() {
+        paths.put("chan/other-1.0-1.x86_64", "packages/other-1.0-1.x86_64.rpm");
+        PackagePathIndex index = new TestIndex(100, 1);
+        index.lookupPath("chan", "pkg", "1.0", "1", "x86_64");
+        index.lookupPath("chan", "other", "1.0", "1", "x86_64");
+        index.lookupPath("chan", "other", "1.0", "1", "x86_64");
+        index.lookupPath("chan", "pkg", "1.0", "1", "x86_64");
+        assertEquals(3, pathLoads);
+    }
+
+    public void testDisabled() {
+        PackagePathIndex index = new TestIndex(0, 10);
+        index.lookupPath("chan", "pkg", "1.0", "1", "x86_64");
+        index.lookupPath("chan", "pkg", "1.0", "1", "x86_64");
+        assertEquals(2, pathLoads);
+        assertEquals(0, lastModifiedLoads);
+    }
+}
@@ -0,0 +1,31 @@
+--
+-- Copyright (c) 2020 SUSE LLC
+--
+-- This software is licensed to you under the GNU General Public License,
+-- version 2 (GPLv2). There is NO WARRANTY for this software, express or
+-- implied, including the implied warranties of MERCHANTABILITY or FITNESS
+-- FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+-- along with this software; if not, see
+-- http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+--
+-- Red Hat trademarks are not licensed under GPLv2. No permission is
+-- granted to use or replicate Red Hat trademarks that are incorporated
+-- in this software or its documentation.
+--
+
+CREATE TABLE suseMinionActionQueue
+(
+    action_id               NUMBER NOT NULL
+                                CONSTRAINT suse_maq_aid_pk PRIMARY KEY
+                                CONSTRAINT suse_maq_aid_fk
+                                    REFERENCES rhnAction (id)
+                                    ON DELETE CASCADE,
+    force_pkg_list_refresh  CHAR(1)
+                                DEFAULT ('N') NOT NULL
+                                CONSTRAINT suse_maq_fplr_ck
+                                    CHECK (force_pkg_list_refresh in ('Y', 'N')),
+    created                 timestamp with local time zone
+                                DEFAULT (current_timestamp) NOT NULL
+)
+ENABLE ROW MOVEMENT
+;
@@ -0,0 +1,4 @@
+INSERT INTO rhnConfiguration (key, description)
+    SELECT 'product_tree_stamp', 'Changes whenever the product tree or the repository authentications are updated.'
+      FROM dual
+     WHERE NOT EXISTS (SELECT 1 FROM rhnConfiguration WHERE key = 'product_tree_stamp');
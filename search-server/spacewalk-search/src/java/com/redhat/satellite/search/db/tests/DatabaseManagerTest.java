@@ -7,7 +7,9 @@ import com.redhat.satellite.search.tests.BaseTestCase;
 import com.redhat.satellite.search.tests.TestUtil;
 
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DatabaseManagerTest extends BaseTestCase {
 
@@ -30,10 +32,13 @@ public class DatabaseManagerTest extends BaseTestCase {
     }
 
     public void testListQuery() throws SQLException {
-        Query<RhnPackage> query = dm.getQuery("listPackagesFromId");
-        List<RhnPackage> results = query.loadList((long) 0);
+        Query<RhnPackage> query = dm.getQuery("listPackagesPageFromId");
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("id", 0L);
+        params.put("limit", 1);
+        List<RhnPackage> results = query.loadList(params);
         assertNotNull(results);
-        assertTrue(results.size() > 0);
+        assertEquals(1, results.size());
     }
 
     @SuppressWarnings("unchecked")
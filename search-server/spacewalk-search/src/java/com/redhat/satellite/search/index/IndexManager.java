@@ -77,12 +77,17 @@ public class IndexManager {
     private int max_ngram;
     private boolean filterDocResults = false;
     private boolean explainResults = false;
+    private double ramBufferMb;
+    private int commitInterval;
+    private int pageSize;
+    private int builderThreads;
     private AnalyzerFactory nutchAnalyzerFactory;
     // Name conflict with our Configuration class and Hadoop's
     private org.apache.hadoop.conf.Configuration nutchConf;
     private Map<String, String> docLocaleLookUp = new TreeMap<String, String>
                                                                                                 (String.CASE_INSENSITIVE_ORDER);
     private Map<String, FetchedSegments> docSegments;
+    private final SearcherPool searcherPool = new SearcherPool();
     /**
      * Constructor
      *
@@ -108,6 +113,11 @@ public class IndexManager {
         initDocLocaleLookup();
         filterDocResults = config.getBoolean("search.doc.limit_results");
         explainResults = config.getBoolean("search.log.explain.results");
+        ramBufferMb = config.getDouble("search.index_ram_buffer_mb", 32);
+        commitInterval = config.getInt("search.index_commit_interval", 1000);
+        pageSize = config.getInt("search.index_page_size", 1000);
+        builderThreads = config.getInt("search.index_builder_threads",
+                Math.min(4, Runtime.getRuntime().availableProcessors()));
         initDocSummary();
     }
 
@@ -154,12 +164,11 @@ public class IndexManager {
     public List<Result> search(String indexName, String query, String lang,
             boolean isFineGrained)
             throws IndexingException, QueryParseException {
-        IndexSearcher searcher = null;
-        IndexReader reader = null;
+        SearcherPool.PooledSearcher pooled = null;
         List<Result> retval = null;
         try {
-            reader = getIndexReader(indexName, lang);
-            searcher = getIndexSearcher(indexName, lang);
+            pooled = searcherPool.acquire(getIndexPath(indexName, lang));
+            IndexSearcher searcher = pooled.getSearcher();
             QueryParser qp = getQueryParser(indexName, lang, isFineGrained);
             Query q = qp.parse(query);
             if (log.isDebugEnabled()) {
@@ -173,7 +182,7 @@ public class IndexManager {
             Set<Term> queryTerms = null;
             try {
                 queryTerms = new HashSet<Term>();
-                Query newQ = q.rewrite(reader);
+                Query newQ = q.rewrite(pooled.getReader());
                 newQ.extractTerms(queryTerms);
             }
             catch (Exception e) {
@@ -199,16 +208,8 @@ public class IndexManager {
             throw new QueryParseException("Could not parse query: '" + query + "'");
         }
         finally {
-            try {
-                if (searcher != null) {
-                    searcher.close();
-                }
-                if (reader != null) {
-                    reader.close();
-                }
-            }
-            catch (IOException ex) {
-                throw new IndexingException(ex);
+            if (pooled != null) {
+                pooled.release();
             }
         }
         return retval;
@@ -237,6 +238,7 @@ public class IndexManager {
                 finally {
                     // unlock it if it is locked.
                     unlockIndex(indexName);
+                    searcherPool.invalidate(getIndexPath(indexName, lang));
                 }
             }
         }
@@ -276,6 +278,7 @@ public class IndexManager {
                 finally {
                     // unlock it if it is locked.
                     unlockIndex(indexName);
+                    searcherPool.invalidate(getIndexPath(indexName, lang));
                 }
             }
         }
@@ -332,6 +335,43 @@ public class IndexManager {
         addToIndex(indexName, doc, lang);
     }
 
+    /**
+     * @return number of records loaded at once by the index tasks
+     */
+    public int getIndexPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return number of threads building documents in the index tasks
+     */
+    public int getIndexBuilderThreads() {
+        return builderThreads;
+    }
+
+    /**
+     * Opens a session writing many documents to an index with a single writer.
+     * The session must be closed.
+     *
+     * @param indexName index to use
+     * @param lang language.
+     * @return the session
+     * @throws IndexingException if the index cannot be opened for writing
+     */
+    public IndexWriterSession openWriterSession(String indexName, String lang)
+        throws IndexingException {
+        try {
+            IndexWriter writer = getIndexWriter(indexName, lang);
+            writer.setRAMBufferSizeMB(ramBufferMb);
+            String path = indexWorkDir + indexName;
+            return new IndexWriterSession(writer, FSDirectory.getDirectory(new File(path)),
+                    path, commitInterval, searcherPool);
+        }
+        catch (IOException e) {
+            throw new IndexingException(e);
+        }
+    }
+
     /**
      * Remove a document from an index
      *
@@ -356,6 +396,7 @@ public class IndexManager {
                if (reader != null) {
                     reader.close();
                }
+               searcherPool.invalidate(getIndexPath(indexName, IndexHandler.DEFAULT_LANG));
             }
         }
         catch (CorruptIndexException e) {
@@ -395,14 +436,7 @@ public class IndexManager {
 
     private IndexReader getIndexReader(String indexName, String locale)
             throws CorruptIndexException, IOException {
-        String path = "";
-        if (indexName.compareTo(BuilderFactory.DOCS_TYPE) == 0) {
-            path = indexWorkDir + File.separator +
-                getDocIndexPath(locale);
-        }
-        else {
-            path = indexWorkDir + indexName;
-        }
+        String path = getIndexPath(indexName, locale);
         log.info("IndexManager::getIndexReader(" + indexName + ", " + locale +
                 ") path = " + path);
         File f = new File(path);
@@ -410,20 +444,18 @@ public class IndexManager {
         return retval;
     }
 
-    private IndexSearcher getIndexSearcher(String indexName, String locale)
-            throws CorruptIndexException, IOException {
-        String path = "";
+    private String getIndexPath(String indexName, String locale) {
         if (indexName.compareTo(BuilderFactory.DOCS_TYPE) == 0) {
-            path = indexWorkDir + File.separator +
-                getDocIndexPath(locale);
+            return indexWorkDir + File.separator + getDocIndexPath(locale);
         }
-        else {
-            path = indexWorkDir + indexName;
-        }
-        log.info("IndexManager::getIndexSearcher(" + indexName + ", " + locale +
-                ") path = " + path);
-        IndexSearcher retval = new IndexSearcher(path);
-        return retval;
+        return indexWorkDir + indexName;
+    }
+
+    /**
+     * @return usage statistics of the searchers shared by the searches
+     */
+    public Map<String, Object> getSearcherStats() {
+        return searcherPool.getStats();
     }
 
     private QueryParser getQueryParser(String indexName, String lang,
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+
+package com.redhat.satellite.search.index;
+
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Writes many documents to an index through a single IndexWriter.
+ *
+ * Documents replace the ones with the same unique field value. Changes are
+ * committed, and made visible to searches, every commit interval documents or
+ * explicitly: callers can record their progress after each commit and resume from
+ * there after a crash.
+ *
+ * @version $Rev$
+ */
+public class IndexWriterSession {
+
+    private static Logger log = Logger.getLogger(IndexWriterSession.class);
+
+    private final IndexWriter writer;
+    private final Directory directory;
+    private final String path;
+    private final int commitInterval;
+    private final SearcherPool searcherPool;
+    private int uncommitted;
+
+    /**
+     * Constructor, see {@link IndexManager#openWriterSession(String, String)}
+     * @param writerIn the writer, closed with the session
+     * @param directoryIn directory of the index
+     * @param pathIn path of the index
+     * @param commitIntervalIn number of documents between commits
+     * @param searcherPoolIn pool of the searchers to refresh after commits
+     */
+    protected IndexWriterSession(IndexWriter writerIn, Directory directoryIn,
+            String pathIn, int commitIntervalIn, SearcherPool searcherPoolIn) {
+        writer = writerIn;
+        directory = directoryIn;
+        path = pathIn;
+        commitInterval = commitIntervalIn;
+        searcherPool = searcherPoolIn;
+    }
+
+    /**
+     * Adds a document, replacing the documents with the same unique field value.
+     * @param doc the document
+     * @param uniqueField field in doc which identifies it uniquely
+     * @throws IndexingException if the document cannot be written
+     */
+    public void updateDocument(Document doc, String uniqueField)
+        throws IndexingException {
+        try {
+            writer.updateDocument(new Term(uniqueField, doc.get(uniqueField)), doc);
+        }
+        catch (IOException e) {
+            throw new IndexingException(e);
+        }
+        uncommitted++;
+    }
+
+    /**
+     * @return true if the commit interval has been reached since the last commit
+     */
+    public boolean isCommitDue() {
+        return uncommitted >= commitInterval;
+    }
+
+    /**
+     * Commits the documents added so far.
+     * @throws IndexingException if the changes cannot be written
+     */
+    public void commit() throws IndexingException {
+        try {
+            // the writer auto commits, a flush writes a new segments file
+            writer.flush();
+        }
+        catch (IOException e) {
+            throw new IndexingException(e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Committed " + uncommitted + " documents to " + path);
+        }
+        uncommitted = 0;
+        searcherPool.invalidate(path);
+    }
+
+    /**
+     * Commits the pending documents and closes the writer.
+     * @throws IndexingException if the changes cannot be written
+     */
+    public void close() throws IndexingException {
+        try {
+            try {
+                writer.close();
+            }
+            finally {
+                // unlock it if it is locked.
+                if (IndexReader.isLocked(directory)) {
+                    IndexReader.unlock(directory);
+                }
+                searcherPool.invalidate(path);
+            }
+        }
+        catch (IOException e) {
+            throw new IndexingException(e);
+        }
+    }
+}
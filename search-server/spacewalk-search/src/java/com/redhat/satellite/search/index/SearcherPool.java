@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+
+package com.redhat.satellite.search.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.FSDirectory;
+
+/**
+ * Keeps one IndexSearcher open per index directory and shares it between
+ * concurrent searches.
+ *
+ * Searchers are reference counted: a search acquires the current searcher and
+ * releases it once its hits are processed, the underlying reader is closed when
+ * the last user of a retired searcher releases it. A searcher is only replaced
+ * after its index has been written to and {@link #invalidate(String)} called, the
+ * reader is then reopened, sharing the unchanged segments.
+ *
+ * @version $Rev$
+ */
+public class SearcherPool {
+
+    private static Logger log = Logger.getLogger(SearcherPool.class);
+
+    private final Map<String, PooledSearcher> searchers =
+        new HashMap<String, PooledSearcher>();
+    private final Set<String> stale = new HashSet<String>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reopens = new AtomicLong();
+    private final AtomicLong openNanos = new AtomicLong();
+
+    /**
+     * Returns the searcher of an index, opening it if needed. The searcher must be
+     * given back with {@link PooledSearcher#release()}.
+     * @param path index directory
+     * @return the searcher
+     * @throws IOException if the index cannot be opened
+     */
+    public synchronized PooledSearcher acquire(String path) throws IOException {
+        PooledSearcher current = searchers.get(path);
+        if (current != null && stale.remove(path)) {
+            current = reopen(path, current);
+        }
+        if (current == null) {
+            misses.incrementAndGet();
+            long start = System.nanoTime();
+            current = new PooledSearcher(IndexReader.open(
+                    FSDirectory.getDirectory(new File(path))));
+            openNanos.addAndGet(System.nanoTime() - start);
+            searchers.put(path, current);
+            log.info("Opened searcher for " + path);
+        }
+        else {
+            hits.incrementAndGet();
+        }
+        current.incRef();
+        return current;
+    }
+
+    private PooledSearcher reopen(String path, PooledSearcher current) throws IOException {
+        long start = System.nanoTime();
+        IndexReader reader = current.getReader().reopen();
+        openNanos.addAndGet(System.nanoTime() - start);
+        if (reader == current.getReader()) {
+            return current;
+        }
+        reopens.incrementAndGet();
+        PooledSearcher reopened = new PooledSearcher(reader);
+        searchers.put(path, reopened);
+        // drop the pool's reference, searches still running keep theirs
+        current.release();
+        if (log.isDebugEnabled()) {
+            log.debug("Reopened searcher for " + path);
+        }
+        return reopened;
+    }
+
+    /**
+     * Marks an index as changed: its searcher is reopened on the next acquire.
+     * To be called once the changes are committed.
+     * @param path index directory
+     */
+    public synchronized void invalidate(String path) {
+        if (searchers.containsKey(path)) {
+            stale.add(path);
+        }
+    }
+
+    /**
+     * @return usage statistics of the pool
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<String, Object>();
+        stats.put("hits", toInt(hits.get()));
+        stats.put("misses", toInt(misses.get()));
+        stats.put("reopens", toInt(reopens.get()));
+        stats.put("open_searchers", searchers.size());
+        double openMillis = openNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        stats.put("open_time_ms", openMillis);
+        long opens = misses.get() + reopens.get();
+        stats.put("avg_open_time_ms", opens == 0 ? 0.0 : openMillis / opens);
+        return stats;
+    }
+
+    // XML-RPC has no 64 bit integers
+    private static Integer toInt(long value) {
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+
+    /**
+     * A searcher shared by concurrent searches.
+     */
+    public static class PooledSearcher {
+
+        private final IndexReader reader;
+        private final IndexSearcher searcher;
+        // the pool holds one reference while the searcher is current
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        PooledSearcher(IndexReader readerIn) {
+            reader = readerIn;
+            searcher = new IndexSearcher(reader);
+        }
+
+        /**
+         * @return the searcher
+         */
+        public IndexSearcher getSearcher() {
+            return searcher;
+        }
+
+        /**
+         * @return the reader of the searcher
+         */
+        public IndexReader getReader() {
+            return reader;
+        }
+
+        void incRef() {
+            refs.incrementAndGet();
+        }
+
+        /**
+         * Gives the searcher back, closing it if it is retired and unused.
+         */
+        public void release() {
+            if (refs.decrementAndGet() == 0) {
+                try {
+                    searcher.close();
+                    reader.close();
+                }
+                catch (IOException e) {
+                    log.warn("Error closing searcher", e);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.redhat.satellite.search.index.tests;
 
 import com.redhat.satellite.search.index.IndexManager;
+import com.redhat.satellite.search.index.IndexWriterSession;
 import com.redhat.satellite.search.index.IndexingException;
 import com.redhat.satellite.search.index.Result;
 import com.redhat.satellite.search.index.QueryParseException;
@@ -60,6 +61,59 @@ public class IndexManagerTest extends BaseTestCase {
         assertTrue(results.size() >= 1);
     }
 
+    public void testSearcherIsShared()
+        throws IndexingException, QueryParseException {
+
+        String index = "foo";
+        Map<String, String> meta = new HashMap<String, String>();
+        meta.put("name", "bar");
+        DocumentBuilder pdb = new PackageDocumentBuilder();
+        indexManager.addToIndex(index, pdb.buildDocument(new Long(124), meta), "en");
+        indexManager.search(index, "name:bar", "en");
+        Map<String, Object> before = indexManager.getSearcherStats();
+
+        // a second search reuses the searcher
+        indexManager.search(index, "name:bar", "en");
+        Map<String, Object> after = indexManager.getSearcherStats();
+        assertEquals((Integer) before.get("hits") + 1, after.get("hits"));
+        assertEquals(before.get("misses"), after.get("misses"));
+
+        // and an update is visible to the next search
+        meta.put("name", "baz");
+        indexManager.addToIndex(index, pdb.buildDocument(new Long(125), meta), "en");
+        assertTrue(indexManager.search(index, "name:baz", "en").size() >= 1);
+        after = indexManager.getSearcherStats();
+        assertEquals((Integer) before.get("reopens") + 1, after.get("reopens"));
+        assertEquals(before.get("misses"), after.get("misses"));
+    }
+
+    public void testWriterSession()
+        throws IndexingException, QueryParseException {
+
+        String index = "foo";
+        Map<String, String> meta = new HashMap<String, String>();
+        DocumentBuilder pdb = new PackageDocumentBuilder();
+        IndexWriterSession session = indexManager.openWriterSession(index, "en");
+        try {
+            meta.put("name", "qux");
+            session.updateDocument(pdb.buildDocument(new Long(126), meta), "id");
+            meta.put("name", "quux");
+            session.updateDocument(pdb.buildDocument(new Long(126), meta), "id");
+            session.commit();
+            assertFalse(session.isCommitDue());
+        }
+        finally {
+            session.close();
+        }
+        // the second document replaced the first one
+        int found = 0;
+        for (Result result : indexManager.search(index, "name:quux", "en")) {
+            if ("126".equals(result.getId())) {
+                found++;
+            }
+        }
+        assertEquals(1, found);
+    }
 
     public void StillNeedsWork_testQueryDocs()
         throws IOException, IndexingException, QueryParseException {
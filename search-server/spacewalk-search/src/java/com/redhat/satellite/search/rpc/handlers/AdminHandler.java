@@ -21,6 +21,8 @@ import com.redhat.satellite.search.scheduler.ScheduleManager;
 
 import org.apache.log4j.Logger;
 
+import java.util.Map;
+
 /**
  * XML-RPC handler which handles calls for administration
  * Updating indexes maybe more tasks later
@@ -31,6 +33,7 @@ public class AdminHandler {
 
     private static Logger log = Logger.getLogger(AdminHandler.class);
     private ScheduleManager scheduleManager;
+    private IndexManager indexManager;
 
     /**
      * Constructor
@@ -42,6 +45,7 @@ public class AdminHandler {
             ScheduleManager schedMgr) {
         log.info("** AdminHandler constructor invoked");
         scheduleManager = schedMgr;
+        indexManager = idxManager;
     }
     /**
      * Causes the task associated with the indexName to run and index new data.
@@ -55,4 +59,14 @@ public class AdminHandler {
         }
         return scheduleManager.triggerIndexTask(indexName);
     }
+
+    /**
+     * Returns statistics about the searchers shared by the searches: cache hits
+     * and misses, reopens after index updates and time spent opening indexes.
+     *
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getSearcherStats() {
+        return indexManager.getSearcherStats();
+    }
 }
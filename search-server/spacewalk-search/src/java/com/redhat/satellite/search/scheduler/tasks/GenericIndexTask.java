@@ -19,6 +19,7 @@ import com.redhat.satellite.search.db.Query;
 import com.redhat.satellite.search.db.WriteQuery;
 import com.redhat.satellite.search.db.models.GenericRecord;
 import com.redhat.satellite.search.index.IndexManager;
+import com.redhat.satellite.search.index.IndexWriterSession;
 import com.redhat.satellite.search.index.IndexingException;
 import com.redhat.satellite.search.index.builder.BuilderFactory;
 import com.redhat.satellite.search.index.builder.DocumentBuilder;
@@ -36,7 +37,6 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -63,21 +63,28 @@ public abstract class GenericIndexTask implements StatefulJob {
             //try to create the index first incase we never actually
             //   have any records (BZ 537502)
             indexManager.createIndex(getIndexName(), lang);
-            List<GenericRecord> data = getRecords(databaseManager);
-            int count = 0;
-            log.info(super.getClass().toString() + "found [" +
-                    data.size() + "] items to index");
-            for (Iterator<GenericRecord> iter = data.iterator(); iter.hasNext();) {
-                GenericRecord current = iter.next();
-                indexRecord(indexManager, current);
-                count++;
-                if (count == 10 || !iter.hasNext()) {
+            final Map<String, Object> params = getRecordsParams(databaseManager);
+            PagedIndexer<GenericRecord> indexer = new PagedIndexer<GenericRecord>(
+                    (afterId, limit) -> getRecords(databaseManager, params, afterId, limit),
+                    GenericRecord::getId,
+                    this::buildDocument,
+                    isPaged() ? indexManager.getIndexPageSize() : Integer.MAX_VALUE,
+                    indexManager.getIndexBuilderThreads());
+            IndexWriterSession session = indexManager.openWriterSession(getIndexName(),
+                    lang);
+            int count;
+            try {
+                // the bookmark never goes past what is committed to the index
+                count = indexer.index(0, session, getUniqueFieldId(), lastId -> {
                     if (System.getProperties().get("isTesting") == null) {
-                        updateLastRecord(databaseManager, current.getId());
+                        updateLastRecord(databaseManager, lastId);
                     }
-                    count = 0;
-                }
+                });
             }
+            finally {
+                session.close();
+            }
+            log.info(super.getClass().toString() + " indexed [" + count + "] items");
             //
             // Check to see if any records have been deleted from database, so
             // we should delete from our indexes.
@@ -129,31 +136,27 @@ public abstract class GenericIndexTask implements StatefulJob {
     }
 
     /**
-     * @param indexManager
-     * @param current
+     * @param data record to index
+     * @return the document of the record
      */
-    private void indexRecord(IndexManager indexManager,
-            GenericRecord data)
-        throws IndexingException {
-
+    private Document buildDocument(GenericRecord data) {
         Map<String, String> attrs = getFieldMap(data);
-        log.info(super.getClass().toString() + " Indexing object: " +
-                data.getId() + ": " + attrs.toString());
+        if (log.isDebugEnabled()) {
+            log.debug(super.getClass().toString() + " Indexing object: " +
+                    data.getId() + ": " + attrs.toString());
+        }
         DocumentBuilder pdb = BuilderFactory.getBuilder(getIndexName());
-        Document doc = pdb.buildDocument(new Long(data.getId()), attrs);
-        indexManager.addUniqueToIndex(getIndexName(), doc, getUniqueFieldId(),
-                lang);
+        return pdb.buildDocument(new Long(data.getId()), attrs);
     }
 
 
     /**
      * @param databaseManager
-     * @return
+     * @return parameters of the query returning the records to index
      */
-    private List<GenericRecord> getRecords(DatabaseManager databaseManager)
+    private Map<String, Object> getRecordsParams(DatabaseManager databaseManager)
         throws SQLException {
         // What was the last object id we indexed?
-        List<GenericRecord> retval = null;
         Query<Long> query = databaseManager.getQuery(getQueryLastRecord());
         Long sid = null;
         try {
@@ -177,23 +180,43 @@ public abstract class GenericIndexTask implements StatefulJob {
         if (lastRun == null) {
             lastRun = new Date(0);
         }
-        // Lookup what objects have not been indexed, or need to be reindexed.
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("id", sid);
+        params.put("last_modified", lastRun);
+        log.info("GenericIndexTask<" + super.getClass().toString() +
+                " last processed id = " + sid + ", lastRun was " + lastRun);
+        return params;
+    }
+
+    /**
+     * Lookup what objects have not been indexed, or need to be reindexed.
+     * @param databaseManager
+     * @param params parameters from getRecordsParams
+     * @param afterId id of the last record of the previous page, if paged
+     * @param limit maximum number of records, if paged
+     * @return the records
+     */
+    private List<GenericRecord> getRecords(DatabaseManager databaseManager,
+            Map<String, Object> params, long afterId, int limit)
+        throws SQLException {
         Query<GenericRecord> srvrQuery = databaseManager.getQuery(
                 getQueryRecordsToIndex());
         try {
-            Map<String, Object> params = new HashMap<String, Object>();
-            params.put("id", sid);
-            params.put("last_modified", lastRun);
-            log.info("GenericIndexTask<" + super.getClass().toString() +
-                    " last processed id = " + sid + ", lastRun was " + lastRun);
-            retval = srvrQuery.loadList(params);
-            log.info("GenericIndexTask<" + super.getClass().toString() +
-                    " number of results returned = " + retval.size());
+            Map<String, Object> pageParams = new HashMap<String, Object>(params);
+            if (isPaged()) {
+                pageParams.put("after", afterId);
+                pageParams.put("limit", limit);
+            }
+            List<GenericRecord> retval = srvrQuery.loadList(pageParams);
+            if (log.isDebugEnabled()) {
+                log.debug("GenericIndexTask<" + super.getClass().toString() +
+                        " number of results returned = " + retval.size());
+            }
+            return retval;
         }
         finally {
             srvrQuery.close();
         }
-        return retval;
     }
 
     /**
@@ -274,4 +297,14 @@ public abstract class GenericIndexTask implements StatefulJob {
      * @return name of the query which will return all current ids.
      */
     protected abstract String getQueryAllIds();
+
+    /**
+     * Whether the query returning the records to index supports keyset pagination:
+     * records are ordered by id, those with an id greater than the "after"
+     * parameter are returned, up to the "limit" parameter.
+     * @return true if records can be loaded page by page
+     */
+    protected boolean isPaged() {
+        return false;
+    }
 }
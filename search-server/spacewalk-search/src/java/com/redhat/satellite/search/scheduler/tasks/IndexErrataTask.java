@@ -19,6 +19,7 @@ import com.redhat.satellite.search.db.Query;
 import com.redhat.satellite.search.db.WriteQuery;
 import com.redhat.satellite.search.db.models.Errata;
 import com.redhat.satellite.search.index.IndexManager;
+import com.redhat.satellite.search.index.IndexWriterSession;
 import com.redhat.satellite.search.index.IndexingException;
 import com.redhat.satellite.search.index.builder.BuilderFactory;
 import com.redhat.satellite.search.index.builder.DocumentBuilder;
@@ -33,7 +34,6 @@ import org.quartz.JobExecutionException;
 import java.sql.SQLException;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -59,20 +59,27 @@ public class IndexErrataTask implements Job {
 
         try {
 
-            List<Errata> errata = getErrata(databaseManager);
-            int count = 0;
-            log.info("found [" + errata.size() + "] errata to index");
-            for (Iterator<Errata> iter = errata.iterator(); iter.hasNext();) {
-                Errata current = iter.next();
-                indexErrata(indexManager, current);
-                count++;
-                if (count == 10 || !iter.hasNext()) {
-                    if (System.getProperties().get("isTesting") == null) {
-                        updateLastErrataId(databaseManager, current.getId());
-                    }
-                    count = 0;
-                }
+            PagedIndexer<Errata> indexer = new PagedIndexer<Errata>(
+                    (afterId, limit) -> getErrata(databaseManager, afterId, limit),
+                    Errata::getId,
+                    this::buildDocument,
+                    indexManager.getIndexPageSize(),
+                    indexManager.getIndexBuilderThreads());
+            IndexWriterSession session = indexManager.openWriterSession("errata", lang);
+            int count;
+            try {
+                // the bookmark never goes past what is committed to the index
+                count = indexer.index(getLastErrataId(databaseManager), session, "id",
+                        lastId -> {
+                            if (System.getProperties().get("isTesting") == null) {
+                                updateLastErrataId(databaseManager, lastId);
+                            }
+                        });
+            }
+            finally {
+                session.close();
             }
+            log.info("indexed [" + count + "] errata");
         }
         catch (SQLException e) {
             throw new JobExecutionException(e);
@@ -114,11 +121,10 @@ public class IndexErrataTask implements Job {
     }
 
     /**
-     * @param indexManager
-     * @param current
+     * @param errata
+     * @return the document of the errata
      */
-    private void indexErrata(IndexManager indexManager, Errata errata)
-        throws IndexingException {
+    private Document buildDocument(Errata errata) {
 
         Map<String, String> attrs = new HashMap<String, String>();
         attrs.put("id", new Long(errata.getId()).toString());
@@ -140,20 +146,19 @@ public class IndexErrataTask implements Job {
         attrs.put("lastModified", errata.getLastModified());
         attrs.put("name", errata.getAdvisory());
 
-        log.info("Indexing errata: " + errata.getId() + ": " + attrs.toString());
+        if (log.isDebugEnabled()) {
+            log.debug("Indexing errata: " + errata.getId() + ": " + attrs.toString());
+        }
         DocumentBuilder edb = BuilderFactory.getBuilder(BuilderFactory.ERRATA_TYPE);
-        Document doc = edb.buildDocument(new Long(errata.getId()), attrs);
-        indexManager.addToIndex("errata", doc, lang);
+        return edb.buildDocument(new Long(errata.getId()), attrs);
     }
 
     /**
      * @param databaseManager
-     * @return
+     * @return id of the last errata indexed
      */
-    private List<Errata> getErrata(DatabaseManager databaseManager)
+    private long getLastErrataId(DatabaseManager databaseManager)
         throws SQLException {
-
-        List<Errata> retval = null;
         Query<Long> query = databaseManager.getQuery("getLastErrataId");
         Long eid = null;
         try {
@@ -162,17 +167,27 @@ public class IndexErrataTask implements Job {
         finally {
             query.close();
         }
-        if (eid == null) {
-            eid = new Long(0);
-        }
-        Query<Errata> errataQuery = databaseManager.getQuery("listErrataFromId");
+        return eid == null ? 0 : eid;
+    }
+
+    /**
+     * @param databaseManager
+     * @param afterId id of the last errata of the previous page
+     * @param limit maximum number of errata to return
+     * @return the errata
+     */
+    private List<Errata> getErrata(DatabaseManager databaseManager, long afterId,
+            int limit) throws SQLException {
+        Query<Errata> errataQuery = databaseManager.getQuery("listErrataPageFromId");
         try {
-            retval = errataQuery.loadList(eid);
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("id", afterId);
+            params.put("limit", limit);
+            return errataQuery.loadList(params);
         }
         finally {
             errataQuery.close();
         }
-        return retval;
     }
 
 }
@@ -20,6 +20,7 @@ import com.redhat.satellite.search.db.Query;
 import com.redhat.satellite.search.db.WriteQuery;
 import com.redhat.satellite.search.db.models.RhnPackage;
 import com.redhat.satellite.search.index.IndexManager;
+import com.redhat.satellite.search.index.IndexWriterSession;
 import com.redhat.satellite.search.index.IndexingException;
 import com.redhat.satellite.search.index.builder.BuilderFactory;
 import com.redhat.satellite.search.index.builder.DocumentBuilder;
@@ -34,7 +35,6 @@ import org.quartz.JobExecutionException;
 import java.sql.SQLException;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -61,20 +61,27 @@ public class IndexPackagesTask implements Job {
             if (System.getProperties().get("isTesting") != null) {
                 cleanLastPackage(databaseManager);
             }
-            List<RhnPackage> packages = getPackages(databaseManager);
-            int count = 0;
-            log.info("found [" + packages.size() + "] packages to index");
-            for (Iterator<RhnPackage> iter = packages.iterator(); iter.hasNext();) {
-                RhnPackage current = iter.next();
-                indexPackage(indexManager, current);
-                count++;
-                if (count == 10 || !iter.hasNext()) {
-                    if (System.getProperties().get("isTesting") == null) {
-                        updateLastPackageId(databaseManager, current.getId());
-                    }
-                    count = 0;
-                }
+            PagedIndexer<RhnPackage> indexer = new PagedIndexer<RhnPackage>(
+                    (afterId, limit) -> getPackages(databaseManager, afterId, limit),
+                    RhnPackage::getId,
+                    this::buildDocument,
+                    indexManager.getIndexPageSize(),
+                    indexManager.getIndexBuilderThreads());
+            IndexWriterSession session = indexManager.openWriterSession("package", lang);
+            int count;
+            try {
+                // the bookmark never goes past what is committed to the index
+                count = indexer.index(getLastPackageId(databaseManager), session, "id",
+                        lastId -> {
+                            if (System.getProperties().get("isTesting") == null) {
+                                updateLastPackageId(databaseManager, lastId);
+                            }
+                        });
             }
+            finally {
+                session.close();
+            }
+            log.info("indexed [" + count + "] packages");
         }
         catch (SQLException e) {
             throw new JobExecutionException(e);
@@ -95,8 +102,7 @@ public class IndexPackagesTask implements Job {
         }
     }
 
-    private void indexPackage(IndexManager indexManager, RhnPackage pkg)
-            throws IndexingException {
+    private Document buildDocument(RhnPackage pkg) {
         Map<String, String> attrs = new HashMap<String, String>();
         attrs.put("name", pkg.getName());
         attrs.put("version", pkg.getVersion());
@@ -105,10 +111,11 @@ public class IndexPackagesTask implements Job {
         attrs.put("description", pkg.getDescription());
         attrs.put("summary", pkg.getSummary());
         attrs.put("arch", pkg.getArch());
-        log.info("Indexing package: " + pkg.getId() + ": " + attrs.toString());
+        if (log.isDebugEnabled()) {
+            log.debug("Indexing package: " + pkg.getId() + ": " + attrs.toString());
+        }
         DocumentBuilder pdb = BuilderFactory.getBuilder(BuilderFactory.PACKAGES_TYPE);
-        Document doc = pdb.buildDocument(new Long(pkg.getId()), attrs);
-        indexManager.addToIndex("package", doc, lang);
+        return pdb.buildDocument(new Long(pkg.getId()), attrs);
     }
 
     private void updateLastPackageId(DatabaseManager databaseManager,
@@ -137,9 +144,8 @@ public class IndexPackagesTask implements Job {
         }
     }
 
-    private List<RhnPackage> getPackages(DatabaseManager databaseManager)
+    private long getLastPackageId(DatabaseManager databaseManager)
             throws SQLException {
-        List<RhnPackage> retval = null;
         Query<Long> query = databaseManager.getQuery("getLastPackageId");
         Long packageId = null;
         try {
@@ -148,16 +154,20 @@ public class IndexPackagesTask implements Job {
         finally {
             query.close();
         }
-        if (packageId == null) {
-            packageId = new Long(0);
-        }
-        Query<RhnPackage> pkgQuery = databaseManager.getQuery("listPackagesFromId");
+        return packageId == null ? 0 : packageId;
+    }
+
+    private List<RhnPackage> getPackages(DatabaseManager databaseManager, long afterId,
+            int limit) throws SQLException {
+        Query<RhnPackage> pkgQuery = databaseManager.getQuery("listPackagesPageFromId");
         try {
-            retval = pkgQuery.loadList(packageId);
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("id", afterId);
+            params.put("limit", limit);
+            return pkgQuery.loadList(params);
         }
         finally {
             pkgQuery.close();
         }
-        return retval;
     }
 }
@@ -133,6 +133,14 @@ public class IndexSystemsTask extends GenericIndexTask {
         return "getServerByIdOrDate";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isPaged() {
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      */
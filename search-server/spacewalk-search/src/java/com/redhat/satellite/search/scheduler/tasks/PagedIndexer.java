@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+
+package com.redhat.satellite.search.scheduler.tasks;
+
+import com.redhat.satellite.search.index.IndexWriterSession;
+import com.redhat.satellite.search.index.IndexingException;
+
+import org.apache.lucene.document.Document;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds records to an index page by page, with keyset pagination on their ids.
+ *
+ * The next page is fetched while the documents of the current one are built on a
+ * small pool of threads, documents are written to the index in record order. At
+ * most two pages are held in memory whatever the number of records.
+ *
+ * @param <T> type of the records
+ * @version $Rev$
+ */
+public class PagedIndexer<T> {
+
+    /**
+     * Loads a page of records.
+     * @param <T> type of the records
+     */
+    public interface PageLoader<T> {
+        /**
+         * @param afterId id of the last record of the previous page
+         * @param limit maximum number of records to return
+         * @return the records, ordered by id
+         * @throws SQLException if the query fails
+         */
+        List<T> load(long afterId, int limit) throws SQLException;
+    }
+
+    /**
+     * Builds the document of a record, called concurrently.
+     * @param <T> type of the records
+     */
+    public interface DocumentFactory<T> {
+        /**
+         * @param record the record
+         * @return the document
+         */
+        Document build(T record);
+    }
+
+    /**
+     * Extracts the id of a record.
+     * @param <T> type of the records
+     */
+    public interface IdExtractor<T> {
+        /**
+         * @param record the record
+         * @return the id
+         */
+        long getId(T record);
+    }
+
+    /**
+     * Records the progress of indexing.
+     */
+    public interface Checkpoint {
+        /**
+         * Called after each commit of the index.
+         * @param lastId id of the last record committed
+         * @throws SQLException if the progress cannot be recorded
+         */
+        void committed(long lastId) throws SQLException;
+    }
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final PageLoader<T> loader;
+    private final IdExtractor<T> ids;
+    private final DocumentFactory<T> factory;
+    private final int pageSize;
+    private final int threads;
+
+    /**
+     * Constructor
+     * @param loaderIn loads the pages of records
+     * @param idsIn extracts record ids
+     * @param factoryIn builds the documents
+     * @param pageSizeIn number of records per page
+     * @param threadsIn number of threads building documents
+     */
+    public PagedIndexer(PageLoader<T> loaderIn, IdExtractor<T> idsIn,
+            DocumentFactory<T> factoryIn, int pageSizeIn, int threadsIn) {
+        loader = loaderIn;
+        ids = idsIn;
+        factory = factoryIn;
+        pageSize = Math.max(1, pageSizeIn);
+        threads = Math.max(1, threadsIn);
+    }
+
+    /**
+     * Indexes all records after the given id.
+     * @param startId id after which records are loaded
+     * @param session session writing the documents
+     * @param uniqueField field of the documents which identifies them uniquely
+     * @param checkpoint notified after each commit
+     * @return the number of records indexed
+     * @throws SQLException if loading records or recording progress fails
+     * @throws IndexingException if building or writing documents fails
+     */
+    public int index(long startId, IndexWriterSession session, String uniqueField,
+            Checkpoint checkpoint) throws SQLException, IndexingException {
+        String prefix = "indexer-" + POOL_NUMBER.incrementAndGet();
+        ExecutorService fetcher = Executors.newSingleThreadExecutor(
+                daemonThreads(prefix + "-fetch"));
+        ExecutorService builders = Executors.newFixedThreadPool(threads,
+                daemonThreads(prefix + "-build"));
+        try {
+            int count = 0;
+            boolean uncommitted = false;
+            long lastId = startId;
+            List<T> page = loader.load(startId, pageSize);
+            while (!page.isEmpty()) {
+                // a short page is the last one
+                final long pageEnd = ids.getId(page.get(page.size() - 1));
+                Future<List<T>> next = null;
+                if (page.size() >= pageSize) {
+                    next = fetcher.submit(() -> loader.load(pageEnd, pageSize));
+                }
+
+                List<Future<Document>> docs = new ArrayList<Future<Document>>(page.size());
+                for (T record : page) {
+                    docs.add(builders.submit(() -> factory.build(record)));
+                }
+                for (int i = 0; i < page.size(); i++) {
+                    session.updateDocument(await(docs.get(i)), uniqueField);
+                    lastId = ids.getId(page.get(i));
+                    uncommitted = true;
+                    count++;
+                    if (session.isCommitDue()) {
+                        session.commit();
+                        checkpoint.committed(lastId);
+                        uncommitted = false;
+                    }
+                }
+                page = next == null ? Collections.<T>emptyList() : await(next);
+            }
+            if (uncommitted) {
+                session.commit();
+                checkpoint.committed(lastId);
+            }
+            return count;
+        }
+        finally {
+            fetcher.shutdownNow();
+            builders.shutdownNow();
+        }
+    }
+
+    private static <V> V await(Future<V> future) throws SQLException, IndexingException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexingException(e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IndexingException(e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + number.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
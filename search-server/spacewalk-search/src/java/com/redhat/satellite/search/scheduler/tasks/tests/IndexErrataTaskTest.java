@@ -22,6 +22,7 @@ import com.redhat.satellite.search.config.Configuration;
 import com.redhat.satellite.search.db.DatabaseManager;
 import com.redhat.satellite.search.db.WriteQuery;
 import com.redhat.satellite.search.index.IndexManager;
+import com.redhat.satellite.search.index.IndexWriterSession;
 import com.redhat.satellite.search.index.IndexingException;
 import com.redhat.satellite.search.scheduler.tasks.IndexErrataTask;
 import com.redhat.satellite.search.tests.BaseTestCase;
@@ -155,6 +156,26 @@ public class IndexErrataTaskTest extends BaseTestCase {
             log.info("idx[" + indexName + "] doc [" + doc.toString() + "]");
         }
 
+        @Override
+        public IndexWriterSession openWriterSession(final String indexName,
+                final String lang) {
+            return new IndexWriterSession(null, null, indexName, 1, null) {
+                @Override
+                public void updateDocument(Document doc, String uniqueField)
+                    throws IndexingException {
+                    addToIndex(indexName, doc, lang);
+                }
+
+                @Override
+                public void commit() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
         /**
          * @param config
          */
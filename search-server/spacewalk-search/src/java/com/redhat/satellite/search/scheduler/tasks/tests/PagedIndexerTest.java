@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019 SUSE LLC
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+
+package com.redhat.satellite.search.scheduler.tasks.tests;
+
+import com.redhat.satellite.search.index.IndexWriterSession;
+import com.redhat.satellite.search.scheduler.tasks.PagedIndexer;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * PagedIndexerTest
+ * @version $Rev$
+ */
+public class PagedIndexerTest extends TestCase {
+
+    private List<String> written = new ArrayList<String>();
+    private List<Long> checkpoints = new ArrayList<Long>();
+    private List<Long> pageStarts = new ArrayList<Long>();
+
+    private IndexWriterSession session = new IndexWriterSession(null, null, "test", 4, null) {
+        private int uncommitted;
+
+        @Override
+        public void updateDocument(Document doc, String uniqueField) {
+            written.add(doc.get(uniqueField));
+            uncommitted++;
+        }
+
+        @Override
+        public boolean isCommitDue() {
+            return uncommitted >= 4;
+        }
+
+        @Override
+        public void commit() {
+            uncommitted = 0;
+        }
+    };
+
+    private PagedIndexer<Long> newIndexer(final long lastId, int pageSize) {
+        return new PagedIndexer<Long>(
+                (afterId, limit) -> {
+                    pageStarts.add(afterId);
+                    List<Long> page = new ArrayList<Long>();
+                    for (long id = afterId + 1; id <= lastId && page.size() < limit; id++) {
+                        page.add(id);
+                    }
+                    return page;
+                },
+                id -> id,
+                id -> {
+                    Document doc = new Document();
+                    doc.add(new Field("id", id.toString(), Field.Store.YES,
+                            Field.Index.UN_TOKENIZED));
+                    return doc;
+                },
+                pageSize, 3);
+    }
+
+    public void testIndexesInOrder() throws Exception {
+        int count = newIndexer(10, 3).index(0, session, "id", checkpoints::add);
+
+        assertEquals(10, count);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(String.valueOf(i + 1), written.get(i));
+        }
+        // keyset pagination, the short page is the last one
+        assertEquals(4, pageStarts.size());
+        assertEquals(Long.valueOf(9), pageStarts.get(3));
+        // progress is recorded at each commit and at the end
+        assertEquals(3, checkpoints.size());
+        assertEquals(Long.valueOf(4), checkpoints.get(0));
+        assertEquals(Long.valueOf(8), checkpoints.get(1));
+        assertEquals(Long.valueOf(10), checkpoints.get(2));
+    }
+
+    public void testStartsAfterBookmark() throws Exception {
+        int count = newIndexer(10, 100).index(8, session, "id", checkpoints::add);
+
+        assertEquals(2, count);
+        assertEquals(1, pageStarts.size());
+        assertEquals("9", written.get(0));
+        assertEquals(Long.valueOf(10), checkpoints.get(0));
+    }
+
+    public void testLoadErrorIsRethrown() throws Exception {
+        PagedIndexer<Long> indexer = new PagedIndexer<Long>(
+                (afterId, limit) -> {
+                    if (afterId > 0) {
+                        throw new SQLException("connection lost");
+                    }
+                    List<Long> page = new ArrayList<Long>();
+                    page.add(1L);
+                    return page;
+                },
+                id -> id, id -> new Document(), 1, 1);
+        try {
+            indexer.index(0, session, "id", checkpoints::add);
+            fail("SQLException expected");
+        }
+        catch (SQLException e) {
+            assertEquals("connection lost", e.getMessage());
+        }
+    }
+}